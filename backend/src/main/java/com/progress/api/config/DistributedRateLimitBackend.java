@@ -0,0 +1,150 @@
+package com.progress.api.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Rate-limit tier whose buckets live in a shared Bucket4j {@link ProxyManager}, so the
+ * configured limit holds across every replica instead of per pod.
+ * <p>
+ * A key's first request takes exactly its cost from the shared store. Only when the
+ * same key comes back within the lease TTL of its last round-trip does the replica
+ * reserve a small lease of tokens and serve the following requests from it until it
+ * runs out or expires. Unused lease tokens are forfeited, so the shared limit is never
+ * exceeded, and a client making occasional requests never pays for a lease it does
+ * not use. When the shared store is unreachable the tier falls back to local limiting
+ * for a cooldown period before trying the remote store again.
+ */
+@Slf4j
+public class DistributedRateLimitBackend implements RateLimitBackend {
+
+    private final String keyPrefix;
+    private final BucketConfiguration configuration;
+    private final Supplier<ProxyManager<String>> proxyManager;
+    private final RateLimitBackend fallback;
+    private final long leaseTokens;
+    private final long leaseTtlMs;
+    private final long fallbackCooldownMs;
+
+    private final Map<String, Lease> leases;
+
+    private volatile long remoteUnavailableUntil;
+
+    public DistributedRateLimitBackend(
+            String keyPrefix,
+            RateLimitProperties.Tier tier,
+            Supplier<ProxyManager<String>> proxyManager,
+            RateLimitBackend fallback,
+            RateLimitProperties.Distributed settings) {
+        this.keyPrefix = keyPrefix;
+        this.configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(tier.getRequests())
+                        .refillIntervally(tier.getRequests(), Duration.ofMinutes(tier.getWindowMinutes()))
+                        .build())
+                .build();
+        this.proxyManager = proxyManager;
+        this.fallback = fallback;
+        this.leaseTokens = Math.max(1, settings.getLeaseTokens());
+        this.leaseTtlMs = settings.getLeaseTtlMs();
+        this.fallbackCooldownMs = settings.getFallbackCooldownMs();
+
+        int maxLeases = settings.getMaxLeases();
+        this.leases = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Lease> eldest) {
+                return size() > maxLeases;
+            }
+        };
+    }
+
+    @Override
+    public long tryConsume(String key, long cost, long nowMs) {
+        if (nowMs < remoteUnavailableUntil) {
+            return fallback.tryConsume(key, cost, nowMs);
+        }
+
+        boolean busy;
+        synchronized (leases) {
+            Lease lease = leases.get(key);
+            if (lease != null && lease.expiresAt > nowMs && lease.tokens >= cost) {
+                lease.tokens -= cost;
+                return lease.remoteRemaining + lease.tokens;
+            }
+            busy = lease != null && lease.expiresAt > nowMs;
+        }
+
+        try {
+            return reserve(key, cost, busy, nowMs);
+        } catch (RuntimeException e) {
+            remoteUnavailableUntil = nowMs + fallbackCooldownMs;
+            log.warn("Shared rate-limit store unavailable, limiting locally for {} ms: {}",
+                    fallbackCooldownMs, e.getMessage());
+            return fallback.tryConsume(key, cost, nowMs);
+        }
+    }
+
+    /**
+     * Take {@code cost} from the shared bucket, plus a lease when {@code busy}: the key
+     * already went to the shared store within the lease TTL.
+     */
+    private long reserve(String key, long cost, boolean busy, long nowMs) {
+        BucketProxy bucket = proxyManager.get().builder().build(keyPrefix + key, () -> configuration);
+
+        long batch = busy ? Math.max(cost, leaseTokens) : cost;
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(batch);
+        if (!probe.isConsumed() && batch > cost) {
+            // Not enough left for a full lease; take exactly what this request needs
+            batch = cost;
+            probe = bucket.tryConsumeAndReturnRemaining(cost);
+        }
+        if (!probe.isConsumed()) {
+            return -1;
+        }
+
+        long leftover = batch - cost;
+        if (leaseTtlMs > 0) {
+            // Kept even when empty: it marks the key as busy until it expires
+            synchronized (leases) {
+                leases.put(key, new Lease(leftover, probe.getRemainingTokens(), nowMs + leaseTtlMs));
+            }
+        }
+        return probe.getRemainingTokens() + leftover;
+    }
+
+    @Override
+    public int evictIdle(long nowMs) {
+        int removed;
+        synchronized (leases) {
+            int before = leases.size();
+            leases.values().removeIf(lease -> lease.expiresAt <= nowMs);
+            removed = before - leases.size();
+        }
+        return removed + fallback.evictIdle(nowMs);
+    }
+
+    boolean isRemoteAvailable(long nowMs) {
+        return nowMs >= remoteUnavailableUntil;
+    }
+
+    private static final class Lease {
+        private long tokens;
+        private final long remoteRemaining;
+        private final long expiresAt;
+
+        private Lease(long tokens, long remoteRemaining, long expiresAt) {
+            this.tokens = tokens;
+            this.remoteRemaining = remoteRemaining;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.progress.api.config;
+
+/**
+ * Storage for one rate-limit tier. Implementations decide where bucket state lives:
+ * {@link RateLimitBucketStore} keeps it in this JVM, {@link DistributedRateLimitBackend}
+ * shares it across replicas.
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Try to take {@code cost} tokens from the bucket of {@code key}.
+     *
+     * @return tokens remaining after the consumption, or {@code -1} if rejected
+     */
+    long tryConsume(String key, long cost, long nowMs);
+
+    /**
+     * Drop state that is no longer needed.
+     *
+     * @return number of entries removed
+     */
+    int evictIdle(long nowMs);
+}
@@ -0,0 +1,220 @@
+package com.progress.api.config;
+
+/**
+ * Fixed-size store of rate-limit buckets keyed by a 64-bit hash of the client key.
+ * <p>
+ * Buckets live in a single {@code long[]} per segment (key hash, window start, remaining
+ * tokens, last access) instead of one {@code Bucket} object per client, so memory is
+ * fixed at construction time no matter how many distinct keys are seen. Each key may
+ * live in one of {@value #MAX_PROBE} consecutive slots. When those are all taken, or the
+ * segment has reached its share of {@code maxEntries}, the least recently used bucket
+ * of those slots is overwritten; if they are all free, the segment's least recently
+ * used bucket is dropped to make room. Every key that is served is tracked.
+ * <p>
+ * Refill follows the same interval semantics as {@code Refill.intervally}: the full
+ * capacity is restored at every window boundary since the bucket was created.
+ */
+public class RateLimitBucketStore implements RateLimitBackend {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MAX_PROBE = 16;
+
+    private static final int STRIDE = 4;
+    private static final int KEY = 0;
+    private static final int WINDOW_START = 1;
+    private static final int TOKENS = 2;
+    private static final int LAST_ACCESS = 3;
+
+    private final long capacity;
+    private final long windowMs;
+    private final long idleMs;
+    private final int maxEntries;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public RateLimitBucketStore(long capacity, long windowMs, long idleMs, int maxEntries) {
+        if (capacity <= 0 || windowMs <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("capacity, window and maxEntries must be positive");
+        }
+        this.capacity = capacity;
+        this.windowMs = windowMs;
+        this.idleMs = idleMs;
+        this.maxEntries = maxEntries;
+
+        // Spread maxEntries exactly over the segments so the cap holds to the entry
+        int baseLimit = maxEntries / SEGMENTS;
+        int remainder = maxEntries % SEGMENTS;
+        int slots = Integer.highestOneBit(Math.max(MAX_PROBE, (baseLimit + 1) * 2 - 1));
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(slots, baseLimit + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Try to take {@code cost} tokens from the bucket of {@code key}.
+     *
+     * @return tokens remaining after the consumption, or {@code -1} if the bucket does
+     *         not hold enough tokens
+     */
+    @Override
+    public long tryConsume(String key, long cost, long nowMs) {
+        long hash = hash(key);
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))].tryConsume(hash, cost, nowMs);
+    }
+
+    /**
+     * Remove buckets not touched for longer than the idle timeout. A bucket idle for a
+     * full window has refilled completely, so dropping it is indistinguishable from
+     * keeping it.
+     *
+     * @return number of buckets removed
+     */
+    @Override
+    public int evictIdle(long nowMs) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            removed += segment.evictIdle(nowMs - idleMs);
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Memory reserved for bucket state, in bytes.
+     */
+    public long footprintBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += (long) segment.state.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    static long hash(String key) {
+        // FNV-1a followed by the murmur3 finalizer to spread the bits
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private final class Segment {
+        private final long[] state;
+        private final int mask;
+        private final int limit;
+        private int size;
+
+        private Segment(int slots, int limit) {
+            this.state = new long[slots * STRIDE];
+            this.mask = slots - 1;
+            this.limit = limit;
+        }
+
+        private synchronized long tryConsume(long hash, long cost, long now) {
+            int start = (int) hash & mask;
+            int free = -1;
+            int oldest = -1;
+            long oldestAccess = Long.MAX_VALUE;
+
+            for (int probe = 0; probe < MAX_PROBE && probe <= mask; probe++) {
+                int base = ((start + probe) & mask) * STRIDE;
+                long slotKey = state[base + KEY];
+                if (slotKey == hash) {
+                    return consume(base, cost, now);
+                }
+                if (slotKey == 0) {
+                    if (free < 0) {
+                        free = base;
+                    }
+                } else if (state[base + LAST_ACCESS] < oldestAccess) {
+                    oldestAccess = state[base + LAST_ACCESS];
+                    oldest = base;
+                }
+            }
+
+            int base;
+            if (free >= 0 && size < limit) {
+                base = free;
+                size++;
+            } else if (oldest >= 0) {
+                base = oldest;
+            } else {
+                // Segment is full but this probe window is empty: make room elsewhere in the segment
+                evictLeastRecentlyUsed();
+                base = free;
+            }
+            state[base + KEY] = hash;
+            state[base + WINDOW_START] = now;
+            state[base + TOKENS] = capacity;
+            return consume(base, cost, now);
+        }
+
+        private long consume(int base, long cost, long now) {
+            long elapsed = now - state[base + WINDOW_START];
+            if (elapsed >= windowMs) {
+                state[base + WINDOW_START] += (elapsed / windowMs) * windowMs;
+                state[base + TOKENS] = capacity;
+            }
+            state[base + LAST_ACCESS] = now;
+
+            long tokens = state[base + TOKENS];
+            if (tokens < cost) {
+                return -1;
+            }
+            state[base + TOKENS] = tokens - cost;
+            return tokens - cost;
+        }
+
+        private void evictLeastRecentlyUsed() {
+            int oldest = -1;
+            long oldestAccess = Long.MAX_VALUE;
+            for (int base = 0; base < state.length; base += STRIDE) {
+                if (state[base + KEY] != 0 && state[base + LAST_ACCESS] < oldestAccess) {
+                    oldestAccess = state[base + LAST_ACCESS];
+                    oldest = base;
+                }
+            }
+            if (oldest >= 0) {
+                state[oldest + KEY] = 0;
+            }
+        }
+
+        private synchronized int evictIdle(long threshold) {
+            int removed = 0;
+            for (int base = 0; base < state.length; base += STRIDE) {
+                if (state[base + KEY] != 0 && state[base + LAST_ACCESS] < threshold) {
+                    state[base + KEY] = 0;
+                    removed++;
+                }
+            }
+            size -= removed;
+            return removed;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+    }
+}
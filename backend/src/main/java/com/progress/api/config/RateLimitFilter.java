@@ -1,44 +1,123 @@
 package com.progress.api.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import io.lettuce.core.RedisClient;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 
+/**
+ * Cost-weighted rate limiting. Runs after {@code JwtAuthenticationFilter} so that
+ * authenticated requests are charged to the student's uuid; only anonymous requests
+ * are charged to the client IP. Login requests cost 1 from a separate per-IP tier, so
+ * students sharing a NAT are not locked out of logging in by each other's browsing.
+ */
+@Slf4j
 @Component
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final RateLimitProperties properties;
+    private final List<RateLimitProperties.RouteCost> routes;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
-    @Value("${rate-limit.requests}")
-    private int maxRequests;
+    private final RateLimitBucketStore anonymousStore;
+    private final RateLimitBucketStore userStore;
+    private final RateLimitBucketStore loginStore;
+    private final RateLimitBackend anonymousBuckets;
+    private final RateLimitBackend userBuckets;
+    private final RateLimitBackend loginBuckets;
+    private final RedisProxyManagerSupplier redis;
 
-    @Value("${rate-limit.window-minutes}")
-    private int windowMinutes;
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.routes = List.copyOf(properties.getRoutes());
+        this.anonymousStore = createStore(properties.getAnonymous());
+        this.userStore = createStore(properties.getAuthenticated());
+        this.loginStore = createStore(properties.getLogin().toTier());
+
+        if ("redis".equalsIgnoreCase(properties.getBackend())) {
+            RateLimitProperties.Distributed settings = properties.getDistributed();
+            long maxWindow = Math.max(properties.getLogin().getWindowMinutes(),
+                    Math.max(properties.getWindowMinutes(), properties.getAuthenticated().getWindowMinutes()));
+            this.redis = new RedisProxyManagerSupplier(
+                    RedisClient.create(settings.getRedisUri()), Duration.ofMinutes(maxWindow),
+                    Duration.ofMillis(settings.getTimeoutMs()));
+            redis.connect();
+            this.anonymousBuckets = new DistributedRateLimitBackend(
+                    "rl:anon:", properties.getAnonymous(), redis, anonymousStore, settings);
+            this.userBuckets = new DistributedRateLimitBackend(
+                    "rl:user:", properties.getAuthenticated(), redis, userStore, settings);
+            this.loginBuckets = new DistributedRateLimitBackend(
+                    "rl:login:", properties.getLogin().toTier(), redis, loginStore, settings);
+            log.info("Rate limits shared through Redis; local buckets are used only while Redis is unreachable");
+        } else {
+            this.redis = null;
+            this.anonymousBuckets = anonymousStore;
+            this.userBuckets = userStore;
+            this.loginBuckets = loginStore;
+        }
+
+        for (RateLimitProperties.RouteCost route : routes) {
+            if (route.getCost() > properties.getRequests() || route.getCost() > properties.getAuthenticated().getRequests()) {
+                log.warn("Route {} costs {} tokens, more than a whole bucket holds; it will always be rejected",
+                        route.getPattern(), route.getCost());
+            }
+        }
+        log.info("Rate limit bucket stores sized for {} clients per tier ({} KB)",
+                properties.getMaxEntries(),
+                (anonymousStore.footprintBytes() + userStore.footprintBytes() + loginStore.footprintBytes()) / 1024);
+    }
+
+    private RateLimitBucketStore createStore(RateLimitProperties.Tier tier) {
+        int idleMinutes = properties.getIdleMinutes() != null ? properties.getIdleMinutes() : tier.getWindowMinutes();
+        return new RateLimitBucketStore(
+                tier.getRequests(),
+                Duration.ofMinutes(tier.getWindowMinutes()).toMillis(),
+                Duration.ofMinutes(idleMinutes).toMillis(),
+                properties.getMaxEntries());
+    }
 
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
-        String clientIp = getClientIP(request);
-        Bucket bucket = buckets.computeIfAbsent(clientIp, this::createNewBucket);
+        String path = request.getRequestURI();
+        String uuid = getAuthenticatedUuid();
 
-        if (bucket.tryConsume(1)) {
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(bucket.getAvailableTokens()));
+        long remaining;
+        int windowMinutes;
+        if (pathMatcher.match(properties.getLogin().getPattern(), path)) {
+            remaining = loginBuckets.tryConsume(request.getRemoteAddr(), 1, System.currentTimeMillis());
+            windowMinutes = properties.getLogin().getWindowMinutes();
+        } else if (uuid != null) {
+            remaining = userBuckets.tryConsume(uuid, resolveCost(path), System.currentTimeMillis());
+            windowMinutes = properties.getAuthenticated().getWindowMinutes();
+        } else {
+            remaining = anonymousBuckets.tryConsume(
+                    request.getRemoteAddr(), resolveCost(path), System.currentTimeMillis());
+            windowMinutes = properties.getWindowMinutes();
+        }
+
+        if (remaining >= 0) {
+            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(remaining));
             filterChain.doFilter(request, response);
         } else {
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
@@ -48,18 +127,41 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
     }
 
-    private Bucket createNewBucket(String key) {
-        Bandwidth limit = Bandwidth.classic(maxRequests,
-                Refill.intervally(maxRequests, Duration.ofMinutes(windowMinutes)));
-        return Bucket.builder().addLimit(limit).build();
+    int resolveCost(String path) {
+        for (RateLimitProperties.RouteCost route : routes) {
+            if (pathMatcher.match(route.getPattern(), path)) {
+                return route.getCost();
+            }
+        }
+        return 1;
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void evictIdleBuckets() {
+        long now = System.currentTimeMillis();
+        int removed = anonymousBuckets.evictIdle(now) + userBuckets.evictIdle(now) + loginBuckets.evictIdle(now);
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate limit buckets. Remaining: {}",
+                    removed, anonymousStore.size() + userStore.size() + loginStore.size());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (redis != null) {
+            redis.close();
+        }
     }
 
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader != null && !xfHeader.isEmpty()) {
-            return xfHeader.split(",")[0].trim();
+    private String getAuthenticatedUuid() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null
+                || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof String uuid)) {
+            return null;
         }
-        return request.getRemoteAddr();
+        return uuid;
     }
 
     @Override
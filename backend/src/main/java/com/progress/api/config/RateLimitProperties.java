@@ -0,0 +1,92 @@
+package com.progress.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting tiers and per-route costs bound from {@code rate-limit.*}.
+ * <p>
+ * The top-level {@code requests}/{@code window-minutes} pair is the anonymous tier,
+ * keyed by client IP. Authenticated requests are keyed by student uuid and draw from
+ * the {@code authenticated} tier, so students behind one campus NAT do not share a
+ * bucket. Each request costs the weight of the first matching route, or 1. Login
+ * requests are counted per IP in their own {@code login} tier instead, sized for the
+ * many students a campus or mobile-carrier NAT puts behind one address.
+ * <p>
+ * With {@code backend: redis} the buckets are shared by every replica through Redis;
+ * the default {@code local} keeps them in this JVM.
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private int requests = 100;
+
+    private int windowMinutes = 15;
+
+    private int maxEntries = 100000;
+
+    private Integer idleMinutes;
+
+    private Tier authenticated = new Tier();
+
+    private List<RouteCost> routes = new ArrayList<>();
+
+    private Login login = new Login();
+
+    /** {@code local} (per replica) or {@code redis} (shared by all replicas). */
+    private String backend = "local";
+
+    private Distributed distributed = new Distributed();
+
+    public Tier getAnonymous() {
+        Tier anonymous = new Tier();
+        anonymous.setRequests(requests);
+        anonymous.setWindowMinutes(windowMinutes);
+        return anonymous;
+    }
+
+    @Data
+    public static class Tier {
+        private int requests = 300;
+        private int windowMinutes = 15;
+    }
+
+    @Data
+    public static class Login {
+        /** Ant-style path pattern of the login route. */
+        private String pattern = "/api/auth/login";
+        private int requests = 1000;
+        private int windowMinutes = 15;
+
+        public Tier toTier() {
+            Tier tier = new Tier();
+            tier.setRequests(requests);
+            tier.setWindowMinutes(windowMinutes);
+            return tier;
+        }
+    }
+
+    @Data
+    public static class Distributed {
+        private String redisUri = "redis://localhost:6379";
+        /** Tokens reserved from Redis per round-trip and served locally. */
+        private int leaseTokens = 10;
+        private long leaseTtlMs = 2000;
+        private int maxLeases = 10000;
+        /** Connect and command timeout; a slower Redis counts as unavailable. */
+        private long timeoutMs = 300;
+        /** How long to limit locally after Redis fails before trying it again. */
+        private long fallbackCooldownMs = 30000;
+    }
+
+    @Data
+    public static class RouteCost {
+        /** Ant-style path pattern, e.g. {@code /api/recommendations/**}. */
+        private String pattern;
+        private int cost = 1;
+    }
+}
@@ -0,0 +1,106 @@
+package com.progress.api.config;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Hands out the shared Bucket4j proxy manager once a Redis connection exists.
+ * <p>
+ * Connecting happens on a background thread, started by {@link #connect()} at startup
+ * and again by {@link #get()} while there is no connection; request threads never wait
+ * for it. Until it succeeds {@code get()} fails immediately and the caller limits
+ * locally. Connect and command timeouts are short so a Redis outage surfaces as a
+ * quick failure instead of a stalled request. The application starts even when Redis
+ * is down.
+ */
+@Slf4j
+public class RedisProxyManagerSupplier implements Supplier<ProxyManager<String>>, AutoCloseable {
+
+    private final RedisClient client;
+    private final Duration keyTtl;
+    private final AtomicBoolean connecting = new AtomicBoolean();
+
+    private StatefulRedisConnection<String, byte[]> connection;
+    private volatile ProxyManager<String> proxyManager;
+    private boolean closed;
+
+    public RedisProxyManagerSupplier(RedisClient client, Duration keyTtl, Duration timeout) {
+        this.client = client;
+        this.keyTtl = keyTtl;
+        client.setOptions(ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(timeout).build())
+                .timeoutOptions(TimeoutOptions.enabled(timeout))
+                .build());
+    }
+
+    @Override
+    public ProxyManager<String> get() {
+        ProxyManager<String> current = proxyManager;
+        if (current != null) {
+            return current;
+        }
+        connect();
+        throw new IllegalStateException("Not connected to Redis yet");
+    }
+
+    /**
+     * Start connecting in the background unless connected or already connecting.
+     */
+    public void connect() {
+        if (proxyManager != null || !connecting.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::openConnection, "rate-limit-redis-connect");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void openConnection() {
+        try {
+            StatefulRedisConnection<String, byte[]> opened =
+                    client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+            synchronized (this) {
+                if (closed) {
+                    opened.close();
+                    return;
+                }
+                connection = opened;
+                proxyManager = LettuceBasedProxyManager.builderFor(opened)
+                        .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(keyTtl))
+                        .build();
+            }
+            log.info("Connected to Redis for shared rate limits");
+        } catch (RuntimeException e) {
+            log.warn("Could not connect to Redis for shared rate limits: {}", e.getMessage());
+        } finally {
+            connecting.set(false);
+        }
+    }
+
+    boolean isConnected() {
+        return proxyManager != null;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (connection != null) {
+            connection.close();
+        }
+        client.shutdown();
+    }
+}
@@ -6,6 +6,7 @@ import com.progress.api.dto.LogoutResponse;
 import com.progress.api.exception.ApiException;
 import com.progress.api.security.JwtTokenProvider;
 import com.progress.api.service.AuthService;
+import com.progress.api.service.RefreshTokenService;
 import com.progress.api.service.TokenBlacklistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -34,6 +35,7 @@ import java.util.Arrays;
 public class AuthController {
 
     private final AuthService authService;
+    private final RefreshTokenService refreshTokenService;
     private final TokenBlacklistService tokenBlacklistService;
     private final JwtTokenProvider jwtTokenProvider;
 
@@ -65,44 +67,26 @@ public class AuthController {
     public ResponseEntity<LoginResponse> refreshToken(
             HttpServletRequest request,
             HttpServletResponse response) {
-        try {
-            String refreshToken = extractRefreshTokenFromCookie(request);
-
-            if (refreshToken == null) {
-                throw new ApiException("No refresh token provided", HttpStatus.UNAUTHORIZED);
-            }
-
-            if (!jwtTokenProvider.isTokenValid(refreshToken)) {
-                clearRefreshTokenCookie(response);
-                throw new ApiException("Invalid or expired refresh token", HttpStatus.UNAUTHORIZED);
-            }
-
-            if (tokenBlacklistService.isBlacklisted(refreshToken)) {
-                clearRefreshTokenCookie(response);
-                throw new ApiException("Refresh token has been revoked", HttpStatus.UNAUTHORIZED);
-            }
-
-            String uuid = jwtTokenProvider.extractUuid(refreshToken);
-            String externalToken = jwtTokenProvider.extractExternalToken(refreshToken);
-
-            String newAccessToken = jwtTokenProvider.generateToken(uuid, externalToken);
-            String newRefreshToken = jwtTokenProvider.generateRefreshToken(uuid, externalToken);
+        String refreshToken = extractRefreshTokenFromCookie(request);
 
-            long oldExpiration = jwtTokenProvider.extractExpiration(refreshToken);
-            tokenBlacklistService.blacklistToken(refreshToken, oldExpiration);
+        if (refreshToken == null) {
+            throw new ApiException("No refresh token provided", HttpStatus.UNAUTHORIZED);
+        }
 
-            setRefreshTokenCookie(response, newRefreshToken);
+        try {
+            LoginResponse refreshed = refreshTokenService.refresh(refreshToken);
 
-            log.debug("Token refreshed successfully for uuid: {}", uuid);
+            setRefreshTokenCookie(response, refreshed.getRefreshToken());
 
             return ResponseEntity.ok(LoginResponse.builder()
-                    .token(newAccessToken)
-                    .uuid(uuid)
-                    .message("Token refreshed successfully")
+                    .token(refreshed.getToken())
+                    .uuid(refreshed.getUuid())
+                    .message(refreshed.getMessage())
                     .refreshToken(null)
                     .build());
 
         } catch (ApiException e) {
+            clearRefreshTokenCookie(response);
             throw e;
         } catch (Exception e) {
             log.error("Error refreshing token", e);
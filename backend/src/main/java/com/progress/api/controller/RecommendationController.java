@@ -1,7 +1,9 @@
 package com.progress.api.controller;
 
+import com.progress.api.dto.RecommendationJobResponse;
 import com.progress.api.dto.RecommendationRequest;
 import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.service.RecommendationJobService;
 import com.progress.api.service.RecommendationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,9 +13,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/recommendations")
@@ -23,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 public class RecommendationController {
 
         private final RecommendationService recommendationService;
+        private final RecommendationJobService recommendationJobService;
 
         @PostMapping("/suggest")
         @Operation(summary = "Get AI recommendations", description = """
@@ -54,4 +60,64 @@ public class RecommendationController {
 
                 return ResponseEntity.ok(response);
         }
+
+        @PostMapping("/jobs")
+        @Operation(summary = "Start a recommendation job", description = """
+                        Queues the same analysis as /suggest and returns a job id immediately.
+                        Poll GET /jobs/{jobId} or subscribe to GET /jobs/{jobId}/events for the result.
+                        """)
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "202", description = "Job accepted", content = @Content(schema = @Schema(implementation = RecommendationJobResponse.class))),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing token"),
+                        @ApiResponse(responseCode = "503", description = "Too many recommendation jobs queued")
+        })
+        public ResponseEntity<RecommendationJobResponse> submitJob(
+                        Authentication authentication,
+                        @RequestBody(required = false) RecommendationRequest request) {
+                String uuid = (String) authentication.getPrincipal();
+                String externalToken = (String) authentication.getCredentials();
+
+                RecommendationJobResponse job = recommendationJobService.submit(uuid, externalToken, request);
+
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        }
+
+        @GetMapping("/jobs/{jobId}")
+        @Operation(summary = "Get a recommendation job", description = "Returns the job status, and the recommendations once completed")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Job found", content = @Content(schema = @Schema(implementation = RecommendationJobResponse.class))),
+                        @ApiResponse(responseCode = "404", description = "Unknown or expired job")
+        })
+        public ResponseEntity<RecommendationJobResponse> getJob(
+                        Authentication authentication,
+                        @PathVariable String jobId) {
+                String uuid = (String) authentication.getPrincipal();
+                return ResponseEntity.ok(recommendationJobService.getJob(uuid, jobId));
+        }
+
+        @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        @Operation(summary = "Stream a recommendation job", description = """
+                        Server-sent events: a 'status' event with the current state, another when the job starts,
+                        and a final 'result' event carrying the recommendations or the error.
+                        """)
+        public SseEmitter streamJob(
+                        Authentication authentication,
+                        @PathVariable String jobId) {
+                String uuid = (String) authentication.getPrincipal();
+                return recommendationJobService.subscribe(uuid, jobId);
+        }
+
+        @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        @Operation(summary = "Stream AI recommendations", description = """
+                        Same analysis as /suggest, delivered as server-sent events while the model writes it:
+                        'currentStatus' once the student's data is gathered, one 'recommendation' event per item
+                        as soon as it is complete, then 'result' with the full sorted response (or 'error').
+                        """)
+        public SseEmitter streamRecommendations(
+                        Authentication authentication,
+                        @RequestBody(required = false) RecommendationRequest request) {
+                String uuid = (String) authentication.getPrincipal();
+                String externalToken = (String) authentication.getCredentials();
+                return recommendationJobService.stream(uuid, externalToken, request);
+        }
 }
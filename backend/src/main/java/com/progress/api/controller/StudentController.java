@@ -1,6 +1,17 @@
 package com.progress.api.controller;
 
+import com.progress.api.dto.AcademicTimeline;
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.GradeSimulationRequest;
+import com.progress.api.dto.GradeSimulationResponse;
+import com.progress.api.dto.GradeSync;
+import com.progress.api.dto.LmdDecisionReport;
+import com.progress.api.dto.RequiredGradesResponse;
+import com.progress.api.service.FieldProjection;
+import com.progress.api.service.GradeService;
+import com.progress.api.service.GradeSyncService;
 import com.progress.api.service.StudentService;
+import com.progress.api.service.TimelineService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,6 +20,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,59 +34,141 @@ import org.springframework.web.bind.annotation.RestController;
 public class StudentController {
 
     private final StudentService studentService;
+    private final GradeService gradeService;
+    private final TimelineService timelineService;
+    private final GradeSyncService gradeSyncService;
+    private final FieldProjection fieldProjection;
 
     @GetMapping("/data")
     @Operation(summary = "Get student data", description = "Get authenticated student's academic data")
-    public ResponseEntity<Object> getStudentData(Authentication authentication) {
+    public ResponseEntity<Object> getStudentData(
+            Authentication authentication,
+            @RequestParam(required = false) String fields) {
         String uuid = (String) authentication.getPrincipal();
         String externalToken = (String) authentication.getCredentials();
 
         Object data = studentService.getStudentData(uuid, externalToken);
-        return ResponseEntity.ok(data);
+        return ResponseEntity.ok(fieldProjection.project(data, fields));
     }
 
     @GetMapping("/exams/{id}")
     @Operation(summary = "Get exam data", description = "Get exam results for a specific academic period")
     public ResponseEntity<Object> getExamData(
             Authentication authentication,
-            @PathVariable String id) {
+            @PathVariable String id,
+            @RequestParam(required = false) String fields) {
         String uuid = (String) authentication.getPrincipal();
         String externalToken = (String) authentication.getCredentials();
 
         Object data = studentService.getExamData(uuid, id, externalToken);
-        return ResponseEntity.ok(data);
+        return ResponseEntity.ok(fieldProjection.project(data, fields));
     }
 
     @GetMapping("/info")
     @Operation(summary = "Get personal info", description = "Get student's personal information")
-    public ResponseEntity<Object> getStudentInfo(Authentication authentication) {
+    public ResponseEntity<Object> getStudentInfo(
+            Authentication authentication,
+            @RequestParam(required = false) String fields) {
         String uuid = (String) authentication.getPrincipal();
         String externalToken = (String) authentication.getCredentials();
 
         Object data = studentService.getStudentInfo(uuid, externalToken);
-        return ResponseEntity.ok(data);
+        return ResponseEntity.ok(fieldProjection.project(data, fields));
     }
 
     @GetMapping("/cc-grades/{cardId}")
     @Operation(summary = "Get CC grades", description = "Get continuous assessment (CC/TD/TP) grades for a student card")
     public ResponseEntity<Object> getCCGrades(
             Authentication authentication,
-            @PathVariable String cardId) {
+            @PathVariable String cardId,
+            @RequestParam(required = false) String fields) {
         String uuid = (String) authentication.getPrincipal();
         String externalToken = (String) authentication.getCredentials();
         Object data = studentService.getCCGradesSecure(uuid, cardId, externalToken);
-        return ResponseEntity.ok(data);
+        return ResponseEntity.ok(fieldProjection.project(data, fields));
     }
 
     @GetMapping("/exam-grades/{cardId}")
     @Operation(summary = "Get Exam grades", description = "Get exam grades for a student card")
     public ResponseEntity<Object> getExamGrades(
             Authentication authentication,
-            @PathVariable String cardId) {
+            @PathVariable String cardId,
+            @RequestParam(required = false) String fields) {
         String uuid = (String) authentication.getPrincipal();
         String externalToken = (String) authentication.getCredentials();
         Object data = studentService.getExamGradesSecure(uuid, cardId, externalToken);
-        return ResponseEntity.ok(data);
+        return ResponseEntity.ok(fieldProjection.project(data, fields));
+    }
+
+    @GetMapping("/grades/{cardId}")
+    @Operation(summary = "Get computed averages",
+            description = "Get module, unit, period and annual averages for a student card, computed from its exam, CC and coefficient data")
+    public ResponseEntity<GradeReport> getGrades(
+            Authentication authentication,
+            @PathVariable String cardId) {
+        String uuid = (String) authentication.getPrincipal();
+        String externalToken = (String) authentication.getCredentials();
+        return ResponseEntity.ok(gradeService.getGrades(uuid, cardId, externalToken));
+    }
+
+    @GetMapping("/grades/{cardId}/decision")
+    @Operation(summary = "Get LMD decision",
+            description = "Get the credits earned and the LMD validation decision for a student card, with unit, semester and annual compensation")
+    public ResponseEntity<LmdDecisionReport> getDecision(
+            Authentication authentication,
+            @PathVariable String cardId) {
+        String uuid = (String) authentication.getPrincipal();
+        String externalToken = (String) authentication.getCredentials();
+        return ResponseEntity.ok(gradeService.getDecision(uuid, cardId, externalToken));
+    }
+
+    @PostMapping("/grades/{cardId}/simulate")
+    @Operation(summary = "Simulate grades",
+            description = "Evaluate what-if scenarios: averages of the card's periods and year with hypothetical module averages")
+    public ResponseEntity<GradeSimulationResponse> simulateGrades(
+            Authentication authentication,
+            @PathVariable String cardId,
+            @RequestBody GradeSimulationRequest request) {
+        String uuid = (String) authentication.getPrincipal();
+        String externalToken = (String) authentication.getCredentials();
+        return ResponseEntity.ok(gradeService.simulate(uuid, cardId, externalToken, request));
+    }
+
+    @GetMapping("/grades/{cardId}/required")
+    @Operation(summary = "Get required grades",
+            description = "Get the minimum average, and exam grade, the card's pending modules need to reach the target average")
+    public ResponseEntity<RequiredGradesResponse> getRequiredGrades(
+            Authentication authentication,
+            @PathVariable String cardId,
+            @RequestParam(defaultValue = "10") double target) {
+        String uuid = (String) authentication.getPrincipal();
+        String externalToken = (String) authentication.getCredentials();
+        return ResponseEntity.ok(gradeService.requiredGrades(uuid, cardId, externalToken, target));
+    }
+
+    @GetMapping("/grades/{cardId}/sync")
+    @Operation(summary = "Sync grades",
+            description = "Get the card's exam and CC grades of the modules that changed since the version the client last received, or 204 when nothing changed")
+    public ResponseEntity<GradeSync> syncGrades(
+            Authentication authentication,
+            @PathVariable String cardId,
+            @RequestParam(required = false) String since) {
+        String uuid = (String) authentication.getPrincipal();
+        String externalToken = (String) authentication.getCredentials();
+        GradeSync sync = gradeSyncService.sync(uuid, cardId, externalToken, since);
+        if (sync == null) {
+            return ResponseEntity.noContent().eTag(since).build();
+        }
+        return ResponseEntity.ok().eTag(sync.getVersion()).body(sync);
+    }
+
+    @GetMapping("/timeline")
+    @Operation(summary = "Get academic timeline",
+            description = "Get every registration of the student with its annual average, credits and LMD decision, from the oldest year to the current one")
+    public ResponseEntity<AcademicTimeline> getTimeline(Authentication authentication) {
+        String uuid = (String) authentication.getPrincipal();
+        String externalToken = (String) authentication.getCredentials();
+        return ResponseEntity.ok(timelineService.getTimeline(uuid, externalToken));
     }
 
     @GetMapping("/photo")
@@ -90,9 +186,10 @@ public class StudentController {
     public ResponseEntity<Object> getSubjects(
             Authentication authentication,
             @PathVariable String offerId,
-            @PathVariable String levelId) {
+            @PathVariable String levelId,
+            @RequestParam(required = false) String fields) {
         String externalToken = (String) authentication.getCredentials();
         Object data = studentService.getSubjects(offerId, levelId, externalToken);
-        return ResponseEntity.ok(data);
+        return ResponseEntity.ok(fieldProjection.project(data, fields));
     }
 }
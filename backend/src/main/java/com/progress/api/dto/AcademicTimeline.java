@@ -0,0 +1,57 @@
+package com.progress.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AcademicTimeline {
+
+    /** Registrations from the oldest to the current one. */
+    private List<Year> years;
+
+    /** Credits earned over every level; a repeated level counts its best registration once. */
+    private double credits;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Year {
+        private String cardId;
+        private String academicYear;
+        private String level;
+        private String field;
+        private String speciality;
+        private String university;
+        private Double annualAverage;
+        /** ACQUIRED, COMPENSATED, NOT_ACQUIRED or PENDING; null when the year's grades could not be fetched. */
+        private String status;
+        /** ADMITTED, ADMITTED_WITH_DEBTS, ADJOURNED or PENDING; null when the year's grades could not be fetched. */
+        private String decision;
+        private double credits;
+        private double totalCredits;
+        private boolean complete;
+        /** True for the latest registration, which is recomputed on every request. */
+        private boolean current;
+        private List<Period> periods;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Period {
+        private String label;
+        private Double average;
+        private String status;
+        private double credits;
+        private double totalCredits;
+    }
+}
@@ -0,0 +1,68 @@
+package com.progress.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeReport {
+
+    private String cardId;
+
+    private String academicYear;
+
+    private String level;
+
+    private Double annualAverage;
+
+    private int totalModules;
+
+    private int validatedModules;
+
+    private List<Period> periods;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Period {
+        private String label;
+        private Double average;
+        private double coefficient;
+        private int validatedModules;
+        private List<Unit> units;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Unit {
+        private String label;
+        private Double average;
+        private double coefficient;
+        private List<Module> modules;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Module {
+        private int id;
+        private String label;
+        private Double mark;
+        private double coefficient;
+        private double credit;
+        private String source;
+        private boolean validated;
+        private Double ccMark;
+        private Double examWeight;
+    }
+}
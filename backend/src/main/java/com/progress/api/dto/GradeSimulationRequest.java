@@ -0,0 +1,30 @@
+package com.progress.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeSimulationRequest {
+
+    private List<Scenario> scenarios;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scenario {
+        private String name;
+        /** Hypothetical module averages, keyed by module id from the grade report. */
+        private Map<Integer, Double> marks;
+        /** Average assumed for every pending module the scenario does not mark. */
+        private Double pendingMark;
+    }
+}
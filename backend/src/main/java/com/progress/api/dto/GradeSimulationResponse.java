@@ -0,0 +1,32 @@
+package com.progress.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeSimulationResponse {
+
+    private String cardId;
+
+    private List<String> periods;
+
+    private List<ScenarioResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScenarioResult {
+        private String name;
+        private List<Double> periodAverages;
+        private Double annualAverage;
+        private boolean passed;
+    }
+}
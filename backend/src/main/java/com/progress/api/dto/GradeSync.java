@@ -0,0 +1,47 @@
+package com.progress.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeSync {
+
+    private String cardId;
+
+    /** Version of the card's grades after applying this response; send it back as {@code since}. */
+    private String version;
+
+    /** The version the changes are relative to; null when {@link #full}. */
+    private String since;
+
+    /** True when {@code since} was missing or unknown and every module is listed. */
+    private boolean full;
+
+    /** Modules added or changed since {@code since}, with all of their current grades. */
+    private List<Module> changed;
+
+    /** Keys of modules that no longer have any grade. */
+    private List<String> removed;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Module {
+        /** Normalized module name; the client's key for merging. */
+        private String key;
+        private String label;
+        /** The module's exam grades as PROGRES lists them, every field included. */
+        private List<JsonNode> examGrades;
+        /** The module's CC grades as PROGRES lists them, every field included. */
+        private List<JsonNode> ccGrades;
+    }
+}
@@ -0,0 +1,77 @@
+package com.progress.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LmdDecisionReport {
+
+    private String cardId;
+
+    private String academicYear;
+
+    private String level;
+
+    private Double annualAverage;
+
+    /** ACQUIRED, COMPENSATED, NOT_ACQUIRED or PENDING, for the year as a whole. */
+    private String status;
+
+    /** ADMITTED, ADMITTED_WITH_DEBTS, ADJOURNED, or PENDING while a module has no mark. */
+    private String decision;
+
+    private double credits;
+
+    private double totalCredits;
+
+    /** False while some modules are still waiting for their grades. */
+    private boolean complete;
+
+    private List<Period> periods;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Period {
+        private String label;
+        private Double average;
+        private String status;
+        private double credits;
+        private double totalCredits;
+        private List<Unit> units;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Unit {
+        private String label;
+        private Double average;
+        private String status;
+        private double credits;
+        private double totalCredits;
+        private List<Module> modules;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Module {
+        private int id;
+        private String label;
+        private Double mark;
+        private String status;
+        private double credits;
+        private double totalCredits;
+    }
+}
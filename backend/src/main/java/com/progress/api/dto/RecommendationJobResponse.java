@@ -0,0 +1,34 @@
+package com.progress.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecommendationJobResponse {
+
+    private String jobId;
+
+    private Status status;
+
+    private RecommendationResponse result;
+
+    private String error;
+
+    private Long submittedAt;
+
+    private Long completedAt;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,59 @@
+package com.progress.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequiredGradesResponse {
+
+    private String cardId;
+
+    private double target;
+
+    private Requirement annual;
+
+    private List<PeriodRequirement> periods;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Requirement {
+        /** Average needed on every pending module; 0 when the target is already secured. */
+        private Double requiredAverage;
+        private boolean secured;
+        private boolean reachable;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PeriodRequirement {
+        private String label;
+        private Double currentAverage;
+        private Requirement requirement;
+        private List<ModuleRequirement> modules;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ModuleRequirement {
+        private int id;
+        private String label;
+        private double coefficient;
+        private Double ccMark;
+        private Double requiredAverage;
+        private Double requiredExam;
+        private boolean reachable;
+    }
+}
@@ -0,0 +1,26 @@
+package com.progress.api.dto.progres;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One continuous-assessment grade (CC, TD or TP) of
+ * {@code /infos/controleContinue/dia/{cardId}/notesCC}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CCGrade(
+        String rattachementMcMcLibelleFr,
+        String apLibelleFr,
+        String llPeriode,
+        Double note,
+        boolean absent) {
+
+    /**
+     * The module the grade belongs to, or {@code null} when PROGRES gives no name.
+     */
+    public String module() {
+        if (rattachementMcMcLibelleFr != null && !rattachementMcMcLibelleFr.isBlank()) {
+            return rattachementMcMcLibelleFr;
+        }
+        return apLibelleFr == null || apLibelleFr.isBlank() ? null : apLibelleFr;
+    }
+}
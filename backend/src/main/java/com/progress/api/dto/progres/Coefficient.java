@@ -0,0 +1,16 @@
+package com.progress.api.dto.progres;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The weights of one module of a level, from
+ * {@code /infos/offreFormation/{offerId}/niveau/{levelId}/Coefficients}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Coefficient(
+        String mcLibelleFr,
+        String periodeLibelleFr,
+        Double coefficientExamen,
+        Double coefficientControleContinu,
+        Double coefficientControleIntermediaire) {
+}
@@ -0,0 +1,29 @@
+package com.progress.api.dto.progres;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One registration (card) of a student, as listed by {@code /infos/bac/{uuid}/dias}.
+ * Only the fields the server reads are kept.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Dia(
+        long id,
+        String anneeAcademiqueCode,
+        String llEtablissementLatin,
+        String llFiliere,
+        String llFiliereArabe,
+        String ofLlFiliere,
+        String ofLlFiliereArabe,
+        String ofLlSpecialite,
+        String ofLlSpecialiteArabe,
+        String refLibelleNiveau,
+        String refLibelleNiveauArabe,
+        Long ouvertureOffreFormationId,
+        Long niveauId,
+        Double lastMoyenne) {
+
+    public String cardId() {
+        return String.valueOf(id);
+    }
+}
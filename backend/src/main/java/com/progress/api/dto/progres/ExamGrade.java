@@ -0,0 +1,20 @@
+package com.progress.api.dto.progres;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One exam grade of {@code /infos/planningSession/dia/{cardId}/noteExamens}. A module
+ * may be named under any of the label fields depending on the session.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ExamGrade(
+        String mcLibelleFr,
+        String libelleMatiere,
+        String rattachementMcMcLibelleFr,
+        String mcLibelleAr,
+        String libelleMatiereArabe,
+        String rattachementMcMcLibelleAr,
+        Double noteExamen,
+        Double rattachementMcCoefficient,
+        Double rattachementMcCredit) {
+}
@@ -0,0 +1,52 @@
+package com.progress.api.dto.progres;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One period of {@code /infos/bac/{uuid}/dias/{id}/periode/bilans}: its average and
+ * credits, and the modules grouped by teaching unit.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PeriodBilan(
+        String periodeLibelleFr,
+        String niveauLibelleLongLt,
+        Double moyenne,
+        Double creditAcquis,
+        List<UnitBilan> bilanUes,
+        List<ModuleBilan> bilanMcDtos) {
+
+    public PeriodBilan {
+        bilanUes = bilanUes == null ? List.of() : bilanUes;
+        bilanMcDtos = bilanMcDtos == null ? List.of() : bilanMcDtos;
+    }
+
+    /**
+     * Every module of the period; older bilans list them in {@code bilanMcDtos}
+     * instead of under units.
+     */
+    public List<ModuleBilan> modules() {
+        List<ModuleBilan> modules = new ArrayList<>();
+        bilanUes.forEach(unit -> modules.addAll(unit.bilanMcs()));
+        return modules.isEmpty() ? bilanMcDtos : modules;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record UnitBilan(String ueLibelleFr, List<ModuleBilan> bilanMcs) {
+
+        public UnitBilan {
+            bilanMcs = bilanMcs == null ? List.of() : bilanMcs;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ModuleBilan(
+            String mcLibelleFr,
+            Double coefficient,
+            Double credit,
+            Double moyenneGenerale,
+            Double noteExamen) {
+    }
+}
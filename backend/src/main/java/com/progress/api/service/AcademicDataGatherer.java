@@ -0,0 +1,132 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.PeriodBilan;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fetches the grade data that goes into a recommendation prompt in parallel.
+ * <p>
+ * Once the dias are known, the exam bilans of the current and previous year and the
+ * current year's CC grades are requested at the same time, under one overall
+ * deadline. A source that fails or misses the deadline is left out of the result
+ * rather than holding up the prompt.
+ */
+@Slf4j
+@Service
+public class AcademicDataGatherer {
+
+    static final String CURRENT_EXAMS = "Exam results (current year)";
+    static final String PREVIOUS_EXAMS = "Exam results (previous year)";
+    static final String CURRENT_CC = "Continuous assessment grades (current year)";
+
+    private final StudentService studentService;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+
+    public AcademicDataGatherer(
+            StudentService studentService,
+            @Value("${recommendation.gather.timeout-ms:4000}") long timeoutMs,
+            @Value("${recommendation.gather.threads:16}") int threads) {
+        this.studentService = studentService;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "recommendation-gather-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @param dias the student's registrations, latest first
+     * @return data per source; sources that failed or timed out are {@code null}
+     */
+    public GradeData gather(String uuid, String externalToken, List<Dia> dias) {
+        String currentDia = diaId(dias, 0);
+        String previousDia = diaId(dias, 1);
+        CompletableFuture<List<PeriodBilan>> currentExams = currentDia == null ? null
+                : submit(() -> studentService.getBilans(uuid, currentDia, externalToken));
+        CompletableFuture<List<PeriodBilan>> previousExams = previousDia == null ? null
+                : submit(() -> studentService.getBilans(uuid, previousDia, externalToken));
+        CompletableFuture<List<CCGrade>> currentCC = currentDia == null ? null
+                : submit(() -> studentService.getCCGrades(uuid, currentDia, dias, externalToken));
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        return new GradeData(
+                await(CURRENT_EXAMS, currentExams, deadline),
+                await(PREVIOUS_EXAMS, previousExams, deadline),
+                await(CURRENT_CC, currentCC, deadline));
+    }
+
+    private <T> T await(String source, CompletableFuture<T> task, long deadline) {
+        if (task == null) {
+            return null;
+        }
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        try {
+            return task.get(remaining, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            log.info("Dropped '{}' from the prompt: not ready within {} ms", source, timeoutMs);
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.debug("Could not fetch '{}': {}", source, e.getCause().getMessage());
+        }
+        return null;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> source) {
+        try {
+            return CompletableFuture.supplyAsync(source, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String diaId(List<Dia> dias, int index) {
+        if (dias.size() > index && dias.get(index).id() > 0) {
+            return dias.get(index).cardId();
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The grade data of a recommendation. A source that could not be fetched in time
+     * is {@code null}.
+     */
+    public record GradeData(
+            List<PeriodBilan> currentExams,
+            List<PeriodBilan> previousExams,
+            List<CCGrade> currentCC) {
+
+        public static final GradeData EMPTY = new GradeData(null, null, null);
+    }
+}
@@ -0,0 +1,375 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, indexed view of {@code data/academic-structure.json}.
+ * <p>
+ * The file is parsed once at startup. Universities are indexed by key, fields by code,
+ * normalized name and acronym, and levels by code, so resolving the options for a
+ * student is a handful of hash lookups. The options JSON sent to the model is
+ * serialized once per (university, field, level) and reused for every request.
+ */
+@Slf4j
+@Component
+public class AcademicStructureIndex {
+
+    static final String RESOURCE = "data/academic-structure.json";
+
+    private static final Set<String> STOP_WORDS = Set.of("et", "de", "la", "le", "les", "des", "du", "en");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern LEVEL_CODE = Pattern.compile("\\b([lm])\\s*([1-3])\\b");
+    private static final Pattern LEVEL_NUMBER = Pattern.compile("\\b([1-3])\\s*(?:ere|er|eme|e)?\\b");
+
+    private final Map<String, University> universities;
+    private final University defaultUniversity;
+    private final UniversityNameMatcher universityNameMatcher;
+
+    public AcademicStructureIndex(ObjectMapper objectMapper) {
+        JsonNode root;
+        try (InputStream is = new ClassPathResource(RESOURCE).getInputStream()) {
+            root = objectMapper.readTree(is);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load " + RESOURCE, e);
+        }
+
+        Map<String, University> byKey = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> entries = root.path("universities").fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            byKey.put(entry.getKey(), University.from(entry.getKey(), entry.getValue(), objectMapper));
+        }
+        if (byKey.isEmpty()) {
+            throw new IllegalStateException(RESOURCE + " does not define any university");
+        }
+
+        this.universities = Collections.unmodifiableMap(byKey);
+        this.defaultUniversity = byKey.values().iterator().next();
+
+        Map<String, List<String>> aliases = new LinkedHashMap<>();
+        byKey.values().forEach(university -> {
+            List<String> names = new ArrayList<>(university.aliases());
+            names.add(university.name());
+            aliases.put(university.key(), names);
+        });
+        this.universityNameMatcher = new UniversityNameMatcher(aliases);
+        log.info("Loaded academic structure: {} universities", universities.size());
+    }
+
+    public Map<String, University> getUniversities() {
+        return universities;
+    }
+
+    public University getDefaultUniversity() {
+        return defaultUniversity;
+    }
+
+    public University getUniversity(String key) {
+        return key == null ? null : universities.get(key);
+    }
+
+    /**
+     * Best match for an establishment name by key, name or alias; {@code null} when
+     * no university is close enough.
+     */
+    public UniversityNameMatcher.Match matchUniversity(String name) {
+        return universityNameMatcher.match(name);
+    }
+
+    /**
+     * Options the student can move to, serialized as compact JSON for the prompt.
+     * Falls back to every level of the field when the level is unknown, and to every
+     * field of the university when the field is unknown.
+     */
+    public String findAvailableOptions(University university, String currentField, String currentLevel) {
+        Field field = university.findField(currentField);
+        if (field == null) {
+            return university.allFieldsJson;
+        }
+        String levelCode = resolveLevelCode(currentLevel);
+        String options = levelCode == null ? null : field.optionsJson.get(levelCode);
+        return options != null ? options : field.allLevelsJson;
+    }
+
+    /**
+     * Map a PROGRES level label ("L2", "Licence 2", "2ème année Licence", ...) to the
+     * level code used in the structure file.
+     */
+    static String resolveLevelCode(String level) {
+        if (level == null || level.isBlank()) {
+            return null;
+        }
+        String text = normalize(level);
+
+        Matcher code = LEVEL_CODE.matcher(text);
+        if (code.find()) {
+            return (code.group(1) + code.group(2)).toUpperCase(Locale.ROOT);
+        }
+
+        String cycle = text.contains("master") ? "M" : text.contains("licence") ? "L" : null;
+        if (cycle == null) {
+            return null;
+        }
+        if (text.contains("premiere")) {
+            return cycle + "1";
+        }
+        if (text.contains("deuxieme")) {
+            return cycle + "2";
+        }
+        if (text.contains("troisieme")) {
+            return cycle + "3";
+        }
+        Matcher number = LEVEL_NUMBER.matcher(text);
+        return number.find() ? cycle + number.group(1) : null;
+    }
+
+    static String normalize(String text) {
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder out = new StringBuilder(stripped.length());
+        boolean space = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = Character.toLowerCase(stripped.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (space && out.length() > 0) {
+                    out.append(' ');
+                }
+                out.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return out.toString();
+    }
+
+    static String acronym(String normalized) {
+        StringBuilder out = new StringBuilder();
+        for (String word : normalized.split(" ")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                out.append(word.charAt(0));
+            }
+        }
+        return out.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static List<String> textList(JsonNode array) {
+        List<String> list = new ArrayList<>();
+        for (JsonNode item : array) {
+            list.add(item.asText());
+        }
+        return List.copyOf(list);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String write(ObjectMapper objectMapper, JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize academic options", e);
+        }
+    }
+
+    public record University(
+            String key,
+            String name,
+            String nameAr,
+            String description,
+            List<String> aliases,
+            List<Field> fields,
+            Map<String, Field> fieldIndex,
+            String allFieldsJson) {
+
+        static University from(String key, JsonNode node, ObjectMapper objectMapper) {
+            List<Field> fields = new ArrayList<>();
+            Map<String, Field> index = new HashMap<>();
+            for (JsonNode fieldNode : node.path("fields")) {
+                Field field = Field.from(fieldNode, objectMapper);
+                fields.add(field);
+                index.putIfAbsent(field.code().toUpperCase(Locale.ROOT), field);
+                index.putIfAbsent(normalize(field.name()), field);
+                index.putIfAbsent(acronym(normalize(field.name())), field);
+            }
+            return new University(
+                    key,
+                    node.path("name").asText("Unknown University"),
+                    node.path("nameAr").asText(""),
+                    text(node, "description"),
+                    textList(node.path("aliases")),
+                    List.copyOf(fields),
+                    Map.copyOf(index),
+                    write(objectMapper, node.path("fields")));
+        }
+
+        /**
+         * Find a field by its code, its full name or the acronym of its name, so that
+         * "Sciences de la Nature et de la Vie" and "SNV" both resolve to the same field.
+         */
+        public Field findField(String currentField) {
+            if (currentField == null || currentField.isBlank()) {
+                return null;
+            }
+            String normalized = normalize(currentField);
+            Field field = fieldIndex.get(normalized);
+            if (field == null) {
+                field = fieldIndex.get(currentField.trim().toUpperCase(Locale.ROOT));
+            }
+            if (field == null) {
+                field = fieldIndex.get(acronym(normalized));
+            }
+            return field;
+        }
+    }
+
+    public record Field(
+            String code,
+            String name,
+            String nameAr,
+            Map<String, Level> levels,
+            List<Program> masterSpecialities,
+            Map<String, Program> programs,
+            Map<String, String> optionsJson,
+            String allLevelsJson) {
+
+        static Field from(JsonNode node, ObjectMapper objectMapper) {
+            JsonNode levelsNode = node.path("levels");
+            Map<String, Level> levels = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> entries = levelsNode.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                levels.put(entry.getKey(), Level.from(entry.getKey(), entry.getValue()));
+            }
+
+            List<Program> masters = new ArrayList<>();
+            for (JsonNode master : node.path("masterSpecialities")) {
+                masters.add(Program.from(master, Program.MASTER));
+            }
+
+            Map<String, Program> programs = new HashMap<>();
+            levels.values().forEach(level -> level.programs().forEach(program ->
+                    programs.putIfAbsent(program.code(), program)));
+            masters.forEach(master -> programs.putIfAbsent(master.code(), master));
+
+            // Current level plus the level it leads to; the last licence year leads to the masters
+            Map<String, String> optionsJson = new HashMap<>();
+            List<String> codes = new ArrayList<>(levels.keySet());
+            for (int i = 0; i < codes.size(); i++) {
+                ObjectNode options = objectMapper.createObjectNode();
+                options.set(codes.get(i), levelsNode.get(codes.get(i)));
+                if (i + 1 < codes.size()) {
+                    options.set(codes.get(i + 1), levelsNode.get(codes.get(i + 1)));
+                } else if (node.has("masterSpecialities")) {
+                    options.set("masterSpecialities", node.get("masterSpecialities"));
+                }
+                optionsJson.put(codes.get(i), write(objectMapper, options));
+            }
+
+            return new Field(
+                    node.path("code").asText(),
+                    node.path("name").asText(),
+                    node.path("nameAr").asText(""),
+                    Collections.unmodifiableMap(levels),
+                    List.copyOf(masters),
+                    Map.copyOf(programs),
+                    Map.copyOf(optionsJson),
+                    write(objectMapper, levelsNode));
+        }
+    }
+
+    public record Level(String code, String name, String type, List<String> nextOptions, List<Program> programs) {
+
+        /**
+         * The first program of this level whose name matches one of {@code names},
+         * ignoring accents and case.
+         */
+        public Program findProgram(String... names) {
+            for (String name : names) {
+                if (name == null || name.isBlank()) {
+                    continue;
+                }
+                String normalized = normalize(name);
+                for (Program program : programs) {
+                    if (normalize(program.name()).equals(normalized)) {
+                        return program;
+                    }
+                }
+            }
+            return null;
+        }
+
+        static Level from(String code, JsonNode node) {
+            List<Program> programs = new ArrayList<>();
+            for (JsonNode program : node.path("majors")) {
+                programs.add(Program.from(program, Program.MAJOR));
+            }
+            for (JsonNode program : node.path("specialities")) {
+                programs.add(Program.from(program, Program.SPECIALITY));
+            }
+            return new Level(
+                    code,
+                    text(node, "name"),
+                    text(node, "type"),
+                    textList(node.path("nextOptions")),
+                    List.copyOf(programs));
+        }
+    }
+
+    /**
+     * A major, licence speciality or master speciality. {@code parent} is the option it
+     * is reached from, {@code nextOptions} the options it leads to and
+     * {@code keySubjects} the modules that best predict success in it.
+     */
+    public record Program(
+            String code,
+            String name,
+            String nameAr,
+            String type,
+            String parent,
+            List<String> nextOptions,
+            List<String> keySubjects) {
+
+        public static final String MAJOR = "major";
+        public static final String SPECIALITY = "speciality";
+        public static final String MASTER = "master";
+
+        static Program from(JsonNode node, String type) {
+            String parent = text(node, "parentMajor");
+            if (parent == null) {
+                parent = text(node, "parentSpeciality");
+            }
+            JsonNode next = node.has("nextOptions") ? node.path("nextOptions") : node.path("masterOptions");
+            return new Program(
+                    node.path("code").asText(),
+                    node.path("name").asText(),
+                    node.path("nameAr").asText(""),
+                    type,
+                    parent,
+                    textList(next),
+                    textList(node.path("keySubjects")));
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.dto.RecommendationResponse.CurrentStatus;
+import com.progress.api.service.AcademicStructureIndex.Field;
+import com.progress.api.service.AcademicStructureIndex.Level;
+import com.progress.api.service.AcademicStructureIndex.Program;
+import com.progress.api.service.AcademicStructureIndex.University;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Recommendations shared by every student of a cohort.
+ * <p>
+ * A cohort is a (university, field, level, current major or speciality, average
+ * band) tuple; students in the same cohort are offered the same options and the model
+ * writes nearly the same answer for them. The shared answer is generated once from
+ * the cohort profile alone, without anyone's grades, and each student gets it through
+ * {@link LocalRecommendationEngine#personalize}. Students of a cohort who miss at the
+ * same time wait for one generation instead of each calling the model.
+ * <p>
+ * When a store path is configured the entries are written to that JSON file every
+ * minute and on shutdown, and loaded again at startup, so cohorts precomputed by
+ * {@link RecommendationPrecomputeJob} survive restarts.
+ */
+@Slf4j
+@Service
+public class CohortRecommendationCache {
+
+    private final long ttlMs;
+    private final double bucketWidth;
+    private final ObjectMapper objectMapper;
+    private final Path storePath;
+
+    private final Map<CohortKey, Cached> entries = new ConcurrentHashMap<>();
+    private final LruEviction<CohortKey, Cached> eviction;
+    private final Map<CohortKey, CompletableFuture<RecommendationResponse>> generating = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CohortRecommendationCache(
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${recommendation.cohort.ttl-minutes:10080}") long ttlMinutes,
+            @Value("${recommendation.cohort.max-entries:5000}") int maxEntries,
+            @Value("${recommendation.cohort.bucket-width:2.0}") double bucketWidth,
+            @Value("${recommendation.cohort.store-path:}") String storePath) {
+        this.ttlMs = ttlMinutes * 60_000;
+        this.eviction = new LruEviction<>(entries, maxEntries, cached -> cached.lastAccess,
+                cached -> cached.expiresAt <= System.currentTimeMillis());
+        this.bucketWidth = bucketWidth;
+        this.objectMapper = objectMapper;
+        this.storePath = storePath == null || storePath.isBlank() ? null : Path.of(storePath);
+        this.hits = Counter.builder("recommendation.cohort.requests")
+                .description("Cohort cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("recommendation.cohort.requests")
+                .description("Cohort cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("recommendation.cohort.size", Tags.empty(), entries);
+        meterRegistry.gaugeMapSize("recommendation.cohort.generating", Tags.empty(), generating);
+    }
+
+    public RecommendationResponse get(CohortKey key) {
+        Cached cached = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (cached == null || cached.expiresAt <= now) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        cached.lastAccess = now;
+        return cached.response;
+    }
+
+    /**
+     * The cohort's entry, or the result of {@code generator} on a miss. Only one
+     * generation per cohort runs at a time; other callers that miss meanwhile wait for
+     * its result, or its error. {@code generator} is expected to {@link #put} what it
+     * returns.
+     */
+    public RecommendationResponse getOrGenerate(CohortKey key, Supplier<RecommendationResponse> generator) {
+        RecommendationResponse cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<RecommendationResponse> mine = new CompletableFuture<>();
+        CompletableFuture<RecommendationResponse> running = generating.putIfAbsent(key, mine);
+        if (running != null) {
+            log.debug("Joining in-flight generation for cohort {}", key);
+            return await(running);
+        }
+
+        try {
+            // Another generation may have finished between the lookup and claiming the key
+            Cached stored = entries.get(key);
+            RecommendationResponse response = stored != null && stored.expiresAt > System.currentTimeMillis()
+                    ? stored.response
+                    : generator.get();
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            generating.remove(key, mine);
+        }
+    }
+
+    private static RecommendationResponse await(CompletableFuture<RecommendationResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Whether an unexpired entry exists, without counting a lookup or touching it.
+     */
+    public boolean contains(CohortKey key) {
+        Cached cached = entries.get(key);
+        return cached != null && cached.expiresAt > System.currentTimeMillis();
+    }
+
+    public void put(CohortKey key, RecommendationResponse response) {
+        long now = System.currentTimeMillis();
+        entries.put(key, new Cached(response, now + ttlMs, now));
+        dirty.set(true);
+        eviction.trim();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Whether entries are written to a store and survive restarts.
+     */
+    public boolean isPersistent() {
+        return storePath != null;
+    }
+
+    /**
+     * Number of average bands, {@code 0} to {@code bucketCount() - 1}.
+     */
+    public int bucketCount() {
+        return (int) Math.ceil(20 / bucketWidth);
+    }
+
+    public double bucketWidth() {
+        return bucketWidth;
+    }
+
+    /**
+     * The cohort of a student. Field, level and program are resolved against the
+     * academic structure where possible, so spelling variants share a cohort.
+     */
+    public CohortKey key(University university, CurrentStatus status, double average) {
+        Field field = university.findField(status.getField());
+        String levelCode = AcademicStructureIndex.resolveLevelCode(status.getLevel());
+        Level level = field == null || levelCode == null ? null : field.levels().get(levelCode);
+        Program program = level == null ? null : level.findProgram(status.getSpeciality(), status.getMajor());
+
+        return new CohortKey(
+                university.key(),
+                field != null ? field.code() : normalize(status.getField()),
+                levelCode != null ? levelCode : normalize(status.getLevel()),
+                program != null ? program.code() : normalize(
+                        status.getSpeciality() != null ? status.getSpeciality() : status.getMajor()),
+                bucket(average),
+                bucketWidth);
+    }
+
+    int bucket(double average) {
+        int bucket = (int) Math.floor(Math.max(0, average) / bucketWidth);
+        return Math.min(bucket, bucketCount() - 1);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : AcademicStructureIndex.normalize(text);
+    }
+
+    @Scheduled(fixedRate = 300000)
+    public void cleanupExpiredEntries() {
+        long now = System.currentTimeMillis();
+        int beforeSize = entries.size();
+        entries.values().removeIf(cached -> cached.expiresAt <= now);
+
+        int removed = beforeSize - entries.size();
+        if (removed > 0) {
+            log.info("Cleaned up {} expired cohort recommendations. Remaining: {}", removed, entries.size());
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        if (storePath == null || !Files.exists(storePath)) {
+            return;
+        }
+        try {
+            List<StoredEntry> stored = objectMapper.readValue(storePath.toFile(), new TypeReference<>() {
+            });
+            long now = System.currentTimeMillis();
+            stored.stream()
+                    .filter(entry -> entry.expiresAt() > now)
+                    .forEach(entry -> entries.put(entry.key(), new Cached(entry.response(), entry.expiresAt(), now)));
+            log.info("Loaded {} cohort recommendations from {}", entries.size(), storePath);
+        } catch (IOException e) {
+            log.warn("Could not read cohort recommendations from {}: {}", storePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Write the entries to the store if anything changed since the last write. The
+     * file is replaced atomically so a crash never leaves it half written.
+     */
+    @Scheduled(fixedDelay = 60000)
+    @PreDestroy
+    public synchronized void flush() {
+        if (storePath == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        List<StoredEntry> stored = entries.entrySet().stream()
+                .map(entry -> new StoredEntry(entry.getKey(), entry.getValue().response, entry.getValue().expiresAt))
+                .toList();
+        try {
+            Path parent = storePath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), stored);
+            Files.move(temp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} cohort recommendations to {}", stored.size(), storePath);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Could not write cohort recommendations to {}: {}", storePath, e.getMessage());
+        }
+    }
+
+    /**
+     * @param bucket index of the average band, {@code floor(average / bucketWidth)}
+     */
+    public record CohortKey(
+            String university,
+            String field,
+            String level,
+            String program,
+            int bucket,
+            double bucketWidth) {
+
+        /**
+         * The average band as shown to the model, e.g. {@code "12.0 to 14.0/20"}.
+         */
+        public String averageBand() {
+            double low = bucket * bucketWidth;
+            return String.format(Locale.ROOT, "%.1f to %.1f/20", low, Math.min(20, low + bucketWidth));
+        }
+    }
+
+    private record StoredEntry(CohortKey key, RecommendationResponse response, long expiresAt) {
+    }
+
+    private static final class Cached {
+        private final RecommendationResponse response;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private Cached(RecommendationResponse response, long expiresAt, long lastAccess) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
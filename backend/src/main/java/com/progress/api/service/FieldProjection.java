@@ -0,0 +1,188 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sparse fieldsets for the PROGRES passthrough endpoints ({@code ?fields=}).
+ * <p>
+ * A field set is a comma-separated list of dotted paths, e.g.
+ * {@code id,anneeAcademiqueCode,bilanUes.ueLibelleFr}. It is compiled once into a
+ * tree of the fields to keep and cached by its exact string, so a screen that always
+ * asks for the same fields parses them once. Arrays are projected element by element,
+ * a path that stops at an object keeps the whole object, and fields the payload does
+ * not have are left out. The payload is not copied: the projection is applied by the
+ * serializer while the response is written, in the order the fields were requested.
+ */
+@Component
+public class FieldProjection {
+
+    static final int MAX_LENGTH = 2000;
+    static final int MAX_DEPTH = 8;
+
+    private static final Pattern FIELD = Pattern.compile("[A-Za-z0-9_]+");
+
+    private final int maxPlans;
+    private final Map<String, Plan> plans = new ConcurrentHashMap<>();
+
+    public FieldProjection(
+            MeterRegistry meterRegistry,
+            @Value("${projection.max-plans:1000}") int maxPlans) {
+        this.maxPlans = maxPlans;
+        meterRegistry.gaugeMapSize("projection.plans", Tags.empty(), plans);
+    }
+
+    /**
+     * @param fields the {@code fields} parameter; {@code null} or blank keeps every field
+     * @return {@code data} itself when nothing is filtered, else a view of it that
+     *         Jackson serializes with only the requested fields
+     */
+    public Object project(Object data, String fields) {
+        if (data == null || fields == null || fields.isBlank()) {
+            return data;
+        }
+        return new Projected(data, plan(fields));
+    }
+
+    Plan plan(String fields) {
+        Plan plan = plans.get(fields);
+        if (plan == null) {
+            plan = compile(fields);
+            // Field sets come from a handful of screens; past the cap new ones are compiled per request
+            if (plans.size() < maxPlans) {
+                plans.putIfAbsent(fields, plan);
+            }
+        }
+        return plan;
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    static Plan compile(String fields) {
+        if (fields.length() > MAX_LENGTH) {
+            throw invalid("longer than " + MAX_LENGTH + " characters");
+        }
+        Node root = new Node();
+        for (String path : fields.split(",")) {
+            String[] names = path.trim().split("\\.", -1);
+            if (names.length > MAX_DEPTH) {
+                throw invalid("'" + path.trim() + "' is nested deeper than " + MAX_DEPTH);
+            }
+            Node node = root;
+            for (String name : names) {
+                if (!FIELD.matcher(name).matches()) {
+                    throw invalid("'" + path.trim() + "' is not a field path");
+                }
+                if (node.all) {
+                    break;
+                }
+                node = node.children.computeIfAbsent(name, key -> new Node());
+            }
+            node.all = true;
+            node.children.clear();
+        }
+        return root.freeze();
+    }
+
+    private static ApiException invalid(String reason) {
+        return new ApiException("Invalid fields parameter: " + reason, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * The compiled form of a field set: the fields to keep at this level and what to
+     * keep under each; {@link #ALL} keeps the whole value.
+     */
+    static final class Plan {
+        static final Plan ALL = new Plan(Collections.emptyMap());
+
+        private final Map<String, Plan> fields;
+
+        private Plan(Map<String, Plan> fields) {
+            this.fields = fields;
+        }
+
+        Map<String, Plan> fields() {
+            return fields;
+        }
+
+        void write(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            if (this == ALL) {
+                provider.defaultSerializeValue(value, generator);
+            } else if (value instanceof Map<?, ?> map) {
+                generator.writeStartObject();
+                for (Map.Entry<String, Plan> field : fields.entrySet()) {
+                    if (map.containsKey(field.getKey())) {
+                        generator.writeFieldName(field.getKey());
+                        field.getValue().write(map.get(field.getKey()), generator, provider);
+                    }
+                }
+                generator.writeEndObject();
+            } else if (value instanceof Collection<?> elements) {
+                generator.writeStartArray();
+                for (Object element : elements) {
+                    write(element, generator, provider);
+                }
+                generator.writeEndArray();
+            } else {
+                // A path into a scalar keeps the scalar
+                provider.defaultSerializeValue(value, generator);
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private boolean all;
+
+        private Plan freeze() {
+            if (all) {
+                return Plan.ALL;
+            }
+            Map<String, Plan> fields = new LinkedHashMap<>();
+            children.forEach((name, child) -> fields.put(name, child.freeze()));
+            return new Plan(Collections.unmodifiableMap(fields));
+        }
+    }
+
+    /**
+     * A payload paired with the plan to write it with.
+     */
+    static final class Projected extends JsonSerializable.Base {
+        private final Object data;
+        private final Plan plan;
+
+        private Projected(Object data, Plan plan) {
+            this.data = data;
+            this.plan = plan;
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            plan.write(data, generator, provider);
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSer)
+                throws IOException {
+            serialize(generator, provider);
+        }
+    }
+}
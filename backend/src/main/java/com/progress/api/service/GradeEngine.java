@@ -0,0 +1,445 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Coefficient;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.ExamGrade;
+import com.progress.api.dto.progres.PeriodBilan;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Module, unit, period and annual averages of one registration (card), computed from
+ * the PROGRES payloads the calculator page used to download and combine itself.
+ * <p>
+ * Modules come from the period bilans, under their units, or outside any unit for the
+ * older bilans that only list them in {@code bilanMcDtos}. A module's mark is its
+ * official average ({@code moyenneGenerale}), else its exam grade from
+ * {@code noteExamens}; a module without a coefficient in the bilan takes the one
+ * attached to its exam grade, and its credits come from the bilan or
+ * {@code rattachementMcCredit}. Modules that only have continuous-assessment grades
+ * so far are added to their period with the mean of those grades and coefficient 1,
+ * provided they are in the level's programme. Modules without a mark or a coefficient
+ * are listed but left out of every average, rather than counted as zero. The annual
+ * average is the mean of the period averages, semesters carrying equal weight. Each
+ * module also carries its CC mean and the exam's share of its average, so a required
+ * module average can be turned into a required exam grade.
+ * <p>
+ * The payloads are flattened once into parallel primitive arrays (mark, coefficient
+ * and owning unit per module, owning period per unit) and every average is one pass
+ * over them.
+ */
+@Component
+public class GradeEngine {
+
+    static final double PASSING_MARK = 10.0;
+    static final String SOURCE_AVERAGE = "average";
+    static final String SOURCE_EXAM = "exam";
+    static final String SOURCE_CC = "cc";
+
+    /**
+     * @param dia        the registration, or {@code null}
+     * @param bilans     the period bilans of the registration
+     * @param examGrades its {@code noteExamens}, empty when unavailable
+     * @param ccGrades   its {@code notesCC}, empty when unavailable
+     * @param subjects   the level's {@code Coefficients}, empty when unavailable
+     */
+    public GradeReport compute(
+            String cardId,
+            Dia dia,
+            List<PeriodBilan> bilans,
+            List<ExamGrade> examGrades,
+            List<CCGrade> ccGrades,
+            List<Coefficient> subjects) {
+        Table table = new Table(countModules(bilans) + ccGrades.size());
+        ExamGrades exams = new ExamGrades(examGrades);
+        ContinuousAssessment cc = new ContinuousAssessment(ccGrades);
+        Map<String, Coefficient> programme = new HashMap<>();
+        for (Coefficient subject : subjects) {
+            String name = normalize(subject.mcLibelleFr());
+            if (name != null) {
+                programme.putIfAbsent(name, subject);
+            }
+        }
+        Set<String> seen = new HashSet<>();
+
+        for (PeriodBilan period : bilans) {
+            int periodIndex = table.period(period.periodeLibelleFr());
+            boolean grouped = false;
+            for (PeriodBilan.UnitBilan unit : period.bilanUes()) {
+                int unitIndex = table.unit(periodIndex, unit.ueLibelleFr());
+                for (PeriodBilan.ModuleBilan module : unit.bilanMcs()) {
+                    addModule(table, unitIndex, module, exams, cc, programme, seen);
+                    grouped = true;
+                }
+            }
+            if (!grouped) {
+                // Older bilans list the modules outside any unit
+                for (PeriodBilan.ModuleBilan module : period.modules()) {
+                    addModule(table, table.unit(periodIndex, null), module, exams, cc, programme, seen);
+                }
+            }
+        }
+
+        addContinuousAssessmentOnly(table, cc, programme, exams, seen);
+        return table.report(cardId, dia);
+    }
+
+    private static void addModule(
+            Table table, int unitIndex, PeriodBilan.ModuleBilan module, ExamGrades exams, ContinuousAssessment cc,
+            Map<String, Coefficient> programme, Set<String> seen) {
+        String label = module.mcLibelleFr();
+        String key = normalize(label);
+        seen.add(key);
+
+        double coefficient = value(module.coefficient());
+        if (coefficient <= 0) {
+            coefficient = exams.coefficient(key);
+        }
+        double mark = Double.NaN;
+        String source = null;
+        if (module.moyenneGenerale() != null) {
+            mark = module.moyenneGenerale();
+            source = SOURCE_AVERAGE;
+        } else if (!Double.isNaN(exams.mark(key))) {
+            mark = exams.mark(key);
+            source = SOURCE_EXAM;
+        } else if (module.noteExamen() != null) {
+            mark = module.noteExamen();
+            source = SOURCE_EXAM;
+        }
+        double credit = value(module.credit());
+        table.module(unitIndex, label, mark, coefficient, credit > 0 ? credit : exams.credit(key),
+                source, cc.mean(key), examWeight(programme.get(key)));
+    }
+
+    /**
+     * Modules with CC grades but no bilan entry yet, typically during the semester.
+     */
+    private static void addContinuousAssessmentOnly(
+            Table table, ContinuousAssessment cc, Map<String, Coefficient> programme, ExamGrades exams, Set<String> seen) {
+        for (String key : cc.modules()) {
+            if (seen.contains(key) || (!programme.isEmpty() && !programme.containsKey(key))) {
+                continue;
+            }
+            Coefficient subject = programme.get(key);
+            String period = cc.period(key);
+            if (period == null && subject != null) {
+                period = subject.periodeLibelleFr();
+            }
+            int unitIndex = table.unit(table.period(period), null);
+            double coefficient = exams.coefficient(key);
+            table.module(unitIndex, cc.label(key), cc.mean(key), coefficient > 0 ? coefficient : 1,
+                    exams.credit(key), SOURCE_CC, cc.mean(key), examWeight(subject));
+        }
+    }
+
+    /**
+     * Share of the module average that comes from the final exam, from the level's
+     * coefficients; {@code NaN} when they are not known.
+     */
+    private static double examWeight(Coefficient subject) {
+        if (subject == null) {
+            return Double.NaN;
+        }
+        double exam = value(subject.coefficientExamen());
+        double total = exam
+                + value(subject.coefficientControleContinu())
+                + value(subject.coefficientControleIntermediaire());
+        return total > 0 ? exam / total : Double.NaN;
+    }
+
+    private static int countModules(List<PeriodBilan> bilans) {
+        int count = 0;
+        for (PeriodBilan period : bilans) {
+            count += period.modules().size();
+        }
+        return count;
+    }
+
+    static String normalize(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static double value(Double number) {
+        return number == null ? 0 : number;
+    }
+
+    private static Double round(double value) {
+        return Double.isNaN(value) ? null : Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Mean CC grade, label and period of each module with CC grades, in first-seen order.
+     */
+    private static final class ContinuousAssessment {
+        private final Map<String, double[]> sums = new LinkedHashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+        private final Map<String, String> periods = new HashMap<>();
+
+        private ContinuousAssessment(List<CCGrade> ccGrades) {
+            for (CCGrade grade : ccGrades) {
+                String label = grade.module();
+                String key = normalize(label);
+                if (key == null || grade.note() == null) {
+                    continue;
+                }
+                double[] sum = sums.computeIfAbsent(key, k -> new double[2]);
+                sum[0] += grade.note();
+                sum[1]++;
+                labels.putIfAbsent(key, label);
+                if (grade.llPeriode() != null) {
+                    periods.putIfAbsent(key, grade.llPeriode());
+                }
+            }
+        }
+
+        Set<String> modules() {
+            return sums.keySet();
+        }
+
+        double mean(String name) {
+            double[] sum = name == null ? null : sums.get(name);
+            return sum == null ? Double.NaN : sum[0] / sum[1];
+        }
+
+        String label(String name) {
+            return labels.get(name);
+        }
+
+        String period(String name) {
+            return periods.get(name);
+        }
+    }
+
+    /**
+     * Exam grades and coefficients by every name a module may be listed under.
+     */
+    private static final class ExamGrades {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final double[] marks;
+        private final double[] coefficients;
+        private final double[] credits;
+
+        private ExamGrades(List<ExamGrade> examGrades) {
+            marks = new double[examGrades.size()];
+            coefficients = new double[examGrades.size()];
+            credits = new double[examGrades.size()];
+            int i = 0;
+            for (ExamGrade grade : examGrades) {
+                marks[i] = grade.noteExamen() != null ? grade.noteExamen() : Double.NaN;
+                coefficients[i] = value(grade.rattachementMcCoefficient());
+                credits[i] = value(grade.rattachementMcCredit());
+                for (String label : new String[]{
+                        grade.mcLibelleFr(), grade.libelleMatiere(), grade.rattachementMcMcLibelleFr(),
+                        grade.mcLibelleAr(), grade.libelleMatiereArabe(), grade.rattachementMcMcLibelleAr()}) {
+                    String name = normalize(label);
+                    if (name != null) {
+                        index.putIfAbsent(name, i);
+                    }
+                }
+                i++;
+            }
+        }
+
+        double mark(String name) {
+            Integer i = name == null ? null : index.get(name);
+            return i == null ? Double.NaN : marks[i];
+        }
+
+        double coefficient(String name) {
+            Integer i = name == null ? null : index.get(name);
+            return i == null ? 0 : Math.max(0, coefficients[i]);
+        }
+
+        double credit(String name) {
+            Integer i = name == null ? null : index.get(name);
+            return i == null ? 0 : Math.max(0, credits[i]);
+        }
+    }
+
+    /**
+     * Modules, units and periods as parallel arrays; units and periods are few, modules
+     * are sized up front.
+     */
+    private static final class Table {
+        private final String[] moduleLabels;
+        private final String[] moduleSources;
+        private final double[] marks;
+        private final double[] coefficients;
+        private final double[] credits;
+        private final double[] ccMarks;
+        private final double[] examWeights;
+        private final int[] moduleUnit;
+        private int modules;
+
+        private final List<String> unitLabels = new ArrayList<>();
+        private int[] unitPeriod = new int[8];
+        private final List<String> periodLabels = new ArrayList<>();
+
+        private Table(int capacity) {
+            moduleLabels = new String[capacity];
+            moduleSources = new String[capacity];
+            marks = new double[capacity];
+            coefficients = new double[capacity];
+            credits = new double[capacity];
+            ccMarks = new double[capacity];
+            examWeights = new double[capacity];
+            moduleUnit = new int[capacity];
+        }
+
+        int period(String label) {
+            for (int i = 0; i < periodLabels.size(); i++) {
+                String existing = periodLabels.get(i);
+                if (existing == null ? label == null : existing.equalsIgnoreCase(label)) {
+                    return i;
+                }
+            }
+            periodLabels.add(label);
+            return periodLabels.size() - 1;
+        }
+
+        /**
+         * Units are not shared between periods; a {@code null} label is reused within
+         * its period for the modules outside any unit.
+         */
+        int unit(int period, String label) {
+            if (label == null) {
+                for (int i = 0; i < unitLabels.size(); i++) {
+                    if (unitLabels.get(i) == null && unitPeriod[i] == period) {
+                        return i;
+                    }
+                }
+            }
+            if (unitLabels.size() == unitPeriod.length) {
+                unitPeriod = Arrays.copyOf(unitPeriod, unitPeriod.length * 2);
+            }
+            unitPeriod[unitLabels.size()] = period;
+            unitLabels.add(label);
+            return unitLabels.size() - 1;
+        }
+
+        void module(
+                int unit, String label, double mark, double coefficient, double credit, String source,
+                double ccMark, double examWeight) {
+            moduleLabels[modules] = label;
+            moduleSources[modules] = source;
+            marks[modules] = mark;
+            coefficients[modules] = Math.max(0, coefficient);
+            credits[modules] = credit;
+            ccMarks[modules] = ccMark;
+            examWeights[modules] = examWeight;
+            moduleUnit[modules] = unit;
+            modules++;
+        }
+
+        GradeReport report(String cardId, Dia dia) {
+            int unitCount = unitLabels.size();
+            int periodCount = periodLabels.size();
+            double[] unitWeighted = new double[unitCount];
+            double[] unitCoefficient = new double[unitCount];
+            double[] periodWeighted = new double[periodCount];
+            double[] periodCoefficient = new double[periodCount];
+            int[] periodValidated = new int[periodCount];
+            int validated = 0;
+
+            for (int m = 0; m < modules; m++) {
+                double mark = marks[m];
+                if (Double.isNaN(mark)) {
+                    continue;
+                }
+                int unit = moduleUnit[m];
+                int period = unitPeriod[unit];
+                if (mark >= PASSING_MARK) {
+                    periodValidated[period]++;
+                    validated++;
+                }
+                double coefficient = coefficients[m];
+                if (coefficient > 0) {
+                    unitWeighted[unit] += mark * coefficient;
+                    unitCoefficient[unit] += coefficient;
+                    periodWeighted[period] += mark * coefficient;
+                    periodCoefficient[period] += coefficient;
+                }
+            }
+
+            List<List<GradeReport.Module>> unitModules = new ArrayList<>(unitCount);
+            for (int u = 0; u < unitCount; u++) {
+                unitModules.add(new ArrayList<>());
+            }
+            for (int m = 0; m < modules; m++) {
+                unitModules.get(moduleUnit[m]).add(GradeReport.Module.builder()
+                        .id(m)
+                        .label(moduleLabels[m])
+                        .mark(round(marks[m]))
+                        .coefficient(coefficients[m])
+                        .credit(credits[m])
+                        .source(moduleSources[m])
+                        .validated(marks[m] >= PASSING_MARK)
+                        .ccMark(round(ccMarks[m]))
+                        .examWeight(Double.isNaN(examWeights[m])
+                                ? null
+                                : Math.round(examWeights[m] * 1000) / 1000.0)
+                        .build());
+            }
+
+            List<List<GradeReport.Unit>> periodUnits = new ArrayList<>(periodCount);
+            for (int p = 0; p < periodCount; p++) {
+                periodUnits.add(new ArrayList<>());
+            }
+            for (int u = 0; u < unitCount; u++) {
+                periodUnits.get(unitPeriod[u]).add(GradeReport.Unit.builder()
+                        .label(unitLabels.get(u))
+                        .average(average(unitWeighted[u], unitCoefficient[u]))
+                        .coefficient(unitCoefficient[u])
+                        .modules(unitModules.get(u))
+                        .build());
+            }
+
+            List<GradeReport.Period> periods = new ArrayList<>(periodCount);
+            double averageSum = 0;
+            int averaged = 0;
+            for (int p = 0; p < periodCount; p++) {
+                Double average = average(periodWeighted[p], periodCoefficient[p]);
+                if (average != null) {
+                    averageSum += periodWeighted[p] / periodCoefficient[p];
+                    averaged++;
+                }
+                periods.add(GradeReport.Period.builder()
+                        .label(periodLabels.get(p))
+                        .average(average)
+                        .coefficient(periodCoefficient[p])
+                        .validatedModules(periodValidated[p])
+                        .units(periodUnits.get(p))
+                        .build());
+            }
+
+            return GradeReport.builder()
+                    .cardId(cardId)
+                    .academicYear(dia != null ? dia.anneeAcademiqueCode() : null)
+                    .level(dia != null ? dia.refLibelleNiveau() : null)
+                    .annualAverage(averaged > 0 ? round(averageSum / averaged) : null)
+                    .totalModules(modules)
+                    .validatedModules(validated)
+                    .periods(periods)
+                    .build();
+        }
+
+        private static Double average(double weighted, double coefficient) {
+            return coefficient > 0 ? round(weighted / coefficient) : null;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.GradeSimulationRequest;
+import com.progress.api.dto.GradeSimulationResponse;
+import com.progress.api.dto.LmdDecisionReport;
+import com.progress.api.dto.RequiredGradesResponse;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Computed averages of a student's registration, cached per card id.
+ * <p>
+ * A miss fetches the dias, the card's bilans, exam grades and CC grades and the
+ * level's coefficients, and hands them to {@link GradeEngine}. Only the bilans are
+ * required; a missing optional source only narrows the result. A cached report is
+ * served only to the student it was computed for, so ownership is checked once per
+ * computation. The card's LMD decision is derived from the report on first request
+ * and cached with it. {@link GradeSyncService} drops a card's report before it expires
+ * when it sees the card's grades change.
+ */
+@Slf4j
+@Service
+public class GradeService {
+
+    private final StudentService studentService;
+    private final GradeEngine gradeEngine;
+    private final GradeSimulator gradeSimulator;
+    private final LmdRuleEngine lmdRuleEngine;
+    private final long ttlMs;
+
+    private final Map<String, Cached> reports = new ConcurrentHashMap<>();
+    private final LruEviction<String, Cached> eviction;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer computeTimer;
+
+    public GradeService(
+            StudentService studentService,
+            GradeEngine gradeEngine,
+            GradeSimulator gradeSimulator,
+            LmdRuleEngine lmdRuleEngine,
+            MeterRegistry meterRegistry,
+            @Value("${grades.cache.ttl-minutes:30}") long ttlMinutes,
+            @Value("${grades.cache.max-entries:10000}") int maxEntries) {
+        this.studentService = studentService;
+        this.gradeEngine = gradeEngine;
+        this.gradeSimulator = gradeSimulator;
+        this.lmdRuleEngine = lmdRuleEngine;
+        this.ttlMs = ttlMinutes * 60_000;
+        this.eviction = new LruEviction<>(reports, maxEntries, cached -> cached.lastAccess,
+                cached -> cached.expiresAt <= System.currentTimeMillis());
+        this.hits = Counter.builder("grades.requests")
+                .description("Grade report requests by whether a cached report was served")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("grades.requests")
+                .description("Grade report requests by whether a cached report was served")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.computeTimer = Timer.builder("grades.compute.duration")
+                .description("Time to fetch a card's grade data and compute its averages")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("grades.cache.size", Tags.empty(), reports);
+    }
+
+    public GradeReport getGrades(String uuid, String cardId, String externalToken) {
+        return entry(uuid, cardId, externalToken, null).report;
+    }
+
+    /**
+     * LMD credits and decision of the card, cached with its report.
+     */
+    public LmdDecisionReport getDecision(String uuid, String cardId, String externalToken) {
+        return getDecision(uuid, cardId, externalToken, null);
+    }
+
+    /**
+     * Same as {@link #getDecision(String, String, String)}, validating ownership against
+     * dias the caller already fetched instead of fetching them again on a miss.
+     */
+    public LmdDecisionReport getDecision(String uuid, String cardId, String externalToken, List<Dia> dias) {
+        Cached cached = entry(uuid, cardId, externalToken, dias);
+        LmdDecisionReport decision = cached.decision;
+        if (decision == null) {
+            decision = lmdRuleEngine.evaluate(cached.report);
+            cached.decision = decision;
+        }
+        return decision;
+    }
+
+    /**
+     * Averages of the card under each scenario, from its cached report.
+     */
+    public GradeSimulationResponse simulate(
+            String uuid, String cardId, String externalToken, GradeSimulationRequest request) {
+        return gradeSimulator.simulate(getGrades(uuid, cardId, externalToken), request);
+    }
+
+    /**
+     * Averages the card's pending modules need for its periods and year to reach {@code target}.
+     */
+    public RequiredGradesResponse requiredGrades(String uuid, String cardId, String externalToken, double target) {
+        return gradeSimulator.requiredGrades(getGrades(uuid, cardId, externalToken), target);
+    }
+
+    private Cached entry(String uuid, String cardId, String externalToken, List<Dia> dias) {
+        long now = System.currentTimeMillis();
+        Cached cached = reports.get(cardId);
+        if (cached != null && cached.uuid.equals(uuid) && cached.expiresAt > now) {
+            cached.lastAccess = now;
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        GradeReport report = computeTimer.record(() -> compute(uuid, cardId, externalToken,
+                dias != null ? dias : studentService.getDias(uuid, externalToken)));
+        cached = new Cached(uuid, report, now + ttlMs);
+        if (ttlMs > 0) {
+            reports.put(cardId, cached);
+            eviction.trim();
+        }
+        return cached;
+    }
+
+    /**
+     * Drop the card's report so the next request recomputes it.
+     */
+    public void invalidate(String cardId) {
+        reports.remove(cardId);
+    }
+
+    public int size() {
+        return reports.size();
+    }
+
+    private GradeReport compute(String uuid, String cardId, String externalToken, List<Dia> dias) {
+        Dia dia = dias.stream().filter(candidate -> candidate.cardId().equals(cardId)).findFirst().orElse(null);
+        if (dia == null) {
+            log.warn("SECURITY: User {} attempted to compute grades of cardId {} which doesn't belong to them",
+                    uuid, cardId);
+            throw new ApiException(
+                    "Access denied: You can only access your own academic records",
+                    HttpStatus.FORBIDDEN);
+        }
+
+        return gradeEngine.compute(
+                cardId,
+                dia,
+                studentService.getBilans(uuid, cardId, externalToken),
+                optional("exam grades", () -> studentService.getExamGrades(uuid, cardId, dias, externalToken)),
+                optional("CC grades", () -> studentService.getCCGrades(uuid, cardId, dias, externalToken)),
+                dia.ouvertureOffreFormationId() != null && dia.niveauId() != null
+                        ? optional("subjects", () -> studentService.getCoefficients(
+                                String.valueOf(dia.ouvertureOffreFormationId()), String.valueOf(dia.niveauId()),
+                                externalToken))
+                        : List.of());
+    }
+
+    private static <T> List<T> optional(String source, Supplier<List<T>> fetch) {
+        try {
+            return fetch.get();
+        } catch (ApiException e) {
+            log.debug("Computing grades without {}: {}", source, e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Scheduled(fixedRate = 300000)
+    public void cleanupExpiredEntries() {
+        long now = System.currentTimeMillis();
+        int beforeSize = reports.size();
+        reports.values().removeIf(cached -> cached.expiresAt <= now);
+
+        int removed = beforeSize - reports.size();
+        if (removed > 0) {
+            log.info("Cleaned up {} expired grade reports. Remaining: {}", removed, reports.size());
+        }
+    }
+
+    private static final class Cached {
+        private final String uuid;
+        private final GradeReport report;
+        private final long expiresAt;
+        private volatile long lastAccess;
+        private volatile LmdDecisionReport decision;
+
+        private Cached(String uuid, GradeReport report, long expiresAt) {
+            this.uuid = uuid;
+            this.report = report;
+            this.expiresAt = expiresAt;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.GradeSimulationRequest;
+import com.progress.api.dto.GradeSimulationResponse;
+import com.progress.api.dto.RequiredGradesResponse;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What-if scenarios and minimum required grades over a {@link GradeReport}.
+ * <p>
+ * A module is pending when it has no mark yet or only CC grades, i.e. its exam is
+ * still to come. The report is flattened into primitive arrays, and the weighted sum
+ * and coefficient of the known modules of each period are computed once. A scenario
+ * then only adjusts those per-period sums for the modules it marks, so a batch costs
+ * one pass over the report plus the marks it contains, however many scenarios share
+ * it.
+ * <p>
+ * Required grades are solved directly: a period average is linear in the mark given
+ * to its pending modules, so the uniform average they need to reach the target is a
+ * closed form, for each period and for the annual average (the mean of the periods).
+ * A required module average is turned into a required exam grade with the module's
+ * CC mean and the exam's share of its average, assuming the exam counts fully when
+ * either is unknown.
+ */
+@Component
+public class GradeSimulator {
+
+    static final double MAX_MARK = 20.0;
+
+    private final int maxScenarios;
+
+    private final Timer simulationTimer;
+    private final Timer solverTimer;
+    private final DistributionSummary scenarioCount;
+
+    public GradeSimulator(
+            MeterRegistry meterRegistry,
+            @Value("${grades.simulation.max-scenarios:1000}") int maxScenarios) {
+        this.maxScenarios = maxScenarios;
+        this.simulationTimer = Timer.builder("grades.simulation.duration")
+                .description("Time to evaluate what-if scenarios or solve for the required grades")
+                .tag("type", "scenarios")
+                .register(meterRegistry);
+        this.solverTimer = Timer.builder("grades.simulation.duration")
+                .description("Time to evaluate what-if scenarios or solve for the required grades")
+                .tag("type", "required")
+                .register(meterRegistry);
+        this.scenarioCount = DistributionSummary.builder("grades.simulation.scenarios")
+                .description("Scenarios per simulation request")
+                .register(meterRegistry);
+    }
+
+    public GradeSimulationResponse simulate(GradeReport report, GradeSimulationRequest request) {
+        List<GradeSimulationRequest.Scenario> scenarios = request == null ? null : request.getScenarios();
+        if (scenarios == null || scenarios.isEmpty()) {
+            throw new ApiException("At least one scenario is required", HttpStatus.BAD_REQUEST);
+        }
+        if (scenarios.size() > maxScenarios) {
+            throw new ApiException("At most " + maxScenarios + " scenarios can be simulated at once",
+                    HttpStatus.BAD_REQUEST);
+        }
+        scenarioCount.record(scenarios.size());
+        return simulationTimer.record(() -> evaluate(report, scenarios));
+    }
+
+    public RequiredGradesResponse requiredGrades(GradeReport report, double target) {
+        if (!(target >= 0 && target <= MAX_MARK)) {
+            throw new ApiException("The target must be between 0 and 20", HttpStatus.BAD_REQUEST);
+        }
+        return solverTimer.record(() -> solve(report, target));
+    }
+
+    private GradeSimulationResponse evaluate(GradeReport report, List<GradeSimulationRequest.Scenario> scenarios) {
+        Grades grades = new Grades(report);
+        int periods = grades.periodLabels.size();
+        double[] weighted = new double[periods];
+        double[] coefficient = new double[periods];
+        double[] pendingLeft = new double[periods];
+
+        List<GradeSimulationResponse.ScenarioResult> results = new ArrayList<>(scenarios.size());
+        for (GradeSimulationRequest.Scenario scenario : scenarios) {
+            System.arraycopy(grades.knownWeighted, 0, weighted, 0, periods);
+            System.arraycopy(grades.knownCoefficient, 0, coefficient, 0, periods);
+            System.arraycopy(grades.pendingCoefficient, 0, pendingLeft, 0, periods);
+
+            Map<Integer, Double> marks = scenario.getMarks() == null ? Map.of() : scenario.getMarks();
+            for (Map.Entry<Integer, Double> entry : marks.entrySet()) {
+                int m = grades.index(entry.getKey());
+                double mark = validMark(entry.getValue());
+                int p = grades.period[m];
+                double c = grades.coefficient[m];
+                if (grades.pending[m]) {
+                    pendingLeft[p] -= c;
+                } else {
+                    weighted[p] -= grades.mark[m] * c;
+                    coefficient[p] -= c;
+                }
+                weighted[p] += mark * c;
+                coefficient[p] += c;
+            }
+            if (scenario.getPendingMark() != null) {
+                double mark = validMark(scenario.getPendingMark());
+                for (int p = 0; p < periods; p++) {
+                    weighted[p] += mark * pendingLeft[p];
+                    coefficient[p] += pendingLeft[p];
+                }
+            }
+
+            List<Double> averages = new ArrayList<>(periods);
+            double sum = 0;
+            int averaged = 0;
+            for (int p = 0; p < periods; p++) {
+                if (coefficient[p] > 1e-9) {
+                    double average = weighted[p] / coefficient[p];
+                    averages.add(round(average));
+                    sum += average;
+                    averaged++;
+                } else {
+                    averages.add(null);
+                }
+            }
+            Double annual = averaged > 0 ? round(sum / averaged) : null;
+            results.add(GradeSimulationResponse.ScenarioResult.builder()
+                    .name(scenario.getName())
+                    .periodAverages(averages)
+                    .annualAverage(annual)
+                    .passed(annual != null && annual >= GradeEngine.PASSING_MARK)
+                    .build());
+        }
+
+        return GradeSimulationResponse.builder()
+                .cardId(report.getCardId())
+                .periods(grades.periodLabels)
+                .results(results)
+                .build();
+    }
+
+    private RequiredGradesResponse solve(GradeReport report, double target) {
+        Grades grades = new Grades(report);
+        int periods = grades.periodLabels.size();
+
+        // Period p's average with x on its pending modules is intercept[p] + slope[p] * x
+        double interceptSum = 0;
+        double slopeSum = 0;
+        int counted = 0;
+        List<RequiredGradesResponse.PeriodRequirement> periodRequirements = new ArrayList<>(periods);
+        for (int p = 0; p < periods; p++) {
+            double known = grades.knownCoefficient[p];
+            double pending = grades.pendingCoefficient[p];
+            double total = known + pending;
+            if (total > 0) {
+                interceptSum += grades.knownWeighted[p] / total;
+                slopeSum += pending / total;
+                counted++;
+            }
+
+            double required = pending > 0
+                    ? (target * total - grades.knownWeighted[p]) / pending
+                    : Double.NaN;
+            RequiredGradesResponse.Requirement requirement = requirement(
+                    required, known > 0 && grades.knownWeighted[p] / known >= target);
+
+            List<RequiredGradesResponse.ModuleRequirement> modules = new ArrayList<>();
+            for (int m = 0; m < grades.modules; m++) {
+                if (grades.period[m] == p && grades.pending[m]) {
+                    modules.add(moduleRequirement(grades, m, Math.max(0, required)));
+                }
+            }
+            periodRequirements.add(RequiredGradesResponse.PeriodRequirement.builder()
+                    .label(grades.periodLabels.get(p))
+                    .currentAverage(known > 0 ? round(grades.knownWeighted[p] / known) : null)
+                    .requirement(requirement)
+                    .modules(modules)
+                    .build());
+        }
+
+        double annualRequired = slopeSum > 0 ? (target * counted - interceptSum) / slopeSum : Double.NaN;
+        boolean annualSecured = counted > 0 && interceptSum / counted >= target;
+        return RequiredGradesResponse.builder()
+                .cardId(report.getCardId())
+                .target(target)
+                .annual(requirement(annualRequired, annualSecured))
+                .periods(periodRequirements)
+                .build();
+    }
+
+    /**
+     * @param required the uniform average pending modules need, {@code NaN} when nothing
+     *                 is pending
+     * @param reached  whether the marks already known reach the target on their own
+     */
+    private static RequiredGradesResponse.Requirement requirement(double required, boolean reached) {
+        if (Double.isNaN(required)) {
+            return RequiredGradesResponse.Requirement.builder()
+                    .requiredAverage(reached ? 0.0 : null)
+                    .secured(reached)
+                    .reachable(reached)
+                    .build();
+        }
+        return RequiredGradesResponse.Requirement.builder()
+                .requiredAverage(round(Math.max(0, required)))
+                .secured(required <= 0)
+                .reachable(required <= MAX_MARK)
+                .build();
+    }
+
+    private static RequiredGradesResponse.ModuleRequirement moduleRequirement(Grades grades, int m, double average) {
+        double examWeight = grades.examWeight[m];
+        double ccMark = grades.ccMark[m];
+        double exam = Double.isNaN(examWeight) || Double.isNaN(ccMark) || examWeight <= 0
+                ? average
+                : (average - ccMark * (1 - examWeight)) / examWeight;
+        return RequiredGradesResponse.ModuleRequirement.builder()
+                .id(grades.id[m])
+                .label(grades.label[m])
+                .coefficient(grades.coefficient[m])
+                .ccMark(round(ccMark))
+                .requiredAverage(round(average))
+                .requiredExam(round(Math.max(0, exam)))
+                .reachable(exam <= MAX_MARK)
+                .build();
+    }
+
+    private static double validMark(Double mark) {
+        if (mark == null || !(mark >= 0 && mark <= MAX_MARK)) {
+            throw new ApiException("Marks must be between 0 and 20", HttpStatus.BAD_REQUEST);
+        }
+        return mark;
+    }
+
+    private static Double round(double value) {
+        return Double.isNaN(value) ? null : Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * The modules of a report as parallel arrays, with the known and pending sums of
+     * each period. Modules without a coefficient cannot move an average and are left
+     * out.
+     */
+    private static final class Grades {
+        private final int[] id;
+        private final String[] label;
+        private final double[] mark;
+        private final double[] coefficient;
+        private final double[] ccMark;
+        private final double[] examWeight;
+        private final boolean[] pending;
+        private final int[] period;
+        private final int[] indexById;
+        private int modules;
+
+        private final List<String> periodLabels = new ArrayList<>();
+        private final double[] knownWeighted;
+        private final double[] knownCoefficient;
+        private final double[] pendingCoefficient;
+
+        private Grades(GradeReport report) {
+            List<GradeReport.Period> periods = report.getPeriods() == null ? List.of() : report.getPeriods();
+            int capacity = Math.max(0, report.getTotalModules());
+            id = new int[capacity];
+            label = new String[capacity];
+            mark = new double[capacity];
+            coefficient = new double[capacity];
+            ccMark = new double[capacity];
+            examWeight = new double[capacity];
+            pending = new boolean[capacity];
+            period = new int[capacity];
+            indexById = new int[capacity];
+            Arrays.fill(indexById, -1);
+            knownWeighted = new double[periods.size()];
+            knownCoefficient = new double[periods.size()];
+            pendingCoefficient = new double[periods.size()];
+
+            for (int p = 0; p < periods.size(); p++) {
+                GradeReport.Period reportPeriod = periods.get(p);
+                periodLabels.add(reportPeriod.getLabel());
+                for (GradeReport.Unit unit : reportPeriod.getUnits()) {
+                    for (GradeReport.Module module : unit.getModules()) {
+                        add(p, module);
+                    }
+                }
+            }
+        }
+
+        private void add(int p, GradeReport.Module module) {
+            if (module.getCoefficient() <= 0 || module.getId() < 0 || module.getId() >= indexById.length
+                    || modules == id.length) {
+                return;
+            }
+            int m = modules++;
+            id[m] = module.getId();
+            label[m] = module.getLabel();
+            coefficient[m] = module.getCoefficient();
+            pending[m] = module.getMark() == null || GradeEngine.SOURCE_CC.equals(module.getSource());
+            mark[m] = module.getMark() == null ? Double.NaN : module.getMark();
+            ccMark[m] = module.getCcMark() == null ? Double.NaN : module.getCcMark();
+            examWeight[m] = module.getExamWeight() == null ? Double.NaN : module.getExamWeight();
+            period[m] = p;
+            indexById[module.getId()] = m;
+            if (pending[m]) {
+                pendingCoefficient[p] += coefficient[m];
+            } else {
+                knownWeighted[p] += mark[m] * coefficient[m];
+                knownCoefficient[p] += coefficient[m];
+            }
+        }
+
+        int index(Integer moduleId) {
+            int m = moduleId == null || moduleId < 0 || moduleId >= indexById.length ? -1 : indexById[moduleId];
+            if (m < 0) {
+                throw new ApiException("Unknown or ungraded module id: " + moduleId, HttpStatus.BAD_REQUEST);
+            }
+            return m;
+        }
+    }
+}
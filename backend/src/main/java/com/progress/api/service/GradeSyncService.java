@@ -0,0 +1,229 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.GradeSync;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.ExamGrade;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delta sync of a card's exam and CC grades.
+ * <p>
+ * The grade entries are grouped by module, kept with every field PROGRES sends, and
+ * each module is hashed, so any change to an entry (a mark, an absence, an exam
+ * date) changes its module's hash; the card's version is the hash of those hashes.
+ * The module hashes of the last few versions handed out are kept per card, so a
+ * client that sends the version it last saw gets only the modules that changed or
+ * disappeared since, and nothing when the version is still current. A version that
+ * is unknown, too old, or was handed to another student gets the full list. Only
+ * hashes are kept, never the grades themselves. A sync that finds the grades changed
+ * also drops the card's report from {@link GradeService}, so its averages are not
+ * served from before the change.
+ */
+@Service
+public class GradeSyncService {
+
+    private final StudentService studentService;
+    private final GradeService gradeService;
+    private final ObjectMapper objectMapper;
+    private final int versionsPerCard;
+
+    private final Map<String, History> histories = new ConcurrentHashMap<>();
+    private final LruEviction<String, History> eviction;
+
+    private final Counter unchanged;
+    private final Counter delta;
+    private final Counter full;
+
+    public GradeSyncService(
+            StudentService studentService,
+            GradeService gradeService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${grades.sync.max-entries:10000}") int maxEntries,
+            @Value("${grades.sync.versions:5}") int versionsPerCard) {
+        this.studentService = studentService;
+        this.gradeService = gradeService;
+        this.objectMapper = objectMapper;
+        this.eviction = new LruEviction<>(histories, maxEntries, history -> history.lastAccess);
+        this.versionsPerCard = Math.max(1, versionsPerCard);
+        this.unchanged = counter(meterRegistry, "unchanged");
+        this.delta = counter(meterRegistry, "delta");
+        this.full = counter(meterRegistry, "full");
+        meterRegistry.gaugeMapSize("grades.sync.cards", Tags.empty(), histories);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("grades.sync.requests")
+                .description("Grade sync requests by whether nothing, the changed modules or every module was sent")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param since the version the client last received, or {@code null}
+     * @return the changes since {@code since}, or {@code null} when the grades have not changed
+     */
+    public GradeSync sync(String uuid, String cardId, String externalToken, String since) {
+        List<Dia> dias = studentService.getDias(uuid, externalToken);
+        Map<String, GradeSync.Module> modules = modules(
+                studentService.getExamGradeEntries(uuid, cardId, dias, externalToken),
+                studentService.getCCGradeEntries(uuid, cardId, dias, externalToken));
+
+        Map<String, String> hashes = new TreeMap<>();
+        modules.forEach((key, module) -> hashes.put(key, hash(module)));
+        List<String> parts = new ArrayList<>(hashes.size() * 2);
+        hashes.forEach((key, hash) -> {
+            parts.add(key);
+            parts.add(hash);
+        });
+        String version = RecommendationCache.snapshot(parts.toArray(String[]::new));
+
+        Map<String, String> previous = record(uuid, cardId, since, version, hashes);
+        if (version.equals(since)) {
+            unchanged.increment();
+            return null;
+        }
+
+        GradeSync.GradeSyncBuilder sync = GradeSync.builder()
+                .cardId(cardId)
+                .version(version);
+        if (previous == null) {
+            full.increment();
+            return sync
+                    .full(true)
+                    .changed(new ArrayList<>(modules.values()))
+                    .removed(List.of())
+                    .build();
+        }
+
+        delta.increment();
+        return sync
+                .since(since)
+                .changed(modules.values().stream()
+                        .filter(module -> !hashes.get(module.getKey()).equals(previous.get(module.getKey())))
+                        .toList())
+                .removed(previous.keySet().stream()
+                        .filter(key -> !hashes.containsKey(key))
+                        .toList())
+                .build();
+    }
+
+    public int size() {
+        return histories.size();
+    }
+
+    /**
+     * The card's grade entries by module, in the order PROGRES lists them. The module
+     * is named as in {@link ExamGrade} and {@link CCGrade}; entries without a module
+     * name are kept together under the empty key.
+     */
+    Map<String, GradeSync.Module> modules(List<JsonNode> examGrades, List<JsonNode> ccGrades) {
+        Map<String, GradeSync.Module> modules = new LinkedHashMap<>();
+        for (JsonNode entry : examGrades) {
+            ExamGrade grade = read(entry, ExamGrade.class);
+            String label = firstText(grade.mcLibelleFr(), grade.libelleMatiere(), grade.rattachementMcMcLibelleFr(),
+                    grade.mcLibelleAr(), grade.libelleMatiereArabe(), grade.rattachementMcMcLibelleAr());
+            module(modules, label).getExamGrades().add(entry);
+        }
+        for (JsonNode entry : ccGrades) {
+            module(modules, read(entry, CCGrade.class).module()).getCcGrades().add(entry);
+        }
+        return modules;
+    }
+
+    private <T> T read(JsonNode entry, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(entry, type);
+        } catch (JsonProcessingException e) {
+            throw new ApiException("Failed to read grades: " + e.getOriginalMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static GradeSync.Module module(Map<String, GradeSync.Module> modules, String label) {
+        String name = GradeEngine.normalize(label);
+        return modules.computeIfAbsent(name == null ? "" : name, key -> GradeSync.Module.builder()
+                .key(key)
+                .label(label)
+                .examGrades(new ArrayList<>())
+                .ccGrades(new ArrayList<>())
+                .build());
+    }
+
+    private static String firstText(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private String hash(GradeSync.Module module) {
+        try {
+            return RecommendationCache.snapshot(objectMapper.writeValueAsString(module));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize grades of module " + module.getKey(), e);
+        }
+    }
+
+    /**
+     * Remember the module hashes of {@code version} for the card, keeping its most
+     * recent versions. A card seen for another student starts a new history. When
+     * {@code version} is not the card's latest, its grades changed and its cached
+     * report is dropped.
+     *
+     * @return the module hashes of {@code since}, or {@code null} when it is not known
+     */
+    private Map<String, String> record(
+            String uuid, String cardId, String since, String version, Map<String, String> hashes) {
+        History history = histories.compute(cardId, (key, existing) ->
+                existing != null && existing.uuid.equals(uuid) ? existing : new History(uuid));
+        Map<String, String> previous;
+        String latest = null;
+        synchronized (history) {
+            previous = since == null ? null : history.versions.get(since);
+            for (String known : history.versions.keySet()) {
+                latest = known;
+            }
+            history.versions.remove(version);
+            history.versions.put(version, hashes);
+            while (history.versions.size() > versionsPerCard) {
+                history.versions.remove(history.versions.keySet().iterator().next());
+            }
+            history.lastAccess = System.currentTimeMillis();
+        }
+        eviction.trim();
+        if (!version.equals(latest)) {
+            gradeService.invalidate(cardId);
+        }
+        return previous;
+    }
+
+    private static final class History {
+        private final String uuid;
+        /** Module hashes by version, oldest first. */
+        private final Map<String, Map<String, String>> versions = new LinkedHashMap<>();
+        private volatile long lastAccess;
+
+        private History(String uuid) {
+            this.uuid = uuid;
+        }
+    }
+}
@@ -3,24 +3,39 @@ package com.progress.api.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Flux;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class GroqClient {
 
+    private static final int MAX_TOKENS = 2048;
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final GroqRequestScheduler scheduler;
+    private final TokenQuotaLedger quotaLedger;
+    private final boolean configured;
+    private final DistributionSummary promptTokens;
+    private final DistributionSummary completionTokens;
 
     @Value("${groq.model:llama-3.3-70b-versatile}")
     private String model;
@@ -31,8 +46,17 @@ public class GroqClient {
     public GroqClient(
             @Value("${groq.api-key:}") String apiKey,
             @Value("${groq.base-url:https://api.groq.com/openai/v1}") String baseUrl,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            GroqRequestScheduler scheduler,
+            TokenQuotaLedger quotaLedger) {
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.scheduler = scheduler;
+        this.quotaLedger = quotaLedger;
+        this.configured = apiKey != null && !apiKey.isBlank();
+        this.promptTokens = tokenSummary(meterRegistry, "prompt");
+        this.completionTokens = tokenSummary(meterRegistry, "completion");
         this.webClient = WebClient.builder()
                 .baseUrl(baseUrl)
                 .defaultHeader("Authorization", "Bearer " + apiKey)
@@ -45,58 +69,223 @@ public class GroqClient {
     }
 
     public String chat(String systemPrompt, String userPrompt) {
+        return chat(systemPrompt, userPrompt, GroqRequestScheduler.Priority.INTERACTIVE);
+    }
+
+    public String chat(String systemPrompt, String userPrompt, GroqRequestScheduler.Priority priority) {
+        return chat(systemPrompt, userPrompt, priority, null);
+    }
+
+    /**
+     * Send a chat completion in JSON mode. The call waits in the
+     * {@link GroqRequestScheduler} until Groq's rate limits allow it.
+     *
+     * @param uuid the student the tokens are charged to in the {@link TokenQuotaLedger},
+     *             or {@code null} for calls made for no particular student
+     */
+    public String chat(String systemPrompt, String userPrompt, GroqRequestScheduler.Priority priority, String uuid) {
+        long start = System.nanoTime();
+        String outcome = "error";
         try {
+            quotaLedger.check(uuid);
             Map<String, Object> requestBody = Map.of(
                     "model", model,
                     "messages", List.of(
                             Map.of("role", "system", "content", systemPrompt),
                             Map.of("role", "user", "content", userPrompt)),
                     "temperature", 0.7,
-                    "max_tokens", 2048,
+                    "max_tokens", MAX_TOKENS,
                     "response_format", Map.of("type", "json_object"));
 
-            String response = webClient.post()
-                    .uri("/chat/completions")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
+            String response = scheduler.execute(estimateTokens(systemPrompt, userPrompt), priority, () -> {
+                ResponseEntity<String> entity = webClient.post()
+                        .uri("/chat/completions")
+                        .bodyValue(requestBody)
+                        .retrieve()
+                        .toEntity(String.class)
+                        .timeout(Duration.ofMillis(timeout))
+                        .block();
+                scheduler.update(entity.getHeaders());
+                return entity.getBody();
+            });
 
             JsonNode root = objectMapper.readTree(response);
             JsonNode choices = root.path("choices");
+            recordUsage(root.path("usage"), uuid);
 
             if (choices.isArray() && !choices.isEmpty()) {
+                outcome = "success";
                 return choices.get(0).path("message").path("content").asText();
             }
 
             throw new ApiException("Invalid response from Groq API", HttpStatus.INTERNAL_SERVER_ERROR);
 
         } catch (WebClientResponseException e) {
-            log.error("Groq API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw toApiException(e);
+        } catch (ApiException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error calling Groq API", e);
+            throw new ApiException("Failed to get AI recommendation: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            recordLatency("chat", outcome, start);
+        }
+    }
+
+    public String chatStream(String systemPrompt, String userPrompt, Consumer<String> onDelta) {
+        return chatStream(systemPrompt, userPrompt, null, onDelta);
+    }
 
-            if (e.getStatusCode().value() == 401) {
-                throw new ApiException("Invalid Groq API key", HttpStatus.UNAUTHORIZED);
-            } else if (e.getStatusCode().value() == 429) {
-                throw new ApiException("Groq API rate limit exceeded. Please try again later.",
-                        HttpStatus.TOO_MANY_REQUESTS);
+    /**
+     * Streaming variant of {@link #chat}: requests {@code stream=true} and hands each
+     * content delta to {@code onDelta} as it arrives.
+     * <p>
+     * Groq does not support JSON mode together with streaming, so the system prompt
+     * alone keeps the output in JSON. Token usage is read from the final chunk, where
+     * Groq reports it under {@code x_groq.usage}. A 429 arrives before the first
+     * delta, so the scheduler can requeue the call without the consumer seeing it.
+     *
+     * @param uuid the student the tokens are charged to, as for {@link #chat}
+     * @return the full completion text
+     */
+    public String chatStream(String systemPrompt, String userPrompt, String uuid, Consumer<String> onDelta) {
+        StringBuilder content = new StringBuilder();
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            quotaLedger.check(uuid);
+            Map<String, Object> requestBody = Map.of(
+                    "model", model,
+                    "messages", List.of(
+                            Map.of("role", "system", "content", systemPrompt),
+                            Map.of("role", "user", "content", userPrompt)),
+                    "temperature", 0.7,
+                    "max_tokens", MAX_TOKENS,
+                    "stream", true);
+
+            Flux<String> body = scheduler.execute(
+                    estimateTokens(systemPrompt, userPrompt),
+                    GroqRequestScheduler.Priority.INTERACTIVE,
+                    () -> {
+                        ResponseEntity<Flux<String>> entity = webClient.post()
+                                .uri("/chat/completions")
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                                .bodyValue(requestBody)
+                                .retrieve()
+                                .toEntityFlux(String.class)
+                                .timeout(Duration.ofMillis(timeout))
+                                .block();
+                        scheduler.update(entity.getHeaders());
+                        return entity.getBody();
+                    });
+
+            // Drained on the calling thread: onDelta may block on the client connection,
+            // which must not happen on the reactor-netty event loop
+            JsonNode usage = null;
+            Iterable<String> events = body.takeWhile(data -> !"[DONE]".equals(data.trim()))
+                    .timeout(Duration.ofMillis(timeout))
+                    .toIterable();
+            for (String data : events) {
+                JsonNode chunk = readChunk(data);
+                JsonNode chunkUsage = chunk.has("usage") ? chunk.get("usage") : chunk.path("x_groq").get("usage");
+                if (chunkUsage != null && !chunkUsage.isNull()) {
+                    usage = chunkUsage;
+                }
+                String delta = extractDelta(chunk);
+                if (delta != null && !delta.isEmpty()) {
+                    content.append(delta);
+                    onDelta.accept(delta);
+                }
             }
 
-            throw new ApiException("Failed to get AI recommendation: " + e.getMessage(),
-                    HttpStatus.INTERNAL_SERVER_ERROR);
+            if (usage != null) {
+                recordUsage(usage, uuid);
+            }
+            outcome = "success";
+            return content.toString();
+
+        } catch (WebClientResponseException e) {
+            throw toApiException(e);
+        } catch (ApiException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Error calling Groq API", e);
+            log.error("Error streaming from Groq API", e);
             throw new ApiException("Failed to get AI recommendation: " + e.getMessage(),
                     HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            recordLatency("stream", outcome, start);
         }
     }
 
-    public boolean isConfigured() {
+    /**
+     * Budget to reserve for a call: the estimated prompt plus the full completion
+     * allowance. Groq's headers correct the estimate once the response arrives.
+     */
+    private static long estimateTokens(String systemPrompt, String userPrompt) {
+        return PromptCompactor.estimateTokens(systemPrompt) + PromptCompactor.estimateTokens(userPrompt) + MAX_TOKENS;
+    }
+
+    private JsonNode readChunk(String data) {
         try {
-            return true;
+            return objectMapper.readTree(data);
         } catch (Exception e) {
-            return false;
+            throw new ApiException("Invalid streaming response from Groq API", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static String extractDelta(JsonNode chunk) {
+        JsonNode choices = chunk.path("choices");
+        if (choices.isArray() && !choices.isEmpty()) {
+            JsonNode delta = choices.get(0).path("delta").path("content");
+            return delta.isTextual() ? delta.asText() : null;
+        }
+        return null;
+    }
+
+    private void recordUsage(JsonNode usage, String uuid) {
+        if (usage.has("prompt_tokens")) {
+            promptTokens.record(usage.get("prompt_tokens").asDouble());
         }
+        if (usage.has("completion_tokens")) {
+            completionTokens.record(usage.get("completion_tokens").asDouble());
+        }
+        quotaLedger.record(uuid, usage.path("prompt_tokens").asLong(0), usage.path("completion_tokens").asLong(0));
+    }
+
+    private void recordLatency(String mode, String outcome, long startNanos) {
+        Timer.builder("groq.request.duration")
+                .description("Latency of Groq chat completions, until the last token for streams")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static DistributionSummary tokenSummary(MeterRegistry meterRegistry, String type) {
+        return DistributionSummary.builder("groq.tokens")
+                .description("Tokens per Groq chat completion, as reported by the API")
+                .baseUnit("tokens")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private ApiException toApiException(WebClientResponseException e) {
+        log.error("Groq API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+
+        if (e.getStatusCode().value() == 401) {
+            return new ApiException("Invalid Groq API key", HttpStatus.UNAUTHORIZED);
+        } else if (e.getStatusCode().value() == 429) {
+            return new ApiException("Groq API rate limit exceeded. Please try again later.",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        return new ApiException("Failed to get AI recommendation: " + e.getMessage(),
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    public boolean isConfigured() {
+        return configured;
     }
 
     public String getModel() {
@@ -0,0 +1,304 @@
+package com.progress.api.service;
+
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side admission control for Groq calls.
+ * <p>
+ * Tracks the request and token budgets Groq reports in its {@code x-ratelimit-*}
+ * response headers, starting from the configured per-minute limits until the first
+ * response arrives. A call is admitted when both budgets cover it; otherwise it waits
+ * in a queue ordered by priority, then by deadline. Waiters are woken when a budget
+ * resets or new headers arrive. A 429 pauses admission for the {@code retry-after}
+ * period and puts the call back in the queue, so a burst is spread out instead of
+ * failing. Only a call that is still waiting at its deadline is rejected.
+ */
+@Slf4j
+@Component
+public class GroqRequestScheduler {
+
+    public enum Priority {
+        /** A user is waiting on the HTTP response. */
+        INTERACTIVE,
+        /** Queued job; the result is collected later. */
+        BACKGROUND
+    }
+
+    private static final long WINDOW_MS = 60_000;
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final long interactiveWaitMs;
+    private final long backgroundWaitMs;
+    private final int maxQueue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing(Waiter::priority)
+                    .thenComparingLong(Waiter::deadline)
+                    .thenComparingLong(Waiter::sequence));
+    private long sequence;
+
+    private long requestLimit;
+    private long tokenLimit;
+    private long remainingRequests;
+    private long remainingTokens;
+    private long requestsResetAt;
+    private long tokensResetAt;
+    private long pausedUntil;
+
+    private final Timer waitTimer;
+    private final Counter rateLimited;
+    private final Counter rejected;
+
+    public GroqRequestScheduler(
+            MeterRegistry meterRegistry,
+            @Value("${groq.scheduler.requests-per-minute:30}") long requestsPerMinute,
+            @Value("${groq.scheduler.tokens-per-minute:6000}") long tokensPerMinute,
+            @Value("${groq.scheduler.max-queue:100}") int maxQueue,
+            @Value("${groq.scheduler.interactive-wait-ms:15000}") long interactiveWaitMs,
+            @Value("${groq.scheduler.background-wait-ms:120000}") long backgroundWaitMs) {
+        this.requestLimit = requestsPerMinute;
+        this.tokenLimit = tokensPerMinute;
+        this.remainingRequests = requestsPerMinute;
+        this.remainingTokens = tokensPerMinute;
+        this.maxQueue = maxQueue;
+        this.interactiveWaitMs = interactiveWaitMs;
+        this.backgroundWaitMs = backgroundWaitMs;
+
+        meterRegistry.gauge("groq.scheduler.queue", queue, q -> {
+            lock.lock();
+            try {
+                return q.size();
+            } finally {
+                lock.unlock();
+            }
+        });
+        this.waitTimer = Timer.builder("groq.scheduler.wait")
+                .description("Time Groq calls spent queued for rate limit budget")
+                .register(meterRegistry);
+        this.rateLimited = Counter.builder("groq.scheduler.rate-limited")
+                .description("Groq 429 responses that were requeued")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("groq.scheduler.rejected")
+                .description("Groq calls still queued at their deadline")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface GroqCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Run {@code call} once the budget allows it, retrying after a 429 until the
+     * deadline for {@code priority} has passed.
+     *
+     * @param estimatedTokens tokens the call is expected to use, prompt and completion
+     */
+    public <T> T execute(long estimatedTokens, Priority priority, GroqCall<T> call) throws Exception {
+        long deadline = System.currentTimeMillis()
+                + (priority == Priority.INTERACTIVE ? interactiveWaitMs : backgroundWaitMs);
+        while (true) {
+            acquire(estimatedTokens, priority, deadline);
+            try {
+                return call.call();
+            } catch (WebClientResponseException e) {
+                if (e.getStatusCode().value() != 429) {
+                    throw e;
+                }
+                rateLimited.increment();
+                onRateLimited(e.getHeaders());
+                if (System.currentTimeMillis() >= deadline) {
+                    throw e;
+                }
+                log.info("Groq rate limit hit, requeueing {} call", priority);
+            }
+        }
+    }
+
+    /**
+     * Replace the local estimate with the budget Groq reported.
+     */
+    public void update(HttpHeaders headers) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Long limitRequests = longHeader(headers, "x-ratelimit-limit-requests");
+            Long limitTokens = longHeader(headers, "x-ratelimit-limit-tokens");
+            Long leftRequests = longHeader(headers, "x-ratelimit-remaining-requests");
+            Long leftTokens = longHeader(headers, "x-ratelimit-remaining-tokens");
+            Long resetRequests = parseDuration(headers.getFirst("x-ratelimit-reset-requests"));
+            Long resetTokens = parseDuration(headers.getFirst("x-ratelimit-reset-tokens"));
+
+            if (limitRequests != null) {
+                requestLimit = limitRequests;
+            }
+            if (limitTokens != null) {
+                tokenLimit = limitTokens;
+            }
+            if (leftRequests != null) {
+                remainingRequests = leftRequests;
+            }
+            if (leftTokens != null) {
+                remainingTokens = leftTokens;
+            }
+            if (resetRequests != null) {
+                requestsResetAt = now + resetRequests;
+            }
+            if (resetTokens != null) {
+                tokensResetAt = now + resetTokens;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onRateLimited(HttpHeaders headers) {
+        update(headers);
+        Long retryAfter = longHeader(headers, HttpHeaders.RETRY_AFTER);
+        long pauseMs = retryAfter != null ? retryAfter * 1000 : 1000;
+        lock.lock();
+        try {
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + pauseMs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(long estimatedTokens, Priority priority, long deadline) throws InterruptedException {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (queue.size() >= maxQueue) {
+                rejected.increment();
+                throw busy();
+            }
+            Waiter waiter = new Waiter(priority, deadline, sequence++);
+            queue.add(waiter);
+            try {
+                while (true) {
+                    long now = System.currentTimeMillis();
+                    refill(now);
+                    long tokens = Math.min(estimatedTokens, tokenLimit);
+                    long waitMs = queue.peek() == waiter ? waitTime(tokens, now) : deadline - now;
+                    if (waitMs <= 0 && queue.peek() == waiter) {
+                        queue.poll();
+                        if (requestsResetAt <= now) {
+                            requestsResetAt = now + WINDOW_MS;
+                        }
+                        if (tokensResetAt <= now) {
+                            tokensResetAt = now + WINDOW_MS;
+                        }
+                        remainingRequests--;
+                        remainingTokens -= tokens;
+                        return;
+                    }
+                    if (now >= deadline) {
+                        rejected.increment();
+                        throw busy();
+                    }
+                    changed.await(Math.max(1, Math.min(waitMs, deadline - now)), TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                queue.remove(waiter);
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void refill(long now) {
+        if (requestsResetAt <= now && remainingRequests < requestLimit) {
+            remainingRequests = requestLimit;
+            requestsResetAt = now + WINDOW_MS;
+        }
+        if (tokensResetAt <= now && remainingTokens < tokenLimit) {
+            remainingTokens = tokenLimit;
+            tokensResetAt = now + WINDOW_MS;
+        }
+    }
+
+    private long waitTime(long tokens, long now) {
+        long wait = pausedUntil - now;
+        if (remainingRequests <= 0) {
+            wait = Math.max(wait, requestsResetAt - now);
+        }
+        if (remainingTokens < tokens) {
+            wait = Math.max(wait, tokensResetAt - now);
+        }
+        return wait;
+    }
+
+    private static ApiException busy() {
+        return new ApiException("The AI service is busy. Please try again shortly.", HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private static Long longHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return (long) Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse Groq's reset durations such as {@code "7.66s"}, {@code "2m59.56s"} or
+     * {@code "120ms"} into milliseconds.
+     */
+    static Long parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double ms = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            ms += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1000;
+                default -> amount;
+            };
+        }
+        return matched ? Math.round(ms) : null;
+    }
+
+    private record Waiter(Priority priority, long deadline, long sequence) {
+    }
+}
@@ -0,0 +1,349 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.LmdDecisionReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LMD credit and compensation decisions for a card, from its {@link GradeReport}.
+ * <p>
+ * A module, unit, semester or year is acquired on its own when its average reaches
+ * the pass mark; a unit, semester or year also when all of its children are. Where
+ * compensation is enabled at a level, an acquired node carries every node below it,
+ * which are then compensated and earn their credits too. The year decision follows
+ * from the year's status and the credits earned: admitted, admitted with debts above
+ * {@code grades.lmd.conditional-credits}, or adjourned.
+ * <p>
+ * A module without a mark is pending: it is neither acquired nor compensated and
+ * earns nothing. Its unit, semester and year are pending too, since their averages
+ * leave it out, and so is the decision until the mark is in.
+ * <p>
+ * The rules are compiled once into a status table per level, indexed by a bitmask of
+ * the conditions that hold for a node (own average reached, all children acquired,
+ * each ancestor acquired, a module below still ungraded), and a decision table
+ * indexed by whether the year is passed and whether enough credits were earned.
+ * Evaluating a card is one bottom-up pass to set the own-average bits and one
+ * top-down pass of table lookups that also sums the credits.
+ */
+@Component
+public class LmdRuleEngine {
+
+    public enum Status { ACQUIRED, COMPENSATED, NOT_ACQUIRED, PENDING }
+
+    public enum Decision { ADMITTED, ADMITTED_WITH_DEBTS, ADJOURNED, PENDING }
+
+    static final int MODULE = 0;
+    static final int UNIT = 1;
+    static final int PERIOD = 2;
+    static final int YEAR = 3;
+
+    static final int OWN_AVERAGE = 1;
+    static final int ALL_CHILDREN = 1 << 1;
+    static final int UNIT_ACQUIRED = 1 << 2;
+    static final int PERIOD_ACQUIRED = 1 << 3;
+    static final int YEAR_ACQUIRED = 1 << 4;
+    static final int UNGRADED = 1 << 5;
+    private static final int MASKS = 1 << 6;
+
+    private static final int YEAR_PASSED = 1;
+    private static final int ENOUGH_CREDITS = 1 << 1;
+
+    private final double passMark;
+    private final double semesterCredits;
+    private final double conditionalCredits;
+
+    private final Status[][] statusTables = new Status[4][MASKS];
+    private final Decision[] decisionTable = new Decision[4];
+
+    public LmdRuleEngine(
+            @Value("${grades.lmd.pass-mark:10}") double passMark,
+            @Value("${grades.lmd.unit-compensation:true}") boolean unitCompensation,
+            @Value("${grades.lmd.semester-compensation:true}") boolean semesterCompensation,
+            @Value("${grades.lmd.annual-compensation:true}") boolean annualCompensation,
+            @Value("${grades.lmd.semester-credits:30}") double semesterCredits,
+            @Value("${grades.lmd.conditional-credits:30}") double conditionalCredits) {
+        this.passMark = passMark;
+        this.semesterCredits = semesterCredits;
+        this.conditionalCredits = conditionalCredits;
+
+        boolean[] compensates = {false, unitCompensation, semesterCompensation, annualCompensation};
+        for (int level = MODULE; level <= YEAR; level++) {
+            for (int mask = 0; mask < MASKS; mask++) {
+                statusTables[level][mask] = compile(level, mask, compensates[level]);
+            }
+        }
+        decisionTable[0] = Decision.ADJOURNED;
+        decisionTable[YEAR_PASSED] = Decision.ADMITTED;
+        decisionTable[ENOUGH_CREDITS] = conditionalCredits > 0 ? Decision.ADMITTED_WITH_DEBTS : Decision.ADJOURNED;
+        decisionTable[YEAR_PASSED | ENOUGH_CREDITS] = Decision.ADMITTED;
+    }
+
+    private static Status compile(int level, int mask, boolean compensates) {
+        if ((mask & UNGRADED) != 0) {
+            return Status.PENDING;
+        }
+        boolean own = (mask & OWN_AVERAGE) != 0;
+        boolean acquired = level == MODULE
+                ? own
+                : (mask & ALL_CHILDREN) != 0 || (own && compensates);
+        if (acquired) {
+            return Status.ACQUIRED;
+        }
+        int ancestors = switch (level) {
+            case MODULE -> UNIT_ACQUIRED | PERIOD_ACQUIRED | YEAR_ACQUIRED;
+            case UNIT -> PERIOD_ACQUIRED | YEAR_ACQUIRED;
+            case PERIOD -> YEAR_ACQUIRED;
+            default -> 0;
+        };
+        return (mask & ancestors) != 0 ? Status.COMPENSATED : Status.NOT_ACQUIRED;
+    }
+
+    Status status(int level, int mask) {
+        return statusTables[level][mask];
+    }
+
+    public LmdDecisionReport evaluate(GradeReport report) {
+        Nodes nodes = new Nodes(report);
+        int periods = nodes.periodLabel.length;
+
+        // Bottom-up: own-average and all-children bits, ancestors not yet known
+        int yearMask = ALL_CHILDREN;
+        for (int p = 0; p < periods; p++) {
+            int periodMask = ALL_CHILDREN;
+            for (int u = nodes.periodFirstUnit[p]; u < nodes.periodFirstUnit[p + 1]; u++) {
+                int unitMask = ALL_CHILDREN;
+                for (int m = nodes.unitFirstModule[u]; m < nodes.unitFirstModule[u + 1]; m++) {
+                    nodes.moduleMask[m] = Double.isNaN(nodes.moduleMark[m]) ? UNGRADED
+                            : reaches(nodes.moduleMark[m]) ? OWN_AVERAGE : 0;
+                    unitMask = fromChild(unitMask, nodes.moduleMask[m], MODULE);
+                }
+                if (nodes.unitFirstModule[u] == nodes.unitFirstModule[u + 1]) {
+                    unitMask = 0;
+                }
+                if (reaches(nodes.unitAverage[u])) {
+                    unitMask |= OWN_AVERAGE;
+                }
+                nodes.unitMask[u] = unitMask;
+                periodMask = fromChild(periodMask, unitMask, UNIT);
+            }
+            if (nodes.periodFirstUnit[p] == nodes.periodFirstUnit[p + 1]) {
+                periodMask = 0;
+            }
+            if (reaches(nodes.periodAverage[p])) {
+                periodMask |= OWN_AVERAGE;
+            }
+            nodes.periodMask[p] = periodMask;
+            yearMask = fromChild(yearMask, periodMask, PERIOD);
+        }
+        if (periods == 0) {
+            yearMask = 0;
+        }
+        if (reaches(nodes.annualAverage)) {
+            yearMask |= OWN_AVERAGE;
+        }
+
+        // Top-down: ancestors' bits, statuses and credits
+        Status year = statusTables[YEAR][yearMask];
+        int fromYear = earns(year) ? YEAR_ACQUIRED : 0;
+        double credits = 0;
+        double totalCredits = 0;
+        List<LmdDecisionReport.Period> periodResults = new ArrayList<>(periods);
+        for (int p = 0; p < periods; p++) {
+            Status period = statusTables[PERIOD][nodes.periodMask[p] | fromYear];
+            int fromPeriod = fromYear | (earns(period) ? PERIOD_ACQUIRED : 0);
+            double periodCredits = 0;
+            double periodTotal = 0;
+            List<LmdDecisionReport.Unit> unitResults = new ArrayList<>();
+            for (int u = nodes.periodFirstUnit[p]; u < nodes.periodFirstUnit[p + 1]; u++) {
+                Status unit = statusTables[UNIT][nodes.unitMask[u] | fromPeriod];
+                int fromUnit = fromPeriod | (earns(unit) ? UNIT_ACQUIRED : 0);
+                double unitCredits = 0;
+                double unitTotal = 0;
+                List<LmdDecisionReport.Module> moduleResults = new ArrayList<>();
+                for (int m = nodes.unitFirstModule[u]; m < nodes.unitFirstModule[u + 1]; m++) {
+                    Status module = statusTables[MODULE][nodes.moduleMask[m] | fromUnit];
+                    double earned = earns(module) ? nodes.moduleCredit[m] : 0;
+                    unitCredits += earned;
+                    unitTotal += nodes.moduleCredit[m];
+                    moduleResults.add(LmdDecisionReport.Module.builder()
+                            .id(nodes.moduleId[m])
+                            .label(nodes.moduleLabel[m])
+                            .mark(nodes.moduleReportMark[m])
+                            .status(module.name())
+                            .credits(round(earned))
+                            .totalCredits(round(nodes.moduleCredit[m]))
+                            .build());
+                }
+                periodCredits += unitCredits;
+                periodTotal += unitTotal;
+                unitResults.add(LmdDecisionReport.Unit.builder()
+                        .label(nodes.unitLabel[u])
+                        .average(nullable(nodes.unitAverage[u]))
+                        .status(unit.name())
+                        .credits(round(unitCredits))
+                        .totalCredits(round(unitTotal))
+                        .modules(moduleResults)
+                        .build());
+            }
+            credits += periodCredits;
+            totalCredits += periodTotal;
+            periodResults.add(LmdDecisionReport.Period.builder()
+                    .label(nodes.periodLabel[p])
+                    .average(nullable(nodes.periodAverage[p]))
+                    .status(period.name())
+                    .credits(round(periodCredits))
+                    .totalCredits(round(periodTotal))
+                    .units(unitResults)
+                    .build());
+        }
+
+        int decisionMask = (earns(year) ? YEAR_PASSED : 0)
+                | (conditionalCredits > 0 && credits >= conditionalCredits ? ENOUGH_CREDITS : 0);
+        Decision decision = year == Status.PENDING ? Decision.PENDING : decisionTable[decisionMask];
+        return LmdDecisionReport.builder()
+                .cardId(report.getCardId())
+                .academicYear(report.getAcademicYear())
+                .level(report.getLevel())
+                .annualAverage(report.getAnnualAverage())
+                .status(year.name())
+                .decision(decision.name())
+                .credits(round(credits))
+                .totalCredits(round(totalCredits))
+                .complete(nodes.complete)
+                .periods(periodResults)
+                .build();
+    }
+
+    /**
+     * The parent's mask after one more child: all-children is cleared unless the child
+     * is acquired, and a pending child makes the parent pending.
+     */
+    private int fromChild(int parentMask, int childMask, int childLevel) {
+        Status child = statusTables[childLevel][childMask];
+        if (child == Status.PENDING) {
+            parentMask |= UNGRADED;
+        }
+        return child == Status.ACQUIRED ? parentMask : parentMask & ~ALL_CHILDREN;
+    }
+
+    private static boolean earns(Status status) {
+        return status == Status.ACQUIRED || status == Status.COMPENSATED;
+    }
+
+    private boolean reaches(double average) {
+        return average >= passMark;
+    }
+
+    private static Double nullable(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * The report's tree as flat arrays: modules of unit {@code u} are
+     * {@code unitFirstModule[u]} up to {@code unitFirstModule[u + 1]}, and likewise for
+     * the units of a period. Averages the report could not compute are {@code NaN}.
+     */
+    private final class Nodes {
+        private final int[] moduleId;
+        private final String[] moduleLabel;
+        private final Double[] moduleReportMark;
+        private final double[] moduleMark;
+        private final double[] moduleCredit;
+        private final int[] moduleMask;
+
+        private final String[] unitLabel;
+        private final double[] unitAverage;
+        private final int[] unitFirstModule;
+        private final int[] unitMask;
+
+        private final String[] periodLabel;
+        private final double[] periodAverage;
+        private final int[] periodFirstUnit;
+        private final int[] periodMask;
+
+        private final double annualAverage;
+        private boolean complete = true;
+
+        private Nodes(GradeReport report) {
+            List<GradeReport.Period> periods = report.getPeriods() == null ? List.of() : report.getPeriods();
+            int unitCount = 0;
+            int moduleCount = 0;
+            for (GradeReport.Period period : periods) {
+                unitCount += period.getUnits().size();
+                for (GradeReport.Unit unit : period.getUnits()) {
+                    moduleCount += unit.getModules().size();
+                }
+            }
+
+            moduleId = new int[moduleCount];
+            moduleLabel = new String[moduleCount];
+            moduleReportMark = new Double[moduleCount];
+            moduleMark = new double[moduleCount];
+            moduleCredit = new double[moduleCount];
+            moduleMask = new int[moduleCount];
+            unitLabel = new String[unitCount];
+            unitAverage = new double[unitCount];
+            unitFirstModule = new int[unitCount + 1];
+            unitMask = new int[unitCount];
+            periodLabel = new String[periods.size()];
+            periodAverage = new double[periods.size()];
+            periodFirstUnit = new int[periods.size() + 1];
+            periodMask = new int[periods.size()];
+            annualAverage = report.getAnnualAverage() == null ? Double.NaN : report.getAnnualAverage();
+
+            int u = 0;
+            int m = 0;
+            for (int p = 0; p < periods.size(); p++) {
+                GradeReport.Period period = periods.get(p);
+                periodLabel[p] = period.getLabel();
+                periodAverage[p] = period.getAverage() == null ? Double.NaN : period.getAverage();
+                periodFirstUnit[p] = u;
+                int periodFirstModule = m;
+                double periodCredits = 0;
+                double periodCoefficients = 0;
+                for (GradeReport.Unit unit : period.getUnits()) {
+                    unitLabel[u] = unit.getLabel();
+                    unitAverage[u] = unit.getAverage() == null ? Double.NaN : unit.getAverage();
+                    unitFirstModule[u] = m;
+                    for (GradeReport.Module module : unit.getModules()) {
+                        moduleId[m] = module.getId();
+                        moduleLabel[m] = module.getLabel();
+                        moduleReportMark[m] = module.getMark();
+                        moduleMark[m] = module.getMark() == null ? Double.NaN : module.getMark();
+                        moduleCredit[m] = module.getCredit();
+                        periodCredits += module.getCredit();
+                        periodCoefficients += module.getCoefficient();
+                        if (module.getCoefficient() > 0 && (module.getMark() == null
+                                || GradeEngine.SOURCE_CC.equals(module.getSource()))) {
+                            complete = false;
+                        }
+                        m++;
+                    }
+                    u++;
+                }
+                // Without module credits, a semester's credits are shared by coefficient
+                if (periodCredits <= 0 && periodCoefficients > 0 && semesterCredits > 0) {
+                    int i = periodFirstModule;
+                    for (GradeReport.Unit unit : period.getUnits()) {
+                        for (GradeReport.Module module : unit.getModules()) {
+                            moduleCredit[i++] = semesterCredits * module.getCoefficient() / periodCoefficients;
+                        }
+                    }
+                }
+            }
+            unitFirstModule[unitCount] = m;
+            periodFirstUnit[periods.size()] = u;
+            if (periods.isEmpty()) {
+                complete = false;
+            }
+        }
+    }
+}
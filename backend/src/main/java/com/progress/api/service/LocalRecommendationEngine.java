@@ -0,0 +1,335 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationRequest;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.dto.RecommendationResponse.CurrentStatus;
+import com.progress.api.dto.RecommendationResponse.Recommendation;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.PeriodBilan;
+import com.progress.api.service.AcademicDataGatherer.GradeData;
+import com.progress.api.service.AcademicStructureIndex.Field;
+import com.progress.api.service.AcademicStructureIndex.Level;
+import com.progress.api.service.AcademicStructureIndex.Program;
+import com.progress.api.service.AcademicStructureIndex.University;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Deterministic, in-process recommendations from the grade data alone.
+ * <p>
+ * Each option the student can move to is scored by the student's grades in the
+ * modules that match its {@code keySubjects} in {@code academic-structure.json},
+ * blended with the overall average. It runs in well under a millisecond, so it serves
+ * as the instant first answer while the model writes its own, and as the answer when
+ * Groq is unavailable.
+ */
+@Component
+public class LocalRecommendationEngine {
+
+    public static final String MODEL = "local";
+
+    static final int MAX_RECOMMENDATIONS = 5;
+
+    private static final double DEFAULT_AVERAGE = 10.0;
+    private static final double SUBJECT_WEIGHT = 0.6;
+    private static final int PREFERENCE_BONUS = 5;
+    private static final int MIN_TOKEN_LENGTH = 4;
+    private static final double COHORT_WEIGHT = 0.5;
+
+    private static final Comparator<Recommendation> RANKING = Comparator
+            .comparingInt(Recommendation::getMatchScore).reversed()
+            .thenComparing(Recommendation::getName, String.CASE_INSENSITIVE_ORDER);
+
+    public RecommendationResponse recommend(
+            CurrentStatus status,
+            University university,
+            GradeData gradeData,
+            RecommendationRequest request) {
+        List<ModuleGrade> grades = moduleGrades(gradeData);
+        double overall = overallAverage(status, grades);
+
+        Field field = university.findField(status.getField());
+        List<Recommendation> recommendations = new ArrayList<>();
+        for (Program program : candidates(field, AcademicStructureIndex.resolveLevelCode(status.getLevel()), status)) {
+            recommendations.add(score(program, grades, overall, request));
+        }
+        recommendations.sort(RANKING);
+        if (recommendations.size() > MAX_RECOMMENDATIONS) {
+            recommendations = new ArrayList<>(recommendations.subList(0, MAX_RECOMMENDATIONS));
+        }
+
+        return RecommendationResponse.builder()
+                .currentStatus(status)
+                .recommendations(recommendations)
+                .summary(summary(recommendations, grades.size(), overall))
+                .model(MODEL)
+                .build();
+    }
+
+    /**
+     * Adapt recommendations generated for a whole cohort to one student: each match
+     * score is blended with the local score from the student's own grades and
+     * preferences, the local reasoning is appended, and the list is re-ranked.
+     */
+    public RecommendationResponse personalize(
+            RecommendationResponse cohort,
+            CurrentStatus status,
+            University university,
+            GradeData gradeData,
+            RecommendationRequest request) {
+        List<ModuleGrade> grades = moduleGrades(gradeData);
+        double overall = overallAverage(status, grades);
+        Field field = university.findField(status.getField());
+
+        List<Recommendation> recommendations = new ArrayList<>();
+        for (Recommendation shared : cohort.getRecommendations()) {
+            Program program = field == null ? null : field.programs().get(shared.getCode());
+            Recommendation local = program == null ? null : score(program, grades, overall, request);
+            recommendations.add(Recommendation.builder()
+                    .code(shared.getCode())
+                    .name(shared.getName())
+                    .nameAr(shared.getNameAr())
+                    .type(shared.getType())
+                    .matchScore(local == null
+                            ? shared.getMatchScore()
+                            : (int) Math.round(COHORT_WEIGHT * shared.getMatchScore()
+                                    + (1 - COHORT_WEIGHT) * local.getMatchScore()))
+                    .reasoning(local == null ? shared.getReasoning() : shared.getReasoning() + " " + local.getReasoning())
+                    .keySubjects(shared.getKeySubjects())
+                    .careerOutcomes(shared.getCareerOutcomes())
+                    .furtherOptions(shared.getFurtherOptions())
+                    .build());
+        }
+        recommendations.sort(RANKING);
+
+        return RecommendationResponse.builder()
+                .currentStatus(status)
+                .recommendations(recommendations)
+                .summary(cohort.getSummary())
+                .model(cohort.getModel())
+                .build();
+    }
+
+    /**
+     * The student's overall average: the registration's average, else the weighted
+     * average of their module grades.
+     */
+    public double overallAverage(CurrentStatus status, GradeData gradeData) {
+        return overallAverage(status, moduleGrades(gradeData));
+    }
+
+    private static double overallAverage(CurrentStatus status, List<ModuleGrade> grades) {
+        return status.getCurrentAverage() != null
+                ? status.getCurrentAverage()
+                : weightedAverage(grades, DEFAULT_AVERAGE);
+    }
+
+    /**
+     * Options one step ahead of the student: those listed by their current major or
+     * speciality, else by their level, else every option of the next level.
+     */
+    static List<Program> candidates(Field field, String levelCode, CurrentStatus status) {
+        if (field == null) {
+            return List.of();
+        }
+        List<String> levelCodes = new ArrayList<>(field.levels().keySet());
+        int index = levelCode == null ? -1 : levelCodes.indexOf(levelCode);
+        if (index < 0) {
+            List<Program> all = new ArrayList<>();
+            field.levels().values().forEach(level -> all.addAll(level.programs()));
+            all.addAll(field.masterSpecialities());
+            return all;
+        }
+
+        Level level = field.levels().get(levelCode);
+        Program current = level.findProgram(status.getSpeciality(), status.getMajor());
+        List<String> next = current != null && !current.nextOptions().isEmpty()
+                ? current.nextOptions()
+                : level.nextOptions();
+        if (!next.isEmpty()) {
+            return next.stream().map(field.programs()::get).filter(Objects::nonNull).toList();
+        }
+        if (index + 1 < levelCodes.size()) {
+            return field.levels().get(levelCodes.get(index + 1)).programs();
+        }
+        if (current != null) {
+            List<Program> masters = field.masterSpecialities().stream()
+                    .filter(master -> current.code().equals(master.parent()))
+                    .toList();
+            if (!masters.isEmpty()) {
+                return masters;
+            }
+        }
+        return field.masterSpecialities();
+    }
+
+    private Recommendation score(Program program, List<ModuleGrade> grades, double overall, RecommendationRequest request) {
+        Set<ModuleGrade> related = new LinkedHashSet<>();
+        int coveredSubjects = 0;
+        for (String keySubject : program.keySubjects()) {
+            boolean covered = false;
+            for (ModuleGrade grade : grades) {
+                if (matches(keySubject, grade)) {
+                    related.add(grade);
+                    covered = true;
+                }
+            }
+            if (covered) {
+                coveredSubjects++;
+            }
+        }
+
+        StringBuilder reasoning = new StringBuilder();
+        double score;
+        if (related.isEmpty()) {
+            score = overall * 5 * 0.9;
+            reasoning.append("None of your graded modules match the key subjects of this option; the score reflects ")
+                    .append("your overall average of ").append(format(overall)).append("/20.");
+        } else {
+            List<ModuleGrade> relatedGrades = List.copyOf(related);
+            double subject = weightedAverage(relatedGrades, overall);
+            double coverage = (double) coveredSubjects / program.keySubjects().size();
+            score = (SUBJECT_WEIGHT * subject + (1 - SUBJECT_WEIGHT) * overall) * 5 * (0.9 + 0.1 * coverage);
+            reasoning.append("Your average in related modules (")
+                    .append(String.join(", ", relatedGrades.stream().map(ModuleGrade::name).distinct().limit(4).toList()))
+                    .append(") is ").append(format(subject)).append("/20, against an overall average of ")
+                    .append(format(overall)).append("/20.");
+        }
+
+        if (matchesPreferences(program, request)) {
+            score += PREFERENCE_BONUS;
+            reasoning.append(" It matches your preferred subjects.");
+        }
+
+        return Recommendation.builder()
+                .code(program.code())
+                .name(program.name())
+                .nameAr(program.nameAr())
+                .type(program.type())
+                .matchScore((int) Math.max(0, Math.min(100, Math.round(score))))
+                .reasoning(reasoning.toString())
+                .keySubjects(program.keySubjects())
+                .careerOutcomes(List.of())
+                .furtherOptions(program.nextOptions())
+                .build();
+    }
+
+    private static boolean matchesPreferences(Program program, RecommendationRequest request) {
+        if (request == null || request.getPreferredSubjects() == null) {
+            return false;
+        }
+        for (String preferred : request.getPreferredSubjects()) {
+            ModuleGrade asModule = ModuleGrade.of(preferred, 1, 0);
+            if (matches(program.name(), asModule)) {
+                return true;
+            }
+            for (String keySubject : program.keySubjects()) {
+                if (matches(keySubject, asModule)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A module matches a key subject when its name contains the subject, or contains
+     * every significant word of it ignoring accents, case and plurals.
+     */
+    static boolean matches(String keySubject, ModuleGrade module) {
+        String subject = AcademicStructureIndex.normalize(keySubject);
+        if (subject.isEmpty()) {
+            return false;
+        }
+        if (module.normalized().contains(subject)) {
+            return true;
+        }
+        Set<String> words = significantWords(subject);
+        return !words.isEmpty() && module.words().containsAll(words);
+    }
+
+    private static Set<String> significantWords(String normalized) {
+        Set<String> words = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.length() >= MIN_TOKEN_LENGTH) {
+                words.add(word.endsWith("s") ? word.substring(0, word.length() - 1) : word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Module grades from the exam bilans, falling back to CC grades when no bilan
+     * is available.
+     */
+    static List<ModuleGrade> moduleGrades(GradeData gradeData) {
+        List<ModuleGrade> grades = new ArrayList<>();
+        for (List<PeriodBilan> bilans : Arrays.asList(gradeData.currentExams(), gradeData.previousExams())) {
+            if (bilans == null) {
+                continue;
+            }
+            for (PeriodBilan period : bilans) {
+                for (PeriodBilan.ModuleBilan module : period.modules()) {
+                    Double grade = module.moyenneGenerale() != null ? module.moyenneGenerale() : module.noteExamen();
+                    if (module.mcLibelleFr() != null && grade != null) {
+                        grades.add(ModuleGrade.of(
+                                module.mcLibelleFr(),
+                                module.coefficient() != null ? module.coefficient() : 1,
+                                grade));
+                    }
+                }
+            }
+        }
+
+        if (grades.isEmpty() && gradeData.currentCC() != null) {
+            for (CCGrade grade : gradeData.currentCC()) {
+                if (grade.rattachementMcMcLibelleFr() != null && grade.note() != null) {
+                    grades.add(ModuleGrade.of(grade.rattachementMcMcLibelleFr(), 1, grade.note()));
+                }
+            }
+        }
+        return grades;
+    }
+
+    private static double weightedAverage(List<ModuleGrade> grades, double fallback) {
+        double weighted = 0;
+        double weights = 0;
+        for (ModuleGrade grade : grades) {
+            weighted += grade.grade() * grade.coefficient();
+            weights += grade.coefficient();
+        }
+        return weights > 0 ? weighted / weights : fallback;
+    }
+
+    private static String summary(List<Recommendation> recommendations, int gradedModules, double overall) {
+        if (recommendations.isEmpty()) {
+            return "No options could be found for your current field and level.";
+        }
+        return String.format(Locale.ROOT,
+                "Ranked from %d graded modules against the key subjects of each option, with an overall average of "
+                        + "%s/20. Strongest fit: %s.",
+                gradedModules, format(overall), recommendations.get(0).getName());
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    record ModuleGrade(String name, String normalized, Set<String> words, double coefficient, double grade) {
+
+        static ModuleGrade of(String name, double coefficient, double grade) {
+            String normalized = AcademicStructureIndex.normalize(name);
+            return new ModuleGrade(name, normalized, significantWords(normalized), coefficient > 0 ? coefficient : 1, grade);
+        }
+    }
+}
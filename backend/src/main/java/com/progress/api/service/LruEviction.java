@@ -0,0 +1,78 @@
+package com.progress.api.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps a concurrent map of cached values within a size bound, least recently used
+ * first.
+ * <p>
+ * Going over the bound triggers one pass that removes entries down to a low-water
+ * mark a tenth below it, so the entries are ranked once per batch of inserts instead
+ * of on every insert over the bound. One thread evicts at a time; the others carry on
+ * without waiting, which can leave the map briefly above the bound. Values that match
+ * {@code evictFirst} go before all others regardless of when they were last used.
+ */
+final class LruEviction<K, V> {
+
+    private final Map<K, V> map;
+    private final int maxEntries;
+    private final int lowWater;
+    private final ToLongFunction<V> lastAccess;
+    private final Predicate<V> evictFirst;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    LruEviction(Map<K, V> map, int maxEntries, ToLongFunction<V> lastAccess) {
+        this(map, maxEntries, lastAccess, value -> false);
+    }
+
+    /**
+     * @param lastAccess when a value was last used; smaller values are evicted first
+     * @param evictFirst values to evict before any other
+     */
+    LruEviction(Map<K, V> map, int maxEntries, ToLongFunction<V> lastAccess, Predicate<V> evictFirst) {
+        this.map = map;
+        this.maxEntries = maxEntries;
+        this.lowWater = maxEntries - maxEntries / 10;
+        this.lastAccess = lastAccess;
+        this.evictFirst = evictFirst;
+    }
+
+    /**
+     * Evict down to the low-water mark if the map is over its bound. Call after
+     * adding to the map.
+     *
+     * @return the number of entries removed
+     */
+    int trim() {
+        if (map.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int count = map.size() - lowWater;
+            if (count <= 0) {
+                return 0;
+            }
+            // Rank a snapshot; access times keep changing while the pass runs
+            List<K> victims = map.entrySet().stream()
+                    .map(entry -> new Candidate<>(entry.getKey(),
+                            evictFirst.test(entry.getValue()), lastAccess.applyAsLong(entry.getValue())))
+                    .sorted(Comparator.comparing((Candidate<K> candidate) -> !candidate.first())
+                            .thenComparingLong(Candidate::lastAccess))
+                    .limit(count)
+                    .map(Candidate::key)
+                    .toList();
+            victims.forEach(map::remove);
+            return victims.size();
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Candidate<K>(K key, boolean first, long lastAccess) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.PeriodBilan;
+import com.progress.api.service.AcademicDataGatherer.GradeData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Turns the grade data gathered for a recommendation into compact tables and keeps
+ * the prompt within a token budget.
+ * <p>
+ * PROGRES bilans carry dozens of fields per module; the model only needs the module
+ * name, its coefficient and the grade, so each period becomes a header line followed
+ * by one {@code module|coef|avg} row per module. CC grades become
+ * {@code module|period|note} rows.
+ * <p>
+ * Token counts are estimated at {@value #CHARS_PER_TOKEN} characters per token. When
+ * a prompt is over budget, the previous year's exams are dropped first, then the CC
+ * grades, then rows are cut from the largest remaining table.
+ */
+@Slf4j
+@Component
+public class PromptCompactor {
+
+    static final int CHARS_PER_TOKEN = 4;
+    static final String TRUNCATED = "(truncated)";
+
+    private static final List<String> DROP_ORDER = List.of(
+            AcademicDataGatherer.PREVIOUS_EXAMS,
+            AcademicDataGatherer.CURRENT_CC);
+
+    private final int maxTokens;
+    private final DistributionSummary promptTokens;
+    private final Counter trimmedPrompts;
+
+    public PromptCompactor(
+            MeterRegistry meterRegistry,
+            @Value("${recommendation.prompt.max-tokens:3000}") int maxTokens) {
+        this.maxTokens = maxTokens;
+        this.promptTokens = DistributionSummary.builder("recommendation.prompt.tokens")
+                .description("Estimated tokens per recommendation prompt, system prompt included")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.trimmedPrompts = Counter.builder("recommendation.prompt.trimmed")
+                .description("Prompts that had grade data dropped or cut to fit the token budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return one compact table per source that was fetched, current exams first
+     */
+    public Map<String, String> compact(GradeData gradeData) {
+        Map<String, String> tables = new LinkedHashMap<>();
+        if (gradeData.currentExams() != null) {
+            tables.put(AcademicDataGatherer.CURRENT_EXAMS, compactBilans(gradeData.currentExams()));
+        }
+        if (gradeData.previousExams() != null) {
+            tables.put(AcademicDataGatherer.PREVIOUS_EXAMS, compactBilans(gradeData.previousExams()));
+        }
+        if (gradeData.currentCC() != null) {
+            tables.put(AcademicDataGatherer.CURRENT_CC, compactCCGrades(gradeData.currentCC()));
+        }
+        return tables;
+    }
+
+    /**
+     * Render the prompt and shrink {@code tables} until it fits the budget or nothing
+     * is left to remove.
+     *
+     * @param reservedTokens tokens already taken by the rest of the request, such as
+     *                       the system prompt
+     * @param tables         grade tables from {@link #compact}; modified in place
+     * @param render         builds the user prompt from the current tables
+     */
+    public String fit(int reservedTokens, Map<String, String> tables, Function<Map<String, String>, String> render) {
+        String prompt = render.apply(tables);
+        int tokens = reservedTokens + estimateTokens(prompt);
+        boolean trimmed = false;
+        while (tokens > maxTokens && shrink(tables)) {
+            trimmed = true;
+            prompt = render.apply(tables);
+            tokens = reservedTokens + estimateTokens(prompt);
+        }
+
+        if (trimmed) {
+            trimmedPrompts.increment();
+        }
+        if (tokens > maxTokens) {
+            log.warn("Recommendation prompt is ~{} tokens, over the budget of {}", tokens, maxTokens);
+        }
+        promptTokens.record(tokens);
+        return prompt;
+    }
+
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Remove the least important grade data.
+     *
+     * @return {@code false} if there was nothing left to remove
+     */
+    static boolean shrink(Map<String, String> tables) {
+        for (String source : DROP_ORDER) {
+            if (tables.remove(source) != null) {
+                return true;
+            }
+        }
+
+        Map.Entry<String, String> largest = null;
+        for (Map.Entry<String, String> table : tables.entrySet()) {
+            if (largest == null || table.getValue().length() > largest.getValue().length()) {
+                largest = table;
+            }
+        }
+        if (largest == null) {
+            return false;
+        }
+
+        String[] lines = largest.getValue().split("\n");
+        if (lines.length <= 2) {
+            tables.remove(largest.getKey());
+        } else {
+            int keep = lines.length / 2;
+            List<String> kept = new ArrayList<>(List.of(lines).subList(0, keep));
+            kept.add(TRUNCATED);
+            tables.put(largest.getKey(), String.join("\n", kept));
+        }
+        return true;
+    }
+
+    /**
+     * One block per period: {@code "<period> (<level>): avg <moyenne>, credits <acquis>"}
+     * followed by {@code module|coef|avg} rows.
+     */
+    static String compactBilans(List<PeriodBilan> bilans) {
+        StringBuilder out = new StringBuilder();
+        for (PeriodBilan period : bilans) {
+            List<PeriodBilan.ModuleBilan> modules = period.modules();
+            out.append(period.periodeLibelleFr() != null ? period.periodeLibelleFr() : "Period");
+            if (period.niveauLibelleLongLt() != null) {
+                out.append(" (").append(period.niveauLibelleLongLt()).append(')');
+            }
+            out.append(": avg ").append(number(period.moyenne()));
+            if (period.creditAcquis() != null) {
+                out.append(", credits ").append(number(period.creditAcquis()));
+            }
+            out.append('\n');
+
+            if (!modules.isEmpty()) {
+                out.append("module|coef|avg\n");
+                for (PeriodBilan.ModuleBilan module : modules) {
+                    Double grade = module.moyenneGenerale() != null ? module.moyenneGenerale() : module.noteExamen();
+                    out.append(module.mcLibelleFr() != null ? module.mcLibelleFr() : "?").append('|')
+                            .append(number(module.coefficient())).append('|')
+                            .append(number(grade)).append('\n');
+                }
+            }
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * {@code module|period|note} rows; absences are written as {@code abs}. Grades
+     * without a module name are left out.
+     */
+    static String compactCCGrades(List<CCGrade> grades) {
+        StringBuilder out = new StringBuilder("module|period|note\n");
+        for (CCGrade grade : grades) {
+            String module = grade.module();
+            if (module == null) {
+                continue;
+            }
+            out.append(module).append('|')
+                    .append(grade.llPeriode() != null ? grade.llPeriode() : "-").append('|')
+                    .append(grade.absent() ? "abs" : number(grade.note()))
+                    .append('\n');
+        }
+        return out.toString().trim();
+    }
+
+    private static String number(Double value) {
+        if (value == null) {
+            return "-";
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationRequest;
+import com.progress.api.dto.RecommendationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recommendations already generated for a student, so a repeat visit skips the LLM.
+ * <p>
+ * Entries are grouped per student and stamped with a fingerprint of the academic
+ * snapshot (academic year and grade data). A lookup with a different snapshot misses,
+ * and storing a result for a new snapshot drops everything cached for the old one,
+ * so new grades invalidate the cache. Within one snapshot, results are keyed by the
+ * student's preferences; only the most recently used preference sets are kept, so a
+ * client varying its free-text context cannot grow its entry without limit.
+ */
+@Slf4j
+@Service
+public class RecommendationCache {
+
+    private final long ttlMs;
+    private final int maxPerStudent;
+
+    private final Map<String, StudentEntries> entries = new ConcurrentHashMap<>();
+    private final LruEviction<String, StudentEntries> eviction;
+
+    public RecommendationCache(
+            @Value("${recommendation.cache.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${recommendation.cache.max-entries:10000}") int maxStudents,
+            @Value("${recommendation.cache.max-per-student:5}") int maxPerStudent) {
+        this.ttlMs = ttlMinutes * 60_000;
+        this.eviction = new LruEviction<>(entries, maxStudents, student -> student.lastAccess);
+        this.maxPerStudent = Math.max(1, maxPerStudent);
+    }
+
+    public RecommendationResponse get(String uuid, String snapshot, RecommendationRequest request) {
+        if (ttlMs <= 0) {
+            return null;
+        }
+        StudentEntries student = entries.get(uuid);
+        if (student == null || !student.snapshot.equals(snapshot)) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Cached cached = student.get(preferencesKey(request));
+        if (cached == null || cached.expiresAt < now) {
+            return null;
+        }
+        student.lastAccess = now;
+        return cached.response;
+    }
+
+    public void put(String uuid, String snapshot, RecommendationRequest request, RecommendationResponse response) {
+        if (ttlMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        StudentEntries student = entries.compute(uuid, (key, existing) ->
+                existing != null && existing.snapshot.equals(snapshot) ? existing : new StudentEntries(snapshot, maxPerStudent));
+        student.put(preferencesKey(request), new Cached(response, now + ttlMs));
+        student.lastAccess = now;
+
+        eviction.trim();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Fingerprint of the data a recommendation was generated from. Any change to the
+     * academic year, level or grades yields a different value.
+     */
+    public static String snapshot(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                if (part != null) {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                } else {
+                    digest.update((byte) 1);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String preferencesKey(RecommendationRequest request) {
+        if (request == null) {
+            return "";
+        }
+        List<String> subjects = request.getPreferredSubjects();
+        return snapshot(
+                request.getCareerPreference(),
+                subjects == null ? null : String.join("\u001f", subjects),
+                request.getUniversityCode(),
+                request.getAdditionalContext());
+    }
+
+    @Scheduled(fixedRate = 300000)
+    public void cleanupExpiredEntries() {
+        long now = System.currentTimeMillis();
+        int beforeSize = entries.size();
+
+        entries.values().removeIf(student -> student.removeExpired(now));
+
+        int removed = beforeSize - entries.size();
+        if (removed > 0) {
+            log.info("Cleaned up {} expired recommendation cache entries. Remaining: {}", removed, entries.size());
+        }
+    }
+
+    /**
+     * One student's results for a snapshot, by preferences key, least recently used first.
+     */
+    private static final class StudentEntries {
+        private final String snapshot;
+        private final Map<String, Cached> byPreferences;
+        private volatile long lastAccess;
+
+        private StudentEntries(String snapshot, int maxPreferences) {
+            this.snapshot = Objects.requireNonNull(snapshot);
+            this.byPreferences = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                    return size() > maxPreferences;
+                }
+            };
+        }
+
+        private synchronized Cached get(String preferencesKey) {
+            return byPreferences.get(preferencesKey);
+        }
+
+        private synchronized void put(String preferencesKey, Cached cached) {
+            byPreferences.put(preferencesKey, cached);
+        }
+
+        /**
+         * @return true when no result is left
+         */
+        private synchronized boolean removeExpired(long now) {
+            byPreferences.values().removeIf(cached -> cached.expiresAt < now);
+            return byPreferences.isEmpty();
+        }
+    }
+
+    private record Cached(RecommendationResponse response, long expiresAt) {
+    }
+}
@@ -0,0 +1,332 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationJobResponse;
+import com.progress.api.dto.RecommendationJobResponse.Status;
+import com.progress.api.dto.RecommendationRequest;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs recommendation requests on a bounded worker pool so that slow LLM calls do
+ * not hold servlet threads.
+ * <p>
+ * Submitting returns a job id immediately. When every worker is busy and the queue
+ * is full the submission is rejected with 503 instead of piling up. Clients poll the
+ * job or subscribe to its server-sent events; finished jobs are kept for the
+ * retention period.
+ */
+@Slf4j
+@Service
+public class RecommendationJobService {
+
+    private final RecommendationService recommendationService;
+    private final ThreadPoolExecutor executor;
+    private final long retentionMs;
+    private final long sseTimeoutMs;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> unfinishedJobs = new ConcurrentHashMap<>();
+
+    private final Timer waitTimer;
+    private final Timer runTimer;
+    private final Counter rejectedCounter;
+    private final Counter deduplicatedCounter;
+
+    public RecommendationJobService(
+            RecommendationService recommendationService,
+            MeterRegistry meterRegistry,
+            @Value("${recommendation.jobs.workers:4}") int workers,
+            @Value("${recommendation.jobs.queue-capacity:50}") int queueCapacity,
+            @Value("${recommendation.jobs.retention-minutes:30}") long retentionMinutes,
+            @Value("${recommendation.jobs.sse-timeout-ms:60000}") long sseTimeoutMs) {
+        this.recommendationService = recommendationService;
+        this.retentionMs = Duration.ofMinutes(retentionMinutes).toMillis();
+        this.sseTimeoutMs = sseTimeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "recommendation-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("recommendation.jobs.queue.depth", executor, e -> e.getQueue().size())
+                .description("Recommendation jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Recommendation jobs currently running")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("recommendation.jobs.wait")
+                .description("Time a recommendation job spent queued before a worker picked it up")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("recommendation.jobs.duration")
+                .description("Time spent generating a recommendation once started")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("recommendation.jobs.rejected")
+                .description("Recommendation jobs rejected because the queue was full")
+                .register(meterRegistry);
+        this.deduplicatedCounter = Counter.builder("recommendation.jobs.deduplicated")
+                .description("Submissions answered with an identical job already queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a recommendation job. While the same student has an identical job queued
+     * or running, that job is returned instead of taking another worker.
+     */
+    public RecommendationJobResponse submit(String uuid, String externalToken, RecommendationRequest request) {
+        Job job = new Job(UUID.randomUUID().toString(), uuid, externalToken, request);
+        Job existing = unfinishedJobs.putIfAbsent(job.key, job);
+        if (existing != null) {
+            deduplicatedCounter.increment();
+            log.debug("Reusing recommendation job {} for uuid: {}", existing.id, uuid);
+            return existing.toResponse();
+        }
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            unfinishedJobs.remove(job.key, job);
+            rejectedCounter.increment();
+            log.warn("Recommendation queue full ({} waiting), rejecting job for uuid: {}",
+                    executor.getQueue().size(), uuid);
+            throw new ApiException("Too many recommendation requests in progress. Please try again shortly.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return job.toResponse();
+    }
+
+    public RecommendationJobResponse getJob(String uuid, String jobId) {
+        return findJob(uuid, jobId).toResponse();
+    }
+
+    /**
+     * Stream the job's progress. Sends the current status right away, a {@code status}
+     * event when it starts running, and a final {@code result} event.
+     */
+    public SseEmitter subscribe(String uuid, String jobId) {
+        Job job = findJob(uuid, jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+
+        synchronized (job) {
+            RecommendationJobResponse snapshot = job.toResponse();
+            if (job.isFinished()) {
+                send(emitter, "result", snapshot);
+                emitter.complete();
+            } else {
+                job.emitters.add(emitter);
+                send(emitter, "status", snapshot);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Generate recommendations on the worker pool and stream them as they are written:
+     * a {@code currentStatus} event once the student's data is gathered, a
+     * {@code preliminary} event with the local ranking, one {@code recommendation}
+     * event per item, then a {@code result} event with the complete response, or an
+     * {@code error} event.
+     */
+    public SseEmitter stream(String uuid, String externalToken, RecommendationRequest request) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        long submittedAt = System.currentTimeMillis();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.currentTimeMillis();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.MILLISECONDS);
+                try {
+                    RecommendationResponse result = recommendationService.streamRecommendations(
+                            uuid, externalToken, request, new RecommendationService.StreamListener() {
+                                @Override
+                                public void onStatus(RecommendationResponse.CurrentStatus currentStatus) {
+                                    sendEvent(emitter, "currentStatus", currentStatus);
+                                }
+
+                                @Override
+                                public void onPreliminary(RecommendationResponse preliminary) {
+                                    sendEvent(emitter, "preliminary", preliminary);
+                                }
+
+                                @Override
+                                public void onRecommendation(RecommendationResponse.Recommendation recommendation) {
+                                    sendEvent(emitter, "recommendation", recommendation);
+                                }
+                            });
+                    sendEvent(emitter, "result", result);
+                } catch (ApiException e) {
+                    sendEvent(emitter, "error", Map.of("message", e.getMessage()));
+                } catch (Exception e) {
+                    log.error("Streaming recommendation failed for uuid: {}", uuid, e);
+                    sendEvent(emitter, "error", Map.of("message", "Failed to generate recommendations"));
+                } finally {
+                    runTimer.record(System.currentTimeMillis() - startedAt, TimeUnit.MILLISECONDS);
+                    emitter.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ApiException("Too many recommendation requests in progress. Please try again shortly.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return emitter;
+    }
+
+    private void sendEvent(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; generation still completes so the result lands in the cache
+            log.debug("Could not send {} event: {}", event, e.getMessage());
+        }
+    }
+
+    private Job findJob(String uuid, String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.uuid.equals(uuid)) {
+            throw new ApiException("Recommendation job not found", HttpStatus.NOT_FOUND);
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        long startedAt = System.currentTimeMillis();
+        waitTimer.record(startedAt - job.submittedAt, TimeUnit.MILLISECONDS);
+        update(job, Status.RUNNING, null, null);
+
+        try {
+            RecommendationResponse result = recommendationService.getRecommendations(
+                    job.uuid, job.externalToken, job.request, GroqRequestScheduler.Priority.BACKGROUND);
+            update(job, Status.COMPLETED, result, null);
+        } catch (ApiException e) {
+            update(job, Status.FAILED, null, e.getMessage());
+        } catch (Exception e) {
+            log.error("Recommendation job {} failed", job.id, e);
+            update(job, Status.FAILED, null, "Failed to generate recommendations");
+        } finally {
+            runTimer.record(System.currentTimeMillis() - startedAt, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void update(Job job, Status status, RecommendationResponse result, String error) {
+        List<SseEmitter> emitters;
+        RecommendationJobResponse snapshot;
+        synchronized (job) {
+            job.status = status;
+            job.result = result;
+            job.error = error;
+            if (job.isFinished()) {
+                job.completedAt = System.currentTimeMillis();
+                job.externalToken = null;
+                unfinishedJobs.remove(job.key, job);
+            }
+            snapshot = job.toResponse();
+            emitters = List.copyOf(job.emitters);
+            if (job.isFinished()) {
+                job.emitters.clear();
+            }
+        }
+
+        String event = job.isFinished() ? "result" : "status";
+        for (SseEmitter emitter : emitters) {
+            send(emitter, event, snapshot);
+            if (job.isFinished()) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, String event, RecommendationJobResponse snapshot) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(snapshot));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping recommendation job subscriber: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void cleanupFinishedJobs() {
+        long threshold = System.currentTimeMillis() - retentionMs;
+        jobs.values().removeIf(job -> job.isFinished() && job.completedAt < threshold);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String key;
+        private final String uuid;
+        private final RecommendationRequest request;
+        private final long submittedAt = System.currentTimeMillis();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private String externalToken;
+        private Status status = Status.QUEUED;
+        private RecommendationResponse result;
+        private String error;
+        private long completedAt;
+
+        private Job(String id, String uuid, String externalToken, RecommendationRequest request) {
+            this.id = id;
+            this.key = RecommendationSingleFlight.key(uuid, request);
+            this.uuid = uuid;
+            this.externalToken = externalToken;
+            this.request = request;
+        }
+
+        private synchronized boolean isFinished() {
+            return status == Status.COMPLETED || status == Status.FAILED;
+        }
+
+        private synchronized RecommendationJobResponse toResponse() {
+            return RecommendationJobResponse.builder()
+                    .jobId(id)
+                    .status(status)
+                    .result(result)
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .completedAt(isFinished() ? completedAt : null)
+                    .build();
+        }
+    }
+}
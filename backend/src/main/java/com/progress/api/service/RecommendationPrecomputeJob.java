@@ -0,0 +1,244 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationResponse.CurrentStatus;
+import com.progress.api.service.AcademicStructureIndex.Field;
+import com.progress.api.service.AcademicStructureIndex.Level;
+import com.progress.api.service.AcademicStructureIndex.Program;
+import com.progress.api.service.AcademicStructureIndex.University;
+import com.progress.api.service.CohortRecommendationCache.CohortKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the cohort cache ahead of orientation season.
+ * <p>
+ * Every night (by default) the job walks the academic structure and generates the
+ * shared recommendations of each (university, field, level, major or speciality,
+ * average band) cohort that is not cached yet. A few calls run at once; they go
+ * through {@link GroqRequestScheduler} at background priority, so the batch uses
+ * whatever rate budget students leave and never delays their requests. Results land
+ * in {@link CohortRecommendationCache}, which the request path reads and which is
+ * written to disk when a store path is configured.
+ * <p>
+ * Without a store path every restart throws the batch's work away, so unless
+ * {@code recommendation.precompute.enabled} is set the job only runs when the cohort
+ * cache is persisted.
+ */
+@Slf4j
+@Service
+public class RecommendationPrecomputeJob {
+
+    private final RecommendationService recommendationService;
+    private final AcademicStructureIndex academicStructureIndex;
+    private final CohortRecommendationCache cohortCache;
+    private final GroqClient groqClient;
+    private final boolean enabled;
+    private final ExecutorService executor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger done = new AtomicInteger();
+
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+    private final Timer runTimer;
+
+    public RecommendationPrecomputeJob(
+            RecommendationService recommendationService,
+            AcademicStructureIndex academicStructureIndex,
+            CohortRecommendationCache cohortCache,
+            GroqClient groqClient,
+            MeterRegistry meterRegistry,
+            @Value("${recommendation.precompute.enabled:#{null}}") Boolean enabled,
+            @Value("${recommendation.precompute.concurrency:4}") int concurrency) {
+        this.recommendationService = recommendationService;
+        this.academicStructureIndex = academicStructureIndex;
+        this.cohortCache = cohortCache;
+        this.groqClient = groqClient;
+        this.enabled = enabled != null ? enabled : cohortCache.isPersistent();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-precompute-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("recommendation.precompute.total", total, AtomicInteger::get)
+                .description("Cohorts in the current or last precompute run")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.precompute.progress", done, AtomicInteger::get)
+                .description("Cohorts handled so far in the current or last precompute run")
+                .register(meterRegistry);
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("recommendation.precompute.cohorts")
+                    .description("Cohorts handled by the precompute job")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.runTimer = Timer.builder("recommendation.precompute.duration")
+                .description("Duration of a full precompute run")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void checkStore() {
+        if (enabled && !cohortCache.isPersistent()) {
+            log.warn("Recommendation precompute is enabled but recommendation.cohort.store-path is not set; "
+                    + "precomputed cohorts will be lost on every restart");
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(cron = "${recommendation.precompute.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        if (!groqClient.isConfigured()) {
+            log.info("Skipping recommendation precompute: Groq is not configured");
+            return;
+        }
+        run();
+    }
+
+    /**
+     * Generate every cohort that is not cached yet and write the cache to its store.
+     *
+     * @return what the run did, or {@code null} if a run was already in progress
+     */
+    public Summary run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Recommendation precompute already running, skipping");
+            return null;
+        }
+        try {
+            List<Cohort> cohorts = cohorts();
+            total.set(cohorts.size());
+            done.set(0);
+            Map<Outcome, AtomicInteger> tally = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                tally.put(outcome, new AtomicInteger());
+            }
+            log.info("Precomputing recommendations for {} cohorts", cohorts.size());
+
+            long start = System.nanoTime();
+            CompletableFuture.allOf(cohorts.stream()
+                            .map(cohort -> CompletableFuture.runAsync(() -> {
+                                Outcome outcome = precompute(cohort);
+                                outcomeCounters.get(outcome).increment();
+                                tally.get(outcome).incrementAndGet();
+                                int handled = done.incrementAndGet();
+                                if (handled % 50 == 0) {
+                                    log.info("Precomputed {}/{} cohorts", handled, cohorts.size());
+                                }
+                            }, executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+            Duration duration = Duration.ofNanos(System.nanoTime() - start);
+            runTimer.record(duration);
+            cohortCache.flush();
+
+            Summary summary = new Summary(cohorts.size(), tally.get(Outcome.GENERATED).get(),
+                    tally.get(Outcome.SKIPPED).get(), tally.get(Outcome.FAILED).get(), duration);
+            log.info("Recommendation precompute finished in {}s: {} generated ({}/min), {} already cached, {} failed",
+                    duration.toSeconds(), summary.generated(),
+                    String.format("%.1f", summary.generated() * 60_000.0 / Math.max(1, duration.toMillis())),
+                    summary.skipped(), summary.failed());
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Outcome precompute(Cohort cohort) {
+        if (cohortCache.contains(cohort.key())) {
+            return Outcome.SKIPPED;
+        }
+        try {
+            recommendationService.generateCohortRecommendations(
+                    cohort.profile(), cohort.availableOptions(), cohort.key(), GroqRequestScheduler.Priority.BACKGROUND);
+            return Outcome.GENERATED;
+        } catch (Exception e) {
+            log.warn("Failed to precompute cohort {}: {}", cohort.key(), e.getMessage());
+            return Outcome.FAILED;
+        }
+    }
+
+    /**
+     * Every cohort of the academic structure: each level of each field, once per
+     * major or speciality and once without one, in every average band. Keys are built
+     * with {@link CohortRecommendationCache#key} from the band's midpoint so they match
+     * the keys of real students.
+     */
+    List<Cohort> cohorts() {
+        List<Cohort> cohorts = new ArrayList<>();
+        for (University university : academicStructureIndex.getUniversities().values()) {
+            for (Field field : university.fields()) {
+                for (Level level : field.levels().values()) {
+                    String availableOptions = academicStructureIndex.findAvailableOptions(
+                            university, field.name(), level.code());
+                    List<Program> programs = new ArrayList<>(level.programs());
+                    programs.add(null);
+                    for (Program program : programs) {
+                        CurrentStatus profile = CurrentStatus.builder()
+                                .university(university.name())
+                                .field(field.name())
+                                .level(level.code())
+                                .major(program != null && Program.MAJOR.equals(program.type()) ? program.name() : null)
+                                .speciality(program != null && Program.SPECIALITY.equals(program.type())
+                                        ? program.name() : null)
+                                .build();
+                        for (int bucket = 0; bucket < cohortCache.bucketCount(); bucket++) {
+                            double midpoint = (bucket + 0.5) * cohortCache.bucketWidth();
+                            cohorts.add(new Cohort(
+                                    cohortCache.key(university, profile, midpoint), profile, availableOptions));
+                        }
+                    }
+                }
+            }
+        }
+        return cohorts;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private enum Outcome {
+        GENERATED, SKIPPED, FAILED
+    }
+
+    record Cohort(CohortKey key, CurrentStatus profile, String availableOptions) {
+    }
+
+    public record Summary(int total, int generated, int skipped, int failed, Duration duration) {
+    }
+}
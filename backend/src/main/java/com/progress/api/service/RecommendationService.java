@@ -7,19 +7,24 @@ import com.progress.api.dto.RecommendationRequest;
 import com.progress.api.dto.RecommendationResponse;
 import com.progress.api.dto.RecommendationResponse.CurrentStatus;
 import com.progress.api.dto.RecommendationResponse.Recommendation;
+import com.progress.api.dto.progres.Dia;
 import com.progress.api.exception.ApiException;
+import com.progress.api.service.AcademicDataGatherer.GradeData;
+import com.progress.api.service.AcademicStructureIndex.University;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -29,6 +34,20 @@ public class RecommendationService {
     private final StudentService studentService;
     private final GroqClient groqClient;
     private final ObjectMapper objectMapper;
+    private final AcademicStructureIndex academicStructureIndex;
+    private final RecommendationCache recommendationCache;
+    private final AcademicDataGatherer academicDataGatherer;
+    private final PromptCompactor promptCompactor;
+    private final LocalRecommendationEngine localRecommendationEngine;
+    private final CohortRecommendationCache cohortCache;
+    private final RecommendationSingleFlight singleFlight;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${recommendation.local.fallback:true}")
+    private boolean localFallback;
+
+    @Value("${recommendation.cohort.enabled:true}")
+    private boolean cohortEnabled;
 
     private static final String SYSTEM_PROMPT = """
             You are an expert academic advisor for the Algerian university system (LMD format).
@@ -79,178 +98,346 @@ public class RecommendationService {
             String uuid,
             String externalToken,
             RecommendationRequest request) {
+        return getRecommendations(uuid, externalToken, request, GroqRequestScheduler.Priority.INTERACTIVE);
+    }
+
+    /**
+     * Identical requests for the same student that arrive while one is running share
+     * its result.
+     *
+     * @param priority where the Groq call queues when the rate limit budget is spent
+     */
+    public RecommendationResponse getRecommendations(
+            String uuid,
+            String externalToken,
+            RecommendationRequest request,
+            GroqRequestScheduler.Priority priority) {
+        return singleFlight.execute(uuid, request,
+                () -> generateRecommendations(uuid, externalToken, request, priority));
+    }
+
+    private RecommendationResponse generateRecommendations(
+            String uuid,
+            String externalToken,
+            RecommendationRequest request,
+            GroqRequestScheduler.Priority priority) {
         try {
-            Object studentDataRaw = studentService.getStudentData(uuid, externalToken);
-            JsonNode studentData = objectMapper.valueToTree(studentDataRaw);
+            PreparedRequest prepared = prepare(uuid, externalToken, request);
+            if (prepared.cached() != null) {
+                return prepared.cached();
+            }
 
-            CurrentStatus currentStatus = extractCurrentStatus(studentData);
+            if (!groqClient.isConfigured()) {
+                return localRecommendations(prepared, request);
+            }
 
-            String universityName = null;
-            if (studentData.isArray() && !studentData.isEmpty()) {
-                universityName = getTextOrNull(studentData.get(0), "llEtablissementLatin");
+            RecommendationResponse response;
+            try {
+                if (isShareable(request)) {
+                    response = cohortRecommendations(uuid, prepared, request, priority);
+                } else {
+                    String aiResponse = groqClient.chat(
+                            SYSTEM_PROMPT, personalPrompt(prepared, request), priority, uuid);
+                    response = parseAiResponse(aiResponse, prepared.currentStatus());
+                }
+            } catch (ApiException e) {
+                return fallback(prepared, request, e);
             }
+            recommendationCache.put(uuid, prepared.snapshot(), request, response);
+            return response;
 
-            JsonNode academicStructure = loadAcademicStructure(universityName);
+        } catch (ApiException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error generating recommendations", e);
+            throw new ApiException(
+                    "Failed to generate recommendations: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            String[] universityInfo = getUniversityInfo(academicStructure);
-            currentStatus.setUniversity(universityInfo[0]);
-            currentStatus.setUniversityAr(universityInfo[1]);
+    /**
+     * Streaming variant of {@link #getRecommendations}. The local ranking is handed to
+     * the listener first, then each recommendation as soon as the model has finished
+     * writing it; the returned response is the complete, sorted result. A request
+     * identical to one already running, streamed or not, waits for that one and then
+     * replays its result to the listener.
+     */
+    public RecommendationResponse streamRecommendations(
+            String uuid,
+            String externalToken,
+            RecommendationRequest request,
+            StreamListener listener) {
+        return singleFlight.execute(uuid, request,
+                () -> generateStream(uuid, externalToken, request, listener),
+                response -> replay(response, listener));
+    }
 
-            JsonNode availableOptions = findAvailableOptions(
-                    academicStructure,
-                    currentStatus.getField(),
-                    currentStatus.getLevel());
+    private static void replay(RecommendationResponse response, StreamListener listener) {
+        if (response.getCurrentStatus() != null) {
+            listener.onStatus(response.getCurrentStatus());
+        }
+        if (response.getRecommendations() != null) {
+            response.getRecommendations().forEach(listener::onRecommendation);
+        }
+    }
 
-            String examData = fetchExamDataSafe(uuid, studentData, externalToken);
+    private RecommendationResponse generateStream(
+            String uuid,
+            String externalToken,
+            RecommendationRequest request,
+            StreamListener listener) {
+        try {
+            PreparedRequest prepared = prepare(uuid, externalToken, request);
+            listener.onStatus(prepared.currentStatus());
+            if (prepared.cached() != null) {
+                prepared.cached().getRecommendations().forEach(listener::onRecommendation);
+                return prepared.cached();
+            }
 
-            String userPrompt = buildUserPrompt(currentStatus, availableOptions, examData, request);
+            if (isShareable(request)) {
+                RecommendationResponse cohort = cohortCache.get(prepared.cohortKey());
+                if (cohort != null) {
+                    RecommendationResponse response = personalize(cohort, prepared, request);
+                    response.getRecommendations().forEach(listener::onRecommendation);
+                    recommendationCache.put(uuid, prepared.snapshot(), request, response);
+                    return response;
+                }
+            }
 
-            String aiResponse = groqClient.chat(SYSTEM_PROMPT, userPrompt);
+            RecommendationResponse preliminary = localRecommendations(prepared, request);
+            listener.onPreliminary(preliminary);
+            if (!groqClient.isConfigured()) {
+                return preliminary;
+            }
 
-            return parseAiResponse(aiResponse, currentStatus);
+            RecommendationStreamParser parser = new RecommendationStreamParser(objectMapper);
+            boolean[] parserFailed = {false};
+            RecommendationResponse response;
+            try {
+                String aiResponse = groqClient.chatStream(SYSTEM_PROMPT, personalPrompt(prepared, request), uuid, delta -> {
+                    if (parserFailed[0]) {
+                        return;
+                    }
+                    try {
+                        for (JsonNode node : parser.feed(delta)) {
+                            listener.onRecommendation(toRecommendation(node));
+                        }
+                    } catch (IOException e) {
+                        // Keep collecting the text; the final parse below still produces the result
+                        log.debug("Incremental parse stopped: {}", e.getMessage());
+                        parserFailed[0] = true;
+                    }
+                });
+                response = parseAiResponse(extractJsonObject(aiResponse), prepared.currentStatus());
+            } catch (ApiException e) {
+                return fallback(prepared, request, e, preliminary);
+            }
+            recommendationCache.put(uuid, prepared.snapshot(), request, response);
+            return response;
 
         } catch (ApiException e) {
             throw e;
         } catch (Exception e) {
-            log.error("Error generating recommendations", e);
+            log.error("Error streaming recommendations", e);
             throw new ApiException(
                     "Failed to generate recommendations: " + e.getMessage(),
                     HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    private CurrentStatus extractCurrentStatus(JsonNode studentData) {
-        if (studentData.isArray() && !studentData.isEmpty()) {
-            JsonNode latestRegistration = studentData.get(0);
+    /**
+     * Requests without free-text preferences can be answered from the cohort's shared
+     * recommendations; preferred subjects are applied when personalizing.
+     */
+    private boolean isShareable(RecommendationRequest request) {
+        return cohortEnabled && (request == null
+                || (isBlank(request.getCareerPreference()) && isBlank(request.getAdditionalContext())));
+    }
 
-            return CurrentStatus.builder()
-                    .field(getTextOrNull(latestRegistration, "llFiliere", "ofLlFiliere"))
-                    .fieldAr(getTextOrNull(latestRegistration, "llFiliereArabe", "ofLlFiliereArabe"))
-                    .major(getTextOrNull(latestRegistration, "ofLlFiliere"))
-                    .majorAr(getTextOrNull(latestRegistration, "ofLlFiliereArabe"))
-                    .speciality(getTextOrNull(latestRegistration, "ofLlSpecialite"))
-                    .specialityAr(getTextOrNull(latestRegistration, "ofLlSpecialiteArabe"))
-                    .level(getTextOrNull(latestRegistration, "refLibelleNiveau"))
-                    .levelAr(getTextOrNull(latestRegistration, "refLibelleNiveauArabe"))
-                    .currentAverage(
-                            latestRegistration.has("lastMoyenne") ? latestRegistration.get("lastMoyenne").asDouble()
-                                    : null)
-                    .academicYear(getTextOrNull(latestRegistration, "anneeAcademiqueCode"))
-                    .build();
-        }
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
 
-        throw new ApiException("No academic registration found for student", HttpStatus.NOT_FOUND);
+    /**
+     * The cohort's shared recommendations, generated from the cohort profile on a
+     * miss, personalized for this student. A miss is charged to the allowance of the
+     * student whose request runs the generation; concurrent misses of the cohort wait
+     * for it.
+     */
+    private RecommendationResponse cohortRecommendations(
+            String uuid,
+            PreparedRequest prepared,
+            RecommendationRequest request,
+            GroqRequestScheduler.Priority priority) {
+        RecommendationResponse cohort = cohortCache.getOrGenerate(prepared.cohortKey(), () ->
+                generateCohortRecommendations(
+                        prepared.currentStatus(), prepared.availableOptions(), prepared.cohortKey(), priority, uuid));
+        return personalize(cohort, prepared, request);
     }
 
-    private String getTextOrNull(JsonNode node, String... fieldNames) {
-        for (String fieldName : fieldNames) {
-            if (node.has(fieldName) && !node.get(fieldName).isNull()) {
-                String text = node.get(fieldName).asText();
-                if (!text.isBlank()) {
-                    return text;
-                }
-            }
-        }
-        return null;
+    /**
+     * Ask the model for one cohort's recommendations and store them in the cohort
+     * cache. The prompt carries the cohort profile only, never a student's grades.
+     */
+    RecommendationResponse generateCohortRecommendations(
+            CurrentStatus profile,
+            String availableOptions,
+            CohortRecommendationCache.CohortKey key,
+            GroqRequestScheduler.Priority priority) {
+        return generateCohortRecommendations(profile, availableOptions, key, priority, null);
     }
 
-    private String normalizeUniversityName(String name) {
-        if (name == null || name.isBlank())
-            return null;
-        return name.toLowerCase()
-                .replaceAll("[àáâãäå]", "a")
-                .replaceAll("[èéêë]", "e")
-                .replaceAll("[ìíîï]", "i")
-                .replaceAll("[òóôõö]", "o")
-                .replaceAll("[ùúûü]", "u")
-                .replaceAll("[ç]", "c")
-                .replaceAll("[^a-z0-9\\s]", "") 
-                .trim()
-                .replaceAll("\\s+", "_"); 
+    private RecommendationResponse generateCohortRecommendations(
+            CurrentStatus profile,
+            String availableOptions,
+            CohortRecommendationCache.CohortKey key,
+            GroqRequestScheduler.Priority priority,
+            String uuid) {
+        String aiResponse = groqClient.chat(
+                SYSTEM_PROMPT, buildCohortPrompt(profile, availableOptions, key), priority, uuid);
+        RecommendationResponse cohort = parseAiResponse(aiResponse, null);
+        cohortCache.put(key, cohort);
+        return cohort;
     }
 
-    private JsonNode loadAcademicStructure(String universityName) throws IOException {
-        ClassPathResource resource = new ClassPathResource("data/academic-structure.json");
-        try (InputStream is = resource.getInputStream()) {
-            JsonNode root = objectMapper.readTree(is);
-            JsonNode universities = root.path("universities");
+    private RecommendationResponse personalize(
+            RecommendationResponse cohort,
+            PreparedRequest prepared,
+            RecommendationRequest request) {
+        return localRecommendationEngine.personalize(
+                cohort, prepared.currentStatus(), prepared.university(), prepared.gradeData(), request);
+    }
 
-            if (universityName == null || universityName.isBlank()) {
-                Map.Entry<String, JsonNode> first = universities.fields().next();
-                log.info("No university specified, using default: {}", first.getValue().path("name").asText());
-                return first.getValue();
-            }
+    /**
+     * Gather everything the prompt needs and check the cache.
+     */
+    private PreparedRequest prepare(String uuid, String externalToken, RecommendationRequest request) {
+        List<Dia> dias = studentService.getDias(uuid, externalToken);
+        CurrentStatus currentStatus = extractCurrentStatus(dias);
+
+        University university = findUniversity(dias.get(0).llEtablissementLatin());
+        currentStatus.setUniversity(university.name());
+        currentStatus.setUniversityAr(university.nameAr());
+
+        String availableOptions = academicStructureIndex.findAvailableOptions(
+                university,
+                currentStatus.getField(),
+                currentStatus.getLevel());
+
+        GradeData gradeData = timeStage("gather", () -> academicDataGatherer.gather(uuid, externalToken, dias));
+        Map<String, String> gradeTables = promptCompactor.compact(gradeData);
+
+        String snapshot = RecommendationCache.snapshot(
+                currentStatus.getAcademicYear(),
+                university.key(),
+                currentStatus.getField(),
+                currentStatus.getMajor(),
+                currentStatus.getSpeciality(),
+                currentStatus.getLevel(),
+                String.valueOf(currentStatus.getCurrentAverage()),
+                String.join("\u001e", gradeTables.keySet()),
+                String.join("\u001e", gradeTables.values()));
+        RecommendationResponse cached = recommendationCache.get(uuid, snapshot, request);
+        if (cached != null) {
+            log.debug("Serving cached recommendations for uuid: {}", uuid);
+        }
 
-            String normalizedKey = normalizeUniversityName(universityName);
-            log.info("Looking for university with key: {}", normalizedKey);
+        CohortRecommendationCache.CohortKey cohortKey = cohortCache.key(
+                university, currentStatus, localRecommendationEngine.overallAverage(currentStatus, gradeData));
+        return new PreparedRequest(
+                currentStatus, university, availableOptions, gradeData, gradeTables, snapshot, cohortKey, cached);
+    }
 
-            JsonNode university = universities.path(normalizedKey);
-            if (!university.isMissingNode()) {
-                log.info("Found exact match for university: {}", university.path("name").asText());
-                return university;
-            }
+    /**
+     * The student's own prompt, with their grade tables trimmed to the token budget.
+     */
+    private String personalPrompt(PreparedRequest prepared, RecommendationRequest request) {
+        return promptCompactor.fit(
+                PromptCompactor.estimateTokens(SYSTEM_PROMPT),
+                new LinkedHashMap<>(prepared.gradeTables()),
+                tables -> buildUserPrompt(prepared.currentStatus(), prepared.availableOptions(), tables, request));
+    }
 
-            Iterator<Map.Entry<String, JsonNode>> fields = universities.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> entry = fields.next();
-                String key = entry.getKey();
+    private RecommendationResponse localRecommendations(PreparedRequest prepared, RecommendationRequest request) {
+        return localRecommendationEngine.recommend(
+                prepared.currentStatus(), prepared.university(), prepared.gradeData(), request);
+    }
 
-                if (key.contains(normalizedKey) || normalizedKey.contains(key)) {
-                    log.info("Found partial match for university: {}", entry.getValue().path("name").asText());
-                    return entry.getValue();
-                }
-            }
+    private RecommendationResponse fallback(PreparedRequest prepared, RecommendationRequest request, ApiException cause) {
+        return fallback(prepared, request, cause, null);
+    }
 
-            Map.Entry<String, JsonNode> first = universities.fields().next();
-            log.warn("No match found for '{}', using fallback: {}", universityName,
-                    first.getValue().path("name").asText());
-            return first.getValue();
+    /**
+     * Answer with the local ranking when the model call fails. The result is not
+     * cached, so the next request tries the model again.
+     */
+    private RecommendationResponse fallback(
+            PreparedRequest prepared,
+            RecommendationRequest request,
+            ApiException cause,
+            RecommendationResponse local) {
+        if (!localFallback) {
+            throw cause;
         }
+        log.warn("AI recommendation failed ({}), serving local recommendations", cause.getMessage());
+        return local != null ? local : localRecommendations(prepared, request);
     }
 
-    private String[] getUniversityInfo(JsonNode structure) {
-        return new String[] {
-                structure.path("name").asText("Unknown University"),
-                structure.path("nameAr").asText("")
-        };
-    }
+    private CurrentStatus extractCurrentStatus(List<Dia> dias) {
+        if (!dias.isEmpty()) {
+            Dia latestRegistration = dias.get(0);
 
-    private JsonNode findAvailableOptions(JsonNode structure, String currentField, String currentLevel) {
-        JsonNode fields = structure.path("fields");
-        if (!fields.isArray()) {
-            return objectMapper.createObjectNode();
+            return CurrentStatus.builder()
+                    .field(firstText(latestRegistration.llFiliere(), latestRegistration.ofLlFiliere()))
+                    .fieldAr(firstText(latestRegistration.llFiliereArabe(), latestRegistration.ofLlFiliereArabe()))
+                    .major(firstText(latestRegistration.ofLlFiliere()))
+                    .majorAr(firstText(latestRegistration.ofLlFiliereArabe()))
+                    .speciality(firstText(latestRegistration.ofLlSpecialite()))
+                    .specialityAr(firstText(latestRegistration.ofLlSpecialiteArabe()))
+                    .level(firstText(latestRegistration.refLibelleNiveau()))
+                    .levelAr(firstText(latestRegistration.refLibelleNiveauArabe()))
+                    .currentAverage(latestRegistration.lastMoyenne())
+                    .academicYear(firstText(latestRegistration.anneeAcademiqueCode()))
+                    .build();
         }
 
-        for (JsonNode field : fields) {
-            String fieldName = field.path("name").asText();
-            if (currentField != null && currentField.toLowerCase()
-                    .contains(fieldName.toLowerCase().substring(0, Math.min(3, fieldName.length())))) {
-                return field.path("levels");
+        throw new ApiException("No academic registration found for student", HttpStatus.NOT_FOUND);
+    }
+
+    private static String firstText(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value;
             }
         }
-
-        return fields;
+        return null;
     }
 
-    private String fetchExamDataSafe(String uuid, JsonNode studentData, String externalToken) {
-        try {
-            if (studentData.isArray() && !studentData.isEmpty()) {
-                long diaId = studentData.get(0).path("id").asLong();
-                if (diaId > 0) {
-                    Object examData = studentService.getExamData(uuid, String.valueOf(diaId), externalToken);
-                    return objectMapper.writeValueAsString(examData);
-                }
-            }
-        } catch (Exception e) {
-            log.debug("Could not fetch exam data: {}", e.getMessage());
+    private University findUniversity(String universityName) {
+        if (universityName == null || universityName.isBlank()) {
+            University fallback = academicStructureIndex.getDefaultUniversity();
+            log.info("No university specified, using default: {}", fallback.name());
+            return fallback;
+        }
+
+        UniversityNameMatcher.Match match = academicStructureIndex.matchUniversity(universityName);
+        if (match != null) {
+            University university = academicStructureIndex.getUniversity(match.key());
+            log.info("Matched university '{}' to {} (score {})", universityName, university.name(),
+                    String.format("%.2f", match.score()));
+            return university;
         }
-        return "No detailed exam data available";
+
+        University fallback = academicStructureIndex.getDefaultUniversity();
+        log.warn("No match found for '{}', using fallback: {}", universityName, fallback.name());
+        return fallback;
     }
 
     private String buildUserPrompt(
             CurrentStatus status,
-            JsonNode availableOptions,
-            String examData,
+            String availableOptions,
+            Map<String, String> gradeTables,
             RecommendationRequest request) {
         StringBuilder prompt = new StringBuilder();
 
@@ -269,10 +456,16 @@ public class RecommendationService {
         prompt.append("- Academic Year: ").append(status.getAcademicYear()).append("\n\n");
 
         prompt.append("## Available Options for Next Level\n");
-        prompt.append(availableOptions.toPrettyString()).append("\n\n");
+        prompt.append(availableOptions).append("\n\n");
 
         prompt.append("## Exam Data and Grades\n");
-        prompt.append(examData).append("\n\n");
+        if (gradeTables.isEmpty()) {
+            prompt.append("No detailed exam data available\n\n");
+        }
+        for (Map.Entry<String, String> source : gradeTables.entrySet()) {
+            prompt.append("### ").append(source.getKey()).append("\n");
+            prompt.append(source.getValue()).append("\n\n");
+        }
 
         if (request != null) {
             if (request.getCareerPreference() != null) {
@@ -295,7 +488,50 @@ public class RecommendationService {
         return prompt.toString();
     }
 
+    private String buildCohortPrompt(
+            CurrentStatus profile,
+            String availableOptions,
+            CohortRecommendationCache.CohortKey key) {
+        StringBuilder prompt = new StringBuilder();
+
+        prompt.append("## Student Profile\n");
+        prompt.append("- Field: ").append(profile.getField()).append("\n");
+        prompt.append("- Level: ").append(profile.getLevel()).append("\n");
+        if (profile.getMajor() != null) {
+            prompt.append("- Major: ").append(profile.getMajor()).append("\n");
+        }
+        if (profile.getSpeciality() != null) {
+            prompt.append("- Speciality: ").append(profile.getSpeciality()).append("\n");
+        }
+        prompt.append("- Current Average: between ").append(key.averageBand()).append("\n\n");
+
+        prompt.append("## Available Options for Next Level\n");
+        prompt.append(availableOptions).append("\n\n");
+
+        prompt.append("These recommendations are shared by every student with this profile, so do not ")
+                .append("assume grades in individual subjects.\n");
+        prompt.append(
+                "Based on this information, provide 3-5 recommendations for the next academic step of a student with this profile.");
+
+        return prompt.toString();
+    }
+
+    /**
+     * Time one step of the pipeline under {@code recommendation.stage.duration}.
+     */
+    private <T> T timeStage(String stage, Supplier<T> step) {
+        return Timer.builder("recommendation.stage.duration")
+                .description("Time spent in each step of the recommendation pipeline")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(step);
+    }
+
     private RecommendationResponse parseAiResponse(String aiResponse, CurrentStatus currentStatus) {
+        return timeStage("parse", () -> parse(aiResponse, currentStatus));
+    }
+
+    private RecommendationResponse parse(String aiResponse, CurrentStatus currentStatus) {
         try {
             JsonNode responseJson = objectMapper.readTree(aiResponse);
 
@@ -304,17 +540,7 @@ public class RecommendationService {
 
             if (recsNode.isArray()) {
                 for (JsonNode rec : recsNode) {
-                    recommendations.add(Recommendation.builder()
-                            .code(rec.path("code").asText())
-                            .name(rec.path("name").asText())
-                            .nameAr(rec.path("nameAr").asText(""))
-                            .type(rec.path("type").asText("speciality"))
-                            .matchScore(rec.path("matchScore").asInt(0))
-                            .reasoning(rec.path("reasoning").asText())
-                            .keySubjects(jsonArrayToList(rec.path("keySubjects")))
-                            .careerOutcomes(jsonArrayToList(rec.path("careerOutcomes")))
-                            .furtherOptions(jsonArrayToList(rec.path("furtherOptions")))
-                            .build());
+                    recommendations.add(toRecommendation(rec));
                 }
             }
 
@@ -340,6 +566,29 @@ public class RecommendationService {
         }
     }
 
+    private Recommendation toRecommendation(JsonNode rec) {
+        return Recommendation.builder()
+                .code(rec.path("code").asText())
+                .name(rec.path("name").asText())
+                .nameAr(rec.path("nameAr").asText(""))
+                .type(rec.path("type").asText("speciality"))
+                .matchScore(rec.path("matchScore").asInt(0))
+                .reasoning(rec.path("reasoning").asText())
+                .keySubjects(jsonArrayToList(rec.path("keySubjects")))
+                .careerOutcomes(jsonArrayToList(rec.path("careerOutcomes")))
+                .furtherOptions(jsonArrayToList(rec.path("furtherOptions")))
+                .build();
+    }
+
+    /**
+     * Without JSON mode the model may wrap its answer in a Markdown fence.
+     */
+    private String extractJsonObject(String text) {
+        int start = text.indexOf('{');
+        int end = text.lastIndexOf('}');
+        return start >= 0 && end > start ? text.substring(start, end + 1) : text;
+    }
+
     private List<String> jsonArrayToList(JsonNode arrayNode) {
         List<String> list = new ArrayList<>();
         if (arrayNode.isArray()) {
@@ -349,4 +598,31 @@ public class RecommendationService {
         }
         return list;
     }
+
+    /**
+     * Receives progress from {@link #streamRecommendations}.
+     */
+    public interface StreamListener {
+
+        void onStatus(CurrentStatus currentStatus);
+
+        void onRecommendation(Recommendation recommendation);
+
+        /**
+         * The local ranking, sent before the model starts writing.
+         */
+        default void onPreliminary(RecommendationResponse preliminary) {
+        }
+    }
+
+    private record PreparedRequest(
+            CurrentStatus currentStatus,
+            University university,
+            String availableOptions,
+            GradeData gradeData,
+            Map<String, String> gradeTables,
+            String snapshot,
+            CohortRecommendationCache.CohortKey cohortKey,
+            RecommendationResponse cached) {
+    }
 }
@@ -0,0 +1,115 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationRequest;
+import com.progress.api.dto.RecommendationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical recommendation requests that are in flight at the same time.
+ * <p>
+ * A double-click or a refresh while the page is loading asks for the same student's
+ * recommendations with the same preferences again. The first caller runs the
+ * pipeline; callers that arrive before it finishes wait for its result, or its
+ * error, instead of fetching the student's data and calling the model a second
+ * time. Streaming and non-streaming requests share one key space, so refreshing the
+ * streaming page while the answer is being written joins that computation too.
+ * Nothing is kept once the computation finishes; repeat visits are served by
+ * {@link RecommendationCache}.
+ */
+@Slf4j
+@Component
+public class RecommendationSingleFlight {
+
+    private final Map<String, CompletableFuture<RecommendationResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter joined;
+
+    public RecommendationSingleFlight(MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("recommendation.singleflight.requests")
+                .description("Recommendation requests by whether they ran the pipeline or joined one in flight")
+                .tag("result", "leader")
+                .register(meterRegistry);
+        this.joined = Counter.builder("recommendation.singleflight.requests")
+                .description("Recommendation requests by whether they ran the pipeline or joined one in flight")
+                .tag("result", "joined")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("recommendation.singleflight.inflight", Tags.empty(), inFlight);
+    }
+
+    /**
+     * Run {@code computation} unless the same request is already running, in which
+     * case wait for that one instead.
+     */
+    public RecommendationResponse execute(
+            String uuid,
+            RecommendationRequest request,
+            Supplier<RecommendationResponse> computation) {
+        return execute(uuid, request, computation, response -> {
+        });
+    }
+
+    /**
+     * Same as {@link #execute(String, RecommendationRequest, Supplier)}; {@code onJoined}
+     * receives the result when this call joined another one instead of running
+     * {@code computation}, e.g. to replay it to a stream.
+     */
+    public RecommendationResponse execute(
+            String uuid,
+            RecommendationRequest request,
+            Supplier<RecommendationResponse> computation,
+            Consumer<RecommendationResponse> onJoined) {
+        String key = key(uuid, request);
+        CompletableFuture<RecommendationResponse> mine = new CompletableFuture<>();
+        CompletableFuture<RecommendationResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            joined.increment();
+            log.debug("Joining in-flight recommendation for uuid: {}", uuid);
+            RecommendationResponse response = await(running);
+            onJoined.accept(response);
+            return response;
+        }
+
+        leaders.increment();
+        try {
+            RecommendationResponse response = computation.get();
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    static String key(String uuid, RecommendationRequest request) {
+        return uuid + '\u001e' + RecommendationCache.preferencesKey(request);
+    }
+
+    private static RecommendationResponse await(CompletableFuture<RecommendationResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
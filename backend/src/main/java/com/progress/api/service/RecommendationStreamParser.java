@@ -0,0 +1,151 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental parser for the model's JSON answer as it streams in.
+ * <p>
+ * Text is pushed through Jackson's non-blocking parser, so each element of the
+ * top-level {@code recommendations} array is returned as soon as its closing brace
+ * arrives, without waiting for the rest of the document. Anything before the first
+ * {@code '{'} (such as a Markdown fence) and after the root object is ignored.
+ * Not thread-safe; use one instance per completion.
+ */
+public class RecommendationStreamParser {
+
+    private static final String RECOMMENDATIONS = "recommendations";
+    private static final String SUMMARY = "summary";
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+
+    private boolean started;
+    private boolean finished;
+    private int depth;
+    private String rootField;
+    private boolean inRecommendations;
+
+    private TokenBuffer element;
+    private int elementDepth;
+
+    private String summary;
+
+    public RecommendationStreamParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create streaming JSON parser", e);
+        }
+    }
+
+    /**
+     * Feed the next chunk of completion text.
+     *
+     * @return recommendations completed by this chunk, in order
+     */
+    public List<JsonNode> feed(String chunk) throws IOException {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return List.of();
+        }
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return List.of();
+            }
+            chunk = chunk.substring(start);
+            started = true;
+        }
+
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+
+        List<JsonNode> completed = new ArrayList<>();
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            JsonNode node = handle(token);
+            if (node != null) {
+                completed.add(node);
+            }
+        }
+        return completed;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    /**
+     * Whether the root object has been closed.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private JsonNode handle(JsonToken token) throws IOException {
+        if (element != null) {
+            element.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                elementDepth++;
+            } else if (token.isStructEnd() && --elementDepth == 0) {
+                JsonNode node = objectMapper.readTree(element.asParser());
+                element = null;
+                depth--;
+                return node;
+            }
+            return null;
+        }
+
+        switch (token) {
+            case START_OBJECT -> {
+                depth++;
+                if (inRecommendations && depth == 3) {
+                    element = new TokenBuffer(parser, null);
+                    element.copyCurrentEvent(parser);
+                    elementDepth = 1;
+                }
+            }
+            case START_ARRAY -> {
+                depth++;
+                if (depth == 2 && RECOMMENDATIONS.equals(rootField)) {
+                    inRecommendations = true;
+                }
+            }
+            case END_ARRAY -> {
+                if (depth == 2) {
+                    inRecommendations = false;
+                }
+                depth--;
+            }
+            case END_OBJECT -> {
+                depth--;
+                if (depth == 0) {
+                    finished = true;
+                }
+            }
+            case FIELD_NAME -> {
+                if (depth == 1) {
+                    rootField = parser.currentName();
+                }
+            }
+            case VALUE_STRING -> {
+                if (depth == 1 && SUMMARY.equals(rootField)) {
+                    summary = parser.getText();
+                }
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+}
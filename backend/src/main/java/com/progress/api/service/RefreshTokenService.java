@@ -0,0 +1,142 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.LoginResponse;
+import com.progress.api.exception.ApiException;
+import com.progress.api.security.JwtTokenProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rotates refresh tokens with single-flight semantics.
+ * <p>
+ * Several tabs sharing the same refresh cookie tend to call {@code /api/auth/refresh}
+ * at the same moment. Only the first caller verifies the token and mints a new pair;
+ * every concurrent caller, and any caller arriving within the grace window, receives
+ * that same pair instead of hitting the blacklisted old token and being logged out.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final long graceMs;
+
+    private final Map<String, Rotation> rotations = new ConcurrentHashMap<>();
+
+    public RefreshTokenService(
+            JwtTokenProvider jwtTokenProvider,
+            TokenBlacklistService tokenBlacklistService,
+            @Value("${jwt.refresh-grace-ms:10000}") long graceMs) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenBlacklistService = tokenBlacklistService;
+        this.graceMs = graceMs;
+    }
+
+    /**
+     * Exchange a refresh token for a new access/refresh pair.
+     *
+     * @param refreshToken the refresh token presented by the client
+     * @return the new pair; {@code refreshToken} must be sent back as a cookie only
+     */
+    public LoginResponse refresh(String refreshToken) {
+        long now = System.currentTimeMillis();
+
+        Rotation existing = rotations.get(refreshToken);
+        if (existing != null && existing.isFresh(now, graceMs)) {
+            log.debug("Coalesced concurrent refresh onto an in-flight rotation");
+            return await(existing);
+        }
+
+        if (!jwtTokenProvider.isTokenValid(refreshToken)) {
+            throw new ApiException("Invalid or expired refresh token", HttpStatus.UNAUTHORIZED);
+        }
+
+        Rotation rotation = new Rotation(now);
+        Rotation winner = rotations.putIfAbsent(refreshToken, rotation);
+        if (winner != null) {
+            if (winner.isFresh(now, graceMs)) {
+                return await(winner);
+            }
+            // A stale rotation means the token was already rotated and blacklisted
+            throw new ApiException("Refresh token has been revoked", HttpStatus.UNAUTHORIZED);
+        }
+
+        try {
+            // Checked only by the winner: a racing caller could otherwise see the token
+            // the winner has just blacklisted and fail instead of joining its rotation
+            if (tokenBlacklistService.isBlacklisted(refreshToken)) {
+                throw new ApiException("Refresh token has been revoked", HttpStatus.UNAUTHORIZED);
+            }
+            LoginResponse pair = mint(refreshToken);
+            rotation.result.complete(pair);
+            return pair;
+        } catch (RuntimeException e) {
+            rotations.remove(refreshToken, rotation);
+            rotation.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private LoginResponse mint(String refreshToken) {
+        String uuid = jwtTokenProvider.extractUuid(refreshToken);
+        String externalToken = jwtTokenProvider.extractExternalToken(refreshToken);
+
+        String newAccessToken = jwtTokenProvider.generateToken(uuid, externalToken);
+        String newRefreshToken = jwtTokenProvider.generateRefreshToken(uuid, externalToken);
+
+        long oldExpiration = jwtTokenProvider.extractExpiration(refreshToken);
+        tokenBlacklistService.blacklistToken(refreshToken, oldExpiration);
+
+        log.debug("Token refreshed successfully for uuid: {}", uuid);
+
+        return LoginResponse.builder()
+                .token(newAccessToken)
+                .refreshToken(newRefreshToken)
+                .uuid(uuid)
+                .message("Token refreshed successfully")
+                .build();
+    }
+
+    private LoginResponse await(Rotation rotation) {
+        try {
+            return rotation.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ApiException apiException) {
+                throw apiException;
+            }
+            throw new ApiException("Failed to refresh token", HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    public int getPendingRotationCount() {
+        return rotations.size();
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void cleanupExpiredRotations() {
+        long now = System.currentTimeMillis();
+        rotations.entrySet().removeIf(entry -> !entry.getValue().isFresh(now, graceMs));
+    }
+
+    private static final class Rotation {
+        private final long startedAt;
+        private final CompletableFuture<LoginResponse> result = new CompletableFuture<>();
+
+        private Rotation(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private boolean isFresh(long now, long graceMs) {
+            return now - startedAt <= graceMs;
+        }
+    }
+}
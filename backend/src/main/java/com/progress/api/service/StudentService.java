@@ -1,18 +1,52 @@
 package com.progress.api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Coefficient;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.ExamGrade;
+import com.progress.api.dto.progres.PeriodBilan;
 import com.progress.api.exception.ApiException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.util.List;
+
+/**
+ * PROGRES data of the authenticated student.
+ * <p>
+ * The {@code Object} methods hand the payloads to the frontend untouched. The typed
+ * methods ({@link #getDias}, {@link #getBilans}, {@link #getExamGrades},
+ * {@link #getCCGrades(String, String, List, String)} and {@link #getCoefficients}) are
+ * for the server's own computations: they deserialize straight into the records of
+ * {@code dto.progres}, keeping only the fields the server reads. The entry methods
+ * ({@link #getExamGradeEntries} and {@link #getCCGradeEntries}) check ownership like
+ * the typed ones but keep every field, for responses built from PROGRES's own entries.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StudentService {
 
+    private static final ParameterizedTypeReference<List<Dia>> DIAS = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<PeriodBilan>> BILANS = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<ExamGrade>> EXAM_GRADES = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<CCGrade>> CC_GRADES = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<JsonNode>> ENTRIES = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<Coefficient>> COEFFICIENTS =
+            new ParameterizedTypeReference<>() {
+            };
+
     private final WebClient webClient;
 
     public Object getStudentData(String uuid, String externalToken) {
@@ -92,47 +126,104 @@ public class StudentService {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private void validateCardOwnership(String uuid, String cardId, String externalToken) {
-        Object studentData = getStudentData(uuid, externalToken);
+    public List<Dia> getDias(String uuid, String externalToken) {
+        return fetchList("student data", DIAS, externalToken, "/infos/bac/{uuid}/dias", uuid);
+    }
+
+    public List<PeriodBilan> getBilans(String uuid, String cardId, String externalToken) {
+        return fetchList("exam data", BILANS, externalToken, "/infos/bac/{uuid}/dias/{id}/periode/bilans", uuid, cardId);
+    }
 
-        if (studentData instanceof java.util.List) {
-            java.util.List<java.util.Map<String, Object>> dias = (java.util.List<java.util.Map<String, Object>>) studentData;
+    /**
+     * Exam grades of the card, validating ownership against the student's dias.
+     */
+    public List<ExamGrade> getExamGrades(String uuid, String cardId, List<Dia> dias, String externalToken) {
+        validateCardOwnership(uuid, cardId, dias);
+        return fetchList("Exam grades", EXAM_GRADES, externalToken,
+                "/infos/planningSession/dia/{cardId}/noteExamens", cardId);
+    }
 
-            boolean cardBelongsToUser = dias.stream()
-                    .anyMatch(dia -> {
-                        Object id = dia.get("id");
-                        return id != null && String.valueOf(id).equals(cardId);
-                    });
+    /**
+     * CC grades of the card, validating ownership against the student's dias.
+     */
+    public List<CCGrade> getCCGrades(String uuid, String cardId, List<Dia> dias, String externalToken) {
+        validateCardOwnership(uuid, cardId, dias);
+        return fetchList("CC grades", CC_GRADES, externalToken,
+                "/infos/controleContinue/dia/{cardId}/notesCC", cardId);
+    }
 
-            if (!cardBelongsToUser) {
-                log.warn("SECURITY: User {} attempted to access cardId {} which doesn't belong to them",
-                        uuid, cardId);
-                throw new ApiException(
-                        "Access denied: You can only access your own academic records",
-                        HttpStatus.FORBIDDEN);
-            }
-        } else {
-            log.warn("SECURITY: Could not validate cardId ownership for user {}", uuid);
+    /**
+     * Exam grades of the card with every field PROGRES sends, validating ownership
+     * against the student's dias.
+     */
+    public List<JsonNode> getExamGradeEntries(String uuid, String cardId, List<Dia> dias, String externalToken) {
+        validateCardOwnership(uuid, cardId, dias);
+        return fetchList("Exam grades", ENTRIES, externalToken,
+                "/infos/planningSession/dia/{cardId}/noteExamens", cardId);
+    }
+
+    /**
+     * CC grades of the card with every field PROGRES sends, validating ownership
+     * against the student's dias.
+     */
+    public List<JsonNode> getCCGradeEntries(String uuid, String cardId, List<Dia> dias, String externalToken) {
+        validateCardOwnership(uuid, cardId, dias);
+        return fetchList("CC grades", ENTRIES, externalToken,
+                "/infos/controleContinue/dia/{cardId}/notesCC", cardId);
+    }
+
+    public List<Coefficient> getCoefficients(String offerId, String levelId, String externalToken) {
+        return fetchList("subjects", COEFFICIENTS, externalToken,
+                "/infos/offreFormation/{offerId}/niveau/{levelId}/Coefficients", offerId, levelId);
+    }
+
+    private <T> List<T> fetchList(
+            String description,
+            ParameterizedTypeReference<List<T>> type,
+            String externalToken,
+            String uri,
+            Object... uriVariables) {
+        try {
+            List<T> data = webClient.get()
+                    .uri(uri, uriVariables)
+                    .header("Authorization", externalToken)
+                    .retrieve()
+                    .bodyToMono(type)
+                    .block();
+            return data != null ? data : List.of();
+        } catch (WebClientResponseException e) {
+            log.error("Failed to fetch {}: {}", description, e.getResponseBodyAsString());
+            throw new ApiException(
+                    "Failed to fetch " + description + ": " + e.getStatusText(),
+                    HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (Exception e) {
+            log.error("Error fetching {}", description, e);
+            throw new ApiException("Failed to fetch " + description, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void validateCardOwnership(String uuid, String cardId, List<Dia> dias) {
+        if (dias.stream().noneMatch(dia -> dia.cardId().equals(cardId))) {
+            log.warn("SECURITY: User {} attempted to access cardId {} which doesn't belong to them",
+                    uuid, cardId);
             throw new ApiException(
-                    "Unable to validate access permissions",
+                    "Access denied: You can only access your own academic records",
                     HttpStatus.FORBIDDEN);
         }
     }
 
+    /**
+     * Raw CC grades of the card, validating ownership against the student's dias.
+     */
     public Object getCCGradesSecure(String uuid, String cardId, String externalToken) {
+        validateCardOwnership(uuid, cardId, getDias(uuid, externalToken));
         try {
-            validateCardOwnership(uuid, cardId, externalToken);
-
             return webClient.get()
                     .uri("/infos/controleContinue/dia/{cardId}/notesCC", cardId)
                     .header("Authorization", externalToken)
                     .retrieve()
                     .bodyToMono(Object.class)
                     .block();
-
-        } catch (ApiException e) {
-            throw e;
         } catch (WebClientResponseException e) {
             log.error("Failed to fetch CC grades: {}", e.getResponseBodyAsString());
             throw new ApiException(
@@ -144,19 +235,18 @@ public class StudentService {
         }
     }
 
+    /**
+     * Raw exam grades of the card, validating ownership against the student's dias.
+     */
     public Object getExamGradesSecure(String uuid, String cardId, String externalToken) {
+        validateCardOwnership(uuid, cardId, getDias(uuid, externalToken));
         try {
-            validateCardOwnership(uuid, cardId, externalToken);
-
             return webClient.get()
                     .uri("/infos/planningSession/dia/{cardId}/noteExamens", cardId)
                     .header("Authorization", externalToken)
                     .retrieve()
                     .bodyToMono(Object.class)
                     .block();
-
-        } catch (ApiException e) {
-            throw e;
         } catch (WebClientResponseException e) {
             log.error("Failed to fetch Exam grades: {}", e.getResponseBodyAsString());
             throw new ApiException(
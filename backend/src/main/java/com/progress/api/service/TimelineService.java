@@ -0,0 +1,246 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.AcademicTimeline;
+import com.progress.api.dto.LmdDecisionReport;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A student's progression over every dias registration.
+ * <p>
+ * Past years no longer change, so once a past year's decision is complete its
+ * summary is kept per card and reused; only the current registration, and past
+ * years still missing grades, go through {@link GradeService} on each request.
+ * When a store path is configured the summaries are written to that JSON file every
+ * minute and on shutdown, and loaded again at startup.
+ */
+@Slf4j
+@Service
+public class TimelineService {
+
+    private final StudentService studentService;
+    private final GradeService gradeService;
+    private final ObjectMapper objectMapper;
+    private final Path storePath;
+
+    private final Map<String, Stored> summaries = new ConcurrentHashMap<>();
+    private final LruEviction<String, Stored> eviction;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final Counter storedYears;
+    private final Counter computedYears;
+
+    public TimelineService(
+            StudentService studentService,
+            GradeService gradeService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${grades.timeline.max-entries:100000}") int maxEntries,
+            @Value("${grades.timeline.store-path:}") String storePath) {
+        this.studentService = studentService;
+        this.gradeService = gradeService;
+        this.objectMapper = objectMapper;
+        this.eviction = new LruEviction<>(summaries, maxEntries, stored -> stored.lastAccess);
+        this.storePath = storePath == null || storePath.isBlank() ? null : Path.of(storePath);
+        this.storedYears = Counter.builder("grades.timeline.years")
+                .description("Timeline years by whether a stored summary was reused or the year was computed")
+                .tag("source", "stored")
+                .register(meterRegistry);
+        this.computedYears = Counter.builder("grades.timeline.years")
+                .description("Timeline years by whether a stored summary was reused or the year was computed")
+                .tag("source", "computed")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("grades.timeline.store.size", Tags.empty(), summaries);
+    }
+
+    public AcademicTimeline getTimeline(String uuid, String externalToken) {
+        List<Dia> registrations = studentService.getDias(uuid, externalToken);
+        List<Dia> dias = new ArrayList<>(registrations);
+        // Stable, so registrations of the same year keep the order PROGRES gives them
+        dias.sort(Comparator.comparing(dia -> Objects.requireNonNullElse(dia.anneeAcademiqueCode(), "")));
+
+        List<AcademicTimeline.Year> years = new ArrayList<>(dias.size());
+        // A repeated level re-lists the credits kept from the earlier attempt, so each level counts once
+        Map<String, Double> creditsByLevel = new HashMap<>();
+        for (int i = 0; i < dias.size(); i++) {
+            Dia dia = dias.get(i);
+            boolean current = i == dias.size() - 1;
+            AcademicTimeline.Year year = current ? null : stored(uuid, dia.cardId());
+            if (year != null) {
+                storedYears.increment();
+            } else {
+                computedYears.increment();
+                year = summarize(uuid, dia, registrations, externalToken, current);
+                if (!current && year.isComplete()) {
+                    store(uuid, year);
+                }
+            }
+            years.add(year);
+            creditsByLevel.merge(levelKey(dia), year.getCredits(), Math::max);
+        }
+
+        return AcademicTimeline.builder()
+                .years(years)
+                .credits(creditsByLevel.values().stream().mapToDouble(Double::doubleValue).sum())
+                .build();
+    }
+
+    public int size() {
+        return summaries.size();
+    }
+
+    /**
+     * The level a registration is for, e.g. {@code L1}; registrations without a
+     * recognizable level each count on their own.
+     */
+    private static String levelKey(Dia dia) {
+        String code = AcademicStructureIndex.resolveLevelCode(dia.refLibelleNiveau());
+        if (code != null) {
+            return code;
+        }
+        return dia.refLibelleNiveau() != null && !dia.refLibelleNiveau().isBlank()
+                ? dia.refLibelleNiveau()
+                : "card:" + dia.cardId();
+    }
+
+    private AcademicTimeline.Year stored(String uuid, String cardId) {
+        Stored stored = summaries.get(cardId);
+        if (stored == null || !stored.uuid.equals(uuid)) {
+            return null;
+        }
+        stored.lastAccess = System.currentTimeMillis();
+        return stored.year;
+    }
+
+    private void store(String uuid, AcademicTimeline.Year year) {
+        summaries.put(year.getCardId(), new Stored(uuid, year, System.currentTimeMillis()));
+        dirty.set(true);
+        eviction.trim();
+    }
+
+    /**
+     * The year's registration and decision. A year whose grades cannot be fetched is
+     * still listed, without an average or decision, and is retried on the next request.
+     */
+    private AcademicTimeline.Year summarize(
+            String uuid, Dia dia, List<Dia> dias, String externalToken, boolean current) {
+        String cardId = dia.cardId();
+        AcademicTimeline.Year.YearBuilder year = AcademicTimeline.Year.builder()
+                .cardId(cardId)
+                .academicYear(dia.anneeAcademiqueCode())
+                .level(dia.refLibelleNiveau())
+                .field(dia.ofLlFiliere() != null ? dia.ofLlFiliere() : dia.llFiliere())
+                .speciality(dia.ofLlSpecialite())
+                .university(dia.llEtablissementLatin())
+                .current(current);
+
+        LmdDecisionReport decision;
+        try {
+            decision = gradeService.getDecision(uuid, cardId, externalToken, dias);
+        } catch (ApiException e) {
+            log.debug("Timeline year {} without grades: {}", cardId, e.getMessage());
+            return year.periods(List.of()).build();
+        }
+
+        return year
+                .annualAverage(decision.getAnnualAverage())
+                .status(decision.getStatus())
+                .decision(decision.getDecision())
+                .credits(decision.getCredits())
+                .totalCredits(decision.getTotalCredits())
+                .complete(decision.isComplete())
+                .periods(decision.getPeriods().stream()
+                        .map(period -> AcademicTimeline.Period.builder()
+                                .label(period.getLabel())
+                                .average(period.getAverage())
+                                .status(period.getStatus())
+                                .credits(period.getCredits())
+                                .totalCredits(period.getTotalCredits())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (storePath == null || !Files.exists(storePath)) {
+            return;
+        }
+        try {
+            List<StoredEntry> stored = objectMapper.readValue(storePath.toFile(), new TypeReference<>() {
+            });
+            long now = System.currentTimeMillis();
+            stored.forEach(entry -> summaries.put(entry.year().getCardId(), new Stored(entry.uuid(), entry.year(), now)));
+            log.info("Loaded {} timeline summaries from {}", summaries.size(), storePath);
+        } catch (IOException e) {
+            log.warn("Could not read timeline summaries from {}: {}", storePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Write the summaries to the store if anything changed since the last write. The
+     * file is replaced atomically so a crash never leaves it half written.
+     */
+    @Scheduled(fixedDelay = 60000)
+    @PreDestroy
+    public synchronized void flush() {
+        if (storePath == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        List<StoredEntry> stored = summaries.values().stream()
+                .map(entry -> new StoredEntry(entry.uuid, entry.year))
+                .toList();
+        try {
+            Path parent = storePath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), stored);
+            Files.move(temp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} timeline summaries to {}", stored.size(), storePath);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Could not write timeline summaries to {}: {}", storePath, e.getMessage());
+        }
+    }
+
+    private record StoredEntry(String uuid, AcademicTimeline.Year year) {
+    }
+
+    private static final class Stored {
+        private final String uuid;
+        private final AcademicTimeline.Year year;
+        private volatile long lastAccess;
+
+        private Stored(String uuid, AcademicTimeline.Year year, long lastAccess) {
+            this.uuid = uuid;
+            this.year = year;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
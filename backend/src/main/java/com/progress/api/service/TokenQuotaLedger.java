@@ -0,0 +1,186 @@
+package com.progress.api.service;
+
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Groq tokens used by each student over a sliding 24-hour window.
+ * <p>
+ * Each student has one slot per hour of the window. A slot packs the hour it belongs
+ * to into its high bits and the tokens used in that hour into its low bits, so a
+ * recording is a single compare-and-set that also clears the slot when it is reused
+ * a day later; readers sum the slots whose hour is inside the window. Nothing takes
+ * a lock, and a student costs two small arrays.
+ * <p>
+ * Calls are checked before they are queued: a student who has used their daily
+ * allowance gets a 429 until older hours slide out of the window. The call that
+ * crosses the limit is allowed to finish, so usage can overshoot by one call.
+ */
+@Slf4j
+@Component
+public class TokenQuotaLedger {
+
+    static final int WINDOW_HOURS = 24;
+    private static final long HOUR_MS = 3_600_000L;
+    private static final int TOKEN_BITS = 40;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    private final long dailyTokens;
+    private final LongSupplier clock;
+
+    private final Map<String, Usage> students = new ConcurrentHashMap<>();
+    private final LruEviction<String, Usage> eviction;
+
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+    private final Counter rejected;
+    private final DistributionSummary dailyUsage;
+
+    @Autowired
+    public TokenQuotaLedger(
+            MeterRegistry meterRegistry,
+            @Value("${groq.quota.daily-tokens:60000}") long dailyTokens,
+            @Value("${groq.quota.max-students:20000}") int maxStudents) {
+        this(meterRegistry, dailyTokens, maxStudents, System::currentTimeMillis);
+    }
+
+    TokenQuotaLedger(MeterRegistry meterRegistry, long dailyTokens, int maxStudents, LongSupplier clock) {
+        this.dailyTokens = dailyTokens;
+        this.clock = clock;
+        // Evicting a student with usage in the window resets their allowance; ordering by
+        // last hour used puts every idle student ahead of them
+        this.eviction = new LruEviction<>(students, maxStudents, usage -> usage.lastHour);
+        this.promptTokens = tokenCounter(meterRegistry, "prompt");
+        this.completionTokens = tokenCounter(meterRegistry, "completion");
+        this.rejected = Counter.builder("groq.quota.rejected")
+                .description("Groq calls refused because the student had used their daily token allowance")
+                .register(meterRegistry);
+        this.dailyUsage = DistributionSummary.builder("groq.quota.usage")
+                .description("A student's tokens over the last 24 hours, recorded after each of their calls")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("groq.quota.students", Tags.empty(), students);
+    }
+
+    private static Counter tokenCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("groq.quota.tokens")
+                .description("Groq tokens charged to students")
+                .baseUnit("tokens")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refuse the call if the student has no allowance left. Calls made for no
+     * particular student, such as the precompute batch, are never refused.
+     */
+    public void check(String uuid) {
+        if (uuid == null || dailyTokens <= 0) {
+            return;
+        }
+        long used = used(uuid);
+        if (used >= dailyTokens) {
+            rejected.increment();
+            log.info("Daily token allowance used for uuid: {} ({} of {})", uuid, used, dailyTokens);
+            throw new ApiException("You have reached today's AI usage limit. Please try again tomorrow.",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    public void record(String uuid, long prompt, long completion) {
+        if (uuid == null || prompt + completion <= 0) {
+            return;
+        }
+        long hour = clock.getAsLong() / HOUR_MS;
+        Usage usage = students.computeIfAbsent(uuid, key -> new Usage());
+        add(usage.prompt, hour, prompt);
+        add(usage.completion, hour, completion);
+        usage.lastHour = hour;
+        promptTokens.increment(prompt);
+        completionTokens.increment(completion);
+        dailyUsage.record(sum(usage.prompt, hour) + sum(usage.completion, hour));
+
+        eviction.trim();
+    }
+
+    /**
+     * Prompt plus completion tokens over the last 24 hours.
+     */
+    public long used(String uuid) {
+        Usage usage = students.get(uuid);
+        if (usage == null) {
+            return 0;
+        }
+        long hour = clock.getAsLong() / HOUR_MS;
+        return sum(usage.prompt, hour) + sum(usage.completion, hour);
+    }
+
+    public long remaining(String uuid) {
+        return Math.max(0, dailyTokens - used(uuid));
+    }
+
+    public int size() {
+        return students.size();
+    }
+
+    private static void add(AtomicLongArray slots, long hour, long tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        int index = (int) (hour % WINDOW_HOURS);
+        long current;
+        long next;
+        do {
+            current = slots.get(index);
+            long used = (current >>> TOKEN_BITS) == hour ? current & TOKEN_MASK : 0;
+            next = (hour << TOKEN_BITS) | Math.min(TOKEN_MASK, used + tokens);
+        } while (!slots.compareAndSet(index, current, next));
+    }
+
+    private static long sum(AtomicLongArray slots, long hour) {
+        long total = 0;
+        for (int i = 0; i < WINDOW_HOURS; i++) {
+            long slot = slots.get(i);
+            if (hour - (slot >>> TOKEN_BITS) < WINDOW_HOURS) {
+                total += slot & TOKEN_MASK;
+            }
+        }
+        return total;
+    }
+
+    @Scheduled(fixedRate = 300000)
+    public void cleanupIdleStudents() {
+        long hour = clock.getAsLong() / HOUR_MS;
+        int beforeSize = students.size();
+        students.values().removeIf(usage -> hour - usage.lastHour >= WINDOW_HOURS);
+
+        int removed = beforeSize - students.size();
+        if (removed > 0) {
+            log.info("Cleaned up {} idle token ledgers. Remaining: {}", removed, students.size());
+        }
+        int evicted = eviction.trim();
+        if (evicted > 0) {
+            log.warn("Evicted {} token ledgers with usage in the last 24 hours; raise groq.quota.max-students", evicted);
+        }
+    }
+
+    private static final class Usage {
+        private final AtomicLongArray prompt = new AtomicLongArray(WINDOW_HOURS);
+        private final AtomicLongArray completion = new AtomicLongArray(WINDOW_HOURS);
+        private volatile long lastHour;
+    }
+}
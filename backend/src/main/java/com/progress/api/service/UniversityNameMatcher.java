@@ -0,0 +1,194 @@
+package com.progress.api.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fuzzy lookup of a university key from the establishment name returned by PROGRES.
+ * <p>
+ * Names are normalized in a single pass through a precomputed character table
+ * (lower case, accents folded, punctuation dropped, whitespace runs joined with
+ * {@code _}), which yields the key format used in {@code academic-structure.json}.
+ * Exact keys and aliases are a hash lookup; anything else is scored against a
+ * trigram index by Dice coefficient and the best candidate above
+ * {@link #DEFAULT_MIN_SCORE} wins.
+ */
+public class UniversityNameMatcher {
+
+    public static final double DEFAULT_MIN_SCORE = 0.5;
+
+    private static final char SEPARATOR = '_';
+    private static final char DROP = 0;
+    private static final char[] FOLD = buildFoldTable();
+
+    private final Map<String, String> exact = new HashMap<>();
+    private final List<String> entryKeys = new ArrayList<>();
+    private final int[] entryGramCounts;
+    private final Map<Integer, int[]> postings;
+    private final double minScore;
+
+    /**
+     * @param aliases university key to the names it may appear under; the key itself
+     *                always matches
+     */
+    public UniversityNameMatcher(Map<String, List<String>> aliases, double minScore) {
+        this.minScore = minScore;
+
+        Map<Integer, List<Integer>> building = new HashMap<>();
+        List<Integer> gramCounts = new ArrayList<>();
+        for (Map.Entry<String, List<String>> university : aliases.entrySet()) {
+            List<String> names = new ArrayList<>();
+            names.add(university.getKey());
+            names.addAll(university.getValue());
+            for (String name : names) {
+                String normalized = normalize(name);
+                if (normalized == null || exact.putIfAbsent(normalized, university.getKey()) != null) {
+                    continue;
+                }
+                int entry = entryKeys.size();
+                entryKeys.add(university.getKey());
+                int[] grams = trigrams(normalized);
+                gramCounts.add(grams.length);
+                for (int gram : grams) {
+                    building.computeIfAbsent(gram, g -> new ArrayList<>()).add(entry);
+                }
+            }
+        }
+
+        this.entryGramCounts = gramCounts.stream().mapToInt(Integer::intValue).toArray();
+        this.postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, entries) ->
+                postings.put(gram, entries.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public UniversityNameMatcher(Map<String, List<String>> aliases) {
+        this(aliases, DEFAULT_MIN_SCORE);
+    }
+
+    /**
+     * Best matching university key, or {@code null} if nothing scores at least the
+     * minimum.
+     */
+    public Match match(String name) {
+        String normalized = normalize(name);
+        if (normalized == null) {
+            return null;
+        }
+        String key = exact.get(normalized);
+        if (key != null) {
+            return new Match(key, 1.0);
+        }
+
+        int[] grams = trigrams(normalized);
+        int[] shared = new int[entryKeys.size()];
+        for (int gram : grams) {
+            int[] entries = postings.get(gram);
+            if (entries != null) {
+                for (int entry : entries) {
+                    shared[entry]++;
+                }
+            }
+        }
+
+        int best = -1;
+        double bestScore = 0;
+        for (int entry = 0; entry < shared.length; entry++) {
+            if (shared[entry] == 0) {
+                continue;
+            }
+            double score = 2.0 * shared[entry] / (grams.length + entryGramCounts[entry]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = entry;
+            }
+        }
+        return best >= 0 && bestScore >= minScore ? new Match(entryKeys.get(best), bestScore) : null;
+    }
+
+    /**
+     * Normalize a university name to key form, e.g.
+     * {@code "Université d'Oran 1 Ahmed Ben Bella"} to {@code "universite_doran_1_ahmed_ben_bella"}.
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        char[] out = new char[name.length()];
+        int length = 0;
+        boolean pendingSeparator = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char folded = c < FOLD.length ? FOLD[c] : (Character.isWhitespace(c) ? SEPARATOR : DROP);
+            if (folded == DROP) {
+                continue;
+            }
+            if (folded == SEPARATOR) {
+                pendingSeparator = length > 0;
+                continue;
+            }
+            if (pendingSeparator) {
+                out[length++] = SEPARATOR;
+                pendingSeparator = false;
+            }
+            out[length++] = folded;
+        }
+        return length == 0 ? null : new String(out, 0, length);
+    }
+
+    /**
+     * Distinct trigrams of the padded key, each packed into an int.
+     */
+    static int[] trigrams(String normalized) {
+        String padded = SEPARATOR + normalized + SEPARATOR;
+        int[] grams = new int[Math.max(1, padded.length() - 2)];
+        for (int i = 0; i + 2 < padded.length(); i++) {
+            grams[i] = (padded.charAt(i) << 16) | (padded.charAt(i + 1) << 8) | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static char[] buildFoldTable() {
+        char[] table = new char[0x180];
+        for (char c = 'a'; c <= 'z'; c++) {
+            table[c] = c;
+            table[Character.toUpperCase(c)] = c;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            table[c] = c;
+        }
+        for (char c : new char[] {' ', '\t', '\n', '\u000B', '\f', '\r', ' '}) {
+            table[c] = SEPARATOR;
+        }
+        fold(table, "àáâãäåÀÁÂÃÄÅ", 'a');
+        fold(table, "çÇ", 'c');
+        fold(table, "èéêëÈÉÊË", 'e');
+        fold(table, "ìíîïÌÍÎÏ", 'i');
+        fold(table, "ñÑ", 'n');
+        fold(table, "òóôõöÒÓÔÕÖ", 'o');
+        fold(table, "ùúûüÙÚÛÜ", 'u');
+        fold(table, "ÿŸ", 'y');
+        return table;
+    }
+
+    private static void fold(char[] table, String accented, char base) {
+        for (int i = 0; i < accented.length(); i++) {
+            char c = accented.charAt(i);
+            if (c < table.length) {
+                table[c] = base;
+            }
+        }
+    }
+
+    public record Match(String key, double score) {
+    }
+}
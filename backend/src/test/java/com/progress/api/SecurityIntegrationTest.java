@@ -119,6 +119,15 @@ class SecurityIntegrationTest {
             mockMvc.perform(get("/actuator/health"))
                     .andExpect(status().isOk());
         }
+
+        @Test
+        @DisplayName("should reject metrics without token")
+        void shouldProtectMetrics() throws Exception {
+            mockMvc.perform(get("/actuator/metrics"))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get("/actuator/metrics/recommendation.jobs.queue.depth"))
+                    .andExpect(status().isUnauthorized());
+        }
     }
 
     @Nested
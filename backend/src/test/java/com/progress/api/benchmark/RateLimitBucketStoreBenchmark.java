@@ -0,0 +1,105 @@
+package com.progress.api.benchmark;
+
+import com.progress.api.config.RateLimitBucketStore;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link RateLimitBucketStore} against spoofed-key traffic, plus a heap
+ * report at 10M distinct keys compared with the previous {@code ConcurrentHashMap<String, Bucket>}.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.progress.api.benchmark.RateLimitBucketStoreBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RateLimitBucketStoreBenchmark {
+
+    private static final int DISTINCT_KEYS = 10_000_000;
+    private static final int LEGACY_SAMPLE_KEYS = 1_000_000;
+
+    @Param({"100000"})
+    public int maxEntries;
+
+    private RateLimitBucketStore store;
+
+    @Setup
+    public void setUp() {
+        store = new RateLimitBucketStore(100, Duration.ofMinutes(15).toMillis(),
+                Duration.ofMinutes(15).toMillis(), maxEntries);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long spoofedKeys() {
+        String key = "10.0." + ThreadLocalRandom.current().nextInt(DISTINCT_KEYS);
+        return store.tryConsume(key, 1, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long hotKeys() {
+        String key = "10.0.0." + ThreadLocalRandom.current().nextInt(256);
+        return store.tryConsume(key, 1, System.currentTimeMillis());
+    }
+
+    public static void main(String[] args) throws Exception {
+        reportMemory();
+        new Runner(new OptionsBuilder()
+                .include(RateLimitBucketStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static void reportMemory() {
+        long before = usedHeap();
+        RateLimitBucketStore store = new RateLimitBucketStore(100, Duration.ofMinutes(15).toMillis(),
+                Duration.ofMinutes(15).toMillis(), 100_000);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < DISTINCT_KEYS; i++) {
+            store.tryConsume("spoofed-" + i, 1, now);
+        }
+        long storeBytes = usedHeap() - before;
+        System.out.printf("Bounded store: %,d keys seen, %,d tracked, %,d KB retained%n",
+                DISTINCT_KEYS, store.size(), storeBytes / 1024);
+
+        before = usedHeap();
+        Map<String, Bucket> legacy = new ConcurrentHashMap<>();
+        for (int i = 0; i < LEGACY_SAMPLE_KEYS; i++) {
+            legacy.put("spoofed-" + i, Bucket.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(100)
+                            .refillIntervally(100, Duration.ofMinutes(15))
+                            .build())
+                    .build());
+        }
+        long legacyBytes = usedHeap() - before;
+        System.out.printf("Unbounded map: %,d keys, %,d KB retained, ~%,d KB projected at %,d keys%n",
+                legacy.size(), legacyBytes / 1024,
+                legacyBytes / 1024 * (DISTINCT_KEYS / LEGACY_SAMPLE_KEYS), DISTINCT_KEYS);
+
+        // Keep both structures reachable until after the measurement
+        if (store.size() + legacy.size() < 0) {
+            System.out.println();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
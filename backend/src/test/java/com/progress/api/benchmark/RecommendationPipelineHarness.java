@@ -0,0 +1,482 @@
+package com.progress.api.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.service.AcademicDataGatherer;
+import com.progress.api.service.AcademicStructureIndex;
+import com.progress.api.service.CohortRecommendationCache;
+import com.progress.api.service.GroqClient;
+import com.progress.api.service.GroqRequestScheduler;
+import com.progress.api.service.LocalRecommendationEngine;
+import com.progress.api.service.PromptCompactor;
+import com.progress.api.service.RecommendationCache;
+import com.progress.api.service.RecommendationService;
+import com.progress.api.service.RecommendationSingleFlight;
+import com.progress.api.service.StudentService;
+import com.progress.api.service.TokenQuotaLedger;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.cumulative.CumulativeDistributionSummary;
+import io.micrometer.core.instrument.cumulative.CumulativeTimer;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replays anonymized student profiles through the whole recommendation pipeline and
+ * reports where the time goes: gathering the grade data, prompt size, Groq tokens and
+ * latency, parsing and end-to-end latency, as percentiles.
+ * <p>
+ * PROGRES is served from {@code benchmark/recommendation-profiles.json} by a local
+ * server. Groq is either a local stand-in that answers with each profile's recorded
+ * completion after {@code --groq-latency-ms}, or any OpenAI-compatible server given by
+ * {@code --groq-url} (a recorded-response proxy, or Groq itself with
+ * {@code --groq-key}). Both caches are off so every request runs the full pipeline.
+ * <p>
+ * This is not a JMH benchmark: the pipeline makes HTTP calls and the interesting
+ * numbers are per-stage distributions, which come from the same Micrometer meters
+ * production publishes. Every value recorded to them is kept, so the percentiles are
+ * exact rather than histogram estimates. The report is written as JSON with the
+ * commit, model, prompt and corpus fingerprints; pass an earlier report as
+ * {@code --baseline} to print the change of each number. Run with
+ * {@code java -cp <test classpath> com.progress.api.benchmark.RecommendationPipelineHarness
+ * --iterations=20 --groq-latency-ms=800}.
+ */
+public class RecommendationPipelineHarness {
+
+    private static final String CORPUS = "/benchmark/recommendation-profiles.json";
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    private static final Pattern DIAS = Pattern.compile("/infos/bac/([^/]+)/dias");
+    private static final Pattern BILANS = Pattern.compile("/infos/bac/([^/]+)/dias/(\\d+)/periode/bilans");
+    private static final Pattern CC_GRADES = Pattern.compile("/infos/controleContinue/dia/(\\d+)/notesCC");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> options;
+    private final List<JsonNode> profiles = new ArrayList<>();
+    private final Map<String, JsonNode> diaOwners = new LinkedHashMap<>();
+    private String corpusHash;
+
+    private RecommendationPipelineHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        new RecommendationPipelineHarness(options).run();
+    }
+
+    private void run() throws Exception {
+        loadCorpus();
+        int warmup = intOption("warmup", 3);
+        int iterations = intOption("iterations", 20);
+        int concurrency = intOption("concurrency", 1);
+
+        try (MockWebServer progres = new MockWebServer(); MockWebServer groqStandIn = new MockWebServer()) {
+            progres.setDispatcher(progresDispatcher());
+            progres.start();
+            String groqUrl = options.get("groq-url");
+            if (groqUrl == null) {
+                groqStandIn.setDispatcher(groqDispatcher(intOption("groq-latency-ms", 0)));
+                groqStandIn.start();
+                groqUrl = groqStandIn.url("/").toString();
+            }
+
+            // Warm up on a throwaway pipeline so the measured meters only see steady state
+            replay(pipeline(new SamplingRegistry(), progres, groqUrl), warmup, concurrency);
+
+            SamplingRegistry registry = new SamplingRegistry();
+            Pipeline pipeline = pipeline(registry, progres, groqUrl);
+            long start = System.nanoTime();
+            int failures = replay(pipeline, iterations, concurrency);
+            Duration wall = Duration.ofNanos(System.nanoTime() - start);
+
+            ObjectNode report = report(registry, pipeline, iterations, concurrency, failures, wall);
+            Path out = Path.of(options.getOrDefault("out", "target/benchmark/recommendation-pipeline.json"));
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+
+            JsonNode baseline = options.containsKey("baseline")
+                    ? objectMapper.readTree(Path.of(options.get("baseline")).toFile())
+                    : null;
+            print(report, baseline);
+            System.out.println("Report written to " + out);
+        }
+    }
+
+    private int replay(Pipeline pipeline, int iterations, int concurrency) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Boolean>> calls = new ArrayList<>();
+            for (int i = 0; i < iterations; i++) {
+                for (JsonNode profile : profiles) {
+                    String uuid = profile.path("uuid").asText();
+                    calls.add(callers.submit(() -> pipeline.call(uuid)));
+                }
+            }
+            int failures = 0;
+            for (Future<Boolean> call : calls) {
+                if (!call.get()) {
+                    failures++;
+                }
+            }
+            return failures;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private Pipeline pipeline(SimpleMeterRegistry registry, MockWebServer progres, String groqUrl) {
+        StudentService studentService = new StudentService(WebClient.builder()
+                .baseUrl(progres.url("/").toString())
+                .build());
+        GroqClient groqClient = new GroqClient(
+                options.getOrDefault("groq-key", "harness"), groqUrl, objectMapper, registry,
+                new GroqRequestScheduler(registry, 1_000_000, 1_000_000_000, 10_000, 60_000, 60_000),
+                new TokenQuotaLedger(registry, 0, 1));
+        ReflectionTestUtils.setField(groqClient, "model", options.getOrDefault("model", "llama-3.3-70b-versatile"));
+        ReflectionTestUtils.setField(groqClient, "timeout", 60_000);
+
+        AcademicDataGatherer gatherer = new AcademicDataGatherer(studentService, 4000, 16);
+        RecommendationService service = new RecommendationService(
+                studentService,
+                groqClient,
+                objectMapper,
+                new AcademicStructureIndex(objectMapper),
+                new RecommendationCache(0, 1, 1),
+                gatherer,
+                new PromptCompactor(registry, intOption("max-tokens", 3000)),
+                new LocalRecommendationEngine(),
+                new CohortRecommendationCache(registry, objectMapper, 0, 1, 2.0, null),
+                new RecommendationSingleFlight(registry),
+                registry);
+        ReflectionTestUtils.setField(service, "localFallback", true);
+        ReflectionTestUtils.setField(service, "cohortEnabled", options.containsKey("cohort"));
+
+        Timer endToEnd = Timer.builder("harness.end-to-end").register(registry);
+        return new Pipeline(service, endToEnd, groqClient.getModel());
+    }
+
+    private record Pipeline(RecommendationService service, Timer endToEnd, String model) {
+
+        /**
+         * @return {@code false} when the request failed or fell back to the local engine
+         */
+        boolean call(String uuid) {
+            long start = System.nanoTime();
+            try {
+                RecommendationResponse response = service.getRecommendations(uuid, "Bearer harness", null);
+                return !LocalRecommendationEngine.MODEL.equals(response.getModel());
+            } catch (RuntimeException e) {
+                return false;
+            } finally {
+                endToEnd.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Keeps every value recorded to a timer or distribution summary, in milliseconds
+     * for timers, for the report's percentiles.
+     */
+    private static final class SamplingRegistry extends SimpleMeterRegistry {
+
+        private final Map<Meter.Id, List<Double>> samples = new ConcurrentHashMap<>();
+
+        @Override
+        protected Timer newTimer(Meter.Id id, DistributionStatisticConfig config, PauseDetector pauseDetector) {
+            List<Double> values = values(id);
+            return new CumulativeTimer(id, clock, config, pauseDetector, getBaseTimeUnit(), false) {
+                @Override
+                protected void recordNonNegative(long amount, TimeUnit unit) {
+                    super.recordNonNegative(amount, unit);
+                    values.add(unit.toNanos(amount) / 1e6);
+                }
+            };
+        }
+
+        @Override
+        protected DistributionSummary newDistributionSummary(
+                Meter.Id id, DistributionStatisticConfig config, double scale) {
+            List<Double> values = values(id);
+            return new CumulativeDistributionSummary(id, clock, config, scale, false) {
+                @Override
+                protected void recordNonNegative(double amount) {
+                    super.recordNonNegative(amount);
+                    values.add(amount);
+                }
+            };
+        }
+
+        private List<Double> values(Meter.Id id) {
+            return samples.computeIfAbsent(id, key -> Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        double[] sorted(Meter meter) {
+            List<Double> values = samples.getOrDefault(meter.getId(), List.of());
+            double[] sorted;
+            synchronized (values) {
+                sorted = values.stream().mapToDouble(Double::doubleValue).toArray();
+            }
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private ObjectNode report(
+            SamplingRegistry registry,
+            Pipeline pipeline,
+            int iterations,
+            int concurrency,
+            int failures,
+            Duration wall) throws Exception {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("commit", commit());
+        report.put("model", pipeline.model());
+        report.put("systemPromptHash", hash(systemPrompt()));
+        report.put("corpusHash", corpusHash);
+        report.put("profiles", profiles.size());
+        report.put("iterations", iterations);
+        report.put("concurrency", concurrency);
+        report.put("requests", (long) iterations * profiles.size());
+        report.put("failures", failures);
+        report.put("throughputPerSecond", round(iterations * profiles.size() / Math.max(0.001, wall.toMillis() / 1000.0)));
+
+        ObjectNode stages = report.putObject("stagesMs");
+        stages.set("gather", distribution(registry,
+                registry.find("recommendation.stage.duration").tag("stage", "gather").timer()));
+        stages.set("groq", distribution(registry, registry.find("groq.request.duration").tag("mode", "chat").timer()));
+        stages.set("parse", distribution(registry,
+                registry.find("recommendation.stage.duration").tag("stage", "parse").timer()));
+        stages.set("endToEnd", distribution(registry, pipeline.endToEnd()));
+
+        ObjectNode tokens = report.putObject("tokens");
+        tokens.set("promptEstimate", distribution(registry, registry.find("recommendation.prompt.tokens").summary()));
+        tokens.set("groqPrompt", distribution(registry, registry.find("groq.tokens").tag("type", "prompt").summary()));
+        tokens.set("groqCompletion", distribution(registry,
+                registry.find("groq.tokens").tag("type", "completion").summary()));
+        tokens.put("trimmedPrompts", registry.find("recommendation.prompt.trimmed").counter() == null
+                ? 0 : registry.find("recommendation.prompt.trimmed").counter().count());
+        return report;
+    }
+
+    private ObjectNode distribution(SamplingRegistry registry, Meter meter) {
+        ObjectNode node = objectMapper.createObjectNode();
+        if (meter == null) {
+            return node;
+        }
+        double[] sorted = registry.sorted(meter);
+        node.put("count", sorted.length);
+        if (sorted.length == 0) {
+            return node;
+        }
+        node.put("mean", round(Arrays.stream(sorted).average().orElse(0)));
+        for (double percentile : PERCENTILES) {
+            node.put(percentileName(percentile), round(percentile(sorted, percentile)));
+        }
+        node.put("max", round(sorted[sorted.length - 1]));
+        return node;
+    }
+
+    /**
+     * Nearest-rank percentile: the smallest sample that at least {@code percentile} of
+     * the samples do not exceed.
+     */
+    static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+
+    private static String percentileName(double percentile) {
+        return "p" + Math.round(percentile * 100);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private void print(JsonNode report, JsonNode baseline) {
+        System.out.printf(Locale.ROOT, "%nRecommendation pipeline @ %s, model %s, %d requests (%d failed), %.2f req/s%n",
+                report.path("commit").asText(), report.path("model").asText(), report.path("requests").asLong(),
+                report.path("failures").asInt(), report.path("throughputPerSecond").asDouble());
+        if (baseline != null) {
+            System.out.printf("Baseline @ %s, model %s%s%n", baseline.path("commit").asText(),
+                    baseline.path("model").asText(),
+                    baseline.path("corpusHash").asText().equals(report.path("corpusHash").asText())
+                            ? "" : " (different corpus, not comparable)");
+        }
+        System.out.printf("%-28s %10s %10s %10s %10s %10s%n", "", "mean", "p50", "p90", "p99", "max");
+        for (String group : List.of("stagesMs", "tokens")) {
+            report.path(group).fields().forEachRemaining(entry -> {
+                if (!entry.getValue().isObject() || entry.getValue().isEmpty()) {
+                    return;
+                }
+                StringBuilder line = new StringBuilder(String.format("%-28s", group + "." + entry.getKey()));
+                for (String column : List.of("mean", "p50", "p90", "p99", "max")) {
+                    double value = entry.getValue().path(column).asDouble();
+                    JsonNode before = baseline == null ? null : baseline.path(group).path(entry.getKey()).get(column);
+                    line.append(String.format(Locale.ROOT, " %10.2f", value));
+                    if (before != null && before.asDouble() > 0) {
+                        line.append(String.format(Locale.ROOT, " (%+.0f%%)",
+                                (value - before.asDouble()) * 100 / before.asDouble()));
+                    }
+                }
+                System.out.println(line);
+            });
+        }
+    }
+
+    private void loadCorpus() throws IOException {
+        byte[] bytes;
+        try (InputStream is = getClass().getResourceAsStream(CORPUS)) {
+            bytes = is.readAllBytes();
+        }
+        corpusHash = hash(new String(bytes, StandardCharsets.UTF_8));
+        for (JsonNode profile : objectMapper.readTree(bytes)) {
+            profiles.add(profile);
+            profile.path("dias").forEach(dia -> diaOwners.put(dia.path("id").asText(), profile));
+        }
+    }
+
+    private JsonNode profile(String uuid) {
+        for (JsonNode profile : profiles) {
+            if (profile.path("uuid").asText().equals(uuid)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    private Dispatcher progresDispatcher() {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath() == null ? "" : request.getPath();
+                Matcher matcher = BILANS.matcher(path);
+                if (matcher.matches()) {
+                    JsonNode profile = profile(matcher.group(1));
+                    return json(profile == null ? null : profile.path("exams").get(matcher.group(2)));
+                }
+                matcher = CC_GRADES.matcher(path);
+                if (matcher.matches()) {
+                    JsonNode owner = diaOwners.get(matcher.group(1));
+                    return json(owner == null ? null : owner.path("ccGrades").get(matcher.group(1)));
+                }
+                matcher = DIAS.matcher(path);
+                if (matcher.matches()) {
+                    JsonNode profile = profile(matcher.group(1));
+                    return json(profile == null ? null : profile.path("dias"));
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        };
+    }
+
+    /**
+     * Answers like Groq's chat completions: the profile's recorded completion, with
+     * usage estimated from the request and completion sizes.
+     */
+    private Dispatcher groqDispatcher(int latencyMs) {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                String body = request.getBody().readUtf8();
+                String completion = "{\"recommendations\": [], \"summary\": \"\"}";
+                for (JsonNode profile : profiles) {
+                    if (body.contains(profile.path("dias").path(0).path("llFiliere").asText("\u0000"))
+                            && body.contains(profile.path("dias").path(0).path("refLibelleNiveau").asText("\u0000"))) {
+                        completion = profile.path("completion").asText();
+                        break;
+                    }
+                }
+                ObjectNode response = objectMapper.createObjectNode();
+                response.putArray("choices").addObject().putObject("message")
+                        .put("role", "assistant")
+                        .put("content", completion);
+                response.putObject("usage")
+                        .put("prompt_tokens", PromptCompactor.estimateTokens(body))
+                        .put("completion_tokens", PromptCompactor.estimateTokens(completion));
+                return new MockResponse()
+                        .addHeader("Content-Type", "application/json")
+                        .setBodyDelay(latencyMs, TimeUnit.MILLISECONDS)
+                        .setBody(response.toString());
+            }
+        };
+    }
+
+    private static MockResponse json(JsonNode body) {
+        if (body == null || body.isMissingNode()) {
+            return new MockResponse().setResponseCode(404);
+        }
+        return new MockResponse()
+                .addHeader("Content-Type", "application/json")
+                .setBody(body.toString());
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static String systemPrompt() {
+        Object prompt = ReflectionTestUtils.getField(RecommendationService.class, "SYSTEM_PROMPT");
+        return prompt == null ? "" : prompt.toString();
+    }
+
+    private static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String sha = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 ? sha : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)), 0, 6);
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
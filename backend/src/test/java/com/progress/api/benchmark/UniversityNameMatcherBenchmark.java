@@ -0,0 +1,110 @@
+package com.progress.api.benchmark;
+
+import com.progress.api.service.UniversityNameMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * University lookup over every Algerian university: {@link UniversityNameMatcher}
+ * against the previous seven-{@code replaceAll} normalizer followed by a linear
+ * {@code contains} scan over the keys.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.progress.api.benchmark.UniversityNameMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class UniversityNameMatcherBenchmark {
+
+    private List<String> keys;
+    private UniversityNameMatcher matcher;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> names;
+        try (InputStream is = getClass().getResourceAsStream("/data/algerian-universities.txt")) {
+            names = new String(is.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank())
+                    .toList();
+        }
+
+        Map<String, List<String>> aliases = new LinkedHashMap<>();
+        for (String name : names) {
+            aliases.put(legacyNormalize(name), List.of());
+        }
+        keys = new ArrayList<>(aliases.keySet());
+        matcher = new UniversityNameMatcher(aliases);
+
+        // Mix of exact names, PROGRES-style variants and names that match nothing
+        List<String> mix = new ArrayList<>();
+        for (String name : names) {
+            mix.add(name);
+            mix.add(name.replace("Université ", "Universite ").replace(" de ", " ").toUpperCase());
+        }
+        mix.add("École Nationale Polytechnique");
+        mix.add("Centre Universitaire de Tipaza");
+        queries = mix.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public String matcher() {
+        UniversityNameMatcher.Match match = matcher.match(nextQuery());
+        return match != null ? match.key() : null;
+    }
+
+    @Benchmark
+    public String legacy() {
+        String normalized = legacyNormalize(nextQuery());
+        for (String key : keys) {
+            if (key.equals(normalized)) {
+                return key;
+            }
+        }
+        for (String key : keys) {
+            if (key.contains(normalized) || normalized.contains(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private String nextQuery() {
+        String query = queries[next];
+        next = next + 1 == queries.length ? 0 : next + 1;
+        return query;
+    }
+
+    private static String legacyNormalize(String name) {
+        return name.toLowerCase()
+                .replaceAll("[àáâãäå]", "a")
+                .replaceAll("[èéêë]", "e")
+                .replaceAll("[ìíîï]", "i")
+                .replaceAll("[òóôõö]", "o")
+                .replaceAll("[ùúûü]", "u")
+                .replaceAll("[ç]", "c")
+                .replaceAll("[^a-z0-9\\s]", "")
+                .trim()
+                .replaceAll("\\s+", "_");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(UniversityNameMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,178 @@
+package com.progress.api.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.PeriodBilan;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of holding one student's PROGRES payloads (dias, bilans and CC grades of the
+ * profiles in {@code benchmark/recommendation-profiles.json}) as {@code Object} trees
+ * converted again with {@code valueToTree}, as the services used to, against the
+ * typed records of {@code dto.progres}. Prints retained heap per student, then runs
+ * the deserialization throughput benchmarks.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.progress.api.benchmark.UpstreamPayloadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class UpstreamPayloadBenchmark {
+
+    private static final int COPIES = 2_000;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private List<Payloads> students;
+
+    @Setup
+    public void setUp() throws IOException {
+        students = load();
+    }
+
+    @Benchmark
+    public int untyped() throws IOException {
+        int size = 0;
+        for (Payloads student : students) {
+            size += untyped(student).size();
+        }
+        return size;
+    }
+
+    @Benchmark
+    public int typed() throws IOException {
+        int size = 0;
+        for (Payloads student : students) {
+            size += typed(student).size();
+        }
+        return size;
+    }
+
+    public static void main(String[] args) throws Exception {
+        reportMemory();
+        new Runner(new OptionsBuilder()
+                .include(UpstreamPayloadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static void reportMemory() throws IOException {
+        List<Payloads> students = load();
+        int count = students.size() * COPIES;
+
+        long before = usedHeap();
+        List<Object> untyped = new ArrayList<>(count);
+        for (int i = 0; i < COPIES; i++) {
+            for (Payloads student : students) {
+                untyped.add(untyped(student));
+            }
+        }
+        long untypedBytes = usedHeap() - before;
+
+        before = usedHeap();
+        List<Object> typed = new ArrayList<>(count);
+        for (int i = 0; i < COPIES; i++) {
+            for (Payloads student : students) {
+                typed.add(typed(student));
+            }
+        }
+        long typedBytes = usedHeap() - before;
+
+        System.out.printf("Object + valueToTree: %,d bytes per student%n", untypedBytes / count);
+        System.out.printf("Typed records:        %,d bytes per student (%.1fx smaller)%n",
+                typedBytes / count, (double) untypedBytes / Math.max(1, typedBytes));
+
+        // Keep both structures reachable until after the measurement
+        if (untyped.size() + typed.size() < 0) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * What the services held per request: each payload as {@code Object} and again as a tree.
+     */
+    private static List<Object> untyped(Payloads student) throws IOException {
+        List<Object> held = new ArrayList<>();
+        for (byte[] payload : student.all()) {
+            Object raw = OBJECT_MAPPER.readValue(payload, Object.class);
+            JsonNode tree = OBJECT_MAPPER.valueToTree(raw);
+            held.add(raw);
+            held.add(tree);
+        }
+        return held;
+    }
+
+    private static List<Object> typed(Payloads student) throws IOException {
+        List<Object> held = new ArrayList<>();
+        held.add(OBJECT_MAPPER.readValue(student.dias(), new TypeReference<List<Dia>>() {
+        }));
+        for (byte[] bilans : student.bilans()) {
+            held.add(OBJECT_MAPPER.readValue(bilans, new TypeReference<List<PeriodBilan>>() {
+            }));
+        }
+        for (byte[] ccGrades : student.ccGrades()) {
+            held.add(OBJECT_MAPPER.readValue(ccGrades, new TypeReference<List<CCGrade>>() {
+            }));
+        }
+        return held;
+    }
+
+    /**
+     * The raw bodies PROGRES would send for each profile of the corpus.
+     */
+    private static List<Payloads> load() throws IOException {
+        JsonNode profiles;
+        try (InputStream in = UpstreamPayloadBenchmark.class.getResourceAsStream(
+                "/benchmark/recommendation-profiles.json")) {
+            profiles = OBJECT_MAPPER.readTree(in);
+        }
+        List<Payloads> students = new ArrayList<>();
+        for (JsonNode profile : profiles) {
+            List<byte[]> bilans = new ArrayList<>();
+            profile.path("exams").forEach(exams -> bilans.add(bytes(exams)));
+            List<byte[]> ccGrades = new ArrayList<>();
+            profile.path("ccGrades").forEach(grades -> ccGrades.add(bytes(grades)));
+            students.add(new Payloads(bytes(profile.path("dias")), bilans, ccGrades));
+        }
+        return students;
+    }
+
+    private static byte[] bytes(JsonNode node) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private record Payloads(byte[] dias, List<byte[]> bilans, List<byte[]> ccGrades) {
+
+        List<byte[]> all() {
+            List<byte[]> all = new ArrayList<>();
+            all.add(dias);
+            all.addAll(bilans);
+            all.addAll(ccGrades);
+            return all;
+        }
+    }
+}
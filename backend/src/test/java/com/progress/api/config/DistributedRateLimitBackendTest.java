@@ -0,0 +1,264 @@
+package com.progress.api.config;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DistributedRateLimitBackend Tests")
+class DistributedRateLimitBackendTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private InMemoryProxyManager sharedStore;
+    private RateLimitProperties.Tier tier;
+    private RateLimitProperties.Distributed settings;
+
+    @BeforeEach
+    void setUp() {
+        sharedStore = new InMemoryProxyManager();
+        tier = new RateLimitProperties.Tier();
+        tier.setRequests(20);
+        tier.setWindowMinutes(15);
+        settings = new RateLimitProperties.Distributed();
+        settings.setLeaseTokens(5);
+        settings.setLeaseTtlMs(2000);
+    }
+
+    private DistributedRateLimitBackend replica(Supplier<ProxyManager<String>> proxyManager) {
+        RateLimitBucketStore local = new RateLimitBucketStore(tier.getRequests(), 900_000, 900_000, 100);
+        return new DistributedRateLimitBackend("rl:user:", tier, proxyManager, local, settings);
+    }
+
+    @Nested
+    @DisplayName("Shared limit")
+    class SharedLimit {
+
+        @Test
+        @DisplayName("should enforce one budget across replicas")
+        void shouldShareBudgetAcrossReplicas() {
+            settings.setLeaseTokens(1);
+            DistributedRateLimitBackend first = replica(() -> sharedStore);
+            DistributedRateLimitBackend second = replica(() -> sharedStore);
+
+            int allowed = 0;
+            for (int i = 0; i < 20; i++) {
+                DistributedRateLimitBackend backend = i % 2 == 0 ? first : second;
+                if (backend.tryConsume("student", 1, NOW) >= 0) {
+                    allowed++;
+                }
+            }
+
+            assertThat(allowed).isEqualTo(20);
+            assertThat(first.tryConsume("student", 1, NOW)).isEqualTo(-1);
+            assertThat(second.tryConsume("student", 1, NOW)).isEqualTo(-1);
+        }
+
+        @Test
+        @DisplayName("should never allow more than the limit, even with leases")
+        void shouldNotExceedLimitWithLeases() {
+            DistributedRateLimitBackend first = replica(() -> sharedStore);
+            DistributedRateLimitBackend second = replica(() -> sharedStore);
+
+            int allowed = 0;
+            for (int i = 0; i < 60; i++) {
+                DistributedRateLimitBackend backend = i % 3 == 0 ? first : second;
+                if (backend.tryConsume("student", 1, NOW) >= 0) {
+                    allowed++;
+                }
+            }
+
+            assertThat(allowed).isEqualTo(20);
+        }
+
+        @Test
+        @DisplayName("should keep the two tiers apart in the shared store")
+        void shouldPrefixKeys() {
+            replica(() -> sharedStore).tryConsume("student", 1, NOW);
+
+            assertThat(sharedStore.keys()).containsExactly("rl:user:student");
+        }
+    }
+
+    @Nested
+    @DisplayName("Leases")
+    class Leases {
+
+        @Test
+        @DisplayName("should serve a lease locally without a round-trip per request")
+        void shouldBatchRemoteCalls() {
+            DistributedRateLimitBackend backend = replica(() -> sharedStore);
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(backend.tryConsume("student", 1, NOW)).isGreaterThanOrEqualTo(0);
+            }
+
+            // The first request takes its cost alone, the second a lease that serves the rest
+            assertThat(sharedStore.writes.get()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should serve the full capacity to requests spaced beyond the lease TTL")
+        void shouldNotLeaseForOccasionalRequests() {
+            DistributedRateLimitBackend backend = replica(() -> sharedStore);
+
+            int allowed = 0;
+            for (int i = 0; i < 25; i++) {
+                if (backend.tryConsume("student", 1, NOW + i * (settings.getLeaseTtlMs() + 1)) >= 0) {
+                    allowed++;
+                }
+            }
+
+            assertThat(allowed).isEqualTo(tier.getRequests());
+        }
+
+        @Test
+        @DisplayName("should go back to the shared store once the lease expires")
+        void shouldRenewExpiredLease() {
+            DistributedRateLimitBackend backend = replica(() -> sharedStore);
+
+            backend.tryConsume("student", 1, NOW);
+            backend.tryConsume("student", 1, NOW + 5000);
+
+            assertThat(sharedStore.writes.get()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should take only the cost when a full lease no longer fits")
+        void shouldFallBackToExactCost() {
+            settings.setLeaseTokens(15);
+            DistributedRateLimitBackend first = replica(() -> sharedStore);
+            DistributedRateLimitBackend second = replica(() -> sharedStore);
+
+            // 1 + a lease of 15 leaves 4 in the shared bucket
+            first.tryConsume("student", 1, NOW);
+            first.tryConsume("student", 1, NOW);
+            assertThat(second.tryConsume("student", 1, NOW)).isEqualTo(3);
+            assertThat(second.tryConsume("student", 1, NOW)).isEqualTo(2);
+            assertThat(second.tryConsume("student", 3, NOW)).isEqualTo(-1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Fallback")
+    class Fallback {
+
+        @Test
+        @DisplayName("should limit locally when the shared store is unreachable")
+        void shouldFallBackToLocal() {
+            DistributedRateLimitBackend backend = replica(() -> {
+                throw new IllegalStateException("connection refused");
+            });
+
+            assertThat(backend.tryConsume("student", 1, NOW)).isEqualTo(19);
+            assertThat(backend.isRemoteAvailable(NOW)).isFalse();
+            assertThat(backend.tryConsume("student", 19, NOW)).isEqualTo(0);
+            assertThat(backend.tryConsume("student", 1, NOW)).isEqualTo(-1);
+        }
+
+        @Test
+        @DisplayName("should retry the shared store after the cooldown")
+        void shouldRetryAfterCooldown() {
+            AtomicInteger attempts = new AtomicInteger();
+            DistributedRateLimitBackend backend = replica(() -> {
+                if (attempts.getAndIncrement() == 0) {
+                    throw new IllegalStateException("connection refused");
+                }
+                return sharedStore;
+            });
+
+            backend.tryConsume("student", 1, NOW);
+            backend.tryConsume("student", 1, NOW + 1000);
+            assertThat(attempts.get()).isEqualTo(1);
+
+            backend.tryConsume("student", 1, NOW + settings.getFallbackCooldownMs());
+            assertThat(attempts.get()).isEqualTo(2);
+            assertThat(sharedStore.keys()).containsExactly("rl:user:student");
+        }
+    }
+
+    /**
+     * Compare-and-swap store standing in for Redis.
+     */
+    private static class InMemoryProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        private final Map<String, byte[]> state = new ConcurrentHashMap<>();
+        private final AtomicInteger writes = new AtomicInteger();
+
+        InMemoryProxyManager() {
+            super(ClientSideConfig.getDefault());
+        }
+
+        Iterable<String> keys() {
+            return state.keySet();
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            return new CompareAndSwapOperation() {
+                @Override
+                public Optional<byte[]> getStateData() {
+                    return Optional.ofNullable(state.get(key));
+                }
+
+                @Override
+                public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    writes.incrementAndGet();
+                    if (originalData == null) {
+                        return state.putIfAbsent(key, newData) == null;
+                    }
+                    byte[] current = state.get(key);
+                    return current != null && Arrays.equals(current, originalData) && state.replace(key, current, newData);
+                }
+            };
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            CompareAndSwapOperation operation = beginCompareAndSwapOperation(key);
+            return new AsyncCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<byte[]>> getStateData() {
+                    return CompletableFuture.completedFuture(operation.getStateData());
+                }
+
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    return CompletableFuture.completedFuture(operation.compareAndSwap(originalData, newData, newState));
+                }
+            };
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            state.remove(key);
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            state.remove(key);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+    }
+}
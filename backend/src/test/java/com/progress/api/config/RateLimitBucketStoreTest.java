@@ -0,0 +1,117 @@
+package com.progress.api.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RateLimitBucketStore Tests")
+class RateLimitBucketStoreTest {
+
+    private static final long WINDOW_MS = 60_000;
+
+    @Nested
+    @DisplayName("Consumption")
+    class Consumption {
+
+        @Test
+        @DisplayName("should allow up to capacity and then reject")
+        void shouldRejectWhenExhausted() {
+            RateLimitBucketStore store = new RateLimitBucketStore(3, WINDOW_MS, WINDOW_MS, 1000);
+
+            assertThat(store.tryConsume("10.0.0.1", 1, 0)).isEqualTo(2);
+            assertThat(store.tryConsume("10.0.0.1", 1, 1)).isEqualTo(1);
+            assertThat(store.tryConsume("10.0.0.1", 1, 2)).isZero();
+            assertThat(store.tryConsume("10.0.0.1", 1, 3)).isEqualTo(-1);
+        }
+
+        @Test
+        @DisplayName("should refill the whole capacity at the next window boundary")
+        void shouldRefillAtWindowBoundary() {
+            RateLimitBucketStore store = new RateLimitBucketStore(2, WINDOW_MS, WINDOW_MS, 1000);
+
+            store.tryConsume("client", 2, 0);
+            assertThat(store.tryConsume("client", 1, WINDOW_MS - 1)).isEqualTo(-1);
+            assertThat(store.tryConsume("client", 1, WINDOW_MS)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should keep separate buckets per key")
+        void shouldIsolateKeys() {
+            RateLimitBucketStore store = new RateLimitBucketStore(1, WINDOW_MS, WINDOW_MS, 1000);
+
+            assertThat(store.tryConsume("a", 1, 0)).isZero();
+            assertThat(store.tryConsume("b", 1, 0)).isZero();
+            assertThat(store.tryConsume("a", 1, 0)).isEqualTo(-1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bounds")
+    class Bounds {
+
+        @Test
+        @DisplayName("should never track more than maxEntries keys")
+        void shouldEnforceHardCap() {
+            RateLimitBucketStore store = new RateLimitBucketStore(10, WINDOW_MS, WINDOW_MS, 640);
+            long footprint = store.footprintBytes();
+
+            for (int i = 0; i < 100_000; i++) {
+                store.tryConsume("spoofed-" + i, 1, i);
+            }
+
+            assertThat(store.size()).isLessThanOrEqualTo(640);
+            assertThat(store.footprintBytes()).isEqualTo(footprint);
+        }
+
+        @Test
+        @DisplayName("should track a key whose probe slots are free even when its segment is full")
+        void shouldTrackKeyOfEmptyProbeWindow() {
+            // 1024 entries give each of the 64 segments 16 buckets over 32 slots
+            RateLimitBucketStore store = new RateLimitBucketStore(10, WINDOW_MS, WINDOW_MS, 1024);
+            List<String> crowded = new ArrayList<>();
+            String outsider = null;
+            for (int i = 0; crowded.size() < 16 || outsider == null; i++) {
+                String key = "client-" + i;
+                long hash = RateLimitBucketStore.hash(key);
+                if (hash >>> 58 != 0) {
+                    continue;
+                }
+                int slot = (int) hash & 31;
+                if (slot == 0 && crowded.size() < 16) {
+                    crowded.add(key);
+                } else if (slot == 16 && outsider == null) {
+                    outsider = key;
+                }
+            }
+            // Fill slots 0-15 of the segment, leaving the outsider's slots 16-31 empty
+            for (int i = 0; i < crowded.size(); i++) {
+                store.tryConsume(crowded.get(i), 1, i);
+            }
+
+            assertThat(store.tryConsume(outsider, 4, 100)).isEqualTo(6);
+            assertThat(store.tryConsume(outsider, 4, 101)).isEqualTo(2);
+            assertThat(store.tryConsume(outsider, 4, 102)).isEqualTo(-1);
+            assertThat(store.size()).isEqualTo(16);
+            // The least recently used key made room and starts over
+            assertThat(store.tryConsume(crowded.get(0), 1, 103)).isEqualTo(9);
+        }
+
+        @Test
+        @DisplayName("should evict buckets idle longer than the idle timeout")
+        void shouldEvictIdleBuckets() {
+            RateLimitBucketStore store = new RateLimitBucketStore(10, WINDOW_MS, WINDOW_MS, 1000);
+            store.tryConsume("idle", 1, 0);
+            store.tryConsume("active", 1, WINDOW_MS);
+
+            int removed = store.evictIdle(WINDOW_MS + 1);
+
+            assertThat(removed).isEqualTo(1);
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.progress.api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RateLimitFilter Tests")
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRequests(10);
+        properties.setWindowMinutes(15);
+        properties.getAuthenticated().setRequests(30);
+        properties.getAuthenticated().setWindowMinutes(15);
+
+        RateLimitProperties.RouteCost recommendations = new RateLimitProperties.RouteCost();
+        recommendations.setPattern("/api/recommendations/**");
+        recommendations.setCost(10);
+        properties.setRoutes(List.of(recommendations));
+        properties.getLogin().setRequests(50);
+
+        filter = new RateLimitFilter(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse perform(String path, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private void authenticateAs(String uuid) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(uuid, "external-token", Collections.emptyList()));
+    }
+
+    @Nested
+    @DisplayName("Route costs")
+    class RouteCosts {
+
+        @Test
+        @DisplayName("should charge the configured weight for matching routes")
+        void shouldChargeRouteWeight() throws Exception {
+            authenticateAs("student-1");
+
+            MockHttpServletResponse response = perform("/api/recommendations/suggest", "10.0.0.1");
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getHeader("X-Rate-Limit-Remaining")).isEqualTo("20");
+        }
+
+        @Test
+        @DisplayName("should charge 1 token for routes without a weight")
+        void shouldChargeDefaultCost() {
+            assertThat(filter.resolveCost("/api/student/info")).isEqualTo(1);
+            assertThat(filter.resolveCost("/api/recommendations/suggest")).isEqualTo(10);
+        }
+    }
+
+    @Nested
+    @DisplayName("Keys")
+    class Keys {
+
+        @Test
+        @DisplayName("should give each authenticated student a bucket even behind one IP")
+        void shouldKeyAuthenticatedRequestsByUuid() throws Exception {
+            authenticateAs("student-1");
+            perform("/api/recommendations/suggest", "10.0.0.1");
+            perform("/api/recommendations/suggest", "10.0.0.1");
+            perform("/api/recommendations/suggest", "10.0.0.1");
+            assertThat(perform("/api/recommendations/suggest", "10.0.0.1").getStatus()).isEqualTo(429);
+
+            authenticateAs("student-2");
+            assertThat(perform("/api/recommendations/suggest", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+
+        @Test
+        @DisplayName("should count logins per IP apart from the anonymous tier")
+        void shouldLimitLoginsSeparately() throws Exception {
+            // A NAT address that has spent its anonymous budget can still log students in
+            for (int i = 0; i < 10; i++) {
+                perform("/api/student/info", "10.0.0.1");
+            }
+            assertThat(perform("/api/student/info", "10.0.0.1").getStatus()).isEqualTo(429);
+
+            for (int i = 0; i < 50; i++) {
+                assertThat(perform("/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+            }
+            assertThat(perform("/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+            assertThat(perform("/api/auth/login", "10.0.0.2").getStatus()).isEqualTo(200);
+        }
+
+        @Test
+        @DisplayName("should key anonymous requests by IP")
+        void shouldKeyAnonymousRequestsByIp() throws Exception {
+            assertThat(perform("/api/recommendations/suggest", "10.0.0.1").getStatus()).isEqualTo(200);
+            assertThat(perform("/api/recommendations/suggest", "10.0.0.1").getStatus()).isEqualTo(429);
+            assertThat(perform("/api/recommendations/suggest", "10.0.0.2").getStatus()).isEqualTo(200);
+        }
+
+        @Test
+        @DisplayName("should ignore a client-supplied X-Forwarded-For")
+        void shouldIgnoreForwardedForHeader() throws Exception {
+            for (int i = 0; i < 50; i++) {
+                perform("/api/auth/login", "10.0.0.1");
+            }
+
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+            request.setRemoteAddr("10.0.0.1");
+            request.addHeader("X-Forwarded-For", "203.0.113.7");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+
+            assertThat(response.getStatus()).isEqualTo(429);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.progress.api.config;
+
+import io.lettuce.core.RedisClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RedisProxyManagerSupplier Tests")
+class RedisProxyManagerSupplierTest {
+
+    @Test
+    @DisplayName("should fail fast instead of blocking the caller while Redis is not connected")
+    void shouldNotBlockWhileConnecting() {
+        // A non-routable address: a connect attempt would hang until its timeout
+        try (RedisProxyManagerSupplier supplier = new RedisProxyManagerSupplier(
+                RedisClient.create("redis://10.255.255.1:6379"), Duration.ofMinutes(15), Duration.ofMillis(200))) {
+            long start = System.nanoTime();
+
+            assertThatThrownBy(supplier::get).isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(supplier::get).isInstanceOf(IllegalStateException.class);
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(100));
+            assertThat(supplier.isConnected()).isFalse();
+        }
+    }
+}
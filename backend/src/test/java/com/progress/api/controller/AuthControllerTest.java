@@ -6,6 +6,7 @@ import com.progress.api.dto.LoginResponse;
 import com.progress.api.exception.ApiException;
 import com.progress.api.security.JwtTokenProvider;
 import com.progress.api.service.AuthService;
+import com.progress.api.service.RefreshTokenService;
 import com.progress.api.service.TokenBlacklistService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -37,6 +38,9 @@ class AuthControllerTest {
     @MockBean
     private AuthService authService;
 
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
@@ -1,27 +1,43 @@
 package com.progress.api.controller;
 
+import com.progress.api.dto.AcademicTimeline;
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.GradeSimulationResponse;
+import com.progress.api.dto.GradeSync;
 import com.progress.api.security.JwtTokenProvider;
+import com.progress.api.service.FieldProjection;
+import com.progress.api.service.GradeService;
+import com.progress.api.service.GradeSyncService;
 import com.progress.api.service.StudentService;
+import com.progress.api.service.TimelineService;
 import com.progress.api.service.TokenBlacklistService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(StudentController.class)
+@Import({FieldProjection.class, SimpleMeterRegistry.class})
 @DisplayName("StudentController Tests")
 class StudentControllerTest {
 
@@ -31,6 +47,15 @@ class StudentControllerTest {
     @MockBean
     private StudentService studentService;
 
+    @MockBean
+    private GradeService gradeService;
+
+    @MockBean
+    private TimelineService timelineService;
+
+    @MockBean
+    private GradeSyncService gradeSyncService;
+
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
@@ -69,6 +94,33 @@ class StudentControllerTest {
                     .andExpect(jsonPath("$.id").value(1))
                     .andExpect(jsonPath("$.name").value("John Doe"));
         }
+
+        @Test
+        @DisplayName("should return only the requested fields of each registration")
+        void shouldProjectFields() throws Exception {
+            List<Map<String, Object>> dias = List.of(
+                    Map.of("id", 42, "anneeAcademiqueCode", "2024", "llEtablissementArabe", "جامعة",
+                            "niveau", Map.of("code", "L2", "libelle", "Licence 2")),
+                    Map.of("id", 41, "anneeAcademiqueCode", "2023", "llEtablissementArabe", "جامعة"));
+            when(studentService.getStudentData(anyString(), anyString())).thenReturn(dias);
+
+            mockMvc.perform(get("/api/student/data")
+                            .param("fields", "id,niveau.code")
+                            .with(authentication(createMockAuthentication())))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json("[{\"id\":42,\"niveau\":{\"code\":\"L2\"}},{\"id\":41}]", true));
+        }
+
+        @Test
+        @DisplayName("should return 400 for a malformed field list")
+        void shouldRejectMalformedFields() throws Exception {
+            when(studentService.getStudentData(anyString(), anyString())).thenReturn(List.of());
+
+            mockMvc.perform(get("/api/student/data")
+                            .param("fields", "id,,niveau")
+                            .with(authentication(createMockAuthentication())))
+                    .andExpect(status().isBadRequest());
+        }
     }
 
     @Nested
@@ -96,4 +148,129 @@ class StudentControllerTest {
                     .andExpect(jsonPath("$.examId").value("exam-123"));
         }
     }
+
+    @Nested
+    @DisplayName("GET /api/student/grades/{cardId}")
+    class GetGrades {
+
+        @Test
+        @DisplayName("should return 200 with the computed averages of the card")
+        void shouldReturnComputedAverages() throws Exception {
+            GradeReport report = GradeReport.builder()
+                    .cardId("42")
+                    .annualAverage(11.25)
+                    .periods(List.of(GradeReport.Period.builder().label("Semestre 1").average(11.25).build()))
+                    .build();
+
+            when(gradeService.getGrades(eq("test-uuid"), eq("42"), anyString())).thenReturn(report);
+
+            mockMvc.perform(get("/api/student/grades/42")
+                            .with(authentication(createMockAuthentication())))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.annualAverage").value(11.25))
+                    .andExpect(jsonPath("$.periods[0].label").value("Semestre 1"));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/student/timeline")
+    class GetTimeline {
+
+        @Test
+        @DisplayName("should return 200 with every registration of the student")
+        void shouldReturnTimeline() throws Exception {
+            AcademicTimeline timeline = AcademicTimeline.builder()
+                    .years(List.of(
+                            AcademicTimeline.Year.builder().cardId("41").academicYear("2023")
+                                    .decision("ADMITTED").credits(60).build(),
+                            AcademicTimeline.Year.builder().cardId("42").academicYear("2024")
+                                    .current(true).build()))
+                    .credits(60)
+                    .build();
+
+            when(timelineService.getTimeline(eq("test-uuid"), anyString())).thenReturn(timeline);
+
+            mockMvc.perform(get("/api/student/timeline")
+                            .with(authentication(createMockAuthentication())))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.credits").value(60.0))
+                    .andExpect(jsonPath("$.years[0].decision").value("ADMITTED"))
+                    .andExpect(jsonPath("$.years[1].current").value(true));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/student/grades/{cardId}/sync")
+    class SyncGrades {
+
+        @Test
+        @DisplayName("should return 200 with the changed modules and the new version")
+        void shouldReturnChanges() throws Exception {
+            GradeSync sync = GradeSync.builder()
+                    .cardId("42")
+                    .version("v2")
+                    .since("v1")
+                    .changed(List.of(GradeSync.Module.builder()
+                            .key("analyse 1")
+                            .label("Analyse 1")
+                            .examGrades(List.of())
+                            .ccGrades(List.of())
+                            .build()))
+                    .removed(List.of("algebre 1"))
+                    .build();
+
+            when(gradeSyncService.sync("test-uuid", "42", "external-token", "v1")).thenReturn(sync);
+
+            mockMvc.perform(get("/api/student/grades/42/sync")
+                            .param("since", "v1")
+                            .with(authentication(createMockAuthentication())))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"v2\""))
+                    .andExpect(jsonPath("$.changed[0].key").value("analyse 1"))
+                    .andExpect(jsonPath("$.removed[0]").value("algebre 1"));
+        }
+
+        @Test
+        @DisplayName("should return 204 without a body when nothing changed")
+        void shouldReturnNoContentWhenUnchanged() throws Exception {
+            when(gradeSyncService.sync("test-uuid", "42", "external-token", "v2")).thenReturn(null);
+
+            mockMvc.perform(get("/api/student/grades/42/sync")
+                            .param("since", "v2")
+                            .with(authentication(createMockAuthentication())))
+                    .andExpect(status().isNoContent())
+                    .andExpect(content().string(""));
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/student/grades/{cardId}/simulate")
+    class SimulateGrades {
+
+        @Test
+        @DisplayName("should return 200 with one result per scenario")
+        void shouldReturnScenarioResults() throws Exception {
+            GradeSimulationResponse response = GradeSimulationResponse.builder()
+                    .cardId("42")
+                    .periods(List.of("Semestre 1"))
+                    .results(List.of(GradeSimulationResponse.ScenarioResult.builder()
+                            .name("tens")
+                            .periodAverages(List.of(10.5))
+                            .annualAverage(10.5)
+                            .passed(true)
+                            .build()))
+                    .build();
+
+            when(gradeService.simulate(eq("test-uuid"), eq("42"), anyString(), any())).thenReturn(response);
+
+            mockMvc.perform(post("/api/student/grades/42/simulate")
+                            .with(authentication(createMockAuthentication()))
+                            .with(csrf())
+                            .contentType("application/json")
+                            .content("{\"scenarios\": [{\"name\": \"tens\", \"pendingMark\": 10}]}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.results[0].name").value("tens"))
+                    .andExpect(jsonPath("$.results[0].passed").value(true));
+        }
+    }
 }
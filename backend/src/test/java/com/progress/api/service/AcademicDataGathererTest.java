@@ -0,0 +1,116 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.PeriodBilan;
+import com.progress.api.exception.ApiException;
+import com.progress.api.service.AcademicDataGatherer.GradeData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("AcademicDataGatherer Tests")
+class AcademicDataGathererTest {
+
+    private StudentService studentService;
+    private AcademicDataGatherer gatherer;
+
+    private final List<Dia> dias = List.of(dia(2024), dia(2023));
+
+    @BeforeEach
+    void setUp() {
+        studentService = mock(StudentService.class);
+        gatherer = new AcademicDataGatherer(studentService, 300, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gatherer.shutdown();
+    }
+
+    private static Dia dia(long id) {
+        return new Dia(id, null, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private static List<PeriodBilan> bilans(double average) {
+        return List.of(new PeriodBilan("Semestre 1", null, average, null, null, null));
+    }
+
+    private static List<CCGrade> ccGrades() {
+        return List.of(new CCGrade(null, "TD Analyse", "S1", 15.0, false));
+    }
+
+    @Test
+    @DisplayName("should fetch current and previous bilans and CC grades")
+    void shouldGatherAllSources() {
+        when(studentService.getBilans(anyString(), eq("2024"), anyString())).thenReturn(bilans(13.2));
+        when(studentService.getBilans(anyString(), eq("2023"), anyString())).thenReturn(bilans(11.0));
+        when(studentService.getCCGrades(anyString(), eq("2024"), any(), anyString())).thenReturn(ccGrades());
+
+        GradeData gathered = gatherer.gather("uuid", "token", dias);
+
+        assertThat(gathered.currentExams().get(0).moyenne()).isEqualTo(13.2);
+        assertThat(gathered.previousExams().get(0).moyenne()).isEqualTo(11.0);
+        assertThat(gathered.currentCC()).extracting(CCGrade::note).containsExactly(15.0);
+    }
+
+    @Test
+    @DisplayName("should run sources in parallel under one deadline and drop the slow ones")
+    void shouldDropSlowSources() {
+        when(studentService.getBilans(anyString(), eq("2024"), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return bilans(13.2);
+        });
+        when(studentService.getBilans(anyString(), eq("2023"), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return bilans(11.0);
+        });
+        when(studentService.getCCGrades(anyString(), eq("2024"), any(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return ccGrades();
+        });
+
+        long start = System.currentTimeMillis();
+        GradeData gathered = gatherer.gather("uuid", "token", dias);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertThat(gathered.currentExams()).isNotNull();
+        assertThat(gathered.previousExams()).isNotNull();
+        assertThat(gathered.currentCC()).isNull();
+        assertThat(elapsed).isLessThan(1000);
+    }
+
+    @Test
+    @DisplayName("should leave out sources that fail")
+    void shouldSkipFailedSources() {
+        when(studentService.getBilans(anyString(), anyString(), anyString()))
+                .thenThrow(new ApiException("Failed to fetch exam data", HttpStatus.BAD_GATEWAY));
+        when(studentService.getCCGrades(anyString(), anyString(), any(), anyString())).thenReturn(ccGrades());
+
+        GradeData gathered = gatherer.gather("uuid", "token", dias);
+
+        assertThat(gathered).isEqualTo(new GradeData(null, null, ccGrades()));
+    }
+
+    @Test
+    @DisplayName("should not look for a previous year when there is a single dia")
+    void shouldHandleSingleDia() {
+        when(studentService.getBilans(anyString(), anyString(), anyString())).thenReturn(List.of());
+        when(studentService.getCCGrades(anyString(), anyString(), any(), anyString())).thenReturn(List.of());
+
+        GradeData gathered = gatherer.gather("uuid", "token", List.of(dia(2024)));
+
+        assertThat(gathered).isEqualTo(new GradeData(List.of(), null, List.of()));
+    }
+}
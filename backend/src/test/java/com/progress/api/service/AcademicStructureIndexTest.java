@@ -0,0 +1,136 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.service.AcademicStructureIndex.Field;
+import com.progress.api.service.AcademicStructureIndex.University;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AcademicStructureIndex Tests")
+class AcademicStructureIndexTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AcademicStructureIndex index;
+    private University university;
+
+    @BeforeEach
+    void setUp() {
+        index = new AcademicStructureIndex(objectMapper);
+        university = index.getDefaultUniversity();
+    }
+
+    @Nested
+    @DisplayName("Loading")
+    class Loading {
+
+        @Test
+        @DisplayName("should index universities by key")
+        void shouldIndexUniversities() {
+            assertThat(index.getUniversity(university.key())).isSameAs(university);
+            assertThat(university.fields()).extracting(Field::code).containsExactly("ST", "MI", "SNV");
+        }
+
+        @Test
+        @DisplayName("should build typed levels and programs")
+        void shouldBuildTypedModel() {
+            Field st = university.findField("ST");
+
+            assertThat(st.levels()).containsKeys("L1", "L2", "L3");
+            assertThat(st.levels().get("L1").nextOptions()).contains("L2_GM");
+            assertThat(st.levels().get("L3").programs())
+                    .anySatisfy(program -> {
+                        assertThat(program.code()).isEqualTo("L3_CM");
+                        assertThat(program.parent()).isEqualTo("L2_GM");
+                        assertThat(program.nextOptions()).containsExactly("M_CIM", "M_FAB");
+                    });
+            assertThat(st.masterSpecialities()).isNotEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Field lookup")
+    class FieldLookup {
+
+        @Test
+        @DisplayName("should resolve fields by name, code and acronym")
+        void shouldResolveFields() {
+            assertThat(university.findField("Sciences de la Nature et de la Vie").code()).isEqualTo("SNV");
+            assertThat(university.findField("sciences et technologies").code()).isEqualTo("ST");
+            assertThat(university.findField("Mathématiques et Informatique").code()).isEqualTo("MI");
+            assertThat(university.findField("mi").code()).isEqualTo("MI");
+        }
+
+        @Test
+        @DisplayName("should not confuse fields sharing a prefix")
+        void shouldNotConfuseSharedPrefix() {
+            assertThat(university.findField("Sciences de la nature et de la vie").code()).isNotEqualTo("ST");
+        }
+
+        @Test
+        @DisplayName("should return null for unknown fields")
+        void shouldReturnNullForUnknownField() {
+            assertThat(university.findField("Droit")).isNull();
+            assertThat(university.findField(null)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Available options")
+    class AvailableOptions {
+
+        @Test
+        @DisplayName("should return the current and next level")
+        void shouldReturnCurrentAndNextLevel() throws Exception {
+            JsonNode options = objectMapper.readTree(
+                    index.findAvailableOptions(university, "Sciences et Technologies", "1ère année Licence"));
+
+            assertThat(options.fieldNames()).toIterable().containsExactly("L1", "L2");
+        }
+
+        @Test
+        @DisplayName("should include master specialities after the last licence year")
+        void shouldIncludeMastersAfterL3() throws Exception {
+            JsonNode options = objectMapper.readTree(index.findAvailableOptions(university, "ST", "L3"));
+
+            assertThat(options.fieldNames()).toIterable().containsExactly("L3", "masterSpecialities");
+        }
+
+        @Test
+        @DisplayName("should fall back to every level or every field")
+        void shouldFallBack() throws Exception {
+            JsonNode allLevels = objectMapper.readTree(index.findAvailableOptions(university, "ST", "Doctorat"));
+            JsonNode allFields = objectMapper.readTree(index.findAvailableOptions(university, "Droit", "L1"));
+
+            assertThat(allLevels.fieldNames()).toIterable().containsExactly("L1", "L2", "L3");
+            assertThat(allFields.isArray()).isTrue();
+            assertThat(allFields).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("should reuse the pre-serialized JSON")
+        void shouldReusePreSerializedJson() {
+            assertThat(index.findAvailableOptions(university, "ST", "L2"))
+                    .isSameAs(index.findAvailableOptions(university, "Sciences et Technologies", "Licence 2"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Level codes")
+    class LevelCodes {
+
+        @Test
+        @DisplayName("should resolve PROGRES level labels")
+        void shouldResolveLevelLabels() {
+            assertThat(AcademicStructureIndex.resolveLevelCode("L2")).isEqualTo("L2");
+            assertThat(AcademicStructureIndex.resolveLevelCode("Licence 3")).isEqualTo("L3");
+            assertThat(AcademicStructureIndex.resolveLevelCode("2ème année Licence")).isEqualTo("L2");
+            assertThat(AcademicStructureIndex.resolveLevelCode("Première année Master")).isEqualTo("M1");
+            assertThat(AcademicStructureIndex.resolveLevelCode("Doctorat")).isNull();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.dto.RecommendationResponse.CurrentStatus;
+import com.progress.api.service.AcademicStructureIndex.University;
+import com.progress.api.service.CohortRecommendationCache.CohortKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CohortRecommendationCache Tests")
+class CohortRecommendationCacheTest {
+
+    private static final RecommendationResponse RESPONSE = RecommendationResponse.builder()
+            .summary("Shared advice")
+            .build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CohortRecommendationCache cache;
+    private University university;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CohortRecommendationCache(meterRegistry, objectMapper, 60, 100, 2.0, null);
+        university = new AcademicStructureIndex(objectMapper).getDefaultUniversity();
+    }
+
+    private static CurrentStatus status(String field, String level, String major) {
+        return CurrentStatus.builder().field(field).level(level).major(major).build();
+    }
+
+    @Nested
+    @DisplayName("Cohort keys")
+    class Keys {
+
+        @Test
+        @DisplayName("should resolve field, level and major against the academic structure")
+        void shouldResolveStructure() {
+            CohortKey key = cache.key(university, status("Mathématiques et Informatique", "Licence 2", "Informatique"), 13.4);
+
+            assertThat(key.university()).isEqualTo(university.key());
+            assertThat(key.field()).isEqualTo("MI");
+            assertThat(key.level()).isEqualTo("L2");
+            assertThat(key.program()).isEqualTo("L2_INFO");
+            assertThat(key.averageBand()).isEqualTo("12.0 to 14.0/20");
+        }
+
+        @Test
+        @DisplayName("should put spelling variants and close averages in the same cohort")
+        void shouldShareCohort() {
+            CohortKey first = cache.key(university, status("Mathématiques et Informatique", "L2", "Informatique"), 12.1);
+            CohortKey second = cache.key(university, status("MI", "2ème année Licence", "INFORMATIQUE"), 13.9);
+
+            assertThat(first).isEqualTo(second);
+        }
+
+        @Test
+        @DisplayName("should separate students in different average bands")
+        void shouldSeparateBands() {
+            CurrentStatus status = status("MI", "L2", "Informatique");
+
+            assertThat(cache.key(university, status, 11.9)).isNotEqualTo(cache.key(university, status, 12.0));
+        }
+
+        @Test
+        @DisplayName("should keep a perfect average in the top band")
+        void shouldClampTopBand() {
+            assertThat(cache.bucket(20.0)).isEqualTo(cache.bucket(18.5)).isEqualTo(9);
+            assertThat(cache.bucket(-1)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Lookup")
+    class Lookup {
+
+        @Test
+        @DisplayName("should count hits and misses")
+        void shouldCountLookups() {
+            CohortKey key = cache.key(university, status("MI", "L2", "Informatique"), 13);
+
+            assertThat(cache.get(key)).isNull();
+            cache.put(key, RESPONSE);
+            assertThat(cache.get(key)).isSameAs(RESPONSE);
+
+            assertThat(meterRegistry.get("recommendation.cohort.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("recommendation.cohort.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should miss once the entry has expired")
+        void shouldExpire() {
+            CohortRecommendationCache expiring = new CohortRecommendationCache(meterRegistry, objectMapper, 0, 100, 2.0, null);
+            CohortKey key = expiring.key(university, status("MI", "L2", "Informatique"), 13);
+
+            expiring.put(key, RESPONSE);
+
+            assertThat(expiring.get(key)).isNull();
+        }
+
+        @Test
+        @DisplayName("should evict the least recently used cohort when full")
+        void shouldEvict() throws InterruptedException {
+            CohortRecommendationCache small = new CohortRecommendationCache(meterRegistry, objectMapper, 60, 1, 2.0, null);
+            CohortKey first = small.key(university, status("MI", "L2", "Informatique"), 13);
+            CohortKey second = small.key(university, status("MI", "L2", "Informatique"), 15);
+
+            small.put(first, RESPONSE);
+            Thread.sleep(5);
+            small.put(second, RESPONSE);
+
+            assertThat(small.size()).isEqualTo(1);
+            assertThat(small.get(second)).isSameAs(RESPONSE);
+        }
+        @Test
+        @DisplayName("should generate a cohort once for students who miss at the same time")
+        void shouldGenerateOnceForConcurrentMisses() throws Exception {
+            CohortKey key = cache.key(university, status("MI", "L2", "Informatique"), 13);
+            AtomicInteger generations = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<RecommendationResponse>> results = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    results.add(executor.submit(() -> cache.getOrGenerate(key, () -> {
+                        generations.incrementAndGet();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        cache.put(key, RESPONSE);
+                        return RESPONSE;
+                    })));
+                }
+                Thread.sleep(100);
+                release.countDown();
+
+                for (Future<RecommendationResponse> result : results) {
+                    assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(RESPONSE);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(generations).hasValue(1);
+            assertThat(cache.getOrGenerate(key, () -> {
+                throw new AssertionError("should be cached");
+            })).isSameAs(RESPONSE);
+        }
+
+        @Test
+        @DisplayName("should let the next miss retry after a failed generation")
+        void shouldRetryAfterFailedGeneration() {
+            CohortKey key = cache.key(university, status("MI", "L2", "Informatique"), 13);
+
+            assertThatThrownBy(() -> cache.getOrGenerate(key, () -> {
+                throw new IllegalStateException("model unavailable");
+            })).isInstanceOf(IllegalStateException.class);
+            assertThat(cache.getOrGenerate(key, () -> RESPONSE)).isSameAs(RESPONSE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Store")
+    class Store {
+
+        @TempDir
+        Path dir;
+
+        @Test
+        @DisplayName("should reload flushed entries in a new instance")
+        void shouldPersist() {
+            Path file = dir.resolve("cohorts/store.json");
+            CohortRecommendationCache first = new CohortRecommendationCache(
+                    meterRegistry, objectMapper, 60, 100, 2.0, file.toString());
+            CohortKey key = first.key(university, status("MI", "L2", "Informatique"), 13);
+            first.put(key, RecommendationResponse.builder()
+                    .summary("Shared advice")
+                    .recommendations(List.of(RecommendationResponse.Recommendation.builder()
+                            .code("L3_ISIL").name("ISIL").matchScore(80).build()))
+                    .build());
+            first.flush();
+
+            CohortRecommendationCache second = new CohortRecommendationCache(
+                    new SimpleMeterRegistry(), objectMapper, 60, 100, 2.0, file.toString());
+            second.load();
+
+            assertThat(second.contains(key)).isTrue();
+            assertThat(second.get(key).getRecommendations()).extracting(RecommendationResponse.Recommendation::getCode)
+                    .containsExactly("L3_ISIL");
+            assertThat(second.get(key).getSummary()).isEqualTo("Shared advice");
+        }
+
+        @Test
+        @DisplayName("should skip expired entries and unreadable files")
+        void shouldSkipExpiredAndCorrupt() throws Exception {
+            Path file = dir.resolve("store.json");
+            CohortRecommendationCache expiring = new CohortRecommendationCache(
+                    meterRegistry, objectMapper, 0, 100, 2.0, file.toString());
+            expiring.put(expiring.key(university, status("MI", "L2", "Informatique"), 13), RESPONSE);
+            expiring.flush();
+
+            CohortRecommendationCache reloaded = new CohortRecommendationCache(
+                    new SimpleMeterRegistry(), objectMapper, 60, 100, 2.0, file.toString());
+            reloaded.load();
+            assertThat(reloaded.size()).isZero();
+
+            Files.writeString(file, "{not json");
+            reloaded.load();
+            assertThat(reloaded.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("should not write when nothing changed")
+        void shouldSkipCleanFlush() {
+            Path file = dir.resolve("store.json");
+            new CohortRecommendationCache(meterRegistry, objectMapper, 60, 100, 2.0, file.toString()).flush();
+
+            assertThat(file).doesNotExist();
+        }
+    }
+}
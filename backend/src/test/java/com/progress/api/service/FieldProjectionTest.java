@@ -0,0 +1,153 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FieldProjection Tests")
+class FieldProjectionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private FieldProjection fieldProjection;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fieldProjection = new FieldProjection(meterRegistry, 2);
+    }
+
+    private String write(Object data, String fields) throws Exception {
+        return objectMapper.writeValueAsString(fieldProjection.project(data, fields));
+    }
+
+    private static Map<String, Object> dia(int id, String year) {
+        Map<String, Object> dia = new LinkedHashMap<>();
+        dia.put("id", id);
+        dia.put("anneeAcademiqueCode", year);
+        dia.put("llEtablissementLatin", "Université de Blida 1");
+        dia.put("llEtablissementArabe", "جامعة البليدة 1");
+        dia.put("ofLlFiliere", "Informatique");
+        dia.put("ofLlFiliereArabe", "إعلام آلي");
+        dia.put("refLibelleNiveau", "Licence 2");
+        dia.put("niveauId", 7);
+        dia.put("cycle", Map.of("code", "L", "libelleLongLt", "Licence", "libelleLongAr", "ليسانس"));
+        dia.put("lastMoyenne", null);
+        return dia;
+    }
+
+    @Nested
+    @DisplayName("Projection")
+    class Projection {
+
+        @Test
+        @DisplayName("should return the payload itself when no fields are requested")
+        void shouldPassThroughWithoutFields() {
+            Object data = List.of(dia(42, "2024"));
+
+            assertThat(fieldProjection.project(data, null)).isSameAs(data);
+            assertThat(fieldProjection.project(data, " ")).isSameAs(data);
+        }
+
+        @Test
+        @DisplayName("should keep the requested fields of every element, in request order")
+        void shouldProjectListElements() throws Exception {
+            List<Map<String, Object>> dias = List.of(dia(42, "2024"), dia(41, "2023"));
+
+            assertThat(write(dias, "anneeAcademiqueCode,id"))
+                    .isEqualTo("[{\"anneeAcademiqueCode\":\"2024\",\"id\":42},{\"anneeAcademiqueCode\":\"2023\",\"id\":41}]");
+        }
+
+        @Test
+        @DisplayName("should follow dotted paths and keep a whole object named without a path")
+        void shouldProjectNestedFields() throws Exception {
+            assertThat(write(dia(42, "2024"), "cycle.code,id"))
+                    .isEqualTo("{\"cycle\":{\"code\":\"L\"},\"id\":42}");
+            assertThat(objectMapper.readTree(write(dia(42, "2024"), "cycle.code,cycle")).get("cycle"))
+                    .hasSize(3);
+        }
+
+        @Test
+        @DisplayName("should leave out missing fields and keep null values")
+        void shouldSkipMissingFields() throws Exception {
+            assertThat(write(dia(42, "2024"), "id,photo,lastMoyenne,id.code"))
+                    .isEqualTo("{\"id\":42,\"lastMoyenne\":null}");
+        }
+
+        @Test
+        @DisplayName("should not modify the payload")
+        void shouldNotCopyOrModify() throws Exception {
+            Map<String, Object> dia = dia(42, "2024");
+            Map<String, Object> before = new LinkedHashMap<>(dia);
+
+            write(dia, "id");
+
+            assertThat(dia).isEqualTo(before);
+        }
+
+        @Test
+        @DisplayName("should shrink a list screen's response")
+        void shouldShrinkResponse() throws Exception {
+            List<Map<String, Object>> dias = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                dias.add(dia(40 + i, String.valueOf(2019 + i)));
+            }
+
+            int full = objectMapper.writeValueAsBytes(dias).length;
+            int projected = objectMapper.writeValueAsBytes(
+                    fieldProjection.project(dias, "id,anneeAcademiqueCode,refLibelleNiveau")).length;
+
+            assertThat(projected).isLessThan(full / 4);
+        }
+    }
+
+    @Nested
+    @DisplayName("Plans")
+    class Plans {
+
+        @Test
+        @DisplayName("should compile each field set once")
+        void shouldCachePlans() {
+            FieldProjection.Plan plan = fieldProjection.plan("id,cycle.code");
+
+            assertThat(fieldProjection.plan("id,cycle.code")).isSameAs(plan);
+            assertThat(plan.fields()).containsOnlyKeys("id", "cycle");
+            assertThat(plan.fields().get("id")).isSameAs(FieldProjection.Plan.ALL);
+            assertThat(meterRegistry.get("projection.plans").gauge().value()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should stop caching new field sets at the limit")
+        void shouldBoundCache() {
+            fieldProjection.plan("id");
+            fieldProjection.plan("niveauId");
+            fieldProjection.plan("cycle");
+
+            assertThat(fieldProjection.size()).isEqualTo(2);
+            assertThat(fieldProjection.plan("cycle").fields()).containsOnlyKeys("cycle");
+        }
+
+        @Test
+        @DisplayName("should reject malformed field sets with 400")
+        void shouldRejectMalformedFields() {
+            for (String fields : List.of("id,,cycle", "cycle.", "id;drop", "a.b.c.d.e.f.g.h.i", "x".repeat(2001))) {
+                assertThatThrownBy(() -> fieldProjection.project(List.of(), fields))
+                        .isInstanceOf(ApiException.class)
+                        .satisfies(e -> assertThat(((ApiException) e).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+            }
+            assertThat(fieldProjection.size()).isZero();
+        }
+    }
+}
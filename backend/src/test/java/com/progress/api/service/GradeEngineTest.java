@@ -0,0 +1,243 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Coefficient;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.ExamGrade;
+import com.progress.api.dto.progres.PeriodBilan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("GradeEngine Tests")
+class GradeEngineTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GradeEngine engine = new GradeEngine();
+
+    private static final String DIA = """
+            {"id": 42, "anneeAcademiqueCode": "2024", "refLibelleNiveau": "Licence 2"}
+            """;
+
+    private static final String BILANS = """
+            [
+              {"periodeLibelleFr": "Semestre 3", "bilanUes": [
+                {"ueLibelleFr": "UE Fondamentale", "bilanMcs": [
+                  {"mcLibelleFr": "Analyse 3", "coefficient": 3, "moyenneGenerale": 12.0},
+                  {"mcLibelleFr": "Algèbre 3", "coefficient": 1, "moyenneGenerale": 8.0}
+                ]},
+                {"ueLibelleFr": "UE Méthodologique", "bilanMcs": [
+                  {"mcLibelleFr": "Probabilités", "coefficient": 2, "moyenneGenerale": 15.0}
+                ]}
+              ]},
+              {"periodeLibelleFr": "Semestre 4", "bilanUes": [
+                {"ueLibelleFr": "UE Fondamentale", "bilanMcs": [
+                  {"mcLibelleFr": "Analyse 4", "coefficient": 2, "moyenneGenerale": 9.0},
+                  {"mcLibelleFr": "Logique", "coefficient": 0},
+                  {"mcLibelleFr": "Réseaux", "coefficient": 2}
+                ]}
+              ]}
+            ]
+            """;
+
+    private static final String EXAM_GRADES = """
+            [
+              {"mcLibelleFr": "Logique", "noteExamen": 14.0, "rattachementMcCoefficient": 2},
+              {"libelleMatiere": "Théorie des langages", "noteExamen": 7.0, "rattachementMcCoefficient": 3}
+            ]
+            """;
+
+    private <T> List<T> list(String value, Class<T> type) throws Exception {
+        return value == null
+                ? List.of()
+                : objectMapper.readValue(value, objectMapper.getTypeFactory().constructCollectionType(List.class, type));
+    }
+
+    private Dia dia() throws Exception {
+        return objectMapper.readValue(DIA, Dia.class);
+    }
+
+    private GradeReport compute(String examGrades, String ccGrades, String subjects) throws Exception {
+        return engine.compute("42", dia(), list(BILANS, PeriodBilan.class),
+                list(examGrades, ExamGrade.class),
+                list(ccGrades, CCGrade.class),
+                list(subjects, Coefficient.class));
+    }
+
+    @Nested
+    @DisplayName("Averages")
+    class Averages {
+
+        @Test
+        @DisplayName("should weight module marks by coefficient within units and periods")
+        void shouldWeightByCoefficient() throws Exception {
+            GradeReport report = compute(null, null, null);
+
+            GradeReport.Period s3 = report.getPeriods().get(0);
+            assertThat(s3.getLabel()).isEqualTo("Semestre 3");
+            assertThat(s3.getUnits()).extracting(GradeReport.Unit::getAverage).containsExactly(11.0, 15.0);
+            assertThat(s3.getAverage()).isEqualTo(12.33);
+            assertThat(s3.getCoefficient()).isEqualTo(6.0);
+            assertThat(s3.getValidatedModules()).isEqualTo(2);
+            assertThat(report.getCardId()).isEqualTo("42");
+            assertThat(report.getAcademicYear()).isEqualTo("2024");
+            assertThat(report.getLevel()).isEqualTo("Licence 2");
+        }
+
+        @Test
+        @DisplayName("should leave modules without a mark or coefficient out of the averages")
+        void shouldSkipIncompleteModules() throws Exception {
+            GradeReport report = compute(null, null, null);
+
+            GradeReport.Period s4 = report.getPeriods().get(1);
+            assertThat(s4.getAverage()).isEqualTo(9.0);
+            assertThat(s4.getUnits().get(0).getModules())
+                    .extracting(GradeReport.Module::getLabel, GradeReport.Module::getMark)
+                    .containsExactly(
+                            tuple("Analyse 4", 9.0),
+                            tuple("Logique", null),
+                            tuple("Réseaux", null));
+            assertThat(report.getTotalModules()).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("should average the period averages into the annual average")
+        void shouldAverageThePeriods() throws Exception {
+            GradeReport report = compute(null, null, null);
+
+            assertThat(report.getAnnualAverage()).isEqualTo(10.67);
+        }
+
+        @Test
+        @DisplayName("should report no average when nothing is graded")
+        void shouldHandleEmptyBilans() throws Exception {
+            GradeReport report = engine.compute("42", dia(), List.of(), List.of(), List.of(), List.of());
+
+            assertThat(report.getPeriods()).isEmpty();
+            assertThat(report.getAnnualAverage()).isNull();
+            assertThat(report.getTotalModules()).isZero();
+        }
+
+        @Test
+        @DisplayName("should take the modules of a bilan without units from bilanMcDtos")
+        void shouldReadModulesOutsideUnits() throws Exception {
+            String bilans = """
+                    [
+                      {"periodeLibelleFr": "Semestre 1", "bilanMcDtos": [
+                        {"mcLibelleFr": "Analyse 1", "coefficient": 3, "credit": 6, "moyenneGenerale": 12.0},
+                        {"mcLibelleFr": "Logique", "coefficient": 0}
+                      ]}
+                    ]
+                    """;
+
+            GradeReport report = engine.compute("42", dia(), list(bilans, PeriodBilan.class),
+                    list(EXAM_GRADES, ExamGrade.class), List.of(), List.of());
+
+            GradeReport.Period s1 = report.getPeriods().get(0);
+            assertThat(s1.getUnits()).hasSize(1);
+            assertThat(s1.getUnits().get(0).getLabel()).isNull();
+            assertThat(s1.getUnits().get(0).getModules())
+                    .extracting(
+                            GradeReport.Module::getLabel, GradeReport.Module::getMark, GradeReport.Module::getCredit)
+                    .containsExactly(
+                            tuple("Analyse 1", 12.0, 6.0),
+                            tuple("Logique", 14.0, 0.0));
+            assertThat(s1.getAverage()).isEqualTo(12.8);
+            assertThat(report.getTotalModules()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Exam grades")
+    class ExamGrades {
+
+        @Test
+        @DisplayName("should take the mark and missing coefficient from the exam grades")
+        void shouldFillFromExamGrades() throws Exception {
+            GradeReport report = compute(EXAM_GRADES, null, null);
+
+            GradeReport.Module logique = report.getPeriods().get(1).getUnits().get(0).getModules().get(1);
+            assertThat(logique.getMark()).isEqualTo(14.0);
+            assertThat(logique.getCoefficient()).isEqualTo(2.0);
+            assertThat(logique.getSource()).isEqualTo(GradeEngine.SOURCE_EXAM);
+            assertThat(logique.isValidated()).isTrue();
+            assertThat(report.getPeriods().get(1).getAverage()).isEqualTo(11.5);
+        }
+
+        @Test
+        @DisplayName("should prefer the official module average over the exam grade")
+        void shouldPreferOfficialAverage() throws Exception {
+            GradeReport report = compute("""
+                    [{"mcLibelleFr": "Analyse 3", "noteExamen": 4.0}]
+                    """, null, null);
+
+            GradeReport.Module analyse = report.getPeriods().get(0).getUnits().get(0).getModules().get(0);
+            assertThat(analyse.getMark()).isEqualTo(12.0);
+            assertThat(analyse.getSource()).isEqualTo(GradeEngine.SOURCE_AVERAGE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Continuous assessment")
+    class ContinuousAssessment {
+
+        private static final String CC_GRADES = """
+                [
+                  {"apLibelleFr": "Compilation", "llPeriode": "Semestre 4", "note": 12.0},
+                  {"apLibelleFr": "Compilation", "llPeriode": "Semestre 4", "note": 16.0},
+                  {"apLibelleFr": "Analyse 3", "llPeriode": "Semestre 3", "note": 2.0},
+                  {"apLibelleFr": "Atelier", "llPeriode": "Semestre 4", "note": 18.0}
+                ]
+                """;
+
+        private static final String SUBJECTS = """
+                [
+                  {"mcLibelleFr": "Compilation", "periodeLibelleFr": "Semestre 4"},
+                  {"mcLibelleFr": "Analyse 3", "periodeLibelleFr": "Semestre 3"}
+                ]
+                """;
+
+        @Test
+        @DisplayName("should add programme modules that only have CC grades")
+        void shouldAddCcOnlyModules() throws Exception {
+            GradeReport report = compute(null, CC_GRADES, SUBJECTS);
+
+            GradeReport.Period s4 = report.getPeriods().get(1);
+            GradeReport.Unit other = s4.getUnits().get(1);
+            assertThat(other.getLabel()).isNull();
+            assertThat(other.getModules())
+                    .extracting(GradeReport.Module::getLabel, GradeReport.Module::getMark,
+                            GradeReport.Module::getCoefficient, GradeReport.Module::getSource)
+                    .containsExactly(tuple("Compilation", 14.0, 1.0, GradeEngine.SOURCE_CC));
+            assertThat(s4.getAverage()).isEqualTo(10.67);
+            assertThat(report.getPeriods().get(0).getAverage()).isEqualTo(12.33);
+        }
+
+        @Test
+        @DisplayName("should accept any CC module when the programme is unknown")
+        void shouldAcceptAllWithoutSubjects() throws Exception {
+            GradeReport report = compute(null, CC_GRADES, null);
+
+            assertThat(report.getPeriods().get(1).getUnits().get(1).getModules())
+                    .extracting(GradeReport.Module::getLabel)
+                    .containsExactly("Compilation", "Atelier");
+        }
+
+        @Test
+        @DisplayName("should create the period when no bilan is published yet")
+        void shouldCreateMissingPeriods() throws Exception {
+            GradeReport report = engine.compute("42", dia(), List.of(), List.of(),
+                    list(CC_GRADES, CCGrade.class), list(SUBJECTS, Coefficient.class));
+
+            assertThat(report.getPeriods()).extracting(GradeReport.Period::getLabel)
+                    .containsExactly("Semestre 4", "Semestre 3");
+            assertThat(report.getAnnualAverage()).isEqualTo(8.0);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.LmdDecisionReport;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.ExamGrade;
+import com.progress.api.dto.progres.PeriodBilan;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("GradeService Tests")
+class GradeServiceTest {
+
+    private static final List<Map<String, Object>> DIAS = List.of(Map.of(
+            "id", 42,
+            "anneeAcademiqueCode", "2024",
+            "ouvertureOffreFormationId", 7,
+            "niveauId", 3));
+
+    private static final List<Map<String, Object>> BILANS = List.of(Map.of(
+            "periodeLibelleFr", "Semestre 1",
+            "bilanUes", List.of(Map.of(
+                    "ueLibelleFr", "UE Fondamentale",
+                    "bilanMcs", List.of(
+                            Map.of("mcLibelleFr", "Analyse 1", "coefficient", 2, "moyenneGenerale", 12.0),
+                            Map.of("mcLibelleFr", "Algèbre 1", "coefficient", 0))))));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private StudentService studentService;
+    private GradeService gradeService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        studentService = mock(StudentService.class);
+        gradeService = new GradeService(
+                studentService, new GradeEngine(), new GradeSimulator(meterRegistry, 100),
+                new LmdRuleEngine(10, true, true, true, 30, 30), meterRegistry, 30, 100);
+        when(studentService.getDias("uuid", "token")).thenReturn(list(DIAS, Dia.class));
+        when(studentService.getBilans("uuid", "42", "token")).thenReturn(list(BILANS, PeriodBilan.class));
+        when(studentService.getExamGrades(eq("uuid"), eq("42"), any(), eq("token"))).thenReturn(list(List.of(
+                Map.of("mcLibelleFr", "Algèbre 1", "noteExamen", 9.0, "rattachementMcCoefficient", 1)), ExamGrade.class));
+        when(studentService.getCCGrades(eq("uuid"), eq("42"), any(), eq("token"))).thenReturn(List.of());
+        when(studentService.getCoefficients("7", "3", "token")).thenReturn(List.of());
+    }
+
+    private <T> List<T> list(Object value, Class<T> type) {
+        return objectMapper.convertValue(value, objectMapper.getTypeFactory().constructCollectionType(List.class, type));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("grades.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("should combine every source into the card's averages")
+    void shouldComputeFromAllSources() {
+        GradeReport report = gradeService.getGrades("uuid", "42", "token");
+
+        assertThat(report.getPeriods().get(0).getAverage()).isEqualTo(11.0);
+        assertThat(report.getAcademicYear()).isEqualTo("2024");
+        verify(studentService).getCoefficients("7", "3", "token");
+        assertThat(meterRegistry.get("grades.compute.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should serve the cached report without fetching again")
+    void shouldCachePerCard() {
+        GradeReport first = gradeService.getGrades("uuid", "42", "token");
+        GradeReport second = gradeService.getGrades("uuid", "42", "token");
+
+        assertThat(second).isSameAs(first);
+        verify(studentService, times(1)).getBilans(anyString(), anyString(), anyString());
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(gradeService.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not serve a cached report to another student")
+    void shouldNotShareAcrossStudents() {
+        gradeService.getGrades("uuid", "42", "token");
+        when(studentService.getDias("intruder", "other")).thenReturn(list(List.of(Map.of("id", 99)), Dia.class));
+
+        assertThatThrownBy(() -> gradeService.getGrades("intruder", "42", "other"))
+                .isInstanceOf(ApiException.class)
+                .satisfies(e -> assertThat(((ApiException) e).getStatus()).isEqualTo(HttpStatus.FORBIDDEN));
+        verify(studentService, never()).getBilans(eq("intruder"), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("should compute without optional sources that fail")
+    void shouldTolerateOptionalFailures() {
+        when(studentService.getExamGrades(anyString(), anyString(), any(), anyString()))
+                .thenThrow(new ApiException("Failed to fetch Exam grades", HttpStatus.BAD_GATEWAY));
+
+        GradeReport report = gradeService.getGrades("uuid", "42", "token");
+
+        assertThat(report.getPeriods().get(0).getAverage()).isEqualTo(12.0);
+    }
+
+    @Test
+    @DisplayName("should fail when the bilans cannot be fetched")
+    void shouldRequireBilans() {
+        when(studentService.getBilans("uuid", "42", "token"))
+                .thenThrow(new ApiException("Failed to fetch exam data", HttpStatus.BAD_GATEWAY));
+
+        assertThatThrownBy(() -> gradeService.getGrades("uuid", "42", "token"))
+                .isInstanceOf(ApiException.class);
+        assertThat(gradeService.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should recompute after invalidation")
+    void shouldRecomputeAfterInvalidation() {
+        gradeService.getGrades("uuid", "42", "token");
+        gradeService.invalidate("42");
+        gradeService.getGrades("uuid", "42", "token");
+
+        verify(studentService, times(2)).getBilans("uuid", "42", "token");
+    }
+
+    @Test
+    @DisplayName("should derive the LMD decision from the cached report once")
+    void shouldCacheDecision() {
+        LmdDecisionReport first = gradeService.getDecision("uuid", "42", "token");
+        LmdDecisionReport second = gradeService.getDecision("uuid", "42", "token");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getDecision()).isEqualTo("ADMITTED");
+        verify(studentService, times(1)).getBilans("uuid", "42", "token");
+    }
+}
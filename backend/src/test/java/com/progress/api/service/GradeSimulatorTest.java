@@ -0,0 +1,205 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.GradeSimulationRequest;
+import com.progress.api.dto.GradeSimulationRequest.Scenario;
+import com.progress.api.dto.GradeSimulationResponse;
+import com.progress.api.dto.RequiredGradesResponse;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Coefficient;
+import com.progress.api.dto.progres.PeriodBilan;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("GradeSimulator Tests")
+class GradeSimulatorTest {
+
+    private static final String BILANS = """
+            [
+              {"periodeLibelleFr": "Semestre 1", "bilanUes": [{"ueLibelleFr": "UEF", "bilanMcs": [
+                {"mcLibelleFr": "Analyse", "coefficient": 2, "moyenneGenerale": 12.0},
+                {"mcLibelleFr": "Algèbre", "coefficient": 1}
+              ]}]},
+              {"periodeLibelleFr": "Semestre 2", "bilanUes": [{"ueLibelleFr": "UEF", "bilanMcs": [
+                {"mcLibelleFr": "Probabilités", "coefficient": 2, "moyenneGenerale": 8.0},
+                {"mcLibelleFr": "Statistique", "coefficient": 2}
+              ]}]}
+            ]
+            """;
+
+    private static final String CC_GRADES = """
+            [{"apLibelleFr": "Statistique", "llPeriode": "Semestre 2", "note": 10.0}]
+            """;
+
+    private static final String SUBJECTS = """
+            [{"mcLibelleFr": "Statistique", "periodeLibelleFr": "Semestre 2",
+              "coefficientExamen": 2, "coefficientControleContinu": 1}]
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private GradeSimulator simulator;
+    private GradeReport report;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        simulator = new GradeSimulator(meterRegistry, 100);
+        report = new GradeEngine().compute("42", null, list(BILANS, PeriodBilan.class),
+                List.of(), list(CC_GRADES, CCGrade.class), list(SUBJECTS, Coefficient.class));
+    }
+
+    private <T> List<T> list(String value, Class<T> type) throws Exception {
+        return objectMapper.readValue(value, objectMapper.getTypeFactory().constructCollectionType(List.class, type));
+    }
+
+    private static Scenario scenario(String name, Map<Integer, Double> marks, Double pendingMark) {
+        return Scenario.builder().name(name).marks(marks).pendingMark(pendingMark).build();
+    }
+
+    private GradeSimulationResponse simulate(Scenario... scenarios) {
+        return simulator.simulate(report, GradeSimulationRequest.builder().scenarios(List.of(scenarios)).build());
+    }
+
+    @Nested
+    @DisplayName("Scenarios")
+    class Scenarios {
+
+        @Test
+        @DisplayName("should evaluate every scenario of the batch")
+        void shouldEvaluateBatch() {
+            GradeSimulationResponse response = simulate(
+                    scenario("as is", null, null),
+                    scenario("marks", Map.of(1, 14.0, 3, 11.0), null),
+                    scenario("tens", null, 10.0),
+                    scenario("retake", Map.of(0, 6.0), null));
+
+            assertThat(response.getPeriods()).containsExactly("Semestre 1", "Semestre 2");
+            assertThat(response.getResults())
+                    .extracting(GradeSimulationResponse.ScenarioResult::getName,
+                            GradeSimulationResponse.ScenarioResult::getPeriodAverages,
+                            GradeSimulationResponse.ScenarioResult::getAnnualAverage,
+                            GradeSimulationResponse.ScenarioResult::isPassed)
+                    .containsExactly(
+                            tuple("as is", List.of(12.0, 8.0), 10.0, true),
+                            tuple("marks", List.of(12.67, 9.5), 11.08, true),
+                            tuple("tens", List.of(11.33, 9.0), 10.17, true),
+                            tuple("retake", List.of(6.0, 8.0), 7.0, false));
+            assertThat(meterRegistry.get("grades.simulation.scenarios").summary().totalAmount()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("should let explicit marks take precedence over the pending mark")
+        void shouldPreferExplicitMarks() {
+            GradeSimulationResponse response = simulate(scenario("mixed", Map.of(3, 20.0), 0.0));
+
+            assertThat(response.getResults().get(0).getPeriodAverages()).containsExactly(8.0, 14.0);
+        }
+
+        @Test
+        @DisplayName("should reject unknown modules and marks outside 0 to 20")
+        void shouldValidateMarks() {
+            assertThatThrownBy(() -> simulate(scenario("unknown", Map.of(99, 10.0), null)))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(e -> assertThat(((ApiException) e).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+            assertThatThrownBy(() -> simulate(scenario("too high", Map.of(1, 25.0), null)))
+                    .isInstanceOf(ApiException.class);
+            assertThatThrownBy(() -> simulate(scenario("negative", null, -1.0)))
+                    .isInstanceOf(ApiException.class);
+        }
+
+        @Test
+        @DisplayName("should cap the number of scenarios per request")
+        void shouldCapBatchSize() {
+            List<Scenario> scenarios = new ArrayList<>();
+            for (int i = 0; i <= 100; i++) {
+                scenarios.add(scenario("s" + i, null, (double) (i % 20)));
+            }
+
+            assertThatThrownBy(() -> simulator.simulate(report,
+                    GradeSimulationRequest.builder().scenarios(scenarios).build()))
+                    .isInstanceOf(ApiException.class)
+                    .hasMessageContaining("100");
+            assertThatThrownBy(() -> simulator.simulate(report, new GradeSimulationRequest()))
+                    .isInstanceOf(ApiException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Required grades")
+    class RequiredGrades {
+
+        @Test
+        @DisplayName("should solve the average each period's pending modules need")
+        void shouldSolvePeriods() {
+            RequiredGradesResponse response = simulator.requiredGrades(report, 10);
+
+            RequiredGradesResponse.PeriodRequirement s1 = response.getPeriods().get(0);
+            assertThat(s1.getCurrentAverage()).isEqualTo(12.0);
+            assertThat(s1.getRequirement().getRequiredAverage()).isEqualTo(6.0);
+            assertThat(s1.getRequirement().isSecured()).isFalse();
+            assertThat(s1.getRequirement().isReachable()).isTrue();
+            assertThat(s1.getModules()).extracting(RequiredGradesResponse.ModuleRequirement::getLabel)
+                    .containsExactly("Algèbre");
+
+            RequiredGradesResponse.PeriodRequirement s2 = response.getPeriods().get(1);
+            assertThat(s2.getRequirement().getRequiredAverage()).isEqualTo(12.0);
+        }
+
+        @Test
+        @DisplayName("should turn the required average into an exam grade using the CC mark")
+        void shouldSolveExamGrade() {
+            RequiredGradesResponse.ModuleRequirement statistique =
+                    simulator.requiredGrades(report, 10).getPeriods().get(1).getModules().get(0);
+
+            assertThat(statistique.getId()).isEqualTo(3);
+            assertThat(statistique.getCcMark()).isEqualTo(10.0);
+            assertThat(statistique.getRequiredAverage()).isEqualTo(12.0);
+            assertThat(statistique.getRequiredExam()).isEqualTo(13.0);
+            assertThat(statistique.isReachable()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should solve the uniform average needed for the annual average")
+        void shouldSolveAnnual() {
+            RequiredGradesResponse response = simulator.requiredGrades(report, 10);
+
+            assertThat(response.getAnnual().getRequiredAverage()).isEqualTo(9.6);
+            assertThat(response.getAnnual().isReachable()).isTrue();
+
+            GradeSimulationResponse check = simulate(scenario("required", null, 9.6));
+            assertThat(check.getResults().get(0).getAnnualAverage()).isEqualTo(10.0);
+        }
+
+        @Test
+        @DisplayName("should flag targets already secured or out of reach")
+        void shouldFlagSecuredAndUnreachable() {
+            RequiredGradesResponse easy = simulator.requiredGrades(report, 5);
+            assertThat(easy.getPeriods().get(0).getRequirement().isSecured()).isTrue();
+            assertThat(easy.getPeriods().get(0).getRequirement().getRequiredAverage()).isZero();
+
+            RequiredGradesResponse hard = simulator.requiredGrades(report, 20);
+            assertThat(hard.getPeriods().get(1).getRequirement().isReachable()).isFalse();
+            assertThat(hard.getPeriods().get(1).getModules().get(0).isReachable()).isFalse();
+        }
+
+        @Test
+        @DisplayName("should reject targets outside 0 to 20")
+        void shouldValidateTarget() {
+            assertThatThrownBy(() -> simulator.requiredGrades(report, 25))
+                    .isInstanceOf(ApiException.class);
+        }
+    }
+}
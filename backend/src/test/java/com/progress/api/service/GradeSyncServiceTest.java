@@ -0,0 +1,219 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.progress.api.dto.GradeSync;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("GradeSyncService Tests")
+class GradeSyncServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private StudentService studentService;
+    private GradeService gradeService;
+    private GradeSyncService gradeSyncService;
+
+    private List<JsonNode> examGrades;
+    private List<JsonNode> ccGrades;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        studentService = mock(StudentService.class);
+        gradeService = mock(GradeService.class);
+        gradeSyncService = new GradeSyncService(studentService, gradeService, objectMapper, meterRegistry, 100, 2);
+
+        examGrades = new ArrayList<>(List.of(
+                exam("Analyse 1", 12.0),
+                exam("Algèbre 1", 9.5),
+                exam("Algorithmique", 14.0)));
+        ccGrades = new ArrayList<>(List.of(
+                cc("Analyse 1", "TD", 13.0),
+                cc("Algorithmique", "TP", 16.0)));
+        when(studentService.getDias(anyString(), anyString())).thenReturn(List.of());
+        when(studentService.getExamGradeEntries(anyString(), eq("42"), any(), anyString()))
+                .thenAnswer(invocation -> List.copyOf(examGrades));
+        when(studentService.getCCGradeEntries(anyString(), eq("42"), any(), anyString()))
+                .thenAnswer(invocation -> List.copyOf(ccGrades));
+    }
+
+    private ObjectNode exam(String module, Double mark) {
+        return objectMapper.createObjectNode()
+                .put("id", Math.abs(module.hashCode()))
+                .put("mcLibelleFr", module)
+                .put("codeMatiere", module.substring(0, 3).toUpperCase(Locale.ROOT))
+                .put("noteExamen", mark)
+                .put("estAbsent", false)
+                .put("dateExamen", "2025-01-15")
+                .put("heureExamen", "09:00")
+                .put("dureeExamen", 90)
+                .put("rattachementMcCoefficient", 3.0)
+                .put("rattachementMcCredit", 6.0);
+    }
+
+    private ObjectNode cc(String module, String type, Double note) {
+        return objectMapper.createObjectNode()
+                .put("rattachementMcMcLibelleFr", module)
+                .put("apLibelleFr", type)
+                .put("llPeriode", "Semestre 1")
+                .put("note", note)
+                .put("absent", false);
+    }
+
+    private GradeSync sync(String since) {
+        return gradeSyncService.sync("uuid", "42", "token", since);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("grades.sync.requests").tag("result", result).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Sync")
+    class Sync {
+
+        @Test
+        @DisplayName("should send every module with its exam and CC grades without a version")
+        void shouldSendFullStateFirst() {
+            GradeSync sync = sync(null);
+
+            assertThat(sync.isFull()).isTrue();
+            assertThat(sync.getVersion()).isNotBlank();
+            assertThat(sync.getChanged()).extracting(GradeSync.Module::getKey)
+                    .containsExactly("analyse 1", "algèbre 1", "algorithmique");
+            assertThat(sync.getChanged().get(0).getExamGrades()).hasSize(1);
+            assertThat(sync.getChanged().get(0).getCcGrades())
+                    .extracting(grade -> grade.path("note").asDouble()).containsExactly(13.0);
+            assertThat(sync.getRemoved()).isEmpty();
+            assertThat(requests("full")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should return nothing when the version is current")
+        void shouldReturnNothingWhenUnchanged() {
+            String version = sync(null).getVersion();
+
+            assertThat(sync(version)).isNull();
+            assertThat(requests("unchanged")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should send only the modules that changed")
+        void shouldSendChangedModules() throws Exception {
+            GradeSync first = sync(null);
+            ccGrades.add(cc("Algèbre 1", "TD", 11.0));
+
+            GradeSync sync = sync(first.getVersion());
+
+            assertThat(sync.isFull()).isFalse();
+            assertThat(sync.getSince()).isEqualTo(first.getVersion());
+            assertThat(sync.getVersion()).isNotEqualTo(first.getVersion());
+            assertThat(sync.getChanged()).extracting(GradeSync.Module::getKey).containsExactly("algèbre 1");
+            assertThat(sync.getRemoved()).isEmpty();
+            assertThat(objectMapper.writeValueAsBytes(sync).length)
+                    .isLessThan(objectMapper.writeValueAsBytes(first).length / 2);
+            assertThat(requests("delta")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should keep every PROGRES field and send a module whose absence flag alone changed")
+        void shouldDetectChangesOutsideTheMark() {
+            GradeSync first = sync(null);
+            JsonNode sent = first.getChanged().get(1).getExamGrades().get(0);
+            assertThat(sent.path("codeMatiere").asText()).isEqualTo("ALG");
+            assertThat(sent.path("dateExamen").asText()).isEqualTo("2025-01-15");
+            assertThat(sent.path("dureeExamen").asInt()).isEqualTo(90);
+            examGrades.set(1, exam("Algèbre 1", 9.5).put("estAbsent", true));
+
+            GradeSync sync = sync(first.getVersion());
+
+            assertThat(sync.getChanged()).extracting(GradeSync.Module::getKey).containsExactly("algèbre 1");
+            assertThat(sync.getChanged().get(0).getExamGrades().get(0).path("estAbsent").asBoolean()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should list modules that no longer have grades as removed")
+        void shouldListRemovedModules() {
+            String version = sync(null).getVersion();
+            examGrades.remove(1);
+
+            GradeSync sync = sync(version);
+
+            assertThat(sync.getChanged()).isEmpty();
+            assertThat(sync.getRemoved()).containsExactly("algèbre 1");
+        }
+
+        @Test
+        @DisplayName("should diff against any of the recent versions")
+        void shouldDiffAgainstRecentVersion() {
+            String first = sync(null).getVersion();
+            examGrades.set(0, exam("Analyse 1", 13.0));
+            sync(first);
+
+            examGrades.set(2, exam("Algorithmique", 15.0));
+            GradeSync sync = sync(first);
+
+            assertThat(sync.isFull()).isFalse();
+            assertThat(sync.getChanged()).extracting(GradeSync.Module::getKey)
+                    .containsExactly("analyse 1", "algorithmique");
+        }
+
+        @Test
+        @DisplayName("should send everything for an unknown or expired version")
+        void shouldSendFullStateForUnknownVersion() {
+            String first = sync(null).getVersion();
+            examGrades.set(0, exam("Analyse 1", 13.0));
+            sync(null);
+            examGrades.set(0, exam("Analyse 1", 14.0));
+            sync(null);
+
+            assertThat(sync("unknown").isFull()).isTrue();
+            // Only the two most recent versions are kept
+            assertThat(sync(first).isFull()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should not diff against versions handed to another student")
+        void shouldNotShareHistoryAcrossStudents() {
+            String version = sync(null).getVersion();
+            examGrades.set(0, exam("Analyse 1", 13.0));
+
+            GradeSync sync = gradeSyncService.sync("intruder", "42", "other", version);
+
+            assertThat(sync.isFull()).isTrue();
+            assertThat(gradeSyncService.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should drop the card's cached grade report only when its grades change")
+        void shouldInvalidateGradeReportOnChange() {
+            String version = sync(null).getVersion();
+            sync(version);
+            sync(null);
+            verify(gradeService, times(1)).invalidate("42");
+
+            examGrades.set(0, exam("Analyse 1", 13.0));
+            sync(version);
+            verify(gradeService, times(2)).invalidate("42");
+        }
+    }
+}
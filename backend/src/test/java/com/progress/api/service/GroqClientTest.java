@@ -0,0 +1,185 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("GroqClient Tests")
+class GroqClientTest {
+
+    private MockWebServer mockWebServer;
+    private GroqClient groqClient;
+    private SimpleMeterRegistry meterRegistry;
+    private TokenQuotaLedger quotaLedger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+        quotaLedger = new TokenQuotaLedger(meterRegistry, 1000, 100);
+
+        groqClient = new GroqClient(
+                "test-key", mockWebServer.url("/").toString(), new ObjectMapper(), meterRegistry,
+                new GroqRequestScheduler(meterRegistry, 30, 100_000, 10, 500, 500), quotaLedger);
+        ReflectionTestUtils.setField(groqClient, "model", "test-model");
+        ReflectionTestUtils.setField(groqClient, "timeout", 5000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    private static String chunk(String content) {
+        return "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":" + content + "}}]}\n\n";
+    }
+
+    @Nested
+    @DisplayName("Streaming chat")
+    class StreamingChat {
+
+        @Test
+        @DisplayName("should hand each delta to the consumer and return the full text")
+        void shouldStreamDeltas() throws Exception {
+            mockWebServer.enqueue(new MockResponse()
+                    .addHeader("Content-Type", "text/event-stream")
+                    .setBody("data: {\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\"}}]}\n\n"
+                            + chunk("\"{\\\"recommendations\\\": \"")
+                            + chunk("\"[]}\"")
+                            + "data: [DONE]\n\n"));
+
+            List<String> deltas = new ArrayList<>();
+            String content = groqClient.chatStream("system", "user", deltas::add);
+
+            assertThat(deltas).containsExactly("{\"recommendations\": ", "[]}");
+            assertThat(content).isEqualTo("{\"recommendations\": []}");
+
+            RecordedRequest request = mockWebServer.takeRequest();
+            assertThat(request.getBody().readUtf8()).contains("\"stream\":true").doesNotContain("response_format");
+        }
+
+        @Test
+        @DisplayName("should retry after a 429 before any delta is delivered")
+        void shouldRetryAfterRateLimit() {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "0"));
+            mockWebServer.enqueue(new MockResponse()
+                    .addHeader("Content-Type", "text/event-stream")
+                    .setBody(chunk("\"{}\"") + "data: [DONE]\n\n"));
+
+            List<String> deltas = new ArrayList<>();
+            String content = groqClient.chatStream("system", "user", deltas::add);
+
+            assertThat(content).isEqualTo("{}");
+            assertThat(deltas).containsExactly("{}");
+            assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should map a 429 to TOO_MANY_REQUESTS")
+        void shouldMapRateLimit() {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(429));
+
+            assertThatThrownBy(() -> groqClient.chatStream("system", "user", delta -> { }))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    class Metrics {
+
+        @Test
+        @DisplayName("should record token usage and latency of a chat completion")
+        void shouldRecordChatUsage() {
+            mockWebServer.enqueue(new MockResponse()
+                    .addHeader("Content-Type", "application/json")
+                    .setBody("{\"choices\":[{\"message\":{\"content\":\"{}\"}}],"
+                            + "\"usage\":{\"prompt_tokens\":812,\"completion_tokens\":240}}"));
+
+            groqClient.chat("system", "user");
+
+            assertThat(meterRegistry.get("groq.tokens").tag("type", "prompt").summary().totalAmount()).isEqualTo(812);
+            assertThat(meterRegistry.get("groq.tokens").tag("type", "completion").summary().totalAmount()).isEqualTo(240);
+            assertThat(meterRegistry.get("groq.request.duration")
+                    .tags("mode", "chat", "outcome", "success").timer().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should read usage from the final chunk of a stream")
+        void shouldRecordStreamUsage() {
+            mockWebServer.enqueue(new MockResponse()
+                    .addHeader("Content-Type", "text/event-stream")
+                    .setBody(chunk("\"{}\"")
+                            + "data: {\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}],"
+                            + "\"x_groq\":{\"usage\":{\"prompt_tokens\":500,\"completion_tokens\":90}}}\n\n"
+                            + "data: [DONE]\n\n"));
+
+            groqClient.chatStream("system", "user", delta -> { });
+
+            assertThat(meterRegistry.get("groq.tokens").tag("type", "prompt").summary().totalAmount()).isEqualTo(500);
+            assertThat(meterRegistry.get("groq.tokens").tag("type", "completion").summary().totalAmount()).isEqualTo(90);
+            assertThat(meterRegistry.get("groq.request.duration")
+                    .tags("mode", "stream", "outcome", "success").timer().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should time failed requests under the error outcome")
+        void shouldRecordFailures() {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+            assertThatThrownBy(() -> groqClient.chat("system", "user")).isInstanceOf(ApiException.class);
+
+            assertThat(meterRegistry.get("groq.request.duration")
+                    .tags("mode", "chat", "outcome", "error").timer().count()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Token quota")
+    class TokenQuota {
+
+        @Test
+        @DisplayName("should charge the student's tokens and refuse calls once the allowance is used")
+        void shouldEnforceQuota() {
+            mockWebServer.enqueue(new MockResponse()
+                    .addHeader("Content-Type", "application/json")
+                    .setBody("{\"choices\":[{\"message\":{\"content\":\"{}\"}}],"
+                            + "\"usage\":{\"prompt_tokens\":800,\"completion_tokens\":300}}"));
+
+            groqClient.chat("system", "user", GroqRequestScheduler.Priority.INTERACTIVE, "student-uuid");
+
+            assertThat(quotaLedger.used("student-uuid")).isEqualTo(1100);
+            assertThatThrownBy(() -> groqClient.chatStream("system", "user", "student-uuid", delta -> { }))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+            assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should not charge calls made for no student")
+        void shouldIgnoreAnonymousCalls() {
+            mockWebServer.enqueue(new MockResponse()
+                    .addHeader("Content-Type", "application/json")
+                    .setBody("{\"choices\":[{\"message\":{\"content\":\"{}\"}}],"
+                            + "\"usage\":{\"prompt_tokens\":800,\"completion_tokens\":300}}"));
+
+            groqClient.chat("system", "user");
+
+            assertThat(quotaLedger.size()).isZero();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.progress.api.service;
+
+import com.progress.api.exception.ApiException;
+import com.progress.api.service.GroqRequestScheduler.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("GroqRequestScheduler Tests")
+class GroqRequestSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private GroqRequestScheduler scheduler(long requestsPerMinute, long waitMs) {
+        return new GroqRequestScheduler(meterRegistry, requestsPerMinute, 100_000, 10, waitMs, waitMs);
+    }
+
+    private static HttpHeaders exhausted(String reset) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("x-ratelimit-limit-requests", "1");
+        headers.add("x-ratelimit-remaining-requests", "0");
+        headers.add("x-ratelimit-reset-requests", reset);
+        return headers;
+    }
+
+    @Nested
+    @DisplayName("Admission")
+    class Admission {
+
+        @Test
+        @DisplayName("should run calls while the request budget lasts")
+        void shouldAdmitWithinBudget() throws Exception {
+            GroqRequestScheduler scheduler = scheduler(2, 100);
+
+            assertThat(scheduler.execute(10, Priority.INTERACTIVE, () -> "first")).isEqualTo("first");
+            assertThat(scheduler.execute(10, Priority.INTERACTIVE, () -> "second")).isEqualTo("second");
+        }
+
+        @Test
+        @DisplayName("should reject a call still queued at its deadline")
+        void shouldRejectAtDeadline() throws Exception {
+            GroqRequestScheduler scheduler = scheduler(1, 100);
+            scheduler.execute(10, Priority.INTERACTIVE, () -> "first");
+
+            assertThatThrownBy(() -> scheduler.execute(10, Priority.INTERACTIVE, () -> "second"))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+            assertThat(meterRegistry.get("groq.scheduler.rejected").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should wait for the reset Groq reports instead of failing")
+        void shouldWaitForReset() throws Exception {
+            GroqRequestScheduler scheduler = scheduler(30, 2000);
+            scheduler.update(exhausted("200ms"));
+
+            long start = System.nanoTime();
+            String result = scheduler.execute(10, Priority.INTERACTIVE, () -> "done");
+
+            assertThat(result).isEqualTo("done");
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(150);
+        }
+
+        @Test
+        @DisplayName("should admit interactive calls ahead of queued background calls")
+        void shouldPreferInteractive() throws Exception {
+            GroqRequestScheduler scheduler = scheduler(30, 1000);
+            scheduler.update(exhausted("300ms"));
+            List<String> admitted = new CopyOnWriteArrayList<>();
+
+            CompletableFuture<String> background = CompletableFuture.supplyAsync(() -> run(scheduler, Priority.BACKGROUND, admitted));
+            Thread.sleep(50);
+            CompletableFuture<String> interactive = CompletableFuture.supplyAsync(() -> run(scheduler, Priority.INTERACTIVE, admitted));
+
+            assertThat(interactive.get(2, TimeUnit.SECONDS)).isEqualTo("INTERACTIVE");
+            assertThat(background.get(2, TimeUnit.SECONDS)).isEqualTo("rejected");
+            assertThat(admitted).containsExactly("INTERACTIVE");
+        }
+
+        private String run(GroqRequestScheduler scheduler, Priority priority, List<String> admitted) {
+            try {
+                return scheduler.execute(10, priority, () -> {
+                    admitted.add(priority.name());
+                    return priority.name();
+                });
+            } catch (ApiException e) {
+                return "rejected";
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Rate limited responses")
+    class RateLimited {
+
+        @Test
+        @DisplayName("should requeue a call that got a 429 and return the retry's result")
+        void shouldRequeueOn429() throws Exception {
+            GroqRequestScheduler scheduler = scheduler(30, 2000);
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.RETRY_AFTER, "0");
+            AtomicInteger attempts = new AtomicInteger();
+
+            String result = scheduler.execute(10, Priority.INTERACTIVE, () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], null);
+                }
+                return "ok";
+            });
+
+            assertThat(result).isEqualTo("ok");
+            assertThat(attempts).hasValue(2);
+            assertThat(meterRegistry.get("groq.scheduler.rate-limited").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should pass other errors through without retrying")
+        void shouldNotRetryOtherErrors() {
+            GroqRequestScheduler scheduler = scheduler(30, 2000);
+            AtomicInteger attempts = new AtomicInteger();
+
+            assertThatThrownBy(() -> scheduler.execute(10, Priority.INTERACTIVE, () -> {
+                attempts.incrementAndGet();
+                throw WebClientResponseException.create(500, "Server Error", new HttpHeaders(), new byte[0], null);
+            })).isInstanceOf(WebClientResponseException.class);
+            assertThat(attempts).hasValue(1);
+        }
+    }
+
+    @Test
+    @DisplayName("should parse Groq reset durations")
+    void shouldParseDurations() {
+        assertThat(GroqRequestScheduler.parseDuration("7.66s")).isEqualTo(7660);
+        assertThat(GroqRequestScheduler.parseDuration("2m59.56s")).isEqualTo(179_560);
+        assertThat(GroqRequestScheduler.parseDuration("1h0m1s")).isEqualTo(3_601_000);
+        assertThat(GroqRequestScheduler.parseDuration("120ms")).isEqualTo(120);
+        assertThat(GroqRequestScheduler.parseDuration("soon")).isNull();
+        assertThat(GroqRequestScheduler.parseDuration(null)).isNull();
+    }
+}
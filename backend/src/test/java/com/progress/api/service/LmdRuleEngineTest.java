@@ -0,0 +1,200 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.GradeReport;
+import com.progress.api.dto.LmdDecisionReport;
+import com.progress.api.service.LmdRuleEngine.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.progress.api.service.LmdRuleEngine.*;
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LmdRuleEngine Tests")
+class LmdRuleEngineTest {
+
+    private static GradeReport.Module module(int id, Double mark, double coefficient, double credit) {
+        return GradeReport.Module.builder()
+                .id(id)
+                .label("M" + id)
+                .mark(mark)
+                .coefficient(coefficient)
+                .credit(credit)
+                .build();
+    }
+
+    private static GradeReport.Unit unit(String label, Double average, GradeReport.Module... modules) {
+        return GradeReport.Unit.builder().label(label).average(average).modules(List.of(modules)).build();
+    }
+
+    private static GradeReport.Period period(String label, Double average, GradeReport.Unit... units) {
+        return GradeReport.Period.builder().label(label).average(average).units(List.of(units)).build();
+    }
+
+    /**
+     * S1: UE1 compensates 12 and 8 to 10.67, UE2 fails at 6, S1 averages 9.5.
+     * S2: UE3 passes at 14. The year averages 11.75.
+     */
+    private static GradeReport report() {
+        return GradeReport.builder()
+                .cardId("42")
+                .annualAverage(11.75)
+                .periods(List.of(
+                        period("Semestre 1", 9.5,
+                                unit("UE1", 10.67, module(0, 12.0, 2, 4), module(1, 8.0, 1, 2)),
+                                unit("UE2", 6.0, module(2, 6.0, 1, 3))),
+                        period("Semestre 2", 14.0,
+                                unit("UE3", 14.0, module(3, 14.0, 1, 5)))))
+                .build();
+    }
+
+    private static List<String> moduleStatuses(LmdDecisionReport decision) {
+        return decision.getPeriods().stream()
+                .flatMap(period -> period.getUnits().stream())
+                .flatMap(unit -> unit.getModules().stream())
+                .map(LmdDecisionReport.Module::getStatus)
+                .toList();
+    }
+
+    @Nested
+    @DisplayName("Decision tables")
+    class DecisionTables {
+
+        @Test
+        @DisplayName("should acquire a module only on its own average")
+        void shouldCompileModuleTable() {
+            LmdRuleEngine engine = new LmdRuleEngine(10, true, true, true, 30, 30);
+
+            assertThat(engine.status(MODULE, OWN_AVERAGE)).isEqualTo(Status.ACQUIRED);
+            assertThat(engine.status(MODULE, 0)).isEqualTo(Status.NOT_ACQUIRED);
+            assertThat(engine.status(MODULE, UNIT_ACQUIRED)).isEqualTo(Status.COMPENSATED);
+            assertThat(engine.status(MODULE, YEAR_ACQUIRED)).isEqualTo(Status.COMPENSATED);
+        }
+
+        @Test
+        @DisplayName("should compensate within a unit only when enabled")
+        void shouldCompileUnitTable() {
+            LmdRuleEngine compensating = new LmdRuleEngine(10, true, true, true, 30, 30);
+            LmdRuleEngine strict = new LmdRuleEngine(10, false, true, true, 30, 30);
+
+            assertThat(compensating.status(UNIT, OWN_AVERAGE)).isEqualTo(Status.ACQUIRED);
+            assertThat(strict.status(UNIT, OWN_AVERAGE)).isEqualTo(Status.NOT_ACQUIRED);
+            assertThat(strict.status(UNIT, OWN_AVERAGE | ALL_CHILDREN)).isEqualTo(Status.ACQUIRED);
+            assertThat(strict.status(UNIT, PERIOD_ACQUIRED)).isEqualTo(Status.COMPENSATED);
+        }
+
+        @Test
+        @DisplayName("should never acquire or compensate an ungraded node")
+        void shouldCompileUngraded() {
+            LmdRuleEngine engine = new LmdRuleEngine(10, true, true, true, 30, 30);
+
+            assertThat(engine.status(MODULE, UNGRADED | YEAR_ACQUIRED)).isEqualTo(Status.PENDING);
+            assertThat(engine.status(UNIT, UNGRADED | OWN_AVERAGE)).isEqualTo(Status.PENDING);
+            assertThat(engine.status(YEAR, UNGRADED | OWN_AVERAGE)).isEqualTo(Status.PENDING);
+        }
+    }
+
+    @Nested
+    @DisplayName("Evaluation")
+    class Evaluation {
+
+        @Test
+        @DisplayName("should admit the year by annual compensation and award every credit")
+        void shouldCompensateTheYear() {
+            LmdDecisionReport decision = new LmdRuleEngine(10, true, true, true, 30, 30).evaluate(report());
+
+            assertThat(decision.getStatus()).isEqualTo("ACQUIRED");
+            assertThat(decision.getDecision()).isEqualTo("ADMITTED");
+            assertThat(decision.getCredits()).isEqualTo(14.0);
+            assertThat(decision.getTotalCredits()).isEqualTo(14.0);
+            assertThat(decision.getPeriods()).extracting(LmdDecisionReport.Period::getStatus)
+                    .containsExactly("COMPENSATED", "ACQUIRED");
+            assertThat(moduleStatuses(decision))
+                    .containsExactly("ACQUIRED", "COMPENSATED", "COMPENSATED", "ACQUIRED");
+            assertThat(decision.isComplete()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should only award acquired units and modules without annual compensation")
+        void shouldCountCreditsWithoutAnnualCompensation() {
+            LmdDecisionReport decision = new LmdRuleEngine(10, true, true, false, 30, 30).evaluate(report());
+
+            assertThat(decision.getStatus()).isEqualTo("NOT_ACQUIRED");
+            assertThat(decision.getCredits()).isEqualTo(11.0);
+            assertThat(decision.getDecision()).isEqualTo("ADJOURNED");
+            LmdDecisionReport.Period s1 = decision.getPeriods().get(0);
+            assertThat(s1.getUnits()).extracting(LmdDecisionReport.Unit::getStatus, LmdDecisionReport.Unit::getCredits)
+                    .containsExactly(tuple("ACQUIRED", 6.0), tuple("NOT_ACQUIRED", 0.0));
+        }
+
+        @Test
+        @DisplayName("should admit with debts above the conditional credits")
+        void shouldAdmitWithDebts() {
+            LmdDecisionReport decision = new LmdRuleEngine(10, true, true, false, 30, 10).evaluate(report());
+
+            assertThat(decision.getDecision()).isEqualTo("ADMITTED_WITH_DEBTS");
+        }
+
+        @Test
+        @DisplayName("should not compensate modules when unit compensation is off")
+        void shouldRespectUnitCompensation() {
+            LmdDecisionReport decision = new LmdRuleEngine(10, false, true, false, 30, 30).evaluate(report());
+
+            assertThat(moduleStatuses(decision))
+                    .containsExactly("ACQUIRED", "NOT_ACQUIRED", "NOT_ACQUIRED", "ACQUIRED");
+            assertThat(decision.getCredits()).isEqualTo(9.0);
+        }
+
+        @Test
+        @DisplayName("should share a semester's credits by coefficient when modules have none")
+        void shouldShareSemesterCredits() {
+            GradeReport report = GradeReport.builder()
+                    .annualAverage(8.0)
+                    .periods(List.of(period("Semestre 1", 8.0,
+                            unit("UE1", 8.0, module(0, 12.0, 2, 0), module(1, 0.0, 1, 0)))))
+                    .build();
+
+            LmdDecisionReport decision = new LmdRuleEngine(10, true, true, true, 30, 30).evaluate(report);
+
+            assertThat(decision.getTotalCredits()).isEqualTo(30.0);
+            assertThat(decision.getCredits()).isEqualTo(20.0);
+        }
+
+        @Test
+        @DisplayName("should keep ungraded modules and everything above them pending")
+        void shouldKeepUngradedModulesPending() {
+            GradeReport report = GradeReport.builder()
+                    .annualAverage(12.0)
+                    .periods(List.of(
+                            period("Semestre 1", 12.0,
+                                    unit("UE1", 12.0, module(0, 12.0, 2, 4), module(1, null, 1, 2))),
+                            period("Semestre 2", 14.0,
+                                    unit("UE2", 14.0, module(2, 14.0, 1, 5)))))
+                    .build();
+
+            LmdDecisionReport decision = new LmdRuleEngine(10, true, true, true, 30, 30).evaluate(report);
+
+            assertThat(decision.isComplete()).isFalse();
+            assertThat(decision.getStatus()).isEqualTo("PENDING");
+            assertThat(decision.getDecision()).isEqualTo("PENDING");
+            assertThat(decision.getPeriods()).extracting(LmdDecisionReport.Period::getStatus)
+                    .containsExactly("PENDING", "ACQUIRED");
+            assertThat(moduleStatuses(decision)).containsExactly("ACQUIRED", "PENDING", "ACQUIRED");
+            assertThat(decision.getCredits()).isEqualTo(9.0);
+            assertThat(decision.getTotalCredits()).isEqualTo(11.0);
+        }
+
+        @Test
+        @DisplayName("should adjourn when nothing is graded")
+        void shouldAdjournEmptyReport() {
+            LmdDecisionReport decision = new LmdRuleEngine(10, true, true, true, 30, 30)
+                    .evaluate(GradeReport.builder().periods(List.of()).build());
+
+            assertThat(decision.getStatus()).isEqualTo("NOT_ACQUIRED");
+            assertThat(decision.getDecision()).isEqualTo("ADJOURNED");
+            assertThat(decision.isComplete()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.RecommendationRequest;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.dto.RecommendationResponse.CurrentStatus;
+import com.progress.api.dto.RecommendationResponse.Recommendation;
+import com.progress.api.service.AcademicDataGatherer.GradeData;
+import com.progress.api.service.AcademicStructureIndex.Program;
+import com.progress.api.service.AcademicStructureIndex.University;
+import com.progress.api.service.LocalRecommendationEngine.ModuleGrade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LocalRecommendationEngine Tests")
+class LocalRecommendationEngineTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LocalRecommendationEngine engine = new LocalRecommendationEngine();
+    private University university;
+
+    @BeforeEach
+    void setUp() {
+        university = new AcademicStructureIndex(objectMapper).getDefaultUniversity();
+    }
+
+    private static CurrentStatus status(String level, String major) {
+        return CurrentStatus.builder()
+                .field("Mathématiques et Informatique")
+                .level(level)
+                .major(major)
+                .currentAverage(12.0)
+                .build();
+    }
+
+    private GradeData exams(String modules) throws Exception {
+        return new GradeData(objectMapper.readValue(
+                "[{\"periodeLibelleFr\": \"Semestre 3\", \"bilanUes\": [{\"bilanMcs\": [" + modules + "]}]}]",
+                new TypeReference<>() {
+                }), null, null);
+    }
+
+    @Nested
+    @DisplayName("Candidates")
+    class Candidates {
+
+        @Test
+        @DisplayName("should offer the options listed by the student's major")
+        void shouldFollowMajor() {
+            List<Program> candidates = LocalRecommendationEngine.candidates(
+                    university.findField("MI"), "L2", status("L2", "Informatique"));
+
+            assertThat(candidates).extracting(Program::code).containsExactly("L3_SI", "L3_ISIL", "L3_RSD");
+        }
+
+        @Test
+        @DisplayName("should offer the level's options when the major is unknown")
+        void shouldFollowLevel() {
+            List<Program> candidates = LocalRecommendationEngine.candidates(
+                    university.findField("MI"), "L1", status("L1", null));
+
+            assertThat(candidates).extracting(Program::code).containsExactly("L2_INFO", "L2_MATH");
+        }
+
+        @Test
+        @DisplayName("should offer nothing for an unknown field")
+        void shouldHandleUnknownField() {
+            assertThat(LocalRecommendationEngine.candidates(null, "L2", status("L2", null))).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Scoring")
+    class Scoring {
+
+        @Test
+        @DisplayName("should rank the option whose key subjects the student is strongest in first")
+        void shouldRankByRelatedGrades() throws Exception {
+            GradeData grades = exams("""
+                    {"mcLibelleFr": "Réseaux 1", "coefficient": 3, "moyenneGenerale": 17.5},
+                    {"mcLibelleFr": "Systèmes d'exploitation 1", "coefficient": 3, "moyenneGenerale": 15.0},
+                    {"mcLibelleFr": "Base de données", "coefficient": 3, "moyenneGenerale": 8.0},
+                    {"mcLibelleFr": "Génie Logiciel", "coefficient": 2, "moyenneGenerale": 7.5},
+                    {"mcLibelleFr": "Anglais", "coefficient": 1, "moyenneGenerale": 14.0}
+                    """);
+
+            RecommendationResponse response = engine.recommend(status("L2", "Informatique"), university, grades, null);
+
+            assertThat(response.getModel()).isEqualTo(LocalRecommendationEngine.MODEL);
+            assertThat(response.getRecommendations()).extracting(Recommendation::getCode)
+                    .containsExactly("L3_RSD", "L3_SI", "L3_ISIL");
+            Recommendation best = response.getRecommendations().get(0);
+            assertThat(best.getType()).isEqualTo(Program.SPECIALITY);
+            assertThat(best.getMatchScore()).isBetween(60, 100);
+            assertThat(best.getReasoning()).contains("Réseaux 1");
+            assertThat(best.getFurtherOptions()).containsExactly("M_RSD", "M_SEC");
+        }
+
+        @Test
+        @DisplayName("should fall back to the overall average without related modules")
+        void shouldUseOverallAverage() {
+            RecommendationResponse response = engine.recommend(status("L2", "Informatique"), university, GradeData.EMPTY, null);
+
+            assertThat(response.getRecommendations()).hasSize(3)
+                    .allSatisfy(recommendation -> {
+                        assertThat(recommendation.getMatchScore()).isEqualTo(54);
+                        assertThat(recommendation.getReasoning()).contains("overall average of 12.00/20");
+                    });
+        }
+
+        @Test
+        @DisplayName("should favour options matching the preferred subjects")
+        void shouldApplyPreferences() {
+            RecommendationRequest request = RecommendationRequest.builder()
+                    .preferredSubjects(List.of("Génie logiciel"))
+                    .build();
+
+            RecommendationResponse response = engine.recommend(status("L2", "Informatique"), university, GradeData.EMPTY, request);
+
+            assertThat(response.getRecommendations().get(0).getCode()).isEqualTo("L3_ISIL");
+            assertThat(response.getRecommendations().get(0).getMatchScore()).isEqualTo(59);
+        }
+
+        @Test
+        @DisplayName("should be deterministic")
+        void shouldBeDeterministic() throws Exception {
+            GradeData grades = exams("{\"mcLibelleFr\": \"Analyse 3\", \"coefficient\": 4, \"moyenneGenerale\": 16}");
+
+            assertThat(engine.recommend(status("L1", null), university, grades, null))
+                    .isEqualTo(engine.recommend(status("L1", null), university, grades, null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Personalization")
+    class Personalization {
+
+        private RecommendationResponse cohort() {
+            return RecommendationResponse.builder()
+                    .recommendations(List.of(
+                            Recommendation.builder().code("L3_ISIL").name("ISIL").matchScore(80)
+                                    .reasoning("Strong demand for software engineers.").build(),
+                            Recommendation.builder().code("L3_RSD").name("RSD").matchScore(70)
+                                    .reasoning("Networks suit this profile.").build(),
+                            Recommendation.builder().code("UNKNOWN").name("Other").matchScore(40)
+                                    .reasoning("Outside the structure file.").build()))
+                    .summary("Cohort summary")
+                    .model("llama")
+                    .build();
+        }
+
+        @Test
+        @DisplayName("should blend cohort scores with the student's own grades and re-rank")
+        void shouldBlendAndRerank() throws Exception {
+            GradeData grades = exams("""
+                    {"mcLibelleFr": "Réseaux 1", "coefficient": 3, "moyenneGenerale": 19},
+                    {"mcLibelleFr": "Base de données", "coefficient": 3, "moyenneGenerale": 5}
+                    """);
+            CurrentStatus status = status("L2", "Informatique");
+
+            RecommendationResponse response = engine.personalize(cohort(), status, university, grades, null);
+
+            assertThat(response.getRecommendations()).extracting(Recommendation::getCode)
+                    .containsExactly("L3_RSD", "L3_ISIL", "UNKNOWN");
+            assertThat(response.getRecommendations().get(0).getReasoning())
+                    .startsWith("Networks suit this profile.")
+                    .contains("Réseaux 1");
+            assertThat(response.getRecommendations().get(2).getMatchScore()).isEqualTo(40);
+            assertThat(response.getCurrentStatus()).isSameAs(status);
+            assertThat(response.getSummary()).isEqualTo("Cohort summary");
+            assertThat(response.getModel()).isEqualTo("llama");
+        }
+
+        @Test
+        @DisplayName("should not modify the shared cohort response")
+        void shouldNotModifyCohort() {
+            RecommendationResponse cohort = cohort();
+
+            engine.personalize(cohort, status("L2", "Informatique"), university, GradeData.EMPTY, null);
+
+            assertThat(cohort.getRecommendations().get(0).getMatchScore()).isEqualTo(80);
+            assertThat(cohort.getRecommendations().get(0).getReasoning()).isEqualTo("Strong demand for software engineers.");
+        }
+    }
+
+    @Test
+    @DisplayName("should match modules to key subjects ignoring accents, case, numbering and plurals")
+    void shouldMatchModules() {
+        assertThat(LocalRecommendationEngine.matches("Analyse", ModuleGrade.of("ANALYSE 3", 1, 10))).isTrue();
+        assertThat(LocalRecommendationEngine.matches("Bases de données", ModuleGrade.of("Base de Données", 1, 10))).isTrue();
+        assertThat(LocalRecommendationEngine.matches("Systèmes d'exploitation",
+                ModuleGrade.of("Systemes d'Exploitation 2", 1, 10))).isTrue();
+        assertThat(LocalRecommendationEngine.matches("Réseaux", ModuleGrade.of("Analyse 3", 1, 10))).isFalse();
+    }
+}
@@ -0,0 +1,49 @@
+package com.progress.api.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LruEviction Tests")
+class LruEvictionTest {
+
+    @Test
+    @DisplayName("should leave a map within its bound alone")
+    void shouldNotTrimWithinBound() {
+        Map<String, Long> map = new ConcurrentHashMap<>(Map.of("a", 1L, "b", 2L));
+        LruEviction<String, Long> eviction = new LruEviction<>(map, 2, Long::longValue);
+
+        assertThat(eviction.trim()).isZero();
+        assertThat(map).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should evict the least recently used entries down to the low-water mark")
+    void shouldTrimToLowWater() {
+        Map<Integer, Long> map = new ConcurrentHashMap<>();
+        LruEviction<Integer, Long> eviction = new LruEviction<>(map, 100, Long::longValue);
+        for (int i = 0; i <= 100; i++) {
+            map.put(i, (long) i);
+        }
+
+        assertThat(eviction.trim()).isEqualTo(11);
+        assertThat(map).hasSize(90).doesNotContainKeys(0, 10).containsKeys(11, 100);
+        // Back under the bound: the next inserts do not evict
+        map.put(101, 101L);
+        assertThat(eviction.trim()).isZero();
+    }
+
+    @Test
+    @DisplayName("should evict the entries marked to go first before older ones")
+    void shouldEvictMarkedFirst() {
+        Map<String, Long> map = new ConcurrentHashMap<>(Map.of("oldest", 1L, "expired", 5L, "newest", 9L));
+        LruEviction<String, Long> eviction = new LruEviction<>(map, 2, Long::longValue, time -> time == 5L);
+
+        assertThat(eviction.trim()).isEqualTo(1);
+        assertThat(map).containsOnlyKeys("oldest", "newest");
+    }
+}
@@ -0,0 +1,188 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.PeriodBilan;
+import com.progress.api.service.AcademicDataGatherer.GradeData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PromptCompactor Tests")
+class PromptCompactorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String BILANS = """
+            [{
+              "periodeLibelleFr": "Semestre 1",
+              "niveauLibelleLongLt": "Licence 2",
+              "moyenne": 12.35,
+              "creditAcquis": 30.0,
+              "typeDecisionLibelleFr": "Admis",
+              "bilanUes": [{
+                "ueLibelleFr": "UEF1",
+                "bilanMcs": [
+                  {"mcLibelleFr": "Analyse 3", "coefficient": 4.0, "moyenneGenerale": 13.5, "rattachementMcId": 9912},
+                  {"mcLibelleFr": "Algèbre 3", "coefficient": 3.0, "noteExamen": 9.0}
+                ]
+              }]
+            }]
+            """;
+
+    private List<PeriodBilan> bilans(String text) throws Exception {
+        return objectMapper.readValue(text, new TypeReference<>() {
+        });
+    }
+
+    private List<CCGrade> ccGrades(String text) throws Exception {
+        return objectMapper.readValue(text, new TypeReference<>() {
+        });
+    }
+
+    @Nested
+    @DisplayName("Compaction")
+    class Compaction {
+
+        @Test
+        @DisplayName("should turn bilans into a per-module grade table")
+        void shouldCompactBilans() throws Exception {
+            String table = PromptCompactor.compactBilans(bilans(BILANS));
+
+            assertThat(table).isEqualTo("""
+                    Semestre 1 (Licence 2): avg 12.35, credits 30
+                    module|coef|avg
+                    Analyse 3|4|13.5
+                    Algèbre 3|3|9""");
+        }
+
+        @Test
+        @DisplayName("should write CC grades as rows and mark absences")
+        void shouldCompactCCGrades() throws Exception {
+            String table = PromptCompactor.compactCCGrades(ccGrades("""
+                    [{"rattachementMcMcLibelleFr": "Analyse 3", "llPeriode": "S1", "note": 15.0, "absent": false},
+                     {"rattachementMcMcLibelleFr": "Algèbre 3", "llPeriode": "S1", "absent": true}]
+                    """));
+
+            assertThat(table).isEqualTo("""
+                    module|period|note
+                    Analyse 3|S1|15
+                    Algèbre 3|S1|abs""");
+        }
+
+        @Test
+        @DisplayName("should fill in missing values and leave out unnamed CC grades")
+        void shouldHandleMissingFields() throws Exception {
+            assertThat(PromptCompactor.compactBilans(bilans("[{\"moyenne\": 11.0}]"))).isEqualTo("Period: avg 11");
+            assertThat(PromptCompactor.compactCCGrades(ccGrades("[{\"x\": 1}, {\"apLibelleFr\": \"TP\"}]")))
+                    .isEqualTo("module|period|note\nTP|-|-");
+        }
+
+        @Test
+        @DisplayName("should list the fetched sources in prompt order")
+        void shouldCompactGradeData() throws Exception {
+            PromptCompactor compactor = new PromptCompactor(new SimpleMeterRegistry(), 3000);
+
+            Map<String, String> tables = compactor.compact(new GradeData(
+                    bilans(BILANS), null, ccGrades("[{\"apLibelleFr\": \"TP\", \"note\": 12}]")));
+
+            assertThat(tables.keySet())
+                    .containsExactly(AcademicDataGatherer.CURRENT_EXAMS, AcademicDataGatherer.CURRENT_CC);
+        }
+
+        @Test
+        @DisplayName("should be much smaller than the raw JSON")
+        void shouldShrinkPrompt() throws Exception {
+            String raw = objectMapper.readTree(BILANS).toPrettyString();
+
+            assertThat(PromptCompactor.compactBilans(bilans(BILANS)).length()).isLessThan(raw.length() / 2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Token budget")
+    class Budget {
+
+        private Map<String, String> tables() {
+            Map<String, String> tables = new LinkedHashMap<>();
+            tables.put(AcademicDataGatherer.CURRENT_EXAMS, "module|coef|avg\n" + "Analyse 3|4|13.5\n".repeat(40).trim());
+            tables.put(AcademicDataGatherer.PREVIOUS_EXAMS, "module|coef|avg\nAnalyse 1|4|12");
+            tables.put(AcademicDataGatherer.CURRENT_CC, "module|period|note\nAnalyse 3|S1|15");
+            return tables;
+        }
+
+        @Test
+        @DisplayName("should estimate four characters per token")
+        void shouldEstimateTokens() {
+            assertThat(PromptCompactor.estimateTokens("")).isZero();
+            assertThat(PromptCompactor.estimateTokens("abcd")).isEqualTo(1);
+            assertThat(PromptCompactor.estimateTokens("abcde")).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should leave a prompt within budget untouched")
+        void shouldKeepPromptWithinBudget() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            PromptCompactor compactor = new PromptCompactor(registry, 10_000);
+            Map<String, String> tables = tables();
+
+            String prompt = compactor.fit(100, tables, current -> String.join("\n", current.values()));
+
+            assertThat(tables).hasSize(3);
+            assertThat(prompt).contains("Analyse 1|4|12");
+            assertThat(registry.get("recommendation.prompt.trimmed").counter().count()).isZero();
+            assertThat(registry.get("recommendation.prompt.tokens").summary().totalAmount())
+                    .isEqualTo(100 + PromptCompactor.estimateTokens(prompt));
+        }
+
+        @Test
+        @DisplayName("should drop the previous year, then CC, then cut the largest table")
+        void shouldShrinkInPriorityOrder() {
+            Map<String, String> tables = tables();
+
+            assertThat(PromptCompactor.shrink(tables)).isTrue();
+            assertThat(tables).containsOnlyKeys(AcademicDataGatherer.CURRENT_EXAMS, AcademicDataGatherer.CURRENT_CC);
+
+            assertThat(PromptCompactor.shrink(tables)).isTrue();
+            assertThat(tables).containsOnlyKeys(AcademicDataGatherer.CURRENT_EXAMS);
+
+            assertThat(PromptCompactor.shrink(tables)).isTrue();
+            assertThat(tables.get(AcademicDataGatherer.CURRENT_EXAMS))
+                    .startsWith("module|coef|avg")
+                    .endsWith(PromptCompactor.TRUNCATED)
+                    .hasLineCount(20 + 1);
+        }
+
+        @Test
+        @DisplayName("should trim until the prompt fits")
+        void shouldFitBudget() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            PromptCompactor compactor = new PromptCompactor(registry, 150);
+            Map<String, String> tables = tables();
+
+            String prompt = compactor.fit(50, tables, current -> String.join("\n", current.values()));
+
+            assertThat(50 + PromptCompactor.estimateTokens(prompt)).isLessThanOrEqualTo(150);
+            assertThat(tables).containsOnlyKeys(AcademicDataGatherer.CURRENT_EXAMS);
+            assertThat(registry.get("recommendation.prompt.trimmed").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should stop when nothing is left to remove")
+        void shouldGiveUpWhenEmpty() {
+            PromptCompactor compactor = new PromptCompactor(new SimpleMeterRegistry(), 10);
+
+            String prompt = compactor.fit(0, tables(), current -> "fixed part ".repeat(20) + current.size());
+
+            assertThat(prompt).endsWith("0");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationRequest;
+import com.progress.api.dto.RecommendationResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RecommendationCache Tests")
+class RecommendationCacheTest {
+
+    private static final RecommendationResponse RESPONSE = RecommendationResponse.builder()
+            .summary("Strong in mathematics")
+            .build();
+
+    private static RecommendationRequest preferences(String career) {
+        return RecommendationRequest.builder()
+                .careerPreference(career)
+                .preferredSubjects(List.of("Analyse", "Algèbre"))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Lookup")
+    class Lookup {
+
+        @Test
+        @DisplayName("should return the cached response for the same snapshot and preferences")
+        void shouldHit() {
+            RecommendationCache cache = new RecommendationCache(60, 100, 5);
+            String snapshot = RecommendationCache.snapshot("2024", "L2", "{\"notes\":[12.5]}");
+
+            cache.put("student-uuid", snapshot, preferences("Data science"), RESPONSE);
+
+            assertThat(cache.get("student-uuid", snapshot, preferences("Data science"))).isSameAs(RESPONSE);
+        }
+
+        @Test
+        @DisplayName("should miss for different preferences")
+        void shouldMissForDifferentPreferences() {
+            RecommendationCache cache = new RecommendationCache(60, 100, 5);
+            String snapshot = RecommendationCache.snapshot("2024", "L2");
+
+            cache.put("student-uuid", snapshot, preferences("Data science"), RESPONSE);
+
+            assertThat(cache.get("student-uuid", snapshot, preferences("Robotics"))).isNull();
+            assertThat(cache.get("student-uuid", snapshot, null)).isNull();
+        }
+
+        @Test
+        @DisplayName("should miss once the TTL has passed")
+        void shouldMissAfterTtl() {
+            RecommendationCache cache = new RecommendationCache(0, 100, 5);
+            String snapshot = RecommendationCache.snapshot("2024", "L2");
+
+            cache.put("student-uuid", snapshot, null, RESPONSE);
+
+            assertThat(cache.get("student-uuid", snapshot, null)).isNull();
+        }
+
+        @Test
+        @DisplayName("should keep only the most recently used preference sets per student")
+        void shouldBoundPreferencesPerStudent() {
+            RecommendationCache cache = new RecommendationCache(60, 100, 2);
+            String snapshot = RecommendationCache.snapshot("2024", "L2");
+
+            cache.put("student-uuid", snapshot, preferences("Data science"), RESPONSE);
+            cache.put("student-uuid", snapshot, preferences("Robotics"), RESPONSE);
+            cache.get("student-uuid", snapshot, preferences("Data science"));
+            for (int i = 0; i < 1000; i++) {
+                cache.put("student-uuid", snapshot, preferences("Variant " + i), RESPONSE);
+            }
+
+            assertThat(cache.get("student-uuid", snapshot, preferences("Variant 999"))).isSameAs(RESPONSE);
+            assertThat(cache.get("student-uuid", snapshot, preferences("Variant 998"))).isSameAs(RESPONSE);
+            assertThat(cache.get("student-uuid", snapshot, preferences("Variant 997"))).isNull();
+            assertThat(cache.get("student-uuid", snapshot, preferences("Data science"))).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidation")
+    class Invalidation {
+
+        @Test
+        @DisplayName("should drop old results when new grades arrive")
+        void shouldInvalidateOnNewGrades() {
+            RecommendationCache cache = new RecommendationCache(60, 100, 5);
+            String before = RecommendationCache.snapshot("2024", "L2", "{\"notes\":[12.5]}");
+            String after = RecommendationCache.snapshot("2024", "L2", "{\"notes\":[12.5, 15]}");
+
+            cache.put("student-uuid", before, null, RESPONSE);
+            assertThat(cache.get("student-uuid", after, null)).isNull();
+
+            cache.put("student-uuid", after, preferences("Data science"), RESPONSE);
+            assertThat(cache.get("student-uuid", before, null)).isNull();
+        }
+
+        @Test
+        @DisplayName("should evict the least recently used students beyond the size bound")
+        void shouldBoundSize() throws InterruptedException {
+            RecommendationCache cache = new RecommendationCache(60, 2, 5);
+            String snapshot = RecommendationCache.snapshot("2024");
+
+            cache.put("first", snapshot, null, RESPONSE);
+            Thread.sleep(2);
+            cache.put("second", snapshot, null, RESPONSE);
+            Thread.sleep(2);
+            cache.get("first", snapshot, null);
+            Thread.sleep(2);
+            cache.put("third", snapshot, null, RESPONSE);
+
+            assertThat(cache.size()).isEqualTo(2);
+            assertThat(cache.get("first", snapshot, null)).isSameAs(RESPONSE);
+            assertThat(cache.get("second", snapshot, null)).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("should not confuse fields when fingerprinting")
+    void shouldSeparateSnapshotParts() {
+        assertThat(RecommendationCache.snapshot("ab", "c")).isNotEqualTo(RecommendationCache.snapshot("a", "bc"));
+        assertThat(RecommendationCache.snapshot("a", null)).isNotEqualTo(RecommendationCache.snapshot("a", ""));
+    }
+}
@@ -0,0 +1,160 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationJobResponse;
+import com.progress.api.dto.RecommendationJobResponse.Status;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RecommendationJobService Tests")
+class RecommendationJobServiceTest {
+
+    private RecommendationService recommendationService;
+    private SimpleMeterRegistry meterRegistry;
+    private RecommendationJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        recommendationService = mock(RecommendationService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        jobService = new RecommendationJobService(recommendationService, meterRegistry, 1, 1, 30, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    private RecommendationJobResponse awaitFinished(String uuid, String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        RecommendationJobResponse job = jobService.getJob(uuid, jobId);
+        while (job.getStatus() != Status.COMPLETED && job.getStatus() != Status.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = jobService.getJob(uuid, jobId);
+        }
+        return job;
+    }
+
+    @Nested
+    @DisplayName("Running jobs")
+    class RunningJobs {
+
+        @Test
+        @DisplayName("should return a job id immediately and complete in the background")
+        void shouldCompleteInBackground() throws Exception {
+            RecommendationResponse response = RecommendationResponse.builder().summary("Good profile").build();
+            when(recommendationService.getRecommendations(anyString(), anyString(), any(), any())).thenReturn(response);
+
+            RecommendationJobResponse submitted = jobService.submit("student-uuid", "external-token", null);
+
+            assertThat(submitted.getJobId()).isNotBlank();
+            RecommendationJobResponse finished = awaitFinished("student-uuid", submitted.getJobId());
+            assertThat(finished.getStatus()).isEqualTo(Status.COMPLETED);
+            assertThat(finished.getResult()).isSameAs(response);
+            assertThat(finished.getCompletedAt()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("should report the error of a failed job")
+        void shouldReportFailure() throws Exception {
+            when(recommendationService.getRecommendations(anyString(), anyString(), any(), any()))
+                    .thenThrow(new ApiException("AI service is temporarily unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+
+            RecommendationJobResponse submitted = jobService.submit("student-uuid", "external-token", null);
+
+            RecommendationJobResponse finished = awaitFinished("student-uuid", submitted.getJobId());
+            assertThat(finished.getStatus()).isEqualTo(Status.FAILED);
+            assertThat(finished.getError()).isEqualTo("AI service is temporarily unavailable");
+        }
+
+        @Test
+        @DisplayName("should hide jobs from other students")
+        void shouldHideOtherStudentsJobs() {
+            RecommendationJobResponse submitted = jobService.submit("student-uuid", "external-token", null);
+
+            assertThatThrownBy(() -> jobService.getJob("other-uuid", submitted.getJobId()))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        }
+    }
+
+    @Nested
+    @DisplayName("Back-pressure")
+    class BackPressure {
+
+        @Test
+        @DisplayName("should reject submissions once workers and queue are full")
+        void shouldRejectWhenQueueFull() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            when(recommendationService.getRecommendations(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return RecommendationResponse.builder().build();
+            });
+
+            try {
+                jobService.submit("student-1", "token", null);
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+                jobService.submit("student-2", "token", null);
+
+                assertThat(jobService.getQueueDepth()).isEqualTo(1);
+                assertThat(meterRegistry.get("recommendation.jobs.queue.depth").gauge().value()).isEqualTo(1.0);
+                assertThatThrownBy(() -> jobService.submit("student-3", "token", null))
+                        .isInstanceOf(ApiException.class)
+                        .satisfies(ex -> assertThat(((ApiException) ex).getStatus())
+                                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+                assertThat(meterRegistry.get("recommendation.jobs.rejected").counter().count()).isEqualTo(1.0);
+            } finally {
+                release.countDown();
+            }
+        }
+
+        @Test
+        @DisplayName("should reuse an identical unfinished job instead of taking another worker")
+        void shouldReuseIdenticalJob() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            when(recommendationService.getRecommendations(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return RecommendationResponse.builder().build();
+            });
+
+            RecommendationJobResponse first = jobService.submit("student-uuid", "token", null);
+            RecommendationJobResponse again = jobService.submit("student-uuid", "token", null);
+            release.countDown();
+
+            assertThat(again.getJobId()).isEqualTo(first.getJobId());
+            assertThat(meterRegistry.get("recommendation.jobs.deduplicated").counter().count()).isEqualTo(1.0);
+            awaitFinished("student-uuid", first.getJobId());
+            assertThat(jobService.submit("student-uuid", "token", null).getJobId()).isNotEqualTo(first.getJobId());
+        }
+
+        @Test
+        @DisplayName("should record how long jobs waited for a worker")
+        void shouldRecordWaitTime() throws Exception {
+            when(recommendationService.getRecommendations(anyString(), anyString(), any(), any()))
+                    .thenReturn(RecommendationResponse.builder().build());
+
+            RecommendationJobResponse submitted = jobService.submit("student-uuid", "external-token", null);
+            awaitFinished("student-uuid", submitted.getJobId());
+
+            assertThat(meterRegistry.get("recommendation.jobs.wait").timer().count()).isEqualTo(1);
+        }
+    }
+}
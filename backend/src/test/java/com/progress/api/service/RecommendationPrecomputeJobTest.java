@@ -0,0 +1,156 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.dto.RecommendationResponse.CurrentStatus;
+import com.progress.api.exception.ApiException;
+import com.progress.api.service.CohortRecommendationCache.CohortKey;
+import com.progress.api.service.RecommendationPrecomputeJob.Cohort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RecommendationPrecomputeJob Tests")
+class RecommendationPrecomputeJobTest {
+
+    private static final RecommendationResponse RESPONSE = RecommendationResponse.builder()
+            .summary("Shared advice")
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private AcademicStructureIndex academicStructureIndex;
+    private CohortRecommendationCache cohortCache;
+    private RecommendationService recommendationService;
+    private GroqClient groqClient;
+    private RecommendationPrecomputeJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        academicStructureIndex = new AcademicStructureIndex(objectMapper);
+        cohortCache = new CohortRecommendationCache(meterRegistry, objectMapper, 60, 10_000, 2.0, null);
+        recommendationService = mock(RecommendationService.class);
+        groqClient = mock(GroqClient.class);
+        when(recommendationService.generateCohortRecommendations(any(), anyString(), any(), any()))
+                .thenAnswer(invocation -> {
+                    cohortCache.put(invocation.getArgument(2), RESPONSE);
+                    return RESPONSE;
+                });
+        job = new RecommendationPrecomputeJob(
+                recommendationService, academicStructureIndex, cohortCache, groqClient, meterRegistry, true, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    @DisplayName("should list every program of every level in every average band")
+    void shouldListCohorts() {
+        List<Cohort> cohorts = job.cohorts();
+
+        assertThat(cohorts).hasSizeGreaterThan(cohortCache.bucketCount())
+                .extracting(Cohort::key)
+                .doesNotHaveDuplicates();
+        assertThat(cohorts.size() % cohortCache.bucketCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should produce the same key a student of the cohort gets")
+    void shouldMatchStudentKeys() {
+        CurrentStatus student = CurrentStatus.builder()
+                .field("Mathématiques et Informatique")
+                .level("2ème année Licence")
+                .major("Informatique")
+                .build();
+        CohortKey key = cohortCache.key(academicStructureIndex.getDefaultUniversity(), student, 13.2);
+
+        assertThat(job.cohorts()).extracting(Cohort::key).contains(key);
+    }
+
+    @Test
+    @DisplayName("should generate missing cohorts at background priority and skip cached ones")
+    void shouldGenerateMissingCohorts() {
+        List<Cohort> cohorts = job.cohorts();
+        cohortCache.put(cohorts.get(0).key(), RESPONSE);
+
+        RecommendationPrecomputeJob.Summary summary = job.run();
+
+        assertThat(summary.total()).isEqualTo(cohorts.size());
+        assertThat(summary.generated()).isEqualTo(cohorts.size() - 1);
+        assertThat(summary.skipped()).isEqualTo(1);
+        assertThat(summary.failed()).isZero();
+        assertThat(cohortCache.size()).isEqualTo(cohorts.size());
+        verify(recommendationService, never()).generateCohortRecommendations(
+                any(), anyString(), eq(cohorts.get(0).key()), any());
+        verify(recommendationService).generateCohortRecommendations(
+                any(), anyString(), eq(cohorts.get(1).key()), eq(GroqRequestScheduler.Priority.BACKGROUND));
+
+        assertThat(meterRegistry.get("recommendation.precompute.progress").gauge().value()).isEqualTo(cohorts.size());
+        assertThat(meterRegistry.get("recommendation.precompute.cohorts").tag("outcome", "generated").counter().count())
+                .isEqualTo(cohorts.size() - 1);
+        assertThat(meterRegistry.get("recommendation.precompute.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should count failed cohorts and carry on")
+    void shouldCountFailures() {
+        Cohort failing = job.cohorts().get(3);
+        doThrow(new ApiException("The AI service is busy", HttpStatus.TOO_MANY_REQUESTS))
+                .when(recommendationService)
+                .generateCohortRecommendations(any(), anyString(), eq(failing.key()), any());
+
+        RecommendationPrecomputeJob.Summary summary = job.run();
+
+        assertThat(summary.failed()).isEqualTo(1);
+        assertThat(summary.generated()).isEqualTo(summary.total() - 1);
+        assertThat(cohortCache.contains(failing.key())).isFalse();
+    }
+
+    @Test
+    @DisplayName("should not run on schedule when Groq is not configured")
+    void shouldSkipWithoutGroq() {
+        when(groqClient.isConfigured()).thenReturn(false);
+
+        job.scheduledRun();
+
+        verify(recommendationService, never()).generateCohortRecommendations(any(), anyString(), any(), any());
+        assertThat(cohortCache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should default to on only when the cohort cache is persisted")
+    void shouldDefaultToPersistedCache() {
+        CohortRecommendationCache persisted = new CohortRecommendationCache(
+                meterRegistry, objectMapper, 60, 10_000, 2.0, "cohorts.json");
+        RecommendationPrecomputeJob inMemory = new RecommendationPrecomputeJob(
+                recommendationService, academicStructureIndex, cohortCache, groqClient, meterRegistry, null, 1);
+        RecommendationPrecomputeJob stored = new RecommendationPrecomputeJob(
+                recommendationService, academicStructureIndex, persisted, groqClient, meterRegistry, null, 1);
+        try {
+            assertThat(inMemory.isEnabled()).isFalse();
+            assertThat(stored.isEnabled()).isTrue();
+            assertThat(job.isEnabled()).isTrue();
+        } finally {
+            inMemory.shutdown();
+            stored.shutdown();
+        }
+    }
+}
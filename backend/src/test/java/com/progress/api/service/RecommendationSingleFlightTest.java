@@ -0,0 +1,181 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.RecommendationRequest;
+import com.progress.api.dto.RecommendationResponse;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RecommendationSingleFlight Tests")
+class RecommendationSingleFlightTest {
+
+    private static final RecommendationResponse RESPONSE = RecommendationResponse.builder()
+            .summary("Advice")
+            .build();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecommendationSingleFlight singleFlight;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new RecommendationSingleFlight(meterRegistry);
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("recommendation.singleflight.requests").tag("result", result).counter().count();
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (singleFlight.inFlight() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("should run one computation for concurrent identical requests")
+    void shouldShareComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        Future<RecommendationResponse> first = callers.submit(() -> singleFlight.execute("uuid", null, () -> {
+            runs.incrementAndGet();
+            awaitQuietly(release);
+            return RESPONSE;
+        }));
+        awaitInFlight();
+        List<Future<RecommendationResponse>> others = List.of(
+                callers.submit(() -> singleFlight.execute("uuid", null, () -> {
+                    runs.incrementAndGet();
+                    return RESPONSE;
+                })),
+                callers.submit(() -> singleFlight.execute("uuid", null, () -> {
+                    runs.incrementAndGet();
+                    return RESPONSE;
+                })));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count("joined") < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(RESPONSE);
+        for (Future<RecommendationResponse> other : others) {
+            assertThat(other.get(5, TimeUnit.SECONDS)).isSameAs(RESPONSE);
+        }
+        assertThat(runs).hasValue(1);
+        assertThat(count("leader")).isEqualTo(1);
+        assertThat(count("joined")).isEqualTo(2);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should tell a caller that joined so it can replay the result")
+    void shouldNotifyJoinedCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecommendationResponse> leaderReplays = new CopyOnWriteArrayList<>();
+        List<RecommendationResponse> joinedReplays = new CopyOnWriteArrayList<>();
+
+        Future<RecommendationResponse> first = callers.submit(() -> singleFlight.execute("uuid", null, () -> {
+            awaitQuietly(release);
+            return RESPONSE;
+        }, leaderReplays::add));
+        awaitInFlight();
+        Future<RecommendationResponse> joined = callers.submit(() -> singleFlight.execute("uuid", null, () -> {
+            throw new IllegalStateException("should not run");
+        }, joinedReplays::add));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count("joined") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(RESPONSE);
+        assertThat(joined.get(5, TimeUnit.SECONDS)).isSameAs(RESPONSE);
+        assertThat(leaderReplays).isEmpty();
+        assertThat(joinedReplays).containsExactly(RESPONSE);
+    }
+
+    @Test
+    @DisplayName("should hand the leader's error to the callers that joined it")
+    void shouldShareErrors() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ApiException failure = new ApiException("The AI service is busy", HttpStatus.TOO_MANY_REQUESTS);
+
+        Future<RecommendationResponse> first = callers.submit(() -> singleFlight.execute("uuid", null, () -> {
+            awaitQuietly(release);
+            throw failure;
+        }));
+        awaitInFlight();
+        Future<RecommendationResponse> joined = callers.submit(() -> singleFlight.execute("uuid", null, () -> RESPONSE));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count("joined") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThatThrownBy(() -> joined.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThat(singleFlight.execute("uuid", null, () -> RESPONSE)).isSameAs(RESPONSE);
+    }
+
+    @Test
+    @DisplayName("should run separately for other students or other preferences")
+    void shouldKeyByStudentAndPreferences() {
+        RecommendationRequest preferences = RecommendationRequest.builder().careerPreference("Data science").build();
+
+        assertThat(RecommendationSingleFlight.key("uuid", null))
+                .isEqualTo(RecommendationSingleFlight.key("uuid", null))
+                .isNotEqualTo(RecommendationSingleFlight.key("other", null))
+                .isNotEqualTo(RecommendationSingleFlight.key("uuid", preferences));
+    }
+
+    @Test
+    @DisplayName("should not keep finished computations")
+    void shouldForgetFinishedComputations() {
+        AtomicInteger runs = new AtomicInteger();
+
+        singleFlight.execute("uuid", null, () -> {
+            runs.incrementAndGet();
+            return RESPONSE;
+        });
+        singleFlight.execute("uuid", null, () -> {
+            runs.incrementAndGet();
+            return RESPONSE;
+        });
+
+        assertThat(runs).hasValue(2);
+        assertThat(count("joined")).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
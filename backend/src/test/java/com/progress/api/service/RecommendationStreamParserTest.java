@@ -0,0 +1,91 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RecommendationStreamParser Tests")
+class RecommendationStreamParserTest {
+
+    private static final String COMPLETION = """
+            {
+              "recommendations": [
+                {"code": "L3_ISIL", "name": "Ingénierie des Systèmes d'Information", "matchScore": 88,
+                 "keySubjects": ["Bases de données", "Génie logiciel"], "details": {"years": [1, 2]}},
+                {"code": "L3_ACAD", "name": "Informatique Académique", "matchScore": 74, "keySubjects": []}
+              ],
+              "summary": "Solid programming results."
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<JsonNode> feedInChunks(RecommendationStreamParser parser, String text, int chunkSize) throws Exception {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += chunkSize) {
+            nodes.addAll(parser.feed(text.substring(i, Math.min(text.length(), i + chunkSize))));
+        }
+        return nodes;
+    }
+
+    @Nested
+    @DisplayName("Incremental parsing")
+    class IncrementalParsing {
+
+        @Test
+        @DisplayName("should emit each recommendation once its object closes")
+        void shouldEmitCompletedItems() throws Exception {
+            RecommendationStreamParser parser = new RecommendationStreamParser(objectMapper);
+            int firstClose = COMPLETION.indexOf("]}}") + 3;
+
+            List<JsonNode> early = parser.feed(COMPLETION.substring(0, firstClose));
+            assertThat(early).hasSize(1);
+            assertThat(early.get(0).path("code").asText()).isEqualTo("L3_ISIL");
+            assertThat(early.get(0).path("details").path("years")).hasSize(2);
+
+            List<JsonNode> rest = parser.feed(COMPLETION.substring(firstClose));
+            assertThat(rest).extracting(node -> node.path("code").asText()).containsExactly("L3_ACAD");
+            assertThat(parser.getSummary()).isEqualTo("Solid programming results.");
+            assertThat(parser.isFinished()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should handle tokens split across chunks, including multi-byte characters")
+        void shouldHandleTinyChunks() throws Exception {
+            RecommendationStreamParser parser = new RecommendationStreamParser(objectMapper);
+
+            List<JsonNode> nodes = feedInChunks(parser, COMPLETION, 1);
+
+            assertThat(nodes).hasSize(2);
+            assertThat(nodes.get(0).path("name").asText()).isEqualTo("Ingénierie des Systèmes d'Information");
+        }
+
+        @Test
+        @DisplayName("should skip a Markdown fence around the JSON")
+        void shouldSkipFence() throws Exception {
+            RecommendationStreamParser parser = new RecommendationStreamParser(objectMapper);
+
+            List<JsonNode> nodes = feedInChunks(parser, "```json\n" + COMPLETION + "```", 7);
+
+            assertThat(nodes).hasSize(2);
+            assertThat(parser.isFinished()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should ignore objects outside the recommendations array")
+        void shouldIgnoreOtherObjects() throws Exception {
+            RecommendationStreamParser parser = new RecommendationStreamParser(objectMapper);
+
+            List<JsonNode> nodes = parser.feed("{\"meta\": {\"a\": 1}, \"other\": [{\"code\": \"X\"}], \"recommendations\": []}");
+
+            assertThat(nodes).isEmpty();
+        }
+    }
+}
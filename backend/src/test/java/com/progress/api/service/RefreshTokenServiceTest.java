@@ -0,0 +1,134 @@
+package com.progress.api.service;
+
+import com.progress.api.dto.LoginResponse;
+import com.progress.api.exception.ApiException;
+import com.progress.api.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    private static final String TEST_SECRET = "dGVzdC11bml0LXRlc3Qtc2VjcmV0LWtleS1kby1ub3QtdXNlLWluLXByb2R1Y3Rpb24tMjU2LWJpdHM=";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenBlacklistService tokenBlacklistService;
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secretKey", TEST_SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 900000L);
+        ReflectionTestUtils.setField(provider, "refreshExpiration", 604800000L);
+        jwtTokenProvider = spy(provider);
+        tokenBlacklistService = new TokenBlacklistService();
+    }
+
+    @Nested
+    @DisplayName("Rotation")
+    class Rotation {
+
+        @Test
+        @DisplayName("should mint a new pair and blacklist the old token")
+        void shouldRotateToken() {
+            RefreshTokenService service = new RefreshTokenService(jwtTokenProvider, tokenBlacklistService, 10000);
+            String refreshToken = jwtTokenProvider.generateRefreshToken("student-uuid", "external-token");
+
+            LoginResponse pair = service.refresh(refreshToken);
+
+            assertThat(pair.getUuid()).isEqualTo("student-uuid");
+            assertThat(pair.getToken()).isNotBlank();
+            assertThat(pair.getRefreshToken()).isNotBlank();
+            assertThat(tokenBlacklistService.isBlacklisted(refreshToken)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should reject an invalid refresh token")
+        void shouldRejectInvalidToken() {
+            RefreshTokenService service = new RefreshTokenService(jwtTokenProvider, tokenBlacklistService, 10000);
+
+            assertThatThrownBy(() -> service.refresh("not-a-jwt"))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+        }
+
+        @Test
+        @DisplayName("should reject a rotated token once the grace window has passed")
+        void shouldRejectAfterGraceWindow() {
+            RefreshTokenService service = new RefreshTokenService(jwtTokenProvider, tokenBlacklistService, 0);
+            String refreshToken = jwtTokenProvider.generateRefreshToken("student-uuid", "external-token");
+
+            service.refresh(refreshToken);
+            service.cleanupExpiredRotations();
+
+            assertThatThrownBy(() -> service.refresh(refreshToken))
+                    .isInstanceOf(ApiException.class)
+                    .hasMessageContaining("revoked");
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent refresh")
+    class ConcurrentRefresh {
+
+        @Test
+        @DisplayName("should return the same pair within the grace window")
+        void shouldReturnSamePairWithinGraceWindow() {
+            RefreshTokenService service = new RefreshTokenService(jwtTokenProvider, tokenBlacklistService, 10000);
+            String refreshToken = jwtTokenProvider.generateRefreshToken("student-uuid", "external-token");
+
+            LoginResponse first = service.refresh(refreshToken);
+            LoginResponse second = service.refresh(refreshToken);
+
+            assertThat(second).isSameAs(first);
+            verify(jwtTokenProvider, times(1)).generateToken(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("should mint exactly one pair for simultaneous callers")
+        void shouldMintOnceForSimultaneousCallers() throws Exception {
+            RefreshTokenService service = new RefreshTokenService(jwtTokenProvider, tokenBlacklistService, 10000);
+            String refreshToken = jwtTokenProvider.generateRefreshToken("student-uuid", "external-token");
+
+            int callers = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<Future<LoginResponse>> futures = new ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return service.refresh(refreshToken);
+                    }));
+                }
+                start.countDown();
+
+                LoginResponse first = futures.get(0).get();
+                for (Future<LoginResponse> future : futures) {
+                    assertThat(future.get().getRefreshToken()).isEqualTo(first.getRefreshToken());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            verify(jwtTokenProvider, times(1)).generateToken(anyString(), anyString());
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.progress.api.service;
 
+import com.progress.api.dto.progres.CCGrade;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.dto.progres.ExamGrade;
+import com.progress.api.dto.progres.PeriodBilan;
 import com.progress.api.exception.ApiException;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -8,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -172,4 +177,128 @@ class StudentServiceTest {
                     });
         }
     }
+
+    private static Dia dia(long id) {
+        return new Dia(id, null, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    @Nested
+    @DisplayName("Get CC Grades With Known Dias")
+    class GetCCGradesWithKnownDias {
+
+        @Test
+        @DisplayName("should validate ownership against the supplied dias without refetching them")
+        void shouldUseSuppliedDias() throws InterruptedException {
+            // Arrange
+            mockWebServer.enqueue(new MockResponse()
+                    .setBody("[{\"rattachementMcMcLibelleFr\": \"Analyse 1\", \"note\": 14.5}]")
+                    .addHeader("Content-Type", "application/json"));
+            List<Dia> dias = List.of(dia(42));
+
+            // Act
+            List<CCGrade> result = studentService.getCCGrades("test-uuid", "42", dias, "Bearer token");
+
+            // Assert
+            assertThat(result).extracting(CCGrade::note).containsExactly(14.5);
+            assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+            assertThat(mockWebServer.takeRequest().getPath()).isEqualTo("/infos/controleContinue/dia/42/notesCC");
+        }
+
+        @Test
+        @DisplayName("should reject a card that is not in the supplied dias")
+        void shouldRejectForeignCard() {
+            List<Dia> dias = List.of(dia(42));
+
+            assertThatThrownBy(() -> studentService.getCCGrades("test-uuid", "99", dias, "Bearer token"))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.FORBIDDEN));
+            assertThat(mockWebServer.getRequestCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should check raw grade requests against the student's dias")
+        void shouldCheckRawGradesOwnership() {
+            mockWebServer.enqueue(new MockResponse()
+                    .setBody("[{\"id\": 42}]")
+                    .addHeader("Content-Type", "application/json"));
+
+            assertThatThrownBy(() -> studentService.getExamGradesSecure("test-uuid", "99", "Bearer token"))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.FORBIDDEN));
+            assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Typed Payloads")
+    class TypedPayloads {
+
+        @Test
+        @DisplayName("should deserialize dias into records, skipping unknown fields")
+        void shouldDeserializeDias() {
+            mockWebServer.enqueue(new MockResponse()
+                    .setBody("""
+                        [{"id": 42, "anneeAcademiqueCode": "2024", "refLibelleNiveau": "Licence 2",
+                          "niveauId": 3, "lastMoyenne": 12.5, "photo": "...", "situationId": 7}]
+                        """)
+                    .addHeader("Content-Type", "application/json"));
+
+            List<Dia> dias = studentService.getDias("test-uuid", "Bearer token");
+
+            assertThat(dias).containsExactly(new Dia(42, "2024", null, null, null, null, null, null, null,
+                    "Licence 2", null, null, 3L, 12.5));
+        }
+
+        @Test
+        @DisplayName("should deserialize nested bilans and default missing lists to empty")
+        void shouldDeserializeBilans() {
+            mockWebServer.enqueue(new MockResponse()
+                    .setBody("""
+                        [{"periodeLibelleFr": "Semestre 1", "moyenne": 11.0, "bilanUes": [
+                          {"ueLibelleFr": "UEF", "bilanMcs": [{"mcLibelleFr": "Analyse", "coefficient": 2,
+                            "moyenneGenerale": 12.0, "rattachementMcId": 9912}]}]},
+                         {"periodeLibelleFr": "Semestre 2"}]
+                        """)
+                    .addHeader("Content-Type", "application/json"));
+
+            List<PeriodBilan> bilans = studentService.getBilans("test-uuid", "42", "Bearer token");
+
+            assertThat(bilans.get(0).modules()).containsExactly(
+                    new PeriodBilan.ModuleBilan("Analyse", 2.0, null, 12.0, null));
+            assertThat(bilans.get(1).bilanUes()).isEmpty();
+            assertThat(bilans.get(1).modules()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should answer an empty body with an empty list")
+        void shouldHandleEmptyBody() {
+            mockWebServer.enqueue(new MockResponse().addHeader("Content-Type", "application/json"));
+
+            List<ExamGrade> grades = studentService.getExamGrades(
+                    "test-uuid", "42", List.of(new Dia(42, null, null, null, null, null, null, null, null,
+                            null, null, null, null, null)), "Bearer token");
+
+            assertThat(grades).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should reject a card that is not in the student's dias")
+        void shouldRejectForeignCard() {
+            assertThatThrownBy(() -> studentService.getExamGrades("test-uuid", "99", List.of(), "Bearer token"))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.FORBIDDEN));
+            assertThat(mockWebServer.getRequestCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should map upstream errors like the untyped methods")
+        void shouldMapErrors() {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(404).setBody("Not Found"));
+
+            assertThatThrownBy(() -> studentService.getCoefficients("7", "3", "Bearer token"))
+                    .isInstanceOf(ApiException.class)
+                    .hasMessageContaining("Failed to fetch subjects")
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        }
+    }
 }
@@ -0,0 +1,225 @@
+package com.progress.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.progress.api.dto.AcademicTimeline;
+import com.progress.api.dto.LmdDecisionReport;
+import com.progress.api.dto.progres.Dia;
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("TimelineService Tests")
+class TimelineServiceTest {
+
+    // PROGRES lists the latest registration first
+    private static final List<Map<String, Object>> DIAS = List.of(
+            Map.of("id", 42, "anneeAcademiqueCode", "2024", "refLibelleNiveau", "Licence 2",
+                    "ofLlFiliere", "Informatique"),
+            Map.of("id", 41, "anneeAcademiqueCode", "2023", "refLibelleNiveau", "Licence 1",
+                    "ofLlFiliere", "Informatique"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private StudentService studentService;
+    private GradeService gradeService;
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        studentService = mock(StudentService.class);
+        gradeService = mock(GradeService.class);
+        timelineService = timelineService(null);
+        when(studentService.getDias("uuid", "token")).thenReturn(dias());
+        when(gradeService.getDecision(eq("uuid"), eq("41"), eq("token"), any()))
+                .thenReturn(decision(12.5, "ADMITTED", 60, true));
+        when(gradeService.getDecision(eq("uuid"), eq("42"), eq("token"), any()))
+                .thenReturn(decision(9.0, "ADJOURNED", 20, false));
+    }
+
+    private List<Dia> dias() {
+        return objectMapper.convertValue(DIAS, objectMapper.getTypeFactory().constructCollectionType(List.class, Dia.class));
+    }
+
+    private TimelineService timelineService(String storePath) {
+        return new TimelineService(studentService, gradeService, objectMapper, meterRegistry, 100, storePath);
+    }
+
+    private static LmdDecisionReport decision(double average, String decision, double credits, boolean complete) {
+        return LmdDecisionReport.builder()
+                .annualAverage(average)
+                .status(average >= 10 ? "ACQUIRED" : "NOT_ACQUIRED")
+                .decision(decision)
+                .credits(credits)
+                .totalCredits(60)
+                .complete(complete)
+                .periods(List.of(LmdDecisionReport.Period.builder()
+                        .label("Semestre 1")
+                        .average(average)
+                        .credits(credits)
+                        .totalCredits(30)
+                        .build()))
+                .build();
+    }
+
+    private double years(String source) {
+        return meterRegistry.get("grades.timeline.years").tag("source", source).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Timeline")
+    class Timeline {
+
+        @Test
+        @DisplayName("should list every registration from the oldest year with its decision")
+        void shouldMergeYears() {
+            AcademicTimeline timeline = timelineService.getTimeline("uuid", "token");
+
+            assertThat(timeline.getYears())
+                    .extracting(AcademicTimeline.Year::getCardId, AcademicTimeline.Year::getLevel,
+                            AcademicTimeline.Year::getDecision, AcademicTimeline.Year::isCurrent)
+                    .containsExactly(
+                            tuple("41", "Licence 1", "ADMITTED", false),
+                            tuple("42", "Licence 2", "ADJOURNED", true));
+            assertThat(timeline.getYears().get(0).getField()).isEqualTo("Informatique");
+            assertThat(timeline.getYears().get(0).getPeriods()).extracting(AcademicTimeline.Period::getAverage)
+                    .containsExactly(12.5);
+            assertThat(timeline.getCredits()).isEqualTo(80.0);
+        }
+
+        @Test
+        @DisplayName("should count the credits of a repeated level once")
+        void shouldCountRepeatedLevelOnce() {
+            List<Dia> dias = objectMapper.convertValue(List.of(
+                    Map.of("id", 43, "anneeAcademiqueCode", "2025", "refLibelleNiveau", "Licence 2"),
+                    Map.of("id", 42, "anneeAcademiqueCode", "2024", "refLibelleNiveau", "Licence 1"),
+                    Map.of("id", 41, "anneeAcademiqueCode", "2023", "refLibelleNiveau", "Licence 1")),
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, Dia.class));
+            when(studentService.getDias("uuid", "token")).thenReturn(dias);
+            when(gradeService.getDecision(eq("uuid"), eq("41"), eq("token"), any()))
+                    .thenReturn(decision(8.0, "ADJOURNED", 40, true));
+            when(gradeService.getDecision(eq("uuid"), eq("42"), eq("token"), any()))
+                    .thenReturn(decision(11.0, "ADMITTED", 60, true));
+            when(gradeService.getDecision(eq("uuid"), eq("43"), eq("token"), any()))
+                    .thenReturn(decision(12.0, "ADMITTED", 25, false));
+
+            AcademicTimeline timeline = timelineService.getTimeline("uuid", "token");
+
+            assertThat(timeline.getYears()).hasSize(3);
+            assertThat(timeline.getCredits()).isEqualTo(85.0);
+        }
+
+        @Test
+        @DisplayName("should reuse a complete past year and recompute only the current one")
+        void shouldRecomputeOnlyCurrentYear() {
+            timelineService.getTimeline("uuid", "token");
+            AcademicTimeline second = timelineService.getTimeline("uuid", "token");
+
+            assertThat(second.getYears().get(0).getAnnualAverage()).isEqualTo(12.5);
+            verify(gradeService, times(1)).getDecision(eq("uuid"), eq("41"), eq("token"), any());
+            verify(gradeService, times(2)).getDecision(eq("uuid"), eq("42"), eq("token"), any());
+            assertThat(years("stored")).isEqualTo(1);
+            assertThat(years("computed")).isEqualTo(3);
+            assertThat(timelineService.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should keep recomputing a past year until its grades are complete")
+        void shouldNotStoreIncompleteYears() {
+            when(gradeService.getDecision(eq("uuid"), eq("41"), eq("token"), any()))
+                    .thenReturn(decision(12.5, "ADMITTED", 50, false));
+
+            timelineService.getTimeline("uuid", "token");
+            timelineService.getTimeline("uuid", "token");
+
+            verify(gradeService, times(2)).getDecision(eq("uuid"), eq("41"), eq("token"), any());
+            assertThat(timelineService.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("should list a year whose grades cannot be fetched without storing it")
+        void shouldTolerateMissingYears() {
+            when(gradeService.getDecision(eq("uuid"), eq("41"), eq("token"), any()))
+                    .thenThrow(new ApiException("Failed to fetch exam data", HttpStatus.BAD_GATEWAY));
+
+            AcademicTimeline timeline = timelineService.getTimeline("uuid", "token");
+
+            AcademicTimeline.Year year = timeline.getYears().get(0);
+            assertThat(year.getAcademicYear()).isEqualTo("2023");
+            assertThat(year.getDecision()).isNull();
+            assertThat(year.getPeriods()).isEmpty();
+            assertThat(timeline.getCredits()).isEqualTo(20.0);
+            assertThat(timelineService.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("should not serve a stored year to another student")
+        void shouldNotShareAcrossStudents() {
+            timelineService.getTimeline("uuid", "token");
+            when(studentService.getDias("intruder", "other")).thenReturn(dias());
+            when(gradeService.getDecision(eq("intruder"), any(), eq("other"), any()))
+                    .thenReturn(decision(15.0, "ADMITTED", 60, true));
+
+            timelineService.getTimeline("intruder", "other");
+
+            verify(gradeService).getDecision(eq("intruder"), eq("41"), eq("other"), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Persistence")
+    class Persistence {
+
+        @TempDir
+        Path dir;
+
+        @Test
+        @DisplayName("should reload stored years in a new instance")
+        void shouldReloadFlushedYears() {
+            Path file = dir.resolve("timeline/store.json");
+            timelineService = timelineService(file.toString());
+            timelineService.getTimeline("uuid", "token");
+            timelineService.flush();
+
+            TimelineService reloaded = timelineService(file.toString());
+            reloaded.load();
+            AcademicTimeline timeline = reloaded.getTimeline("uuid", "token");
+
+            assertThat(reloaded.size()).isEqualTo(1);
+            assertThat(timeline.getYears().get(0).getDecision()).isEqualTo("ADMITTED");
+            verify(gradeService, times(1)).getDecision(eq("uuid"), eq("41"), eq("token"), any());
+        }
+
+        @Test
+        @DisplayName("should start empty when the store cannot be read")
+        void shouldIgnoreUnreadableStore() throws Exception {
+            Path file = dir.resolve("store.json");
+            Files.writeString(file, "not json");
+
+            TimelineService reloaded = timelineService(file.toString());
+            reloaded.load();
+
+            assertThat(reloaded.size()).isZero();
+            verify(gradeService, never()).getDecision(any(), any(), any(), any());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.progress.api.service;
+
+import com.progress.api.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TokenQuotaLedger Tests")
+class TokenQuotaLedgerTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private SimpleMeterRegistry meterRegistry;
+    private TokenQuotaLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledger = new TokenQuotaLedger(meterRegistry, 10_000, 100, now::get);
+    }
+
+    @Nested
+    @DisplayName("Sliding window")
+    class SlidingWindow {
+
+        @Test
+        @DisplayName("should add prompt and completion tokens within the window")
+        void shouldAccumulate() {
+            ledger.record("uuid", 1200, 300);
+            now.addAndGet(5 * HOUR_MS);
+            ledger.record("uuid", 800, 200);
+
+            assertThat(ledger.used("uuid")).isEqualTo(2500);
+            assertThat(ledger.remaining("uuid")).isEqualTo(7500);
+            assertThat(ledger.used("other")).isZero();
+        }
+
+        @Test
+        @DisplayName("should forget hours that slid out of the last 24")
+        void shouldSlide() {
+            ledger.record("uuid", 1000, 0);
+            now.addAndGet(12 * HOUR_MS);
+            ledger.record("uuid", 2000, 0);
+
+            now.addAndGet(12 * HOUR_MS);
+            assertThat(ledger.used("uuid")).isEqualTo(2000);
+
+            now.addAndGet(12 * HOUR_MS);
+            assertThat(ledger.used("uuid")).isZero();
+        }
+
+        @Test
+        @DisplayName("should reset a slot when its hour comes around again")
+        void shouldReuseSlots() {
+            ledger.record("uuid", 1000, 0);
+            now.addAndGet(24 * HOUR_MS);
+            ledger.record("uuid", 50, 0);
+
+            assertThat(ledger.used("uuid")).isEqualTo(50);
+        }
+
+        @Test
+        @DisplayName("should not lose tokens recorded concurrently")
+        void shouldCountConcurrently() throws Exception {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        ledger.record("uuid", 1, 1);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertThat(ledger.used("uuid")).isEqualTo(16_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("Enforcement")
+    class Enforcement {
+
+        @Test
+        @DisplayName("should refuse students who used their allowance with 429")
+        void shouldRefuseOverQuota() {
+            ledger.record("uuid", 9000, 1000);
+
+            assertThatThrownBy(() -> ledger.check("uuid"))
+                    .isInstanceOf(ApiException.class)
+                    .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+            assertThat(meterRegistry.get("groq.quota.rejected").counter().count()).isEqualTo(1);
+            assertThatCode(() -> ledger.check("other")).doesNotThrowAnyException();
+
+            now.addAndGet(24 * HOUR_MS);
+            assertThatCode(() -> ledger.check("uuid")).doesNotThrowAnyException();
+        }
+
+        @Test
+        @DisplayName("should never refuse calls made for no student")
+        void shouldAllowAnonymous() {
+            assertThatCode(() -> ledger.check(null)).doesNotThrowAnyException();
+            ledger.record(null, 50_000, 0);
+            assertThat(ledger.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("should not limit when the allowance is disabled")
+        void shouldAllowWhenDisabled() {
+            TokenQuotaLedger unlimited = new TokenQuotaLedger(meterRegistry, 0, 100, now::get);
+            unlimited.record("uuid", 50_000, 0);
+
+            assertThatCode(() -> unlimited.check("uuid")).doesNotThrowAnyException();
+        }
+    }
+
+    @Nested
+    @DisplayName("Memory bounds")
+    class MemoryBounds {
+
+        @Test
+        @DisplayName("should evict the least recently active students when full")
+        void shouldEvict() {
+            TokenQuotaLedger small = new TokenQuotaLedger(meterRegistry, 10_000, 2, now::get);
+            small.record("first", 10, 0);
+            now.addAndGet(HOUR_MS);
+            small.record("second", 10, 0);
+            now.addAndGet(HOUR_MS);
+            small.record("third", 10, 0);
+
+            assertThat(small.size()).isEqualTo(2);
+            assertThat(small.used("first")).isZero();
+            assertThat(small.used("third")).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("should evict idle students before any with usage in the window")
+        void shouldEvictIdleFirst() {
+            TokenQuotaLedger small = new TokenQuotaLedger(meterRegistry, 10_000, 2, now::get);
+            small.record("idle", 10, 0);
+            now.addAndGet(TokenQuotaLedger.WINDOW_HOURS * HOUR_MS);
+            small.record("active", 10, 0);
+            now.addAndGet(HOUR_MS);
+            small.record("newest", 10, 0);
+
+            assertThat(small.size()).isEqualTo(2);
+            assertThat(small.used("active")).isEqualTo(10);
+            assertThat(small.used("newest")).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("should drop students idle for a full window")
+        void shouldCleanupIdle() {
+            ledger.record("idle", 10, 0);
+            now.addAndGet(20 * HOUR_MS);
+            ledger.record("active", 10, 0);
+            now.addAndGet(5 * HOUR_MS);
+
+            ledger.cleanupIdleStudents();
+
+            assertThat(ledger.size()).isEqualTo(1);
+            assertThat(ledger.used("active")).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("should publish charged tokens and tracked students")
+        void shouldPublishMetrics() {
+            ledger.record("uuid", 700, 300);
+
+            assertThat(meterRegistry.get("groq.quota.tokens").tag("type", "prompt").counter().count()).isEqualTo(700);
+            assertThat(meterRegistry.get("groq.quota.usage").summary().max()).isEqualTo(1000);
+            assertThat(meterRegistry.get("groq.quota.students").gauge().value()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.progress.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("UniversityNameMatcher Tests")
+class UniversityNameMatcherTest {
+
+    private UniversityNameMatcher matcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Map<String, List<String>> aliases = new LinkedHashMap<>();
+        for (String name : loadUniversityNames()) {
+            aliases.put(UniversityNameMatcher.normalize(name), List.of());
+        }
+        aliases.put("universite_des_sciences_et_de_la_technologie_houari_boumediene_alger",
+                List.of("USTHB", "Université Houari Boumediene"));
+        matcher = new UniversityNameMatcher(aliases);
+    }
+
+    static List<String> loadUniversityNames() throws IOException {
+        try (InputStream is = UniversityNameMatcherTest.class.getResourceAsStream("/data/algerian-universities.txt")) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank())
+                    .toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Normalization")
+    class Normalization {
+
+        @Test
+        @DisplayName("should produce the structure file key format")
+        void shouldProduceKeyFormat() {
+            assertThat(UniversityNameMatcher.normalize("Université des Sciences et de la Technologie Houari Boumediène Alger"))
+                    .isEqualTo("universite_des_sciences_et_de_la_technologie_houari_boumediene_alger");
+        }
+
+        @Test
+        @DisplayName("should drop punctuation and collapse whitespace")
+        void shouldDropPunctuation() {
+            assertThat(UniversityNameMatcher.normalize("  Université d'Oran 1 —  Ahmed Ben-Bella "))
+                    .isEqualTo("universite_doran_1_ahmed_benbella");
+        }
+
+        @Test
+        @DisplayName("should return null for blank names")
+        void shouldReturnNullForBlank() {
+            assertThat(UniversityNameMatcher.normalize("  ")).isNull();
+            assertThat(UniversityNameMatcher.normalize(null)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Matching")
+    class Matching {
+
+        @Test
+        @DisplayName("should match keys and aliases exactly")
+        void shouldMatchExactly() {
+            UniversityNameMatcher.Match match = matcher.match("usthb");
+
+            assertThat(match.key()).isEqualTo("universite_des_sciences_et_de_la_technologie_houari_boumediene_alger");
+            assertThat(match.score()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("should match names that differ slightly from the key")
+        void shouldMatchFuzzily() {
+            UniversityNameMatcher.Match match = matcher.match("Universite Mouloud Mammeri Tizi-Ouzou");
+
+            assertThat(match.key()).isEqualTo("universite_mouloud_mammeri_de_tizi_ouzou");
+            assertThat(match.score()).isBetween(UniversityNameMatcher.DEFAULT_MIN_SCORE, 1.0);
+        }
+
+        @Test
+        @DisplayName("should tell numbered universities of the same city apart")
+        void shouldDistinguishNumberedUniversities() {
+            assertThat(matcher.match("Université d'Oran 2 Mohamed Ben Ahmed").key())
+                    .isEqualTo("universite_doran_2_mohamed_ben_ahmed");
+            assertThat(matcher.match("Universite Frères Mentouri Constantine").key())
+                    .isEqualTo("universite_freres_mentouri_constantine_1");
+        }
+
+        @Test
+        @DisplayName("should return null when nothing is close enough")
+        void shouldReturnNullBelowThreshold() {
+            assertThat(matcher.match("École Nationale Polytechnique")).isNull();
+        }
+    }
+}